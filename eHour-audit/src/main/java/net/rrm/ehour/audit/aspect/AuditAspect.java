@@ -28,15 +28,17 @@ import net.rrm.ehour.domain.User;
 import net.rrm.ehour.ui.common.session.EhourWebSession;
 import org.apache.wicket.RequestCycle;
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.lang.annotation.Annotation;
-import java.util.Calendar;
 import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Auditable Aspect
@@ -45,6 +47,15 @@ import java.util.Date;
 @Component
 public class AuditAspect
 {
+	private static final int MAX_PARAMETERS_LENGTH = 1024;
+
+	// the configuration is read from the database, changes to the audit type take effect within this time
+	private static final long AUDIT_TYPE_TTL = 5000;
+	
+	private final ConcurrentMap<Object, AuditDecision> decisions = new ConcurrentHashMap<Object, AuditDecision>();
+	
+	private volatile ConfiguredAuditType configuredAuditType;
+	
 	@Autowired
 	private AuditService	auditService;
 	
@@ -130,9 +141,14 @@ public class AuditAspect
 	 */
 	private Object doAudit(ProceedingJoinPoint pjp, AuditActionType auditActionType) throws Throwable
 	{
-		Object returnObject;
+		AuditDecision decision = getDecision(pjp, auditActionType);
 		
-		boolean isAuditable = isAuditable(pjp) && isAuditEnabled(auditActionType);
+		if (!decision.auditable || !isAuditEnabled(decision.actionType))
+		{
+			return pjp.proceed();
+		}
+		
+		Object returnObject;
 
 		User user = getUser();
 		
@@ -142,70 +158,85 @@ public class AuditAspect
 		}
 		catch (Exception t)
 		{
-			if (isAuditable)
-			{
-				auditService.doAudit(createAudit(user, Boolean.FALSE, auditActionType, pjp));
-			}
+			auditService.doAudit(createAudit(user, Boolean.FALSE, decision, pjp));
 			
 			throw t;
 		}
 		
-		if (isAuditable)
+		auditService.doAudit(createAudit(user, Boolean.TRUE, decision, pjp));
+		
+		return returnObject;		
+	}
+	
+	/**
+	 * Get the cached decision for the advised method, an advised method is always advised with the same action type
+	 * @param pjp
+	 * @param auditActionType
+	 * @return
+	 */
+	private AuditDecision getDecision(ProceedingJoinPoint pjp, AuditActionType auditActionType)
+	{
+		Signature signature = pjp.getSignature();
+		Object key = (signature instanceof MethodSignature) ? ((MethodSignature)signature).getMethod() : signature.toLongString();
+		
+		AuditDecision decision = decisions.get(key);
+		
+		if (decision == null)
 		{
-			auditService.doAudit(createAudit(user, Boolean.TRUE, auditActionType, pjp));
+			decision = new AuditDecision(isAuditable(signature), auditActionType, signature.toShortString());
+			decisions.putIfAbsent(key, decision);
 		}
 		
-//		LOGGER.debug("exiting audit");
-		
-		return returnObject;		
+		return decision;
 	}
 	
 	/**
-	 * Is audit type enabled
+	 * Is audit type enabled. The configured audit type is looked up at most once every few seconds
 	 * @param actionType
 	 * @return
 	 */
 	private boolean isAuditEnabled(AuditActionType actionType)
 	{
-		EhourConfig config = configurationService.getConfiguration();
+		AuditType auditType = getConfiguredAuditType();
 
-		if (config.getAuditType() == AuditType.NONE)
+		if (auditType == AuditType.NONE)
 		{
 			return false;
 		}
 		
-		if (config.getAuditType() == AuditType.WRITE &&
-				actionType.getAuditType() == config.getAuditType())
+		if (auditType == AuditType.WRITE &&
+				actionType.getAuditType() == auditType)
 		{
 			return true;
 		}
 
-        return config.getAuditType() == AuditType.ALL;
+        return auditType == AuditType.ALL;
 
     }
 	
-	/**
-	 * Check if type is annotated with NonAuditable annotation
-	 * @param pjp
-	 * @return
-	 */
-	private boolean isAuditable(ProceedingJoinPoint pjp)
+	private AuditType getConfiguredAuditType()
 	{
-		Annotation[] annotations = pjp.getSignature().getDeclaringType().getAnnotations();
-
-		boolean nonAuditable = false;
+		ConfiguredAuditType configured = configuredAuditType;
+		long now = System.currentTimeMillis();
 		
-		for (Annotation annotation : annotations)
+		if (configured == null || configured.expires < now)
 		{
-			nonAuditable = annotation.annotationType() == NonAuditable.class;
-			
-			if (nonAuditable)
-			{
-				break;
-			}
+			EhourConfig config = configurationService.getConfiguration();
+			configured = new ConfiguredAuditType(config.getAuditType(), now + AUDIT_TYPE_TTL);
+			configuredAuditType = configured;
 		}
 		
-		return !nonAuditable;
+		return configured.auditType;
+	}
+	
+	/**
+	 * Check if type is annotated with NonAuditable annotation
+	 * @param signature
+	 * @return
+	 */
+	private boolean isAuditable(Signature signature)
+	{
+		return !signature.getDeclaringType().isAnnotationPresent(NonAuditable.class);
 	}
 	
 	/**
@@ -232,13 +263,13 @@ public class AuditAspect
 	 * 
 	 * @param user
 	 * @param success
-	 * @param action
+	 * @param decision
 	 * @param pjp
 	 * @return
 	 */
-	private Audit createAudit(User user, Boolean success, AuditActionType auditActionType, ProceedingJoinPoint pjp)
+	private Audit createAudit(User user, Boolean success, AuditDecision decision, ProceedingJoinPoint pjp)
 	{
-		String parameters = getAuditParameters(pjp);
+		String parameters = AuditParameterWriter.write(pjp.getArgs(), MAX_PARAMETERS_LENGTH);
 		
 		String page = null;
 		
@@ -252,47 +283,39 @@ public class AuditAspect
 				.setUserFullName(user != null ? user.getFullName() : null)
 				.setDate(new Date())
 				.setSuccess(success)
-				.setAction(pjp.getSignature().toShortString())
-				.setAuditActionType(auditActionType)
+				.setAction(decision.action)
+				.setAuditActionType(decision.actionType)
 				.setParameters(parameters)
 				.setPage(page)
 				;
 	}
-	
-	/**
-	 * Get parameters of advised method
-	 * @param pjp
-	 * @return
-	 */
-	private String getAuditParameters(ProceedingJoinPoint pjp)
+
+	private static class AuditDecision
 	{
-		StringBuilder parameters = new StringBuilder();
+		private final boolean auditable;
+		private final AuditActionType actionType;
+		private final String action;
 		
-		int i = 0;
-		
-		for (Object object : pjp.getArgs())
+		AuditDecision(boolean auditable, AuditActionType actionType, String action)
 		{
-			parameters.append(i++ + ":");
+			this.auditable = auditable;
+			this.actionType = actionType;
+			this.action = action;
+		}
+	}
 	
-			if (object == null)
-			{
-				parameters.append("null");
-			} else if (object instanceof Calendar)
-			{
-				parameters.append(((Calendar)object).getTime().toString());
-			}
-			else
-			{
-				parameters.append(object.toString());
-			}
-		}		
-		
-		
+	private static class ConfiguredAuditType
+	{
+		private final AuditType auditType;
+		private final long expires;
 		
-		return parameters.length() > 1024 ? parameters.substring(0, 1023) : parameters.toString();
+		ConfiguredAuditType(AuditType auditType, long expires)
+		{
+			this.auditType = auditType;
+			this.expires = expires;
+		}
 	}
 
-	
 	/**
 	 * @param auditService the auditService to set
 	 */
@@ -0,0 +1,142 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.audit.aspect;
+
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Writes the parameters of an advised method for the audit log. Stops as soon as the
+ * maximum length is reached, collections and arrays are only iterated as far as they fit.
+ **/
+final class AuditParameterWriter
+{
+	private final StringBuilder parameters;
+	private final int maxLength;
+
+	private AuditParameterWriter(int maxLength)
+	{
+		this.maxLength = maxLength;
+		parameters = new StringBuilder(Math.min(maxLength, 128));
+	}
+
+	/**
+	 * 
+	 * @param args
+	 * @param maxLength
+	 * @return <code>index:value</code> for every argument, at most maxLength characters
+	 */
+	static String write(Object[] args, int maxLength)
+	{
+		AuditParameterWriter writer = new AuditParameterWriter(maxLength);
+		
+		for (int i = 0; i < args.length && !writer.isFull(); i++)
+		{
+			writer.append(i + ":");
+			writer.writeValue(args[i]);
+		}
+		
+		return writer.parameters.toString();
+	}
+	
+	private void writeValue(Object value)
+	{
+		if (value == null)
+		{
+			append("null");
+		} else if (value instanceof Calendar)
+		{
+			append(((Calendar)value).getTime().toString());
+		} else if (value instanceof Collection)
+		{
+			writeElements(((Collection<?>)value).iterator());
+		} else if (value instanceof Object[])
+		{
+			writeElements(new ArrayIterator((Object[])value));
+		}
+		else
+		{
+			append(value.toString());
+		}
+	}
+	
+	/**
+	 * Same format as AbstractCollection.toString()
+	 * @param elements
+	 */
+	private void writeElements(Iterator<?> elements)
+	{
+		append("[");
+		
+		boolean first = true;
+		
+		while (elements.hasNext() && !isFull())
+		{
+			if (!first)
+			{
+				append(", ");
+			}
+
+			writeValue(elements.next());
+			first = false;
+		}
+		
+		append("]");
+	}
+	
+	private void append(String text)
+	{
+		int room = maxLength - parameters.length();
+		
+		if (room > 0)
+		{
+			parameters.append(text, 0, Math.min(room, text.length()));
+		}
+	}
+	
+	private boolean isFull()
+	{
+		return parameters.length() >= maxLength;
+	}
+	
+	private static class ArrayIterator implements Iterator<Object>
+	{
+		private final Object[] array;
+		private int index;
+		
+		ArrayIterator(Object[] array)
+		{
+			this.array = array;
+		}
+		
+		public boolean hasNext()
+		{
+			return index < array.length;
+		}
+
+		public Object next()
+		{
+			return array[index++];
+		}
+
+		public void remove()
+		{
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.audit.aspect;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+import org.junit.Test;
+
+public class AuditParameterWriterTest
+{
+	@Test
+	public void shouldWriteIndexedParameters()
+	{
+		GregorianCalendar calendar = new GregorianCalendar(2011, 0, 1);
+		
+		String parameters = AuditParameterWriter.write(new Object[]{"a", null, calendar, Arrays.asList(1, 2)}, 1024);
+		
+		assertEquals("0:a1:null2:" + calendar.getTime() + "3:[1, 2]", parameters);
+	}
+
+	@Test
+	public void shouldWriteArrayElements()
+	{
+		assertEquals("0:[x, y]", AuditParameterWriter.write(new Object[]{new String[]{"x", "y"}}, 1024));
+	}
+	
+	@Test
+	public void shouldStopIteratingAtMaxLength()
+	{
+		final int[] read = new int[1];
+		
+		List<String> entries = new AbstractList<String>()
+		{
+			@Override
+			public String get(int index)
+			{
+				read[0]++;
+				return "entry" + index;
+			}
+
+			@Override
+			public int size()
+			{
+				return 100000;
+			}
+		};
+		
+		String parameters = AuditParameterWriter.write(new Object[]{entries, "next"}, 64);
+		
+		assertEquals(64, parameters.length());
+		assertEquals("0:[entry0, entry1", parameters.substring(0, 17));
+		assertEquals(true, read[0] < 10);
+	}
+}
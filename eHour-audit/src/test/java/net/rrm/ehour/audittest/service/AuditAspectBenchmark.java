@@ -0,0 +1,132 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.audittest.service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.rrm.ehour.audit.aspect.AuditAspect;
+import net.rrm.ehour.config.EhourConfigStub;
+import net.rrm.ehour.domain.AuditType;
+import net.rrm.ehour.domain.ProjectAssignment;
+import net.rrm.ehour.domain.TimesheetEntry;
+import net.rrm.ehour.domain.TimesheetEntryId;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+/**
+ * Overhead of the AuditAspect on an advised service call, per configured audit type.
+ * A week of timesheet entries is passed as parameter like the timesheet service does.
+ * Not a unit test, run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=...AuditAspectBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuditAspectBenchmark
+{
+	private static final int ENTRIES = 7 * 40;
+
+	@Param({"NONE", "WRITE", "ALL"})
+	private AuditType auditType;
+
+	private List<TimesheetEntry> entries;
+
+	private MockService service;
+	private MockService advisedService;
+
+	@Setup
+	public void setUp()
+	{
+		entries = new ArrayList<TimesheetEntry>(ENTRIES);
+
+		for (int i = 0; i < ENTRIES; i++)
+		{
+			ProjectAssignment assignment = new ProjectAssignment();
+			assignment.setAssignmentId(i);
+
+			TimesheetEntry entry = new TimesheetEntry();
+			entry.setEntryId(new TimesheetEntryId(new Date(), assignment));
+			entry.setHours(8f);
+			entry.setComment("comment " + i);
+			entries.add(entry);
+		}
+
+		AuditAspect aspect = new AuditAspect();
+		aspect.setAuditService(new MockAuditImpl());
+		aspect.setConfigurationService(new MockConfigService()
+		{
+			@Override
+			public EhourConfigStub getConfiguration()
+			{
+				EhourConfigStub config = new EhourConfigStub();
+				config.setAuditType(auditType);
+				return config;
+			}
+		});
+
+		service = new MockService();
+
+		AspectJProxyFactory proxyFactory = new AspectJProxyFactory(service);
+		proxyFactory.setProxyTargetClass(true);
+		proxyFactory.addAspect(aspect);
+		advisedService = proxyFactory.getProxy();
+	}
+
+	@Benchmark
+	public Object unadvisedGet()
+	{
+		return service.getEntries(entries);
+	}
+
+	@Benchmark
+	public Object advisedGet()
+	{
+		return advisedService.getEntries(entries);
+	}
+
+	@Benchmark
+	public void advisedPersist()
+	{
+		advisedService.persistEntries(entries);
+	}
+
+	public static void main(String[] args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder()
+				.include(AuditAspectBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
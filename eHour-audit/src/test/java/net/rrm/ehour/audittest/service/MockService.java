@@ -16,6 +16,8 @@
 
 package net.rrm.ehour.audittest.service;
 
+import java.util.List;
+
 import net.rrm.ehour.audit.annot.Auditable;
 import net.rrm.ehour.audit.annot.NonAuditable;
 import net.rrm.ehour.domain.AuditActionType;
@@ -58,4 +60,14 @@ public class MockService
 		
 	}	
 
+	public List<?> getEntries(List<?> entries)
+	{
+		return entries;
+	}
+
+	public void persistEntries(List<?> entries)
+	{
+		
+	}
+
 }
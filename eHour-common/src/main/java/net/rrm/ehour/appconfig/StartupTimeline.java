@@ -0,0 +1,133 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.appconfig;
+
+import org.apache.log4j.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records how long each phase of the startup takes. The standalone server and the web application
+ * share a classloader so their phases end up in one timeline, logged once the server accepts requests.
+ */
+public final class StartupTimeline
+{
+    private static final Logger LOGGER = Logger.getLogger(StartupTimeline.class);
+
+    private static final List<Phase> PHASES = new CopyOnWriteArrayList<Phase>();
+
+    private StartupTimeline()
+    {
+    }
+
+    public static Phase start(String name)
+    {
+        Phase phase = new Phase(name);
+        PHASES.add(phase);
+        return phase;
+    }
+
+    public static List<Phase> getPhases()
+    {
+        return new ArrayList<Phase>(PHASES);
+    }
+
+    /**
+     * Phases in the order they started with their offset from the JVM start and their duration
+     */
+    public static String report()
+    {
+        StringBuilder report = new StringBuilder("Startup timeline (offset from JVM start, duration):");
+
+        for (Phase phase : PHASES)
+        {
+            report.append(String.format("%n  +%6d ms %8s  %s [%s]",
+                    phase.getOffset(),
+                    phase.isEnded() ? phase.getDuration() + " ms" : "running",
+                    phase.getName(),
+                    phase.getThreadName()));
+        }
+
+        report.append(String.format("%n  Total %d ms", sinceJvmStart()));
+
+        return report.toString();
+    }
+
+    private static long sinceJvmStart()
+    {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+
+    public static final class Phase
+    {
+        private final String name;
+        private final String threadName;
+        private final long offset;
+        private final long start;
+        private volatile long duration = -1;
+
+        private Phase(String name)
+        {
+            this.name = name;
+            this.threadName = Thread.currentThread().getName();
+            this.offset = sinceJvmStart();
+            this.start = System.nanoTime();
+        }
+
+        /**
+         * End the phase, only the first call counts
+         */
+        public void end()
+        {
+            if (duration < 0)
+            {
+                duration = (System.nanoTime() - start) / 1000000;
+
+                LOGGER.info(String.format("Startup phase '%s' took %d ms", name, duration));
+            }
+        }
+
+        public boolean isEnded()
+        {
+            return duration >= 0;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public String getThreadName()
+        {
+            return threadName;
+        }
+
+        public long getOffset()
+        {
+            return offset;
+        }
+
+        public long getDuration()
+        {
+            return duration;
+        }
+    }
+}
@@ -66,6 +66,10 @@ public class Audit extends DomainObject<Number, Audit>
     @Enumerated(EnumType.STRING)
     @Column(name = "AUDIT_ACTION_TYPE", length = 32)
 	private AuditActionType auditActionType;
+
+    // number of identical events this row stands for
+    @Column(name = "AUDIT_COUNT")
+	private Integer count = 1;
 	
 	public String toString()
 	{
@@ -163,6 +167,17 @@ public class Audit extends DomainObject<Number, Audit>
 		return this;
 	}
 
+	public int getCount()
+	{
+		return count == null ? 1 : count;
+	}
+
+	public Audit setCount(int count)
+	{
+		this.count = count;
+		return this;
+	}
+
 	public Audit setAction(String action)
 	{
 		this.action = action;
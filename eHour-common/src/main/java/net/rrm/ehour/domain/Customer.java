@@ -20,8 +20,11 @@ import org.apache.commons.lang.builder.CompareToBuilder;
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.commons.lang.builder.ToStringBuilder;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.FetchMode;
+import org.hibernate.annotations.FetchProfile;
 import org.hibernate.annotations.Type;
 
 import javax.persistence.*;
@@ -31,6 +34,9 @@ import java.util.Set;
 
 @Entity
 @Table(name = "CUSTOMER")
+@FetchProfile(name = DomainFetchProfiles.REPORT_CRITERIA, fetchOverrides = {
+        @FetchProfile.FetchOverride(entity = Customer.class, association = "projects", mode = FetchMode.JOIN)
+})
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 public class Customer extends DomainObject<Integer, Customer>
 {
@@ -57,6 +63,7 @@ public class Customer extends DomainObject<Integer, Customer>
 	private Boolean active = Boolean.TRUE;
 
     @OneToMany(cascade = {CascadeType.MERGE, CascadeType.PERSIST, CascadeType.REMOVE}, mappedBy = "customer")
+    @BatchSize(size = 25)
 	private	Set<Project>		projects;
 
     @Transient
@@ -0,0 +1,49 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.domain;
+
+/**
+ * Names of the Hibernate fetch profiles declared on the domain objects. A profile only applies
+ * when enabled on the session, it join fetches the associations a use case needs on
+ * get/load and criteria queries. Other lazy associations are batch fetched.
+ */
+public final class DomainFetchProfiles
+{
+    /**
+     * Project assignments with their project, customer and assignment type
+     */
+    public static final String TIMESHEET_WEEK = "timesheet-week";
+
+    /**
+     * Customers with their projects
+     */
+    public static final String REPORT_CRITERIA = "report-criteria";
+
+    /**
+     * Project with its customer, project manager and assignments
+     */
+    public static final String PROJECT_ADMIN = "project-admin";
+
+    /**
+     * User with department and assignments
+     */
+    public static final String USER_ADMIN = "user-admin";
+
+    private DomainFetchProfiles()
+    {
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.domain;
+
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+
+/**
+ * Mail waiting to be sent. Rows are written in the transaction which caused the mail
+ * and removed by the outbox dispatcher once the mail is sent or given up on.
+ */
+@Entity
+@Table(name = "MAIL_OUTBOX")
+public class MailOutbox extends DomainObject<Integer, MailOutbox>
+{
+    private static final long serialVersionUID = 5120387739268463172L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "MAIL_OUTBOX_ID")
+    private Integer outboxId;
+
+    /**
+     * Mails without a type are sent but not written to the mail log
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "MAIL_TYPE_ID", nullable = true)
+    private MailType mailType;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "TO_USER_ID", nullable = true)
+    private User toUser;
+
+    @Column(name = "RECIPIENT", nullable = false, length = 255)
+    @NotNull
+    private String recipient;
+
+    @Column(name = "FROM_ADDRESS", length = 255)
+    private String fromAddress;
+
+    @Column(name = "SUBJECT", length = 255)
+    private String subject;
+
+    @Column(name = "BODY", length = 4000)
+    private String body;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "PROJECT_ASSIGNMENT_ID", nullable = true)
+    private ProjectAssignment projectAssignment;
+
+    @Column(name = "BOOKED_HOURS")
+    private Float bookedHours;
+
+    @Column(name = "BOOK_DATE")
+    private Date bookDate;
+
+    @Column(name = "CREATED", nullable = false)
+    @NotNull
+    private Date created;
+
+    @Column(name = "NEXT_ATTEMPT", nullable = false)
+    @NotNull
+    private Date nextAttempt;
+
+    @Column(name = "ATTEMPTS", nullable = false)
+    @NotNull
+    private Integer attempts = 0;
+
+    @Column(name = "LAST_ERROR", length = 255)
+    private String lastError;
+
+    public MailOutbox()
+    {
+    }
+
+    public MailOutbox(MailType mailType, User toUser, String recipient, String fromAddress, String subject, String body)
+    {
+        this.mailType = mailType;
+        this.toUser = toUser;
+        this.recipient = recipient;
+        this.fromAddress = fromAddress;
+        this.subject = subject;
+        this.body = body;
+        this.created = new Date();
+        this.nextAttempt = created;
+    }
+
+    public Integer getOutboxId()
+    {
+        return outboxId;
+    }
+
+    public void setOutboxId(Integer outboxId)
+    {
+        this.outboxId = outboxId;
+    }
+
+    public MailType getMailType()
+    {
+        return mailType;
+    }
+
+    public void setMailType(MailType mailType)
+    {
+        this.mailType = mailType;
+    }
+
+    public User getToUser()
+    {
+        return toUser;
+    }
+
+    public void setToUser(User toUser)
+    {
+        this.toUser = toUser;
+    }
+
+    public String getRecipient()
+    {
+        return recipient;
+    }
+
+    public void setRecipient(String recipient)
+    {
+        this.recipient = recipient;
+    }
+
+    public String getFromAddress()
+    {
+        return fromAddress;
+    }
+
+    public void setFromAddress(String fromAddress)
+    {
+        this.fromAddress = fromAddress;
+    }
+
+    public String getSubject()
+    {
+        return subject;
+    }
+
+    public void setSubject(String subject)
+    {
+        this.subject = subject;
+    }
+
+    public String getBody()
+    {
+        return body;
+    }
+
+    public void setBody(String body)
+    {
+        this.body = body;
+    }
+
+    public ProjectAssignment getProjectAssignment()
+    {
+        return projectAssignment;
+    }
+
+    public void setProjectAssignment(ProjectAssignment projectAssignment)
+    {
+        this.projectAssignment = projectAssignment;
+    }
+
+    public Float getBookedHours()
+    {
+        return bookedHours;
+    }
+
+    public void setBookedHours(Float bookedHours)
+    {
+        this.bookedHours = bookedHours;
+    }
+
+    public Date getBookDate()
+    {
+        return bookDate;
+    }
+
+    public void setBookDate(Date bookDate)
+    {
+        this.bookDate = bookDate;
+    }
+
+    public Date getCreated()
+    {
+        return created;
+    }
+
+    public void setCreated(Date created)
+    {
+        this.created = created;
+    }
+
+    public Date getNextAttempt()
+    {
+        return nextAttempt;
+    }
+
+    public void setNextAttempt(Date nextAttempt)
+    {
+        this.nextAttempt = nextAttempt;
+    }
+
+    public Integer getAttempts()
+    {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts)
+    {
+        this.attempts = attempts;
+    }
+
+    public String getLastError()
+    {
+        return lastError;
+    }
+
+    public void setLastError(String lastError)
+    {
+        this.lastError = lastError;
+    }
+
+    @Override
+    public Integer getPK()
+    {
+        return outboxId;
+    }
+
+    public int compareTo(MailOutbox o)
+    {
+        if (getOutboxId() == null || o.getOutboxId() == null)
+        {
+            return getCreated().compareTo(o.getCreated());
+        }
+
+        return getOutboxId().compareTo(o.getOutboxId());
+    }
+
+    @Override
+    public String toString()
+    {
+        return new ToStringBuilder(this)
+                .append("outboxId", outboxId)
+                .append("recipient", recipient)
+                .append("attempts", attempts)
+                .toString();
+    }
+
+    @Override
+    public boolean equals(Object object)
+    {
+        if (!(object instanceof MailOutbox))
+        {
+            return false;
+        }
+        MailOutbox rhs = (MailOutbox) object;
+        return new EqualsBuilder()
+                .append(this.getOutboxId(), rhs.getOutboxId())
+                .append(this.getRecipient(), rhs.getRecipient())
+                .append(this.getSubject(), rhs.getSubject())
+                .append(this.getCreated(), rhs.getCreated())
+                .isEquals();
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return new HashCodeBuilder(1716254129, 1101745933)
+                .append(this.getOutboxId())
+                .append(this.getRecipient())
+                .append(this.getSubject())
+                .append(this.getCreated())
+                .toHashCode();
+    }
+}
@@ -21,8 +21,11 @@ import org.apache.commons.lang.builder.CompareToBuilder;
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.commons.lang.builder.ToStringBuilder;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.FetchMode;
+import org.hibernate.annotations.FetchProfile;
 import org.hibernate.annotations.Type;
 
 import javax.persistence.*;
@@ -32,6 +35,11 @@ import java.util.Set;
 
 @Entity
 @Table(name = "PROJECT")
+@FetchProfile(name = DomainFetchProfiles.PROJECT_ADMIN, fetchOverrides = {
+        @FetchProfile.FetchOverride(entity = Project.class, association = "customer", mode = FetchMode.JOIN),
+        @FetchProfile.FetchOverride(entity = Project.class, association = "projectManager", mode = FetchMode.JOIN),
+        @FetchProfile.FetchOverride(entity = Project.class, association = "projectAssignments", mode = FetchMode.JOIN)
+})
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Project extends DomainObject<Integer, Project>
 {
@@ -71,6 +79,7 @@ public class Project extends DomainObject<Integer, Project>
 
     @OneToMany(cascade = {CascadeType.MERGE, CascadeType.PERSIST, CascadeType.REMOVE}, mappedBy = "project")
     @Basic(fetch = FetchType.LAZY)
+    @BatchSize(size = 25)
     private Set<ProjectAssignment> projectAssignments;
 
     @ManyToOne
@@ -301,14 +310,28 @@ public class Project extends DomainObject<Integer, Project>
         projectAssignments.add(assignment);
     }
 
+    /**
+     * Identity is the project id once persisted, the project's fields before that.
+     */
     @Override
     public boolean equals(final Object other)
     {
+        if (this == other)
+        {
+            return true;
+        }
+
         if (!(other instanceof Project))
         {
             return false;
         }
         Project castOther = (Project) other;
+
+        if (getProjectId() != null || castOther.getProjectId() != null)
+        {
+            return getProjectId() != null && getProjectId().equals(castOther.getProjectId());
+        }
+
         return new EqualsBuilder().append(projectCode, castOther.projectCode).append(contact, castOther.contact).append(description, castOther.description).append(name, castOther.name).append(defaultProject, castOther.defaultProject).append(active, castOther.active).append(
                 customer, castOther.customer).append(billable, castOther.billable).isEquals();
     }
@@ -316,7 +339,7 @@ public class Project extends DomainObject<Integer, Project>
     @Override
     public int hashCode()
     {
-        return new HashCodeBuilder().append(projectCode).append(contact).append(description).append(name).append(defaultProject).append(active).append(customer).append(billable).toHashCode();
+        return getProjectId() != null ? getProjectId().hashCode() : new HashCodeBuilder().append(projectCode).append(contact).append(description).append(name).append(defaultProject).append(active).append(customer).append(billable).toHashCode();
     }
 
 }
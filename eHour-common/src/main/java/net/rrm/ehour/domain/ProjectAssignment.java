@@ -23,6 +23,8 @@ import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.FetchMode;
+import org.hibernate.annotations.FetchProfile;
 import org.hibernate.annotations.Type;
 
 import javax.persistence.*;
@@ -31,6 +33,11 @@ import java.util.Date;
 
 @Entity
 @Table(name = "PROJECT_ASSIGNMENT")
+@FetchProfile(name = DomainFetchProfiles.TIMESHEET_WEEK, fetchOverrides = {
+        @FetchProfile.FetchOverride(entity = ProjectAssignment.class, association = "project", mode = FetchMode.JOIN),
+        @FetchProfile.FetchOverride(entity = ProjectAssignment.class, association = "assignmentType", mode = FetchMode.JOIN),
+        @FetchProfile.FetchOverride(entity = Project.class, association = "customer", mode = FetchMode.JOIN)
+})
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class ProjectAssignment extends DomainObject<Integer, ProjectAssignment>
 {
@@ -382,14 +389,31 @@ public class ProjectAssignment extends DomainObject<Integer, ProjectAssignment>
         this.notifyPm = notifyPm;
     }
 
+    /**
+     * Persisted assignments are equal when their ids are; transient ones (no id yet)
+     * fall back to comparing their fields. A persisted instance never equals a transient one.
+     * Note that the hashcode changes when a transient assignment is saved, so don't look it up
+     * in a hashed collection it was added to before it got its id.
+     */
     @Override
     public boolean equals(final Object other)
     {
+        if (this == other)
+        {
+            return true;
+        }
+
         if (!(other instanceof ProjectAssignment))
         {
             return false;
         }
         ProjectAssignment castOther = (ProjectAssignment) other;
+
+        if (getAssignmentId() != null || castOther.getAssignmentId() != null)
+        {
+            return getAssignmentId() != null && getAssignmentId().equals(castOther.getAssignmentId());
+        }
+
         return new EqualsBuilder().append(user, castOther.user).append(project, castOther.project).append(hourlyRate, castOther.hourlyRate).append(dateStart, castOther.dateStart).append(dateEnd, castOther.dateEnd).append(role, castOther.role).append(assignmentType,
                 castOther.assignmentType).append(allottedHours, castOther.allottedHours).append(allowedOverrun, castOther.allowedOverrun).append(active, castOther.active).isEquals();
     }
@@ -397,7 +421,7 @@ public class ProjectAssignment extends DomainObject<Integer, ProjectAssignment>
     @Override
     public int hashCode()
     {
-        return new HashCodeBuilder().append(user).append(project).append(hourlyRate).append(dateStart).append(dateEnd).append(role).append(assignmentType).append(allottedHours).append(allowedOverrun).append(active).toHashCode();
+        return getAssignmentId() != null ? getAssignmentId().hashCode() : new HashCodeBuilder().append(user).append(project).append(hourlyRate).append(dateStart).append(dateEnd).append(role).append(assignmentType).append(allottedHours).append(allowedOverrun).append(active).toHashCode();
     }
 
 }
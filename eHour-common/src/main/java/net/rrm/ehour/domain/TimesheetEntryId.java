@@ -17,8 +17,6 @@
 package net.rrm.ehour.domain;
 
 import org.apache.commons.lang.builder.CompareToBuilder;
-import org.apache.commons.lang.builder.EqualsBuilder;
-import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.commons.lang.builder.ToStringBuilder;
 
 import javax.persistence.*;
@@ -75,6 +73,11 @@ public class TimesheetEntryId implements Serializable, Comparable<TimesheetEntry
                 .toString();
     }
 
+    /**
+     * Entry dates are compared on their millis so a java.sql.Timestamp read from the
+     * database matches the java.util.Date the timesheet form submits (Timestamp.equals
+     * only accepts other Timestamps). The assignment compares on its id once persisted.
+     */
     @Override
     public boolean equals(Object other)
     {
@@ -87,15 +90,24 @@ public class TimesheetEntryId implements Serializable, Comparable<TimesheetEntry
             return false;
         }
         TimesheetEntryId castOther = (TimesheetEntryId) other;
-        return new EqualsBuilder().append(this.getEntryDate(), castOther.getEntryDate())
-                .append(this.getProjectAssignment(), castOther.getProjectAssignment()).isEquals();
+
+        Date otherDate = castOther.getEntryDate();
+        boolean sameDate = (entryDate == null) ? otherDate == null : otherDate != null && entryDate.getTime() == otherDate.getTime();
+
+        if (!sameDate)
+        {
+            return false;
+        }
+
+        ProjectAssignment otherAssignment = castOther.getProjectAssignment();
+        return (projectAssignment == null) ? otherAssignment == null : projectAssignment.equals(otherAssignment);
     }
 
     @Override
     public int hashCode()
     {
-        return new HashCodeBuilder().append(getEntryDate())
-                .append(getProjectAssignment()).toHashCode();
+        int hash = (entryDate == null) ? 0 : (int) (entryDate.getTime() ^ (entryDate.getTime() >>> 32));
+        return 31 * hash + ((projectAssignment == null) ? 0 : projectAssignment.hashCode());
     }
 
     public ProjectAssignment getProjectAssignment()
@@ -21,8 +21,11 @@ import org.apache.commons.lang.builder.CompareToBuilder;
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.commons.lang.builder.ToStringBuilder;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.FetchMode;
+import org.hibernate.annotations.FetchProfile;
 import org.hibernate.annotations.Type;
 
 import javax.persistence.*;
@@ -35,6 +38,10 @@ import java.util.Set;
  */
 @Entity
 @Table(name = "USERS")
+@FetchProfile(name = DomainFetchProfiles.USER_ADMIN, fetchOverrides = {
+        @FetchProfile.FetchOverride(entity = User.class, association = "userDepartment", mode = FetchMode.JOIN),
+        @FetchProfile.FetchOverride(entity = User.class, association = "projectAssignments", mode = FetchMode.JOIN)
+})
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class User extends DomainObject<Integer, User>
 {
@@ -77,6 +84,7 @@ public class User extends DomainObject<Integer, User>
     @JoinTable(name = "USER_TO_USERROLE",
             joinColumns = @JoinColumn(name = "USER_ID"),
             inverseJoinColumns = @JoinColumn(name = "ROLE"))
+    @BatchSize(size = 25)
     private Set<UserRole> userRoles = new HashSet<UserRole>();
 
     @ManyToOne
@@ -85,6 +93,7 @@ public class User extends DomainObject<Integer, User>
     private UserDepartment userDepartment;
 
     @OneToMany(cascade = {CascadeType.MERGE, CascadeType.PERSIST, CascadeType.REMOVE}, mappedBy = "user")
+    @BatchSize(size = 25)
     private Set<ProjectAssignment> projectAssignments;
 
     @Transient
@@ -393,20 +402,35 @@ public class User extends DomainObject<Integer, User>
         this.updatedPassword = updatedPassword;
     }
 
+    /**
+     * Users are identified by their id once persisted; transient users compare on
+     * username, name, email and active flag.
+     */
     @Override
     public boolean equals(final Object other)
     {
+        if (this == other)
+        {
+            return true;
+        }
+
         if (!(other instanceof User))
         {
             return false;
         }
         User castOther = (User) other;
+
+        if (getUserId() != null || castOther.getUserId() != null)
+        {
+            return getUserId() != null && getUserId().equals(castOther.getUserId());
+        }
+
         return new EqualsBuilder().append(username, castOther.username).append(firstName, castOther.firstName).append(lastName, castOther.lastName).append(email, castOther.email).append(active, castOther.active).isEquals();
     }
 
     @Override
     public int hashCode()
     {
-        return new HashCodeBuilder().append(username).append(firstName).append(lastName).append(email).append(active).toHashCode();
+        return getUserId() != null ? getUserId().hashCode() : new HashCodeBuilder().append(username).append(firstName).append(lastName).append(email).append(active).toHashCode();
     }
 }
@@ -19,6 +19,7 @@ package net.rrm.ehour.domain;
 import org.apache.commons.lang.builder.CompareToBuilder;
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 
@@ -52,6 +53,7 @@ public class UserDepartment extends DomainObject<Integer, UserDepartment>
     private String code;
 
     @OneToMany(mappedBy = "userDepartment")
+    @BatchSize(size = 25)
 	private Set<User>		users;
 
 	// Constructors
@@ -0,0 +1,131 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.report.reports.element;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+import java.io.Serializable;
+
+/**
+ * Row of a rolled up (customer, project, assignment) aggregate query. Depending on which
+ * keys are null it's an assignment row, a project or customer subtotal or the grand total.
+ * Only assignment rows carry the full assignment projection.
+ */
+
+public final class AggregateRollupRow implements Serializable
+{
+    private static final long serialVersionUID = -2853371563383140829L;
+
+    private final Integer customerId;
+    private final Integer projectId;
+    private final Integer assignmentId;
+    private final Number hours;
+    private final Number turnOver;
+    private final AssignmentAggregateRow assignmentRow;
+
+    /**
+     * Subtotal or grand total row
+     */
+    public AggregateRollupRow(Integer customerId, Integer projectId, Number hours, Number turnOver)
+    {
+        this(customerId, projectId, null, hours, turnOver, null);
+    }
+
+    /**
+     * Assignment row
+     */
+    public AggregateRollupRow(AssignmentAggregateRow assignmentRow, Number turnOver)
+    {
+        this(assignmentRow.getCustomerId(), assignmentRow.getProjectId(), assignmentRow.getAssignmentId(),
+                assignmentRow.getHours(), turnOver, assignmentRow);
+    }
+
+    private AggregateRollupRow(Integer customerId, Integer projectId, Integer assignmentId, Number hours, Number turnOver, AssignmentAggregateRow assignmentRow)
+    {
+        this.customerId = customerId;
+        this.projectId = projectId;
+        this.assignmentId = assignmentId;
+        this.hours = hours;
+        this.turnOver = turnOver;
+        this.assignmentRow = assignmentRow;
+    }
+
+    public boolean isAssignmentRow()
+    {
+        return assignmentId != null;
+    }
+
+    public boolean isProjectSubtotal()
+    {
+        return assignmentId == null && projectId != null;
+    }
+
+    public boolean isCustomerSubtotal()
+    {
+        return projectId == null && customerId != null;
+    }
+
+    public boolean isGrandTotal()
+    {
+        return customerId == null;
+    }
+
+    public Integer getCustomerId()
+    {
+        return customerId;
+    }
+
+    public Integer getProjectId()
+    {
+        return projectId;
+    }
+
+    public Integer getAssignmentId()
+    {
+        return assignmentId;
+    }
+
+    public Number getHours()
+    {
+        return hours;
+    }
+
+    public Number getTurnOver()
+    {
+        return turnOver;
+    }
+
+    /**
+     * @return the assignment projection, null for subtotal rows
+     */
+    public AssignmentAggregateRow getAssignmentRow()
+    {
+        return assignmentRow;
+    }
+
+    @Override
+    public String toString()
+    {
+        return new ToStringBuilder(this)
+                .append("customerId", customerId)
+                .append("projectId", projectId)
+                .append("assignmentId", assignmentId)
+                .append("hours", hours)
+                .append("turnOver", turnOver)
+                .toString();
+    }
+}
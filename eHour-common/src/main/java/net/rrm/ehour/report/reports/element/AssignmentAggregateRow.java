@@ -0,0 +1,256 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.report.reports.element;
+
+import net.rrm.ehour.domain.Customer;
+import net.rrm.ehour.domain.Project;
+import net.rrm.ehour.domain.ProjectAssignment;
+import net.rrm.ehour.domain.ProjectAssignmentType;
+import net.rrm.ehour.domain.User;
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Immutable projection of an aggregated assignment row. Selected with explicit joins
+ * in one query so reports don't hydrate (and lazy load) the full ProjectAssignment graph.
+ * The detached domain objects are only built when a caller asks for them.
+ */
+
+public final class AssignmentAggregateRow implements Serializable
+{
+    private static final long serialVersionUID = 4018472733106530541L;
+
+    private final Integer assignmentId;
+    private final Number hours;
+    private final Float hourlyRate;
+    private final Date dateStart;
+    private final Date dateEnd;
+    private final String role;
+    private final Float allottedHours;
+    private final Float allowedOverrun;
+    private final Boolean active;
+    private final Integer assignmentTypeId;
+    private final Integer userId;
+    private final String userFirstName;
+    private final String userLastName;
+    private final Integer projectId;
+    private final String projectCode;
+    private final String projectName;
+    private final String projectDescription;
+    private final Boolean projectBillable;
+    private final Integer customerId;
+    private final String customerCode;
+    private final String customerName;
+
+    /**
+     * Constructor used by the Report.getAggregateRows* HQL queries, the order of the
+     * arguments matches the select clause
+     */
+    public AssignmentAggregateRow(Integer assignmentId, Number hours,
+                                  Float hourlyRate, Date dateStart, Date dateEnd, String role,
+                                  Float allottedHours, Float allowedOverrun, Boolean active,
+                                  Integer assignmentTypeId,
+                                  Integer userId, String userFirstName, String userLastName,
+                                  Integer projectId, String projectCode, String projectName, String projectDescription, Boolean projectBillable,
+                                  Integer customerId, String customerCode, String customerName)
+    {
+        this.assignmentId = assignmentId;
+        this.hours = hours;
+        this.hourlyRate = hourlyRate;
+        this.dateStart = dateStart != null ? new Date(dateStart.getTime()) : null;
+        this.dateEnd = dateEnd != null ? new Date(dateEnd.getTime()) : null;
+        this.role = role;
+        this.allottedHours = allottedHours;
+        this.allowedOverrun = allowedOverrun;
+        this.active = active;
+        this.assignmentTypeId = assignmentTypeId;
+        this.userId = userId;
+        this.userFirstName = userFirstName;
+        this.userLastName = userLastName;
+        this.projectId = projectId;
+        this.projectCode = projectCode;
+        this.projectName = projectName;
+        this.projectDescription = projectDescription;
+        this.projectBillable = projectBillable;
+        this.customerId = customerId;
+        this.customerCode = customerCode;
+        this.customerName = customerName;
+    }
+
+    /**
+     * Build a detached, lightweight project assignment graph (assignment, type, user, project, customer)
+     * out of the selected columns. Nothing is loaded from the database.
+     *
+     * @return
+     */
+    public ProjectAssignment toProjectAssignment()
+    {
+        Customer customer = new Customer(customerId);
+        customer.setCode(customerCode);
+        customer.setName(customerName);
+
+        Project project = new Project(projectId, customer);
+        project.setProjectCode(projectCode);
+        project.setName(projectName);
+        project.setDescription(projectDescription);
+        project.setBillable(projectBillable != null && projectBillable);
+
+        User user = new User(userId, userFirstName, userLastName);
+
+        ProjectAssignment assignment = new ProjectAssignment(assignmentId);
+        assignment.setUser(user);
+        assignment.setProject(project);
+        assignment.setAssignmentType(new ProjectAssignmentType(assignmentTypeId));
+        assignment.setHourlyRate(hourlyRate);
+        assignment.setDateStart(getDateStart());
+        assignment.setDateEnd(getDateEnd());
+        assignment.setRole(role);
+        assignment.setAllottedHours(allottedHours);
+        assignment.setAllowedOverrun(allowedOverrun);
+        assignment.setActive(active != null && active);
+
+        return assignment;
+    }
+
+    /**
+     * Convert to a report element backed by a detached assignment graph
+     *
+     * @return
+     */
+    public AssignmentAggregateReportElement toReportElement()
+    {
+        return new AssignmentAggregateReportElement(toProjectAssignment(), hours);
+    }
+
+    public Integer getAssignmentId()
+    {
+        return assignmentId;
+    }
+
+    public Number getHours()
+    {
+        return hours;
+    }
+
+    public Float getHourlyRate()
+    {
+        return hourlyRate;
+    }
+
+    public Date getDateStart()
+    {
+        return dateStart != null ? new Date(dateStart.getTime()) : null;
+    }
+
+    public Date getDateEnd()
+    {
+        return dateEnd != null ? new Date(dateEnd.getTime()) : null;
+    }
+
+    public String getRole()
+    {
+        return role;
+    }
+
+    public Float getAllottedHours()
+    {
+        return allottedHours;
+    }
+
+    public Float getAllowedOverrun()
+    {
+        return allowedOverrun;
+    }
+
+    public Boolean getActive()
+    {
+        return active;
+    }
+
+    public Integer getAssignmentTypeId()
+    {
+        return assignmentTypeId;
+    }
+
+    public Integer getUserId()
+    {
+        return userId;
+    }
+
+    public String getUserFirstName()
+    {
+        return userFirstName;
+    }
+
+    public String getUserLastName()
+    {
+        return userLastName;
+    }
+
+    public Integer getProjectId()
+    {
+        return projectId;
+    }
+
+    public String getProjectCode()
+    {
+        return projectCode;
+    }
+
+    public String getProjectName()
+    {
+        return projectName;
+    }
+
+    public String getProjectDescription()
+    {
+        return projectDescription;
+    }
+
+    public Boolean getProjectBillable()
+    {
+        return projectBillable;
+    }
+
+    public Integer getCustomerId()
+    {
+        return customerId;
+    }
+
+    public String getCustomerCode()
+    {
+        return customerCode;
+    }
+
+    public String getCustomerName()
+    {
+        return customerName;
+    }
+
+    @Override
+    public String toString()
+    {
+        return new ToStringBuilder(this)
+                .append("assignmentId", assignmentId)
+                .append("projectId", projectId)
+                .append("userId", userId)
+                .append("hours", hours)
+                .toString();
+    }
+}
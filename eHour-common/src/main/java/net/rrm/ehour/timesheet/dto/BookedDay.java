@@ -24,6 +24,7 @@ import java.util.Date;
 
 public class BookedDay
 {
+	private	Integer	userId;
 	private	Date	date;
 	private	Number	hours;
 	
@@ -38,7 +39,25 @@ public class BookedDay
 		this.date = date;
 		this.hours = hours;
 	}
+
+	public BookedDay(Integer userId, Date date, Number hours)
+	{
+		this(date, hours);
+		this.userId = userId;
+	}
 	
+	/**
+	 * User who booked the hours, only set when booked days of several users are fetched
+	 * @return
+	 */
+	public Integer getUserId()
+	{
+		return userId;
+	}
+	public void setUserId(Integer userId)
+	{
+		this.userId = userId;
+	}
 	public Date getDate()
 	{
 		return date;
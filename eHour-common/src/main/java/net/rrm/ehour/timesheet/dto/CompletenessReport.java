@@ -0,0 +1,88 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.timesheet.dto;
+
+import net.rrm.ehour.data.DateRange;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Timesheet completeness of the organisation over a period. Days are indexed from the start
+ * of the period; only users missing at least one work day are listed.
+ **/
+public class CompletenessReport implements Serializable
+{
+	private static final long serialVersionUID = 2981146238426213805L;
+
+	private final DateRange	period;
+	private final List<Date>	days;
+	private final BitSet	workDays;
+	private final List<UserCompleteness>	incompleteUsers = new ArrayList<UserCompleteness>();
+	private int	evaluatedUserCount;
+
+	/**
+	 * @param period
+	 * @param days every day of the period, at midnight
+	 * @param workDays the indexes of the days on which a complete day is expected
+	 */
+	public CompletenessReport(DateRange period, List<Date> days, BitSet workDays)
+	{
+		this.period = period;
+		this.days = Collections.unmodifiableList(days);
+		this.workDays = workDays;
+	}
+
+	public void addIncompleteUser(UserCompleteness userCompleteness)
+	{
+		incompleteUsers.add(userCompleteness);
+	}
+
+	public DateRange getPeriod()
+	{
+		return period;
+	}
+
+	public List<Date> getDays()
+	{
+		return days;
+	}
+
+	public int getWorkDayCount()
+	{
+		return workDays.cardinality();
+	}
+
+	public List<UserCompleteness> getIncompleteUsers()
+	{
+		return incompleteUsers;
+	}
+
+	/**
+	 * @return number of users expected to book in the period
+	 */
+	public int getEvaluatedUserCount()
+	{
+		return evaluatedUserCount;
+	}
+
+	public void setEvaluatedUserCount(int evaluatedUserCount)
+	{
+		this.evaluatedUserCount = evaluatedUserCount;
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.timesheet.dto;
+
+import net.rrm.ehour.domain.TimesheetEntry;
+import org.apache.commons.lang.StringUtils;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Read model of one user's month: the project status and entries of the month overview
+ * together with per day and per assignment totals. Built once from the month's entries so
+ * the overview and the calendar can both be served from it.
+ * Day indexes are 1-based days of the month.
+ **/
+public class MonthSummary implements Serializable
+{
+	private static final long serialVersionUID = -6391637436409148011L;
+
+	private static final int MAX_DAYS = 31;
+
+	private final Date	monthStart;
+	private final int	daysInMonth;
+	private final float[]	hoursPerDay;
+	private final Date[]	datePerDay;
+	private final BitSet	bookedDays = new BitSet();
+	private final BitSet	commentedDays = new BitSet();
+	private final Map<Integer, Float>	hoursPerAssignment = new HashMap<Integer, Float>();
+	private final Map<Integer, List<TimesheetEntry>>	entriesPerDay = new HashMap<Integer, List<TimesheetEntry>>();
+	private final SortedSet<UserProjectStatus>	projectStatus;
+
+	/**
+	 * @param month any date in the month, only month and year are used
+	 * @param projectStatus status of the assignments in this month
+	 * @param entries all entries of the user in this month
+	 */
+	public MonthSummary(Calendar month, SortedSet<UserProjectStatus> projectStatus, List<TimesheetEntry> entries)
+	{
+		Calendar cal = (Calendar)month.clone();
+		cal.set(Calendar.DAY_OF_MONTH, 1);
+		monthStart = cal.getTime();
+
+		daysInMonth = cal.getActualMaximum(Calendar.DAY_OF_MONTH);
+		hoursPerDay = new float[MAX_DAYS + 1];
+		datePerDay = new Date[MAX_DAYS + 1];
+
+		this.projectStatus = projectStatus;
+
+		for (TimesheetEntry entry : entries)
+		{
+			if (entry != null)
+			{
+				addEntry(entry, cal);
+			}
+		}
+	}
+
+	private void addEntry(TimesheetEntry entry, Calendar cal)
+	{
+		Date entryDate = entry.getEntryId().getEntryDate();
+		cal.setTime(entryDate);
+		int day = cal.get(Calendar.DAY_OF_MONTH);
+
+		List<TimesheetEntry> dayEntries = entriesPerDay.get(day);
+
+		if (dayEntries == null)
+		{
+			dayEntries = new ArrayList<TimesheetEntry>();
+			entriesPerDay.put(day, dayEntries);
+			datePerDay[day] = entryDate;
+		}
+
+		dayEntries.add(entry);
+
+		if (!StringUtils.isBlank(entry.getComment()))
+		{
+			commentedDays.set(day);
+		}
+
+		if (entry.getHours() != null)
+		{
+			float hours = entry.getHours().floatValue();
+			hoursPerDay[day] += hours;
+
+			if (hoursPerDay[day] > 0)
+			{
+				bookedDays.set(day);
+			}
+
+			if (entry.getEntryId().getProjectAssignment() != null)
+			{
+				Integer assignmentId = entry.getEntryId().getProjectAssignment().getAssignmentId();
+				Float assignmentHours = hoursPerAssignment.get(assignmentId);
+				hoursPerAssignment.put(assignmentId, (assignmentHours == null) ? hours : assignmentHours + hours);
+			}
+		}
+	}
+
+	/**
+	 * Days with at least the given amount of hours booked, sorted on date
+	 * @param completeDayHours
+	 * @return
+	 */
+	public List<BookedDay> getCompleteDays(float completeDayHours)
+	{
+		List<BookedDay> completeDays = new ArrayList<BookedDay>();
+
+		for (int day = bookedDays.nextSetBit(0); day >= 0; day = bookedDays.nextSetBit(day + 1))
+		{
+			if (hoursPerDay[day] >= completeDayHours)
+			{
+				completeDays.add(new BookedDay(datePerDay[day], hoursPerDay[day]));
+			}
+		}
+
+		return completeDays;
+	}
+
+	/**
+	 * Create an overview of this month. The returned collections are copies so callers
+	 * are free to sort or modify them.
+	 * @return
+	 */
+	public TimesheetOverview toOverview()
+	{
+		TimesheetOverview overview = new TimesheetOverview();
+
+		overview.setProjectStatus(new TreeSet<UserProjectStatus>(projectStatus));
+
+		Map<Integer, List<TimesheetEntry>> entries = new HashMap<Integer, List<TimesheetEntry>>();
+
+		for (Map.Entry<Integer, List<TimesheetEntry>> dayEntries : entriesPerDay.entrySet())
+		{
+			entries.put(dayEntries.getKey(), new ArrayList<TimesheetEntry>(dayEntries.getValue()));
+		}
+
+		overview.setTimesheetEntries(entries);
+
+		return overview;
+	}
+
+	public Date getMonthStart()
+	{
+		return monthStart;
+	}
+
+	/**
+	 * Hours booked on a day
+	 * @param day day of month
+	 * @return
+	 */
+	public float getHours(int day)
+	{
+		return (day > 0 && day < hoursPerDay.length) ? hoursPerDay[day] : 0;
+	}
+
+	public boolean isBooked(int day)
+	{
+		return bookedDays.get(day);
+	}
+
+	public boolean isCommented(int day)
+	{
+		return commentedDays.get(day);
+	}
+
+	/**
+	 * Hours booked on an assignment in this month
+	 * @param assignmentId
+	 * @return
+	 */
+	public float getHoursForAssignment(Integer assignmentId)
+	{
+		Float hours = hoursPerAssignment.get(assignmentId);
+		return (hours == null) ? 0 : hours;
+	}
+
+	public int getDaysInMonth()
+	{
+		return daysInMonth;
+	}
+}
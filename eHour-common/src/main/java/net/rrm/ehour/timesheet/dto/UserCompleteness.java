@@ -0,0 +1,82 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.timesheet.dto;
+
+import net.rrm.ehour.domain.User;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * The work days a user didn't book completely within a completeness report's period
+ **/
+public class UserCompleteness implements Serializable, Comparable<UserCompleteness>
+{
+	private static final long serialVersionUID = -4522466880434389301L;
+
+	private final User		user;
+	private final BitSet	missingDays;
+	private final List<Date>	days;
+
+	/**
+	 * @param user
+	 * @param missingDays indexes into days
+	 * @param days the days of the period
+	 */
+	public UserCompleteness(User user, BitSet missingDays, List<Date> days)
+	{
+		this.user = user;
+		this.missingDays = missingDays;
+		this.days = days;
+	}
+
+	public User getUser()
+	{
+		return user;
+	}
+
+	public int getMissingDayCount()
+	{
+		return missingDays.cardinality();
+	}
+
+	/**
+	 * @return the missing days in chronological order
+	 */
+	public List<Date> getMissingDays()
+	{
+		List<Date> missing = new ArrayList<Date>(missingDays.cardinality());
+
+		for (int day = missingDays.nextSetBit(0); day >= 0; day = missingDays.nextSetBit(day + 1))
+		{
+			missing.add(days.get(day));
+		}
+
+		return missing;
+	}
+
+	public boolean isMissing(int dayIndex)
+	{
+		return missingDays.get(dayIndex);
+	}
+
+	public int compareTo(UserCompleteness other)
+	{
+		return user.compareTo(other.getUser());
+	}
+}
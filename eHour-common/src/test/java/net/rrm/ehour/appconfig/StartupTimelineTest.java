@@ -0,0 +1,71 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.appconfig;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+// the timeline is shared by the whole JVM, each test uses its own phase names
+public class StartupTimelineTest
+{
+    @Test
+    public void shouldRecordPhasesInStartOrder() throws InterruptedException
+    {
+        StartupTimeline.Phase database = StartupTimeline.start("database");
+        StartupTimeline.Phase jetty = StartupTimeline.start("jetty");
+        Thread.sleep(20);
+        jetty.end();
+
+        List<StartupTimeline.Phase> phases = StartupTimeline.getPhases();
+
+        assertTrue(phases.indexOf(database) < phases.indexOf(jetty));
+        assertFalse(database.isEnded());
+        assertTrue(jetty.getDuration() >= 20);
+    }
+
+    @Test
+    public void shouldKeepFirstDurationWhenEndedTwice() throws InterruptedException
+    {
+        StartupTimeline.Phase phase = StartupTimeline.start("ended twice");
+        phase.end();
+        long duration = phase.getDuration();
+
+        Thread.sleep(20);
+        phase.end();
+
+        assertEquals(duration, phase.getDuration());
+    }
+
+    @Test
+    public void shouldReportRunningAndEndedPhases()
+    {
+        StartupTimeline.start("wicket").end();
+        StartupTimeline.start("warm-up");
+
+        String report = StartupTimeline.report();
+
+        assertTrue(report.contains("wicket"));
+        assertTrue(report.contains("running  warm-up"));
+        assertTrue(report.contains("Total"));
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.domain;
+
+import org.junit.Test;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class DomainObjectIdentityTest
+{
+    @Test
+    public void shouldMatchPersistedAssignmentsOnIdOnly()
+    {
+        ProjectAssignment loaded = ProjectAssignmentMother.createProjectAssignment(1);
+        ProjectAssignment reference = new ProjectAssignment(loaded.getAssignmentId());
+
+        assertEquals(loaded, reference);
+        assertEquals(loaded.hashCode(), reference.hashCode());
+
+        Map<ProjectAssignment, String> map = new HashMap<ProjectAssignment, String>();
+        map.put(loaded, "row");
+        assertEquals("row", map.get(reference));
+
+        assertFalse(loaded.equals(new ProjectAssignment(loaded.getAssignmentId() + 1)));
+    }
+
+    @Test
+    public void shouldCompareTransientAssignmentsOnFields()
+    {
+        User user = UserMother.createUser();
+        Project project = ProjectMother.createProject(1);
+
+        ProjectAssignment first = new ProjectAssignment(user, project);
+        ProjectAssignment second = new ProjectAssignment(user, project);
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+
+        second.setHourlyRate(10f);
+        assertFalse(first.equals(second));
+
+        Set<ProjectAssignment> assignments = new HashSet<ProjectAssignment>();
+        assignments.add(first);
+        assignments.add(second);
+        assertEquals(2, assignments.size());
+    }
+
+    @Test
+    public void shouldNotMatchTransientWithPersistedAssignment()
+    {
+        User user = UserMother.createUser();
+        Project project = ProjectMother.createProject(1);
+
+        ProjectAssignment transientAssignment = new ProjectAssignment(user, project);
+        ProjectAssignment persisted = new ProjectAssignment(user, project);
+        persisted.setAssignmentId(5);
+
+        assertFalse(transientAssignment.equals(persisted));
+        assertFalse(persisted.equals(transientAssignment));
+    }
+
+    @Test
+    public void shouldMatchUsersOnIdAndTransientUsersOnFields()
+    {
+        User user = UserMother.createUser();
+        User reference = new User(user.getUserId());
+
+        assertEquals(user, reference);
+        assertEquals(user.hashCode(), reference.hashCode());
+
+        User transientUser = new User("thies", "pwd");
+        User otherTransientUser = new User("thies", "secret");
+        assertEquals(transientUser, otherTransientUser);
+        assertEquals(transientUser.hashCode(), otherTransientUser.hashCode());
+        assertFalse(transientUser.equals(new User("other", "pwd")));
+    }
+
+    @Test
+    public void shouldMatchProjectsOnIdAndTransientProjectsOnFields()
+    {
+        Project project = ProjectMother.createProject(1);
+        project.setName("renamed");
+
+        assertEquals(project, new Project(1));
+        assertEquals(project.hashCode(), new Project(1).hashCode());
+        assertFalse(project.equals(new Project(2)));
+
+        Project transientProject = new Project();
+        transientProject.setProjectCode("PRJ");
+        Project otherTransientProject = new Project();
+        otherTransientProject.setProjectCode("PRJ");
+        assertEquals(transientProject, otherTransientProject);
+
+        otherTransientProject.setProjectCode("OTHER");
+        assertFalse(transientProject.equals(otherTransientProject));
+    }
+
+    @Test
+    public void shouldMatchTimesheetEntryIdOnDateMillisAndAssignmentId()
+    {
+        Date date = new Date(1000000L);
+        TimesheetEntryId submitted = new TimesheetEntryId(date, new ProjectAssignment(1));
+        TimesheetEntryId stored = new TimesheetEntryId(new Timestamp(date.getTime()), ProjectAssignmentMother.createProjectAssignment(0, 0, 0, 0, 1));
+
+        assertEquals(submitted, stored);
+        assertEquals(stored, submitted);
+        assertEquals(submitted.hashCode(), stored.hashCode());
+
+        Set<TimesheetEntryId> ids = new HashSet<TimesheetEntryId>();
+        ids.add(stored);
+        assertTrue(ids.contains(submitted));
+
+        assertFalse(submitted.equals(new TimesheetEntryId(new Date(1000001L), new ProjectAssignment(1))));
+        assertFalse(submitted.equals(new TimesheetEntryId(date, new ProjectAssignment(2))));
+    }
+}
@@ -1,6 +1,7 @@
 package net.rrm.ehour.persistence.datasource;
 
 import net.rrm.ehour.appconfig.EhourHomeUtil;
+import net.rrm.ehour.appconfig.StartupTimeline;
 import net.rrm.ehour.persistence.dbvalidator.DerbyDbValidator;
 import org.apache.derby.jdbc.EmbeddedConnectionPoolDataSource;
 
@@ -15,8 +16,22 @@ import java.util.Properties;
  */
 public class DerbyDataSourceFactory
 {
+    public static final String DRIVER_CLASS_NAME = "org.apache.derby.jdbc.EmbeddedDriver";
+
+    /**
+     * JDBC url of an embedded database, for pools that connect through the driver
+     *
+     * @param databaseName
+     * @return
+     */
+    public static String getUrl(String databaseName)
+    {
+        return "jdbc:derby:" + databaseName;
+    }
+
     /**
-     * Create datasource and validate database
+     * Create datasource and validate database. The returned datasource hands out a new physical
+     * connection on every call, wrap it in a pool when it's used to serve requests.
      *
      * @param databaseName
      * @return
@@ -31,8 +46,10 @@ public class DerbyDataSourceFactory
 
         Properties properties = new Properties();
         properties.load(new FileInputStream(ehourPropertiesFile));
+        StartupTimeline.Phase phase = StartupTimeline.start("Derby datamodel check");
         DerbyDbValidator validator = new DerbyDbValidator(properties.getProperty("ehour.db.version"), dataSource);
         validator.checkDatabaseState();
+        phase.end();
 
         return dataSource;
     }
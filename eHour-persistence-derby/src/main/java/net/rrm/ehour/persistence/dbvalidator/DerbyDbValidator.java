@@ -17,36 +17,21 @@
 package net.rrm.ehour.persistence.dbvalidator;
 
 import net.rrm.ehour.config.ConfigurationItem;
-import org.apache.commons.beanutils.DynaBean;
-import org.apache.ddlutils.DdlUtilsException;
-import org.apache.ddlutils.Platform;
-import org.apache.ddlutils.PlatformFactory;
-import org.apache.ddlutils.io.DataReader;
-import org.apache.ddlutils.io.DatabaseDataIO;
-import org.apache.ddlutils.io.DatabaseIO;
-import org.apache.ddlutils.model.Database;
 import org.apache.derby.jdbc.EmbeddedDataSource;
 import org.apache.log4j.Logger;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.core.io.Resource;
 
 import javax.sql.DataSource;
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.io.InputStreamReader;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
 /**
- * Derby database accessor methods
+ * Derby database accessor methods. Only the stored version is read when the datamodel is up to date,
+ * DdlUtils is left to {@link DerbyDdlWriter} so it's not even loaded in that case.
  **/
 public class DerbyDbValidator
 {
-	private static final String DDL_FILE = "ddl/ddl-ehour-%s.xml";
-	private static final String DML_FILE = "ddl/dml-ehour-%s.xml";
-
 	enum DdlType {NONE, CREATE_TABLE, ALTER_TABLE}
 
 	private static final Logger LOGGER = Logger.getLogger(DerbyDbValidator.class);
@@ -119,7 +104,7 @@ public class DerbyDbValidator
 		{
 			try
 			{
-				createOrAlterDatamodel(dataSource, ddlType);
+				new DerbyDdlWriter(requiredDbVersion).createOrAlterDatamodel(dataSource, ddlType);
 			} catch (Exception e)
 			{
 				LOGGER.error("Failed to create or upgrade datamodel", e);
@@ -129,58 +114,6 @@ public class DerbyDbValidator
         return ddlType;
 	}
 
-	/**
-	 * Create datamodel and fill with initial data
-	 * @throws IOException
-	 * @throws DdlUtilsException
-	 */
-	private void createOrAlterDatamodel(DataSource dataSource, DdlType ddlType) throws DdlUtilsException, IOException
-	{
-		Platform platform = PlatformFactory.createNewPlatformInstance(dataSource);
-
-		Resource resource = new ClassPathResource(getDdlFilename());
-
-		DatabaseIO reader = new DatabaseIO();
-		reader.setValidateXml(false);
-		reader.setUseInternalDtd(true);
-
-		Database ddlModel = reader.read(new InputStreamReader(resource.getInputStream()));
-
-		if (ddlType == DdlType.CREATE_TABLE)
-		{
-			platform.createTables(ddlModel, false, false);
-			insertData(platform, ddlModel, getDmlFilename());
-		}
-		else
-		{
-			platform.alterTables(ddlModel, false);
-			updateVersion(dataSource, ddlModel, platform);
-		}
-	}
-
-	/**
-	 * Insert data
-	 * @param platform
-	 * @param model
-	 * @throws IOException
-	 * @throws FileNotFoundException
-	 * @throws DdlUtilsException
-	 */
-	private void insertData(Platform platform, Database model, String dmlFile) throws DdlUtilsException, IOException
-	{
-		DatabaseDataIO	dataIO = new DatabaseDataIO();
-
-		DataReader dataReader = dataIO.getConfiguredDataReader(platform, model);
-
-        dataReader.getSink().start();
-
-        Resource resource = new ClassPathResource(getDmlFilename());
-
-        dataIO.writeDataToDatabase(dataReader, new InputStreamReader(resource.getInputStream()));
-
-        LOGGER.info("Data inserted");
-	}
-
 	/**
 	 * Get current version of database state
 	 * @param connection
@@ -216,31 +149,4 @@ public class DerbyDbValidator
 
 		return version;
 	}
-
-	/**
-	 *
-	 * @param dataSource
-	 * @param database
-	 * @param platform
-	 */
-	private void updateVersion(DataSource dataSource, Database database, Platform platform)
-	{
-		DynaBean configuration = database.createDynaBeanFor("CONFIGURATION", false);
-		configuration.set("config_key", "version");
-		platform.delete(database, configuration);
-
-		configuration.set("config_value", requiredDbVersion);
-
-		platform.insert(database, configuration);
-	}
-
-	private String getDdlFilename()
-	{
-		return String.format(DDL_FILE, requiredDbVersion);
-	}
-
-	private String getDmlFilename()
-	{
-		return String.format(DML_FILE, requiredDbVersion);
-	}
 }
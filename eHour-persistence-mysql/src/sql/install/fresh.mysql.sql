@@ -21,6 +21,7 @@ CREATE TABLE AUDIT (
 	PARAMETERS VARCHAR(1024),
 	SUCCESS char(1) character set latin1 NOT NULL,
 	AUDIT_ACTION_TYPE VARCHAR(32),
+	AUDIT_COUNT INT(11) default 1,
   PRIMARY KEY  (AUDIT_ID),
   KEY `IDX_AUDIT_DATE` (`AUDIT_DATE`),
   KEY `IDX_AUDIT_USER` (`USER_FULLNAME`),
@@ -43,7 +44,7 @@ CREATE TABLE `CONFIGURATION` (
 
 LOCK TABLES `CONFIGURATION` WRITE;
 /*!40000 ALTER TABLE `CONFIGURATION` DISABLE KEYS */;
-INSERT INTO `CONFIGURATION` VALUES ('initialized','false'),('completeDayHours','8'),('showTurnOver','true'),('localeLanguage','en'),('currency','Euro'),('localeCountry',NULL),('availableTranslations','en,nl,fr,it'),('mailFrom','noreply@localhost.net'),('smtpPort','25'),('mailSmtp','127.0.0.1'),('demoMode','false'),('version', '0.8.3');
+INSERT INTO `CONFIGURATION` VALUES ('initialized','false'),('completeDayHours','8'),('showTurnOver','true'),('localeLanguage','en'),('currency','Euro'),('localeCountry',NULL),('availableTranslations','en,nl,fr,it'),('mailFrom','noreply@localhost.net'),('smtpPort','25'),('mailSmtp','127.0.0.1'),('demoMode','false'),('version', '0.8.5');
 /*!40000 ALTER TABLE `CONFIGURATION` ENABLE KEYS */;
 UNLOCK TABLES;
 
@@ -99,6 +100,46 @@ CREATE TABLE `MAIL_LOG_ASSIGNMENT` (
   CONSTRAINT `MAIL_LOG_ASSIGNMENT_fk1` FOREIGN KEY (`PROJECT_ASSIGNMENT_ID`) REFERENCES `PROJECT_ASSIGNMENT` (`ASSIGNMENT_ID`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 
+--
+-- Table structure for table `MAIL_ASSIGNMENT_SENT`
+--
+
+DROP TABLE IF EXISTS `MAIL_ASSIGNMENT_SENT`;
+CREATE TABLE `MAIL_ASSIGNMENT_SENT` (
+  `PROJECT_ASSIGNMENT_ID` int(11) NOT NULL,
+  `MAIL_TYPE_ID` int(11) NOT NULL,
+  PRIMARY KEY  (`PROJECT_ASSIGNMENT_ID`,`MAIL_TYPE_ID`),
+  CONSTRAINT `MAIL_ASSIGNMENT_SENT_fk` FOREIGN KEY (`PROJECT_ASSIGNMENT_ID`) REFERENCES `PROJECT_ASSIGNMENT` (`ASSIGNMENT_ID`),
+  CONSTRAINT `MAIL_ASSIGNMENT_SENT_fk1` FOREIGN KEY (`MAIL_TYPE_ID`) REFERENCES `MAIL_TYPE` (`MAIL_TYPE_ID`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+--
+-- Table structure for table `MAIL_OUTBOX`
+--
+
+DROP TABLE IF EXISTS `MAIL_OUTBOX`;
+CREATE TABLE `MAIL_OUTBOX` (
+  `MAIL_OUTBOX_ID` int(11) NOT NULL auto_increment,
+  `MAIL_TYPE_ID` int(11) default NULL,
+  `TO_USER_ID` int(11) default NULL,
+  `RECIPIENT` varchar(255) NOT NULL,
+  `FROM_ADDRESS` varchar(255) default NULL,
+  `SUBJECT` varchar(255) default NULL,
+  `BODY` text,
+  `PROJECT_ASSIGNMENT_ID` int(11) default NULL,
+  `BOOKED_HOURS` float(9,3) default NULL,
+  `BOOK_DATE` datetime default NULL,
+  `CREATED` datetime NOT NULL,
+  `NEXT_ATTEMPT` datetime NOT NULL,
+  `ATTEMPTS` int(11) NOT NULL,
+  `LAST_ERROR` varchar(255) default NULL,
+  PRIMARY KEY  (`MAIL_OUTBOX_ID`),
+  KEY `MAIL_OUTBOX_ASSIGNMENT_ID` (`PROJECT_ASSIGNMENT_ID`),
+  CONSTRAINT `MAIL_OUTBOX_fk` FOREIGN KEY (`MAIL_TYPE_ID`) REFERENCES `MAIL_TYPE` (`MAIL_TYPE_ID`),
+  CONSTRAINT `MAIL_OUTBOX_fk1` FOREIGN KEY (`TO_USER_ID`) REFERENCES `USERS` (`USER_ID`),
+  CONSTRAINT `MAIL_OUTBOX_fk2` FOREIGN KEY (`PROJECT_ASSIGNMENT_ID`) REFERENCES `PROJECT_ASSIGNMENT` (`ASSIGNMENT_ID`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
 --
 -- Table structure for table `MAIL_TYPE`
 --
@@ -216,7 +257,7 @@ CREATE TABLE `TIMESHEET_ENTRY` (
   `HOURS` float(9,3),
   `COMMENT` varchar(2048),
   PRIMARY KEY  (`ENTRY_DATE`,`ASSIGNMENT_ID`),
-  KEY `ASSIGNMENT_ID` (`ASSIGNMENT_ID`),
+  KEY `IDX_ENTRY_ASSIGNMENT_DATE` (`ASSIGNMENT_ID`,`ENTRY_DATE`,`HOURS`),
   CONSTRAINT `TIMESHEET_ENTRY_fk` FOREIGN KEY (`ASSIGNMENT_ID`) REFERENCES `PROJECT_ASSIGNMENT` (`ASSIGNMENT_ID`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 
@@ -0,0 +1,42 @@
+ALTER TABLE TIMESHEET_ENTRY ADD KEY `IDX_ENTRY_ASSIGNMENT_DATE` (`ASSIGNMENT_ID`,`ENTRY_DATE`,`HOURS`);
+
+ALTER TABLE TIMESHEET_ENTRY DROP KEY `ASSIGNMENT_ID`;
+
+CREATE TABLE `MAIL_ASSIGNMENT_SENT` (
+  `PROJECT_ASSIGNMENT_ID` int(11) NOT NULL,
+  `MAIL_TYPE_ID` int(11) NOT NULL,
+  PRIMARY KEY  (`PROJECT_ASSIGNMENT_ID`,`MAIL_TYPE_ID`),
+  CONSTRAINT `MAIL_ASSIGNMENT_SENT_fk` FOREIGN KEY (`PROJECT_ASSIGNMENT_ID`) REFERENCES `PROJECT_ASSIGNMENT` (`ASSIGNMENT_ID`),
+  CONSTRAINT `MAIL_ASSIGNMENT_SENT_fk1` FOREIGN KEY (`MAIL_TYPE_ID`) REFERENCES `MAIL_TYPE` (`MAIL_TYPE_ID`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+INSERT INTO MAIL_ASSIGNMENT_SENT (PROJECT_ASSIGNMENT_ID, MAIL_TYPE_ID)
+  SELECT DISTINCT mla.PROJECT_ASSIGNMENT_ID, ml.MAIL_TYPE_ID
+  FROM MAIL_LOG_ASSIGNMENT mla JOIN MAIL_LOG ml ON ml.MAIL_LOG_ID = mla.MAIL_LOG_ID
+  WHERE ml.SUCCESS = 'Y';
+
+CREATE TABLE `MAIL_OUTBOX` (
+  `MAIL_OUTBOX_ID` int(11) NOT NULL auto_increment,
+  `MAIL_TYPE_ID` int(11) default NULL,
+  `TO_USER_ID` int(11) default NULL,
+  `RECIPIENT` varchar(255) NOT NULL,
+  `FROM_ADDRESS` varchar(255) default NULL,
+  `SUBJECT` varchar(255) default NULL,
+  `BODY` text,
+  `PROJECT_ASSIGNMENT_ID` int(11) default NULL,
+  `BOOKED_HOURS` float(9,3) default NULL,
+  `BOOK_DATE` datetime default NULL,
+  `CREATED` datetime NOT NULL,
+  `NEXT_ATTEMPT` datetime NOT NULL,
+  `ATTEMPTS` int(11) NOT NULL,
+  `LAST_ERROR` varchar(255) default NULL,
+  PRIMARY KEY  (`MAIL_OUTBOX_ID`),
+  KEY `MAIL_OUTBOX_ASSIGNMENT_ID` (`PROJECT_ASSIGNMENT_ID`),
+  CONSTRAINT `MAIL_OUTBOX_fk` FOREIGN KEY (`MAIL_TYPE_ID`) REFERENCES `MAIL_TYPE` (`MAIL_TYPE_ID`),
+  CONSTRAINT `MAIL_OUTBOX_fk1` FOREIGN KEY (`TO_USER_ID`) REFERENCES `USERS` (`USER_ID`),
+  CONSTRAINT `MAIL_OUTBOX_fk2` FOREIGN KEY (`PROJECT_ASSIGNMENT_ID`) REFERENCES `PROJECT_ASSIGNMENT` (`ASSIGNMENT_ID`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+ALTER TABLE AUDIT ADD COLUMN AUDIT_COUNT INT(11) default 1;
+
+UPDATE CONFIGURATION SET CONFIG_VALUE = '0.8.5' WHERE CONFIG_KEY = 'version';
@@ -9,6 +9,7 @@ CREATE TABLE AUDIT (
 	PARAMETERS TEXT,
 	SUCCESS character(1) NOT NULL,
 	AUDIT_ACTION_TYPE TEXT,
+	AUDIT_COUNT INTEGER DEFAULT 1,
     PRIMARY KEY  (AUDIT_ID)
 );
 CREATE INDEX IDX_AUDIT_DATE ON audit(AUDIT_DATE);
@@ -34,7 +35,7 @@ INSERT INTO CONFIGURATION VALUES
 ('showTurnOver','true'), ('localeLanguage','en'), ('currency','Euro'),
 ('localeCountry',NULL), ('availableTranslations','en,nl,fr,it'),
 ('mailFrom','noreply@localhost.net'), ('smtpPort','25'),
-('mailSmtp','127.0.0.1'), ('demoMode','false'), ('version', '0.8.3');
+('mailSmtp','127.0.0.1'), ('demoMode','false'), ('version', '0.8.5');
 
 
 --
@@ -214,6 +215,46 @@ CREATE TABLE MAIL_LOG_ASSIGNMENT (
 );
 CREATE INDEX PROJECT_ASSIGNMENT_ID ON MAIL_LOG_ASSIGNMENT (PROJECT_ASSIGNMENT_ID);
 
+--
+-- Table structure for table MAIL_ASSIGNMENT_SENT
+--
+
+DROP TABLE IF EXISTS MAIL_ASSIGNMENT_SENT;
+CREATE TABLE MAIL_ASSIGNMENT_SENT (
+  PROJECT_ASSIGNMENT_ID INTEGER NOT NULL,
+  MAIL_TYPE_ID INTEGER NOT NULL,
+  PRIMARY KEY  (PROJECT_ASSIGNMENT_ID, MAIL_TYPE_ID),
+  CONSTRAINT MAIL_ASSIGNMENT_SENT_fk FOREIGN KEY (PROJECT_ASSIGNMENT_ID) REFERENCES PROJECT_ASSIGNMENT (ASSIGNMENT_ID),
+  CONSTRAINT MAIL_ASSIGNMENT_SENT_fk1 FOREIGN KEY (MAIL_TYPE_ID) REFERENCES MAIL_TYPE (MAIL_TYPE_ID)
+);
+
+--
+-- Table structure for table MAIL_OUTBOX
+--
+
+DROP TABLE IF EXISTS MAIL_OUTBOX;
+CREATE TABLE MAIL_OUTBOX (
+  MAIL_OUTBOX_ID SERIAL,
+  MAIL_TYPE_ID INTEGER,
+  TO_USER_ID INTEGER,
+  RECIPIENT varchar(255) NOT NULL,
+  FROM_ADDRESS varchar(255),
+  SUBJECT varchar(255),
+  BODY TEXT,
+  PROJECT_ASSIGNMENT_ID INTEGER,
+  BOOKED_HOURS real,
+  BOOK_DATE timestamptz,
+  CREATED timestamptz NOT NULL,
+  NEXT_ATTEMPT timestamptz NOT NULL,
+  ATTEMPTS INTEGER NOT NULL,
+  LAST_ERROR varchar(255),
+  PRIMARY KEY  (MAIL_OUTBOX_ID),
+  CONSTRAINT MAIL_OUTBOX_fk FOREIGN KEY (MAIL_TYPE_ID) REFERENCES MAIL_TYPE (MAIL_TYPE_ID),
+  CONSTRAINT MAIL_OUTBOX_fk1 FOREIGN KEY (TO_USER_ID) REFERENCES "users" (USER_ID),
+  CONSTRAINT MAIL_OUTBOX_fk2 FOREIGN KEY (PROJECT_ASSIGNMENT_ID) REFERENCES PROJECT_ASSIGNMENT (ASSIGNMENT_ID)
+);
+CREATE INDEX MAIL_OUTBOX_ASSIGNMENT_ID ON MAIL_OUTBOX (PROJECT_ASSIGNMENT_ID);
+
 --
 -- Dumping data for table PROJECT_ASSIGNMENT_TYPE
 --
@@ -246,7 +287,7 @@ CREATE TABLE TIMESHEET_ENTRY (
   PRIMARY KEY  (ENTRY_DATE,ASSIGNMENT_ID),
   CONSTRAINT TIMESHEET_ENTRY_fk FOREIGN KEY (ASSIGNMENT_ID) REFERENCES PROJECT_ASSIGNMENT (ASSIGNMENT_ID)
 );
-CREATE INDEX ASSIGNMENT_ID ON timesheet_entry (ASSIGNMENT_ID);
+CREATE INDEX IDX_ENTRY_ASSIGNMENT_DATE ON timesheet_entry (ASSIGNMENT_ID, ENTRY_DATE, HOURS);
 
 --
 -- Table structure for table USER_ROLE
@@ -0,0 +1,42 @@
+CREATE INDEX IDX_ENTRY_ASSIGNMENT_DATE ON timesheet_entry (ASSIGNMENT_ID, ENTRY_DATE, HOURS);
+
+DROP INDEX ASSIGNMENT_ID;
+
+CREATE TABLE MAIL_ASSIGNMENT_SENT (
+  PROJECT_ASSIGNMENT_ID INTEGER NOT NULL,
+  MAIL_TYPE_ID INTEGER NOT NULL,
+  PRIMARY KEY  (PROJECT_ASSIGNMENT_ID, MAIL_TYPE_ID),
+  CONSTRAINT MAIL_ASSIGNMENT_SENT_fk FOREIGN KEY (PROJECT_ASSIGNMENT_ID) REFERENCES PROJECT_ASSIGNMENT (ASSIGNMENT_ID),
+  CONSTRAINT MAIL_ASSIGNMENT_SENT_fk1 FOREIGN KEY (MAIL_TYPE_ID) REFERENCES MAIL_TYPE (MAIL_TYPE_ID)
+);
+
+INSERT INTO MAIL_ASSIGNMENT_SENT (PROJECT_ASSIGNMENT_ID, MAIL_TYPE_ID)
+  SELECT DISTINCT mla.PROJECT_ASSIGNMENT_ID, ml.MAIL_TYPE_ID
+  FROM MAIL_LOG_ASSIGNMENT mla JOIN MAIL_LOG ml ON ml.MAIL_LOG_ID = mla.MAIL_LOG_ID
+  WHERE ml.SUCCESS = 'Y';
+
+CREATE TABLE MAIL_OUTBOX (
+  MAIL_OUTBOX_ID SERIAL,
+  MAIL_TYPE_ID INTEGER,
+  TO_USER_ID INTEGER,
+  RECIPIENT varchar(255) NOT NULL,
+  FROM_ADDRESS varchar(255),
+  SUBJECT varchar(255),
+  BODY TEXT,
+  PROJECT_ASSIGNMENT_ID INTEGER,
+  BOOKED_HOURS real,
+  BOOK_DATE timestamptz,
+  CREATED timestamptz NOT NULL,
+  NEXT_ATTEMPT timestamptz NOT NULL,
+  ATTEMPTS INTEGER NOT NULL,
+  LAST_ERROR varchar(255),
+  PRIMARY KEY  (MAIL_OUTBOX_ID),
+  CONSTRAINT MAIL_OUTBOX_fk FOREIGN KEY (MAIL_TYPE_ID) REFERENCES MAIL_TYPE (MAIL_TYPE_ID),
+  CONSTRAINT MAIL_OUTBOX_fk1 FOREIGN KEY (TO_USER_ID) REFERENCES "users" (USER_ID),
+  CONSTRAINT MAIL_OUTBOX_fk2 FOREIGN KEY (PROJECT_ASSIGNMENT_ID) REFERENCES PROJECT_ASSIGNMENT (ASSIGNMENT_ID)
+);
+CREATE INDEX MAIL_OUTBOX_ASSIGNMENT_ID ON MAIL_OUTBOX (PROJECT_ASSIGNMENT_ID);
+
+ALTER TABLE AUDIT ADD COLUMN AUDIT_COUNT INTEGER DEFAULT 1;
+
+UPDATE CONFIGURATION SET CONFIG_VALUE = '0.8.5' WHERE CONFIG_KEY = 'version';
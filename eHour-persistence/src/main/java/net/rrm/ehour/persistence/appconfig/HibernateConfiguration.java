@@ -1,7 +1,10 @@
 package net.rrm.ehour.persistence.appconfig;
 
 import net.rrm.ehour.appconfig.EhourHomeUtil;
+import net.rrm.ehour.appconfig.StartupTimeline;
 import net.rrm.ehour.domain.DomainObjects;
+import net.rrm.ehour.persistence.statistics.CollectionFetchCountingListener;
+import net.rrm.ehour.persistence.statistics.StatisticsInterceptor;
 import org.apache.log4j.Logger;
 import org.hibernate.SessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +23,7 @@ import javax.sql.DataSource;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
 
@@ -32,12 +36,17 @@ public class HibernateConfiguration
 	@Value("${ehour.database}")
 	private String databaseName;
 
+	@Value("${ehour.statistics.enabled:false}")
+	private boolean statisticsEnabled;
+
 	private static final PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
 	private static final Logger LOGGER = Logger.getLogger(HibernateConfiguration.class);
 
 	@Bean(name="sessionFactory")
 	public SessionFactory getSessionFactory() throws Exception
 	{
+		StartupTimeline.Phase phase = StartupTimeline.start("Hibernate session factory");
+
 		Properties configProperties = EhourHomeUtil.loadDatabaseProperties(databaseName);
 
 		LOGGER.info("Using database type: " + databaseName);
@@ -49,6 +58,10 @@ public class HibernateConfiguration
 		factoryBean.setMappingLocations(resources.toArray(new Resource[resources.size()]));
         factoryBean.setAnnotatedClasses(DomainObjects.DOMAIN_OBJECTS);
 
+		// per request query counting, only records anything for requests that started collecting statistics
+		factoryBean.setEntityInterceptor(new StatisticsInterceptor());
+		factoryBean.setEventListeners(Collections.<String, Object>singletonMap("load-collection", new CollectionFetchCountingListener()));
+
 		Properties hibernateProperties = new Properties();
 		hibernateProperties.put("hibernate.dialect", configProperties.get("hibernate.dialect"));
 		hibernateProperties.put("show_sql", "false");
@@ -57,10 +70,18 @@ public class HibernateConfiguration
 		hibernateProperties.put("hibernate.cache.use_second_level_cache", "true");
 		hibernateProperties.put("net.sf.ehcache.configurationResourceName", "ehcache.xml");
 		hibernateProperties.put("hibernate.cache.use_query_cache", "true");
+		// initialize lazy associations for up to 25 owners in one select rather than one select per owner
+		hibernateProperties.put("hibernate.default_batch_fetch_size", "25");
+		// send the inserts, updates and deletes of a flush in JDBC batches
+		hibernateProperties.put("hibernate.jdbc.batch_size", "25");
+		hibernateProperties.put("hibernate.order_inserts", "true");
+		hibernateProperties.put("hibernate.order_updates", "true");
 		hibernateProperties.put("hibernate.hbm2ddl.auto", configProperties.get("hibernate.hbm2ddl.auto"));
+		hibernateProperties.put("hibernate.generate_statistics", Boolean.toString(statisticsEnabled));
 
 		factoryBean.setHibernateProperties(hibernateProperties);
 		factoryBean.afterPropertiesSet();
+		phase.end();
 
         return factoryBean.getObject();
 	}
@@ -80,7 +101,10 @@ public class HibernateConfiguration
 	@Bean(name="transactionManager")
 	public  HibernateTransactionManager getTransactionManager() throws Exception
 	{
-		return new HibernateTransactionManager(getSessionFactory());
+		HibernateTransactionManager transactionManager = new HibernateTransactionManager(getSessionFactory());
+		// NESTED propagation rolls back to a JDBC savepoint, see TimesheetPersisterImpl
+		transactionManager.setNestedTransactionAllowed(true);
+		return transactionManager;
 	}
 
 	public @Bean HibernateTemplate getHibernateTemplate() throws Exception
@@ -101,6 +125,11 @@ public class HibernateConfiguration
 		this.databaseName = databaseName;
 	}
 
+	void setStatisticsEnabled(boolean statisticsEnabled)
+	{
+		this.statisticsEnabled = statisticsEnabled;
+	}
+
     public void setDataSource(DataSource dataSource)
     {
         this.dataSource = dataSource;
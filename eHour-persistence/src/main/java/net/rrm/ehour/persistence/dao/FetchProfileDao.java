@@ -0,0 +1,34 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.persistence.dao;
+
+/**
+ * Enables the fetch profiles declared in DomainFetchProfiles on the current session
+ */
+public interface FetchProfileDao
+{
+    /**
+     * Run the callback with the fetch profile enabled on the session bound to the current thread.
+     * The profile is disabled again afterwards unless it was already enabled by an enclosing call.
+     * Without a bound session the profile is silently not enabled, as it would be gone with the session
+     * opened for the first load; the callback then runs with the default fetch plan.
+     * @param profileName
+     * @param callback
+     * @return the callback's result
+     */
+    public <T> T withFetchProfile(String profileName, FetchProfileCallback<T> callback);
+}
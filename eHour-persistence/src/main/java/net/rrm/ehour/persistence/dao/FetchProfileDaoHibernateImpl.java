@@ -0,0 +1,91 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.persistence.dao;
+
+import org.apache.log4j.Logger;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.orm.hibernate3.SessionFactoryUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Repository("fetchProfileDao")
+public class FetchProfileDaoHibernateImpl extends AbstractAnnotationDaoHibernateImpl implements FetchProfileDao
+{
+    private static final Logger LOGGER = Logger.getLogger(FetchProfileDaoHibernateImpl.class);
+
+    /*
+     * (non-Javadoc)
+     * @see net.rrm.ehour.persistence.dao.FetchProfileDao#withFetchProfile(java.lang.String, net.rrm.ehour.persistence.dao.FetchProfileCallback)
+     */
+    public <T> T withFetchProfile(String profileName, FetchProfileCallback<T> callback)
+    {
+        boolean profileEnabled = enableFetchProfile(profileName);
+
+        try
+        {
+            return callback.doWithFetchProfile();
+        }
+        finally
+        {
+            if (profileEnabled)
+            {
+                disableFetchProfile(profileName);
+            }
+        }
+    }
+
+    /**
+     * @return true when enabled by this call, false when it was already enabled or no session is bound
+     */
+    private boolean enableFetchProfile(String profileName)
+    {
+        Session session = getBoundSession();
+
+        // a profile on a session opened just for this call would be gone before anything is loaded
+        if (session == null)
+        {
+            LOGGER.debug("No session bound, not enabling fetch profile " + profileName);
+            return false;
+        }
+
+        if (session.isFetchProfileEnabled(profileName))
+        {
+            return false;
+        }
+
+        session.enableFetchProfile(profileName);
+        return true;
+    }
+
+    private void disableFetchProfile(String profileName)
+    {
+        Session session = getBoundSession();
+
+        if (session != null)
+        {
+            session.disableFetchProfile(profileName);
+        }
+    }
+
+    private Session getBoundSession()
+    {
+        SessionFactory sessionFactory = getHibernateTemplate().getSessionFactory();
+
+        return TransactionSynchronizationManager.hasResource(sessionFactory) ? SessionFactoryUtils.getSession(sessionFactory, false) : null;
+    }
+}
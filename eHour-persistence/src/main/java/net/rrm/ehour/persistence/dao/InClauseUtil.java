@@ -0,0 +1,87 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.persistence.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits large IN (:list) parameters into chunks. Long parameter lists make statement parsing slow,
+ * get planned poorly by Derby and PostgreSQL and may hit driver parameter limits.
+ * Only use for queries where every result row belongs to exactly one element of the list
+ * (grouped on assignment, user or project) so the chunked results can simply be appended.
+ */
+public final class InClauseUtil
+{
+	/**
+	 * Lists up to this size are bound as one parameter list
+	 */
+	public static final int MAX_PARAMETER_LIST_SIZE = 500;
+
+	private InClauseUtil()
+	{
+	}
+
+	/**
+	 * Is the list too large to be bound as one parameter list
+	 * @param list
+	 * @return
+	 */
+	public static boolean requiresChunking(List<?> list)
+	{
+		return list != null && list.size() > MAX_PARAMETER_LIST_SIZE;
+	}
+
+	/**
+	 * Partition the list in chunks of at most MAX_PARAMETER_LIST_SIZE elements
+	 * @param list
+	 * @return
+	 */
+	public static <T> List<List<T>> partition(List<T> list)
+	{
+		return partition(list, MAX_PARAMETER_LIST_SIZE);
+	}
+
+	/**
+	 * Partition the list in chunks of at most chunkSize elements, the chunks are views on the list
+	 * @param list
+	 * @param chunkSize
+	 * @return
+	 */
+	public static <T> List<List<T>> partition(List<T> list, int chunkSize)
+	{
+		if (chunkSize <= 0)
+		{
+			throw new IllegalArgumentException("chunkSize should be positive");
+		}
+
+		if (list.size() <= chunkSize)
+		{
+			return Collections.singletonList(list);
+		}
+
+		List<List<T>> chunks = new ArrayList<List<T>>((list.size() + chunkSize - 1) / chunkSize);
+
+		for (int start = 0; start < list.size(); start += chunkSize)
+		{
+			chunks.add(list.subList(start, Math.min(start + chunkSize, list.size())));
+		}
+
+		return chunks;
+	}
+}
@@ -0,0 +1,56 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.persistence.mail.dao;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+
+/**
+ * Index of the assignment mails which are sent or queued, at most one per assignment and mail type
+ */
+public interface MailAssignmentSentDao
+{
+	/**
+	 * Get the sent assignment mails, including the successful ones in the mail log
+	 * @return [assignmentId, mailTypeId] pairs
+	 */
+	public List<Integer[]> findSent();
+
+	/**
+	 * Mark an assignment mail as sent. Blocks while another transaction marked the same mail
+	 * and hasn't completed yet.
+	 * @param assignmentId
+	 * @param mailTypeId
+	 * @throws DataIntegrityViolationException when the mail was already marked as sent
+	 */
+	public void insert(Integer assignmentId, Integer mailTypeId) throws DataIntegrityViolationException;
+
+	/**
+	 * Remove the sent mark of an assignment mail
+	 * @param assignmentId
+	 * @param mailTypeId
+	 * @return number of rows deleted
+	 */
+	public int delete(Integer assignmentId, Integer mailTypeId);
+
+	/**
+	 * Remove all sent marks
+	 */
+	public void deleteAll();
+}
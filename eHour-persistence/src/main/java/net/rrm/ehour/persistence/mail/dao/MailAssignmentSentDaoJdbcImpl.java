@@ -0,0 +1,76 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.persistence.mail.dao;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Plain JDBC so a duplicate insert doesn't leave the Hibernate session of the transaction unusable
+ */
+@Repository("mailAssignmentSentDao")
+public class MailAssignmentSentDaoJdbcImpl implements MailAssignmentSentDao
+{
+	// Derby databases upgraded from 0.8.4 have no index of the mail sent before
+	private static final String FIND_SENT = "SELECT PROJECT_ASSIGNMENT_ID, MAIL_TYPE_ID FROM MAIL_ASSIGNMENT_SENT " +
+												"UNION " +
+												"SELECT mla.PROJECT_ASSIGNMENT_ID, ml.MAIL_TYPE_ID " +
+												"FROM MAIL_LOG_ASSIGNMENT mla JOIN MAIL_LOG ml ON ml.MAIL_LOG_ID = mla.MAIL_LOG_ID " +
+												"WHERE ml.SUCCESS = 'Y'";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	public List<Integer[]> findSent()
+	{
+		return jdbcTemplate.query(FIND_SENT, new RowMapper<Integer[]>()
+		{
+			public Integer[] mapRow(ResultSet rs, int rowNum) throws SQLException
+			{
+				return new Integer[]{rs.getInt(1), rs.getInt(2)};
+			}
+		});
+	}
+
+	public void insert(Integer assignmentId, Integer mailTypeId) throws DataIntegrityViolationException
+	{
+		jdbcTemplate.update("INSERT INTO MAIL_ASSIGNMENT_SENT (PROJECT_ASSIGNMENT_ID, MAIL_TYPE_ID) VALUES (?, ?)", assignmentId, mailTypeId);
+	}
+
+	public int delete(Integer assignmentId, Integer mailTypeId)
+	{
+		return jdbcTemplate.update("DELETE FROM MAIL_ASSIGNMENT_SENT WHERE PROJECT_ASSIGNMENT_ID = ? AND MAIL_TYPE_ID = ?", assignmentId, mailTypeId);
+	}
+
+	public void deleteAll()
+	{
+		jdbcTemplate.update("DELETE FROM MAIL_ASSIGNMENT_SENT");
+	}
+
+	public void setJdbcTemplate(JdbcTemplate jdbcTemplate)
+	{
+		this.jdbcTemplate = jdbcTemplate;
+	}
+}
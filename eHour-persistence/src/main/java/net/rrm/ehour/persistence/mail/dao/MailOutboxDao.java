@@ -0,0 +1,48 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.persistence.mail.dao;
+
+import net.rrm.ehour.domain.MailOutbox;
+import net.rrm.ehour.persistence.dao.GenericDao;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * DAO for the mail outbox
+ */
+public interface MailOutboxDao extends GenericDao<MailOutbox, Integer>
+{
+	/**
+	 * Get the oldest pending mails in the order they were queued: the due mails and, per recipient, the
+	 * first mail waiting for a retry. Later retries of a recipient and mails waiting for their first
+	 * attempt, like digested mail, are left out. Mail type and assignment are fetched along.
+	 * @param now
+	 * @param afterOutboxId only mails queued after this one, 0 for all
+	 * @param maxResults
+	 * @return
+	 */
+	public List<MailOutbox> findPending(Date now, int afterOutboxId, int maxResults);
+
+	/**
+	 * Remove mails from the outbox in one statement
+	 * @param outboxIds
+	 * @return number of rows deleted
+	 */
+	public int deleteOnIds(List<Integer> outboxIds);
+}
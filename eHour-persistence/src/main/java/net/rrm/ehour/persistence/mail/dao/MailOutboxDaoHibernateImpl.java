@@ -0,0 +1,77 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.persistence.mail.dao;
+
+import net.rrm.ehour.domain.MailOutbox;
+import net.rrm.ehour.persistence.dao.AbstractGenericDaoHibernateImpl;
+import org.hibernate.HibernateException;
+import org.hibernate.Query;
+import org.hibernate.Session;
+import org.springframework.orm.hibernate3.HibernateCallback;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * DAO for the mail outbox
+ */
+@Repository("mailOutboxDao")
+public class MailOutboxDaoHibernateImpl extends AbstractGenericDaoHibernateImpl<MailOutbox, Integer> implements MailOutboxDao
+{
+	public MailOutboxDaoHibernateImpl()
+	{
+		super(MailOutbox.class);
+	}
+
+	@SuppressWarnings("unchecked")
+	public List<MailOutbox> findPending(final Date now, final int afterOutboxId, final int maxResults)
+	{
+		return getHibernateTemplate().executeWithNativeSession(
+				new HibernateCallback<List<MailOutbox>>()
+				{
+					public List<MailOutbox> doInHibernate(Session session) throws HibernateException
+					{
+						Query queryObject = session.getNamedQuery("MailOutbox.findPending");
+						queryObject.setTimestamp("now", now);
+						queryObject.setInteger("afterOutboxId", afterOutboxId);
+						queryObject.setMaxResults(maxResults);
+						return queryObject.list();
+					}
+				});
+	}
+
+	public int deleteOnIds(final List<Integer> outboxIds)
+	{
+		if (outboxIds.isEmpty())
+		{
+			return 0;
+		}
+
+		return getHibernateTemplate().executeWithNativeSession(
+				new HibernateCallback<Integer>()
+				{
+					public Integer doInHibernate(Session session) throws HibernateException
+					{
+						Query queryObject = session.getNamedQuery("MailOutbox.deleteOnIds");
+						queryObject.setParameterList("outboxIds", outboxIds);
+						return queryObject.executeUpdate();
+					}
+				});
+	}
+}
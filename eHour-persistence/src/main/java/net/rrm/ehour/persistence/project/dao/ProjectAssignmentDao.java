@@ -63,6 +63,13 @@ public interface ProjectAssignmentDao  extends GenericDao<ProjectAssignment, Int
 	 * @return
 	 */
 	public List<ProjectAssignment> findProjectAssignmentsForUser(Integer userId, DateRange range);
+
+	/**
+	 * Find the active assignments of active users somewhere in the date range, users are fetched along
+	 * @param range
+	 * @return
+	 */
+	public List<ProjectAssignment> findActiveAssignments(DateRange range);
 	
 	/**
 	 * Find project assignments for project in range
@@ -72,6 +72,19 @@ public class ProjectAssignmentDaoHibernateImpl
 	}
 	
 	
+	/*
+	 * (non-Javadoc)
+	 * @see net.rrm.ehour.persistence.project.dao.ProjectAssignmentDao#findActiveAssignments(net.rrm.ehour.data.DateRange)
+	 */
+	@SuppressWarnings("unchecked")
+	public List<ProjectAssignment> findActiveAssignments(DateRange range)
+	{
+		String[]	keys = new String[]{"dateStart", "dateEnd"};
+		Object[]	params = new Object[]{range.getDateStart(), range.getDateEnd()};
+
+		return getHibernateTemplate().findByNamedQueryAndNamedParam("ProjectAssignment.findActiveAssignmentsInRange", keys, params);
+	}
+
 	/**
 	 * Find assigned (active) projects for user
 	 * @param projectId
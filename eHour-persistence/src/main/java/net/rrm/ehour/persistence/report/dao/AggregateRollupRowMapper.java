@@ -0,0 +1,191 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.persistence.report.dao;
+
+import net.rrm.ehour.report.reports.element.AggregateRollupRow;
+import net.rrm.ehour.report.reports.element.AssignmentAggregateRow;
+import org.hibernate.HibernateException;
+import org.hibernate.transform.ResultTransformer;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Maps the rows of the dialect specific Report.getAggregateRollup* sql queries on AggregateRollupRow's.
+ * The column aliases are resolved to positions once, thread safe.
+ */
+public final class AggregateRollupRowMapper implements ResultTransformer
+{
+    private static final long serialVersionUID = 5290616386012958871L;
+
+    private static final String[] ALIASES = {"customerId", "projectId", "assignmentId", "totalHours", "totalTurnOver",
+                                             "hourlyRate", "dateStart", "dateEnd", "role", "allottedHours", "allowedOverrun", "active",
+                                             "assignmentTypeId", "userId", "userFirstName", "userLastName",
+                                             "projectCode", "projectName", "projectDescription", "projectBillable",
+                                             "customerCode", "customerName"};
+
+    private static final int CUSTOMER_ID = 0;
+    private static final int PROJECT_ID = 1;
+    private static final int ASSIGNMENT_ID = 2;
+    private static final int TOTAL_HOURS = 3;
+    private static final int TOTAL_TURNOVER = 4;
+    private static final int HOURLY_RATE = 5;
+    private static final int DATE_START = 6;
+    private static final int DATE_END = 7;
+    private static final int ROLE = 8;
+    private static final int ALLOTTED_HOURS = 9;
+    private static final int ALLOWED_OVERRUN = 10;
+    private static final int ACTIVE = 11;
+    private static final int ASSIGNMENT_TYPE_ID = 12;
+    private static final int USER_ID = 13;
+    private static final int USER_FIRST_NAME = 14;
+    private static final int USER_LAST_NAME = 15;
+    private static final int PROJECT_CODE = 16;
+    private static final int PROJECT_NAME = 17;
+    private static final int PROJECT_DESCRIPTION = 18;
+    private static final int PROJECT_BILLABLE = 19;
+    private static final int CUSTOMER_CODE = 20;
+    private static final int CUSTOMER_NAME = 21;
+
+    private final String queryName;
+
+    // tuple position of each alias, resolved on the first row
+    private transient volatile int[] positions;
+
+    public AggregateRollupRowMapper(String queryName)
+    {
+        this.queryName = queryName;
+    }
+
+    public String getQueryName()
+    {
+        return queryName;
+    }
+
+    public Object transformTuple(Object[] tuple, String[] aliases)
+    {
+        int[] pos = positions;
+
+        if (pos == null)
+        {
+            pos = resolvePositions(aliases);
+            positions = pos;
+        }
+
+        Integer assignmentId = toInteger(tuple[pos[ASSIGNMENT_ID]]);
+        Number turnOver = (Number) tuple[pos[TOTAL_TURNOVER]];
+
+        if (assignmentId == null)
+        {
+            return new AggregateRollupRow(toInteger(tuple[pos[CUSTOMER_ID]]),
+                                            toInteger(tuple[pos[PROJECT_ID]]),
+                                            (Number) tuple[pos[TOTAL_HOURS]],
+                                            turnOver);
+        }
+
+        AssignmentAggregateRow assignmentRow = new AssignmentAggregateRow(assignmentId,
+                                                    (Number) tuple[pos[TOTAL_HOURS]],
+                                                    toFloat(tuple[pos[HOURLY_RATE]]),
+                                                    (Date) tuple[pos[DATE_START]],
+                                                    (Date) tuple[pos[DATE_END]],
+                                                    toString(tuple[pos[ROLE]]),
+                                                    toFloat(tuple[pos[ALLOTTED_HOURS]]),
+                                                    toFloat(tuple[pos[ALLOWED_OVERRUN]]),
+                                                    toBoolean(tuple[pos[ACTIVE]]),
+                                                    toInteger(tuple[pos[ASSIGNMENT_TYPE_ID]]),
+                                                    toInteger(tuple[pos[USER_ID]]),
+                                                    toString(tuple[pos[USER_FIRST_NAME]]),
+                                                    toString(tuple[pos[USER_LAST_NAME]]),
+                                                    toInteger(tuple[pos[PROJECT_ID]]),
+                                                    toString(tuple[pos[PROJECT_CODE]]),
+                                                    toString(tuple[pos[PROJECT_NAME]]),
+                                                    toString(tuple[pos[PROJECT_DESCRIPTION]]),
+                                                    toBoolean(tuple[pos[PROJECT_BILLABLE]]),
+                                                    toInteger(tuple[pos[CUSTOMER_ID]]),
+                                                    toString(tuple[pos[CUSTOMER_CODE]]),
+                                                    toString(tuple[pos[CUSTOMER_NAME]]));
+
+        return new AggregateRollupRow(assignmentRow, turnOver);
+    }
+
+    @SuppressWarnings("rawtypes")
+    public List transformList(List collection)
+    {
+        return collection;
+    }
+
+    private int[] resolvePositions(String[] aliases)
+    {
+        int[] pos = new int[ALIASES.length];
+        Arrays.fill(pos, -1);
+
+        for (int i = 0; i < aliases.length; i++)
+        {
+            for (int j = 0; j < ALIASES.length; j++)
+            {
+                if (aliases[i] != null && ALIASES[j].equalsIgnoreCase(aliases[i]))
+                {
+                    pos[j] = i;
+                }
+            }
+        }
+
+        for (int j = 0; j < pos.length; j++)
+        {
+            if (pos[j] < 0)
+            {
+                throw new HibernateException("Query " + queryName + " does not select column " + ALIASES[j]);
+            }
+        }
+
+        return pos;
+    }
+
+    private static Integer toInteger(Object value)
+    {
+        if (value == null || value instanceof Integer)
+        {
+            return (Integer) value;
+        }
+
+        return ((Number) value).intValue();
+    }
+
+    private static Float toFloat(Object value)
+    {
+        if (value == null || value instanceof Float)
+        {
+            return (Float) value;
+        }
+
+        return ((Number) value).floatValue();
+    }
+
+    /**
+     * yes_no columns come back as CHAR(1), either as Character or String depending on the driver
+     */
+    private static Boolean toBoolean(Object value)
+    {
+        return value == null ? null : "Y".equalsIgnoreCase(value.toString().trim());
+    }
+
+    private static String toString(Object value)
+    {
+        return value == null ? null : value.toString();
+    }
+}
@@ -17,15 +17,16 @@
 package net.rrm.ehour.persistence.report.dao;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 
 import net.rrm.ehour.data.DateRange;
 import net.rrm.ehour.persistence.dao.AbstractAnnotationDaoHibernateImpl;
+import net.rrm.ehour.persistence.dao.InClauseUtil;
 import net.rrm.ehour.report.reports.element.FlatReportElement;
 
 import org.hibernate.Query;
 import org.hibernate.Session;
-import org.hibernate.transform.Transformers;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -34,6 +35,12 @@ import org.springframework.stereotype.Repository;
 @Repository("detailedReportDao")
 public class DetailedReportDaoHibernateImpl extends AbstractAnnotationDaoHibernateImpl implements DetailedReportDao
 {
+	private static final FlatReportElementRowMapper HOURS_PER_DAY_FOR_ASSIGNMENT = new FlatReportElementRowMapper("Report.getHoursPerDayForAssignment");
+	private static final FlatReportElementRowMapper HOURS_PER_DAY_FOR_USERS = new FlatReportElementRowMapper("Report.getHoursPerDayForUsers");
+	private static final FlatReportElementRowMapper HOURS_PER_DAY_FOR_PROJECTS = new FlatReportElementRowMapper("Report.getHoursPerDayForProjects");
+	private static final FlatReportElementRowMapper HOURS_PER_DAY_FOR_PROJECTS_AND_USERS = new FlatReportElementRowMapper("Report.getHoursPerDayForProjectsAndUsers");
+	private static final FlatReportElementRowMapper HOURS_PER_DAY = new FlatReportElementRowMapper("Report.getHoursPerDay");
+
 	/**
 	 * Get hours per day for assignments
 	 * @param assignmentId
@@ -43,15 +50,18 @@ public class DetailedReportDaoHibernateImpl extends AbstractAnnotationDaoHiberna
 	@SuppressWarnings("unchecked")
 	public List<FlatReportElement> getHoursPerDayForAssignment(List<? extends Serializable> assignmentIds, DateRange dateRange)
 	{
-		Session session = this.getSession();
-		
-		Query query = session.getNamedQuery("Report.getHoursPerDayForAssignment")
-						.setDate("dateStart", dateRange.getDateStart())
-						.setDate("dateEnd", dateRange.getDateEnd())
-						.setParameterList("assignmentId", assignmentIds)
-						.setResultTransformer(Transformers.aliasToBean(FlatReportElement.class));
+		List<FlatReportElement> elements = new ArrayList<FlatReportElement>();
 
-		return query.list();
+		// rows are grouped per assignment and day, chunked id lists never return the same row twice
+		for (List<? extends Serializable> assignmentIdChunk : InClauseUtil.partition(assignmentIds))
+		{
+			Query query = createQuery(HOURS_PER_DAY_FOR_ASSIGNMENT, dateRange)
+							.setParameterList("assignmentId", assignmentIdChunk);
+
+			elements.addAll(query.list());
+		}
+
+		return elements;
 	}
 
 	/*
@@ -61,15 +71,17 @@ public class DetailedReportDaoHibernateImpl extends AbstractAnnotationDaoHiberna
 	@SuppressWarnings("unchecked")
 	public List<FlatReportElement> getHoursPerDayForUsers(List<? extends Serializable> userIds, DateRange dateRange)
 	{
-		Session session = this.getSession();
-		
-		Query query = session.getNamedQuery("Report.getHoursPerDayForUsers")
-						.setDate("dateStart", dateRange.getDateStart())
-						.setDate("dateEnd", dateRange.getDateEnd())
-						.setParameterList("userIds", userIds)
-						.setResultTransformer(Transformers.aliasToBean(FlatReportElement.class));
+		List<FlatReportElement> elements = new ArrayList<FlatReportElement>();
+
+		for (List<? extends Serializable> userIdChunk : InClauseUtil.partition(userIds))
+		{
+			Query query = createQuery(HOURS_PER_DAY_FOR_USERS, dateRange)
+							.setParameterList("userIds", userIdChunk);
 
-		return query.list();
+			elements.addAll(query.list());
+		}
+
+		return elements;
 	}
 
 	/*
@@ -79,15 +91,17 @@ public class DetailedReportDaoHibernateImpl extends AbstractAnnotationDaoHiberna
 	@SuppressWarnings("unchecked")
 	public List<FlatReportElement> getHoursPerDayForProjects(List<? extends Serializable> projectIds, DateRange dateRange)
 	{
-		Session session = this.getSession();
-		
-		Query query = session.getNamedQuery("Report.getHoursPerDayForProjects")
-						.setDate("dateStart", dateRange.getDateStart())
-						.setDate("dateEnd", dateRange.getDateEnd())
-						.setParameterList("projectIds", projectIds)
-						.setResultTransformer(Transformers.aliasToBean(FlatReportElement.class));
+		List<FlatReportElement> elements = new ArrayList<FlatReportElement>();
+
+		for (List<? extends Serializable> projectIdChunk : InClauseUtil.partition(projectIds))
+		{
+			Query query = createQuery(HOURS_PER_DAY_FOR_PROJECTS, dateRange)
+							.setParameterList("projectIds", projectIdChunk);
 
-		return query.list();
+			elements.addAll(query.list());
+		}
+
+		return elements;
 	}
 
 	/*
@@ -97,16 +111,21 @@ public class DetailedReportDaoHibernateImpl extends AbstractAnnotationDaoHiberna
 	@SuppressWarnings("unchecked")
 	public List<FlatReportElement> getHoursPerDayForProjectsAndUsers(List<? extends Serializable> projectIds, List<? extends Serializable> userIds, DateRange dateRange)
 	{
-		Session session = this.getSession();
-		
-		Query query = session.getNamedQuery("Report.getHoursPerDayForProjectsAndUsers")
-						.setDate("dateStart", dateRange.getDateStart())
-						.setDate("dateEnd", dateRange.getDateEnd())
-						.setParameterList("projectIds", projectIds)
-						.setParameterList("userIds", userIds)
-						.setResultTransformer(Transformers.aliasToBean(FlatReportElement.class));
+		List<FlatReportElement> elements = new ArrayList<FlatReportElement>();
+
+		for (List<? extends Serializable> projectIdChunk : InClauseUtil.partition(projectIds))
+		{
+			for (List<? extends Serializable> userIdChunk : InClauseUtil.partition(userIds))
+			{
+				Query query = createQuery(HOURS_PER_DAY_FOR_PROJECTS_AND_USERS, dateRange)
+								.setParameterList("projectIds", projectIdChunk)
+								.setParameterList("userIds", userIdChunk);
 
-		return query.list();
+				elements.addAll(query.list());
+			}
+		}
+
+		return elements;
 	}
 
 	/*
@@ -115,14 +134,17 @@ public class DetailedReportDaoHibernateImpl extends AbstractAnnotationDaoHiberna
 	 */
 	@SuppressWarnings("unchecked")
 	public List<FlatReportElement> getHoursPerDay(DateRange dateRange)
+	{
+		return createQuery(HOURS_PER_DAY, dateRange).list();
+	}
+
+	private Query createQuery(FlatReportElementRowMapper rowMapper, DateRange dateRange)
 	{
 		Session session = this.getSession();
-		
-		Query query = session.getNamedQuery("Report.getHoursPerDay")
+
+		return session.getNamedQuery(rowMapper.getQueryName())
 						.setDate("dateStart", dateRange.getDateStart())
 						.setDate("dateEnd", dateRange.getDateEnd())
-						.setResultTransformer(Transformers.aliasToBean(FlatReportElement.class));
-
-		return query.list();	
+						.setResultTransformer(rowMapper);
 	}
 }
@@ -0,0 +1,266 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.persistence.report.dao;
+
+import net.rrm.ehour.report.reports.element.FlatReportElement;
+import org.hibernate.HibernateException;
+import org.hibernate.transform.ResultTransformer;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index based row mapper for the Report.getHoursPerDay* and Report.getHoursPerMonthPerAssignment* sql queries.
+ * The column aliases are resolved to typed setters once, on the first row of the first execution,
+ * after that each row is filled by position without any reflection.
+ * One instance per named query, instances are thread safe and can be shared.
+ */
+public final class FlatReportElementRowMapper implements ResultTransformer
+{
+    private static final long serialVersionUID = -1716406347209611453L;
+
+    private static final Map<String, Column> COLUMNS_BY_ALIAS = new HashMap<String, Column>();
+
+    static
+    {
+        for (Column column : Column.values())
+        {
+            COLUMNS_BY_ALIAS.put(column.alias.toLowerCase(), column);
+        }
+    }
+
+    private final String queryName;
+
+    // resolved once, the aliases of a named query never change
+    private transient volatile Column[] columns;
+
+    public FlatReportElementRowMapper(String queryName)
+    {
+        this.queryName = queryName;
+    }
+
+    public String getQueryName()
+    {
+        return queryName;
+    }
+
+    public Object transformTuple(Object[] tuple, String[] aliases)
+    {
+        Column[] mapping = columns;
+
+        if (mapping == null || mapping.length != tuple.length)
+        {
+            mapping = resolveColumns(aliases);
+            columns = mapping;
+        }
+
+        FlatReportElement element = new FlatReportElement();
+
+        for (int i = 0; i < mapping.length; i++)
+        {
+            Column column = mapping[i];
+
+            if (column != null)
+            {
+                column.set(element, tuple[i]);
+            }
+        }
+
+        return element;
+    }
+
+    @SuppressWarnings("rawtypes")
+    public List transformList(List collection)
+    {
+        return collection;
+    }
+
+    private Column[] resolveColumns(String[] aliases)
+    {
+        Column[] mapping = new Column[aliases.length];
+
+        for (int i = 0; i < aliases.length; i++)
+        {
+            // unaliased columns (null alias) are skipped, just like aliasToBean did
+            if (aliases[i] != null)
+            {
+                Column column = COLUMNS_BY_ALIAS.get(aliases[i].toLowerCase());
+
+                if (column == null)
+                {
+                    throw new HibernateException("Query " + queryName + " selects column " + aliases[i] + " which can't be mapped on FlatReportElement");
+                }
+
+                mapping[i] = column;
+            }
+        }
+
+        return mapping;
+    }
+
+    private static Integer toInteger(Object value)
+    {
+        if (value == null || value instanceof Integer)
+        {
+            return (Integer) value;
+        }
+
+        return ((Number) value).intValue();
+    }
+
+    private static String toString(Object value)
+    {
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * Selectable columns, each with a direct setter on FlatReportElement
+     */
+    enum Column
+    {
+        TOTAL_HOURS("totalHours")
+        {
+            void set(FlatReportElement element, Object value)
+            {
+                element.setTotalHours((Number) value);
+            }
+        },
+        TOTAL_TURNOVER("totalTurnOver")
+        {
+            void set(FlatReportElement element, Object value)
+            {
+                element.setTotalTurnOver((Number) value);
+            }
+        },
+        HOURS("hours")
+        {
+            void set(FlatReportElement element, Object value)
+            {
+                element.setHours((Number) value);
+            }
+        },
+        ENTRY_DATE("entryDate")
+        {
+            void set(FlatReportElement element, Object value)
+            {
+                element.setEntryDate(FlatReportElementRowMapper.toString(value));
+            }
+        },
+        DAY_DATE("dayDate")
+        {
+            void set(FlatReportElement element, Object value)
+            {
+                element.setDayDate((Date) value);
+            }
+        },
+        ASSIGNMENT_ID("assignmentId")
+        {
+            void set(FlatReportElement element, Object value)
+            {
+                element.setAssignmentId(toInteger(value));
+            }
+        },
+        ASSIGNMENT_DESC("assignmentDesc")
+        {
+            void set(FlatReportElement element, Object value)
+            {
+                element.setAssignmentDesc(FlatReportElementRowMapper.toString(value));
+            }
+        },
+        CUSTOMER_ID("customerId")
+        {
+            void set(FlatReportElement element, Object value)
+            {
+                element.setCustomerId(toInteger(value));
+            }
+        },
+        CUSTOMER_NAME("customerName")
+        {
+            void set(FlatReportElement element, Object value)
+            {
+                element.setCustomerName(FlatReportElementRowMapper.toString(value));
+            }
+        },
+        CUSTOMER_CODE("customerCode")
+        {
+            void set(FlatReportElement element, Object value)
+            {
+                element.setCustomerCode(FlatReportElementRowMapper.toString(value));
+            }
+        },
+        PROJECT_ID("projectId")
+        {
+            void set(FlatReportElement element, Object value)
+            {
+                element.setProjectId(toInteger(value));
+            }
+        },
+        PROJECT_NAME("projectName")
+        {
+            void set(FlatReportElement element, Object value)
+            {
+                element.setProjectName(FlatReportElementRowMapper.toString(value));
+            }
+        },
+        USER_ID("userId")
+        {
+            void set(FlatReportElement element, Object value)
+            {
+                element.setUserId(toInteger(value));
+            }
+        },
+        USER_FIRST_NAME("userFirstName")
+        {
+            void set(FlatReportElement element, Object value)
+            {
+                element.setUserFirstName(FlatReportElementRowMapper.toString(value));
+            }
+        },
+        USER_LAST_NAME("userLastName")
+        {
+            void set(FlatReportElement element, Object value)
+            {
+                element.setUserLastName(FlatReportElementRowMapper.toString(value));
+            }
+        },
+        COMMENT("comment")
+        {
+            void set(FlatReportElement element, Object value)
+            {
+                element.setComment(FlatReportElementRowMapper.toString(value));
+            }
+        },
+        DISPLAY_ORDER("displayOrder")
+        {
+            void set(FlatReportElement element, Object value)
+            {
+                element.setDisplayOrder(toInteger(value));
+            }
+        };
+
+        private final String alias;
+
+        Column(String alias)
+        {
+            this.alias = alias;
+        }
+
+        abstract void set(FlatReportElement element, Object value);
+    }
+}
@@ -20,10 +20,14 @@ import java.io.Serializable;
 import java.util.List;
 
 import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.domain.Customer;
 import net.rrm.ehour.domain.Project;
 import net.rrm.ehour.domain.ProjectAssignment;
 import net.rrm.ehour.domain.User;
+import net.rrm.ehour.domain.UserDepartment;
+import net.rrm.ehour.report.reports.element.AggregateRollupRow;
 import net.rrm.ehour.report.reports.element.AssignmentAggregateReportElement;
+import net.rrm.ehour.report.reports.element.AssignmentAggregateRow;
 
 /**
  * Reporting data operations 
@@ -96,6 +100,72 @@ public interface ReportAggregatedDao
 	 */
 	public List<AssignmentAggregateReportElement> getCumulatedHoursPerAssignment(DateRange dateRange);
 	
+	/**
+	 * Get aggregated rows per assignment in a date range, projected in a single query
+	 * without hydrating the assignment entities
+	 * @param dateRange
+	 * @return
+	 */
+	public List<AssignmentAggregateRow> getAggregateRowsPerAssignment(DateRange dateRange);
+
+	/**
+	 * Get aggregated rows per assignment for users in a date range
+	 * @param users
+	 * @param dateRange
+	 * @return
+	 */
+	public List<AssignmentAggregateRow> getAggregateRowsPerAssignmentForUsers(List<User> users, DateRange dateRange);
+
+	/**
+	 * Get aggregated rows per assignment for projects in a date range
+	 * @param projects
+	 * @param dateRange
+	 * @return
+	 */
+	public List<AssignmentAggregateRow> getAggregateRowsPerAssignmentForProjects(List<Project> projects, DateRange dateRange);
+
+	/**
+	 * Get aggregated rows per assignment for users and projects in a date range
+	 * @param users
+	 * @param projects
+	 * @param dateRange
+	 * @return
+	 */
+	public List<AssignmentAggregateRow> getAggregateRowsPerAssignmentForUsers(List<User> users, List<Project> projects, DateRange dateRange);
+
+	/**
+	 * Get aggregated rows per assignment for the users of departments in a date range.
+	 * Joins on the department instead of binding the (possibly large) list of users
+	 * @param departments
+	 * @param onlyActiveUsers
+	 * @param dateRange
+	 * @return
+	 */
+	public List<AssignmentAggregateRow> getAggregateRowsPerAssignmentForDepartments(List<UserDepartment> departments, boolean onlyActiveUsers, DateRange dateRange);
+
+	/**
+	 * Get aggregated rows per assignment for the projects of customers in a date range.
+	 * Joins on the customer instead of binding the (possibly large) list of projects
+	 * @param customers
+	 * @param onlyActiveProjects
+	 * @param dateRange
+	 * @return
+	 */
+	public List<AssignmentAggregateRow> getAggregateRowsPerAssignmentForCustomers(List<Customer> customers, boolean onlyActiveProjects, DateRange dateRange);
+
+	/**
+	 * Get aggregated rows per assignment for the users of departments on the projects of customers in a date range
+	 * @param departments
+	 * @param onlyActiveUsers
+	 * @param customers
+	 * @param onlyActiveProjects
+	 * @param dateRange
+	 * @return
+	 */
+	public List<AssignmentAggregateRow> getAggregateRowsPerAssignmentForDepartmentsAndCustomers(List<UserDepartment> departments, boolean onlyActiveUsers,
+																								List<Customer> customers, boolean onlyActiveProjects,
+																								DateRange dateRange);
+
 	/**
 	 * Get the min/max timesheet date
 	 * @return
@@ -114,4 +184,43 @@ public interface ReportAggregatedDao
 	 * @return
 	 */
 	public DateRange getMinMaxDateTimesheetEntry(Project project);
+
+	/**
+	 * Are the rolled up (customer, project, assignment) queries available for the configured database.
+	 * Derby doesn't support ROLLUP, subtotals are calculated in memory there
+	 * @return
+	 */
+	public boolean isRollupSupported();
+
+	/**
+	 * Get assignment rows with project and customer subtotals and the grand total in a date range
+	 * @param dateRange
+	 * @return
+	 */
+	public List<AggregateRollupRow> getAggregateRollupRows(DateRange dateRange);
+
+	/**
+	 * Get rolled up assignment rows for users in a date range
+	 * @param userIds
+	 * @param dateRange
+	 * @return
+	 */
+	public List<AggregateRollupRow> getAggregateRollupRowsForUsers(List<? extends Serializable> userIds, DateRange dateRange);
+
+	/**
+	 * Get rolled up assignment rows for projects in a date range
+	 * @param projectIds
+	 * @param dateRange
+	 * @return
+	 */
+	public List<AggregateRollupRow> getAggregateRollupRowsForProjects(List<? extends Serializable> projectIds, DateRange dateRange);
+
+	/**
+	 * Get rolled up assignment rows for users and projects in a date range
+	 * @param userIds
+	 * @param projectIds
+	 * @param dateRange
+	 * @return
+	 */
+	public List<AggregateRollupRow> getAggregateRollupRowsForUsersAndProjects(List<? extends Serializable> userIds, List<? extends Serializable> projectIds, DateRange dateRange);
 }
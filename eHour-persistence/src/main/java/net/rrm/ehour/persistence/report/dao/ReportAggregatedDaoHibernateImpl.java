@@ -17,15 +17,23 @@
 package net.rrm.ehour.persistence.report.dao;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 
 import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.domain.Customer;
 import net.rrm.ehour.domain.Project;
 import net.rrm.ehour.domain.ProjectAssignment;
 import net.rrm.ehour.domain.User;
+import net.rrm.ehour.domain.UserDepartment;
 import net.rrm.ehour.persistence.dao.AbstractAnnotationDaoHibernateImpl;
+import net.rrm.ehour.persistence.dao.InClauseUtil;
+import net.rrm.ehour.report.reports.element.AggregateRollupRow;
 import net.rrm.ehour.report.reports.element.AssignmentAggregateReportElement;
+import net.rrm.ehour.report.reports.element.AssignmentAggregateRow;
 
+import org.hibernate.Query;
+import org.hibernate.engine.SessionFactoryImplementor;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -36,6 +44,11 @@ import org.springframework.stereotype.Repository;
 @Repository("reportAggregatedDao")
 public class ReportAggregatedDaoHibernateImpl extends AbstractAnnotationDaoHibernateImpl implements ReportAggregatedDao
 {
+	private static final AggregateRollupRowMapper AGGREGATE_ROLLUP = new AggregateRollupRowMapper("Report.getAggregateRollup");
+	private static final AggregateRollupRowMapper AGGREGATE_ROLLUP_FOR_USERS = new AggregateRollupRowMapper("Report.getAggregateRollupForUsers");
+	private static final AggregateRollupRowMapper AGGREGATE_ROLLUP_FOR_PROJECTS = new AggregateRollupRowMapper("Report.getAggregateRollupForProjects");
+	private static final AggregateRollupRowMapper AGGREGATE_ROLLUP_FOR_USERS_AND_PROJECTS = new AggregateRollupRowMapper("Report.getAggregateRollupForUsersAndProjects");
+
 	/*
 	 * (non-Javadoc)
 	 * @see net.rrm.ehour.persistence.persistence.report.dao.ReportAggregatedDAO#getCumulatedHoursPerAssignmentForUsers(java.util.List, net.rrm.ehour.persistence.persistence.data.DateRange)
@@ -184,4 +197,196 @@ public class ReportAggregatedDaoHibernateImpl extends AbstractAnnotationDaoHiber
 																		, "project",
 																		project);
 		return results.get(0);	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.rrm.ehour.persistence.report.dao.ReportAggregatedDao#getAggregateRowsPerAssignment(net.rrm.ehour.data.DateRange)
+	 */
+	@SuppressWarnings("unchecked")
+	public List<AssignmentAggregateRow> getAggregateRowsPerAssignment(DateRange dateRange)
+	{
+		String[] keys = new String[]{"dateStart", "dateEnd"};
+		Object[] params = new Object[]{dateRange.getDateStart(), dateRange.getDateEnd()};
+
+		return getHibernateTemplate().findByNamedQueryAndNamedParam("Report.getAggregateRowsOnDate", keys, params);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.rrm.ehour.persistence.report.dao.ReportAggregatedDao#getAggregateRowsPerAssignmentForUsers(java.util.List, net.rrm.ehour.data.DateRange)
+	 */
+	public List<AssignmentAggregateRow> getAggregateRowsPerAssignmentForUsers(List<User> users, DateRange dateRange)
+	{
+		List<AssignmentAggregateRow> rows = new ArrayList<AssignmentAggregateRow>();
+
+		// rows are grouped per assignment which belongs to one user, the chunks never overlap
+		for (List<User> userChunk : InClauseUtil.partition(users))
+		{
+			String[] keys = new String[]{"dateStart", "dateEnd", "users"};
+			Object[] params = new Object[]{dateRange.getDateStart(), dateRange.getDateEnd(), userChunk.toArray()};
+
+			rows.addAll(findAggregateRows("Report.getAggregateRowsOnDateForUsers", keys, params));
+		}
+
+		return rows;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.rrm.ehour.persistence.report.dao.ReportAggregatedDao#getAggregateRowsPerAssignmentForProjects(java.util.List, net.rrm.ehour.data.DateRange)
+	 */
+	public List<AssignmentAggregateRow> getAggregateRowsPerAssignmentForProjects(List<Project> projects, DateRange dateRange)
+	{
+		List<AssignmentAggregateRow> rows = new ArrayList<AssignmentAggregateRow>();
+
+		for (List<Project> projectChunk : InClauseUtil.partition(projects))
+		{
+			String[] keys = new String[]{"dateStart", "dateEnd", "projects"};
+			Object[] params = new Object[]{dateRange.getDateStart(), dateRange.getDateEnd(), projectChunk.toArray()};
+
+			rows.addAll(findAggregateRows("Report.getAggregateRowsOnDateForProjects", keys, params));
+		}
+
+		return rows;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.rrm.ehour.persistence.report.dao.ReportAggregatedDao#getAggregateRowsPerAssignmentForUsers(java.util.List, java.util.List, net.rrm.ehour.data.DateRange)
+	 */
+	public List<AssignmentAggregateRow> getAggregateRowsPerAssignmentForUsers(List<User> users, List<Project> projects, DateRange dateRange)
+	{
+		List<AssignmentAggregateRow> rows = new ArrayList<AssignmentAggregateRow>();
+
+		for (List<User> userChunk : InClauseUtil.partition(users))
+		{
+			for (List<Project> projectChunk : InClauseUtil.partition(projects))
+			{
+				String[] keys = new String[]{"dateStart", "dateEnd", "users", "projects"};
+				Object[] params = new Object[]{dateRange.getDateStart(), dateRange.getDateEnd(), userChunk.toArray(), projectChunk.toArray()};
+
+				rows.addAll(findAggregateRows("Report.getAggregateRowsOnDateForUsersAndProjects", keys, params));
+			}
+		}
+
+		return rows;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.rrm.ehour.persistence.report.dao.ReportAggregatedDao#getAggregateRowsPerAssignmentForDepartments(java.util.List, boolean, net.rrm.ehour.data.DateRange)
+	 */
+	public List<AssignmentAggregateRow> getAggregateRowsPerAssignmentForDepartments(List<UserDepartment> departments, boolean onlyActiveUsers, DateRange dateRange)
+	{
+		String[] keys = new String[]{"dateStart", "dateEnd", "departments", "userActiveStates"};
+		Object[] params = new Object[]{dateRange.getDateStart(), dateRange.getDateEnd(), departments.toArray(), getActiveStates(onlyActiveUsers)};
+
+		return findAggregateRows("Report.getAggregateRowsOnDateForDepartments", keys, params);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.rrm.ehour.persistence.report.dao.ReportAggregatedDao#getAggregateRowsPerAssignmentForCustomers(java.util.List, boolean, net.rrm.ehour.data.DateRange)
+	 */
+	public List<AssignmentAggregateRow> getAggregateRowsPerAssignmentForCustomers(List<Customer> customers, boolean onlyActiveProjects, DateRange dateRange)
+	{
+		String[] keys = new String[]{"dateStart", "dateEnd", "customers", "projectActiveStates"};
+		Object[] params = new Object[]{dateRange.getDateStart(), dateRange.getDateEnd(), customers.toArray(), getActiveStates(onlyActiveProjects)};
+
+		return findAggregateRows("Report.getAggregateRowsOnDateForCustomers", keys, params);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.rrm.ehour.persistence.report.dao.ReportAggregatedDao#getAggregateRowsPerAssignmentForDepartmentsAndCustomers(java.util.List, boolean, java.util.List, boolean, net.rrm.ehour.data.DateRange)
+	 */
+	public List<AssignmentAggregateRow> getAggregateRowsPerAssignmentForDepartmentsAndCustomers(List<UserDepartment> departments, boolean onlyActiveUsers,
+																								List<Customer> customers, boolean onlyActiveProjects,
+																								DateRange dateRange)
+	{
+		String[] keys = new String[]{"dateStart", "dateEnd", "departments", "userActiveStates", "customers", "projectActiveStates"};
+		Object[] params = new Object[]{dateRange.getDateStart(), dateRange.getDateEnd(),
+										departments.toArray(), getActiveStates(onlyActiveUsers),
+										customers.toArray(), getActiveStates(onlyActiveProjects)};
+
+		return findAggregateRows("Report.getAggregateRowsOnDateForDepartmentsAndCustomers", keys, params);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.rrm.ehour.persistence.report.dao.ReportAggregatedDao#isRollupSupported()
+	 */
+	public boolean isRollupSupported()
+	{
+		SessionFactoryImplementor sessionFactory = (SessionFactoryImplementor) getHibernateTemplate().getSessionFactory();
+
+		// only the mysql and postgresql report query files define the rollup queries
+		return sessionFactory.getNamedSQLQuery(AGGREGATE_ROLLUP.getQueryName()) != null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.rrm.ehour.persistence.report.dao.ReportAggregatedDao#getAggregateRollupRows(net.rrm.ehour.data.DateRange)
+	 */
+	@SuppressWarnings("unchecked")
+	public List<AggregateRollupRow> getAggregateRollupRows(DateRange dateRange)
+	{
+		return createRollupQuery(AGGREGATE_ROLLUP, dateRange).list();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.rrm.ehour.persistence.report.dao.ReportAggregatedDao#getAggregateRollupRowsForUsers(java.util.List, net.rrm.ehour.data.DateRange)
+	 */
+	@SuppressWarnings("unchecked")
+	public List<AggregateRollupRow> getAggregateRollupRowsForUsers(List<? extends Serializable> userIds, DateRange dateRange)
+	{
+		return createRollupQuery(AGGREGATE_ROLLUP_FOR_USERS, dateRange)
+					.setParameterList("userIds", userIds)
+					.list();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.rrm.ehour.persistence.report.dao.ReportAggregatedDao#getAggregateRollupRowsForProjects(java.util.List, net.rrm.ehour.data.DateRange)
+	 */
+	@SuppressWarnings("unchecked")
+	public List<AggregateRollupRow> getAggregateRollupRowsForProjects(List<? extends Serializable> projectIds, DateRange dateRange)
+	{
+		return createRollupQuery(AGGREGATE_ROLLUP_FOR_PROJECTS, dateRange)
+					.setParameterList("projectIds", projectIds)
+					.list();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.rrm.ehour.persistence.report.dao.ReportAggregatedDao#getAggregateRollupRowsForUsersAndProjects(java.util.List, java.util.List, net.rrm.ehour.data.DateRange)
+	 */
+	@SuppressWarnings("unchecked")
+	public List<AggregateRollupRow> getAggregateRollupRowsForUsersAndProjects(List<? extends Serializable> userIds, List<? extends Serializable> projectIds, DateRange dateRange)
+	{
+		return createRollupQuery(AGGREGATE_ROLLUP_FOR_USERS_AND_PROJECTS, dateRange)
+					.setParameterList("userIds", userIds)
+					.setParameterList("projectIds", projectIds)
+					.list();
+	}
+
+	private Query createRollupQuery(AggregateRollupRowMapper rowMapper, DateRange dateRange)
+	{
+		return getSession().getNamedQuery(rowMapper.getQueryName())
+					.setDate("dateStart", dateRange.getDateStart())
+					.setDate("dateEnd", dateRange.getDateEnd())
+					.setResultTransformer(rowMapper);
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<AssignmentAggregateRow> findAggregateRows(String queryName, String[] keys, Object[] params)
+	{
+		return getHibernateTemplate().findByNamedQueryAndNamedParam(queryName, keys, params);
+	}
+
+	private Boolean[] getActiveStates(boolean onlyActive)
+	{
+		return onlyActive ? new Boolean[]{Boolean.TRUE} : new Boolean[]{Boolean.TRUE, Boolean.FALSE};
+	}
 }
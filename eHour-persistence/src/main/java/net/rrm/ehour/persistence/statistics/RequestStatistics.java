@@ -0,0 +1,122 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.persistence.statistics;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statements, entity loads and collection fetches of a single request.
+ * Filled by one thread only, not thread safe.
+ */
+public class RequestStatistics implements Serializable
+{
+    private static final long serialVersionUID = -6102465376402758815L;
+
+    private int queryCount;
+    private int entityLoadCount;
+    private int collectionFetchCount;
+
+    private final Map<String, Integer> statementCounts = new HashMap<String, Integer>();
+    private final Map<String, Integer> collectionFetchCounts = new HashMap<String, Integer>();
+
+    void statementPrepared(String sql)
+    {
+        queryCount++;
+        increment(statementCounts, sql);
+    }
+
+    void entityLoaded()
+    {
+        entityLoadCount++;
+    }
+
+    void collectionFetched(String role)
+    {
+        collectionFetchCount++;
+        increment(collectionFetchCounts, role);
+    }
+
+    private static void increment(Map<String, Integer> counts, String key)
+    {
+        Integer count = counts.get(key);
+        counts.put(key, count == null ? 1 : count + 1);
+    }
+
+    public int getQueryCount()
+    {
+        return queryCount;
+    }
+
+    public int getEntityLoadCount()
+    {
+        return entityLoadCount;
+    }
+
+    public int getCollectionFetchCount()
+    {
+        return collectionFetchCount;
+    }
+
+    /**
+     * Statements executed more than once, the same statement executed over and over is the signature of an N+1
+     * @param max maximum number of statements to return
+     * @return most executed first
+     */
+    public List<Map.Entry<String, Integer>> getRepeatedStatements(int max)
+    {
+        return getMostFrequent(statementCounts, max);
+    }
+
+    /**
+     * Lazy collections initialized more than once, by role (Entity.property)
+     * @param max maximum number of roles to return
+     * @return most fetched first
+     */
+    public List<Map.Entry<String, Integer>> getRepeatedCollectionFetches(int max)
+    {
+        return getMostFrequent(collectionFetchCounts, max);
+    }
+
+    private static List<Map.Entry<String, Integer>> getMostFrequent(Map<String, Integer> counts, int max)
+    {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<Map.Entry<String, Integer>>();
+
+        for (Map.Entry<String, Integer> entry : counts.entrySet())
+        {
+            if (entry.getValue() > 1)
+            {
+                entries.add(entry);
+            }
+        }
+
+        Collections.sort(entries, new Comparator<Map.Entry<String, Integer>>()
+        {
+            public int compare(Map.Entry<String, Integer> o1, Map.Entry<String, Integer> o2)
+            {
+                return o2.getValue().compareTo(o1.getValue());
+            }
+        });
+
+        return entries.size() > max ? new ArrayList<Map.Entry<String, Integer>>(entries.subList(0, max)) : entries;
+    }
+}
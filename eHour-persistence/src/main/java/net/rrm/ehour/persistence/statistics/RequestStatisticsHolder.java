@@ -0,0 +1,51 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.persistence.statistics;
+
+/**
+ * Binds the statistics of the current request to the thread. Hibernate's own Statistics are
+ * kept per session factory, they can't tell concurrent requests apart.
+ * Nothing is recorded for threads without a started request.
+ */
+public final class RequestStatisticsHolder
+{
+    private static final ThreadLocal<RequestStatistics> CURRENT = new ThreadLocal<RequestStatistics>();
+
+    private RequestStatisticsHolder()
+    {
+    }
+
+    public static void begin()
+    {
+        CURRENT.set(new RequestStatistics());
+    }
+
+    /**
+     * @return the statistics of the request, null when none was started on this thread
+     */
+    public static RequestStatistics end()
+    {
+        RequestStatistics statistics = CURRENT.get();
+        CURRENT.remove();
+        return statistics;
+    }
+
+    static RequestStatistics current()
+    {
+        return CURRENT.get();
+    }
+}
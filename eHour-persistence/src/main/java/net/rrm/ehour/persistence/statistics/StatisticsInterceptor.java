@@ -0,0 +1,56 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.persistence.statistics;
+
+import java.io.Serializable;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.type.Type;
+
+/**
+ * Counts prepared statements and entity loads on the request bound to the current thread
+ */
+public class StatisticsInterceptor extends EmptyInterceptor
+{
+    private static final long serialVersionUID = 3297614722869108370L;
+
+    @Override
+    public String onPrepareStatement(String sql)
+    {
+        RequestStatistics statistics = RequestStatisticsHolder.current();
+
+        if (statistics != null)
+        {
+            statistics.statementPrepared(sql);
+        }
+
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types)
+    {
+        RequestStatistics statistics = RequestStatisticsHolder.current();
+
+        if (statistics != null)
+        {
+            statistics.entityLoaded();
+        }
+
+        return false;
+    }
+}
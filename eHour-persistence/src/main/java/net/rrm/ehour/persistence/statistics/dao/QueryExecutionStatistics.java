@@ -0,0 +1,73 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.persistence.statistics.dao;
+
+import java.io.Serializable;
+
+/**
+ * Execution statistics of a single HQL or named sql query, as kept by Hibernate since startup
+ */
+public class QueryExecutionStatistics implements Serializable
+{
+    private static final long serialVersionUID = 6915862930128373314L;
+
+    private final String query;
+    private final long executionCount;
+    private final long executionAvgTime;
+    private final long executionMaxTime;
+    private final long executionRowCount;
+
+    public QueryExecutionStatistics(String query, long executionCount, long executionAvgTime, long executionMaxTime, long executionRowCount)
+    {
+        this.query = query;
+        this.executionCount = executionCount;
+        this.executionAvgTime = executionAvgTime;
+        this.executionMaxTime = executionMaxTime;
+        this.executionRowCount = executionRowCount;
+    }
+
+    public String getQuery()
+    {
+        return query;
+    }
+
+    public long getExecutionCount()
+    {
+        return executionCount;
+    }
+
+    /**
+     * @return average execution time in ms
+     */
+    public long getExecutionAvgTime()
+    {
+        return executionAvgTime;
+    }
+
+    /**
+     * @return maximum execution time in ms
+     */
+    public long getExecutionMaxTime()
+    {
+        return executionMaxTime;
+    }
+
+    public long getExecutionRowCount()
+    {
+        return executionRowCount;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.persistence.statistics.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import net.rrm.ehour.persistence.dao.AbstractAnnotationDaoHibernateImpl;
+
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Repository;
+
+@Repository("queryStatisticsDao")
+public class QueryStatisticsDaoHibernateImpl extends AbstractAnnotationDaoHibernateImpl implements QueryStatisticsDao
+{
+    /*
+     * (non-Javadoc)
+     * @see net.rrm.ehour.persistence.statistics.dao.QueryStatisticsDao#isStatisticsEnabled()
+     */
+    public boolean isStatisticsEnabled()
+    {
+        return getStatistics().isStatisticsEnabled();
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see net.rrm.ehour.persistence.statistics.dao.QueryStatisticsDao#getMostExecutedQueries(int)
+     */
+    public List<QueryExecutionStatistics> getMostExecutedQueries(int max)
+    {
+        Statistics statistics = getStatistics();
+
+        List<QueryExecutionStatistics> queries = new ArrayList<QueryExecutionStatistics>();
+
+        for (String query : statistics.getQueries())
+        {
+            QueryStatistics queryStatistics = statistics.getQueryStatistics(query);
+
+            queries.add(new QueryExecutionStatistics(query,
+                                                        queryStatistics.getExecutionCount(),
+                                                        queryStatistics.getExecutionAvgTime(),
+                                                        queryStatistics.getExecutionMaxTime(),
+                                                        queryStatistics.getExecutionRowCount()));
+        }
+
+        Collections.sort(queries, new Comparator<QueryExecutionStatistics>()
+        {
+            public int compare(QueryExecutionStatistics o1, QueryExecutionStatistics o2)
+            {
+                return o1.getExecutionCount() > o2.getExecutionCount() ? -1 : (o1.getExecutionCount() == o2.getExecutionCount() ? 0 : 1);
+            }
+        });
+
+        return queries.size() > max ? new ArrayList<QueryExecutionStatistics>(queries.subList(0, max)) : queries;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see net.rrm.ehour.persistence.statistics.dao.QueryStatisticsDao#clear()
+     */
+    public void clear()
+    {
+        getStatistics().clear();
+    }
+
+    private Statistics getStatistics()
+    {
+        return getHibernateTemplate().getSessionFactory().getStatistics();
+    }
+}
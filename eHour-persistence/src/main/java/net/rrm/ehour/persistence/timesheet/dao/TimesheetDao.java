@@ -17,6 +17,7 @@
 package net.rrm.ehour.persistence.timesheet.dao;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -72,6 +73,13 @@ public interface TimesheetDao extends GenericDao<TimesheetEntry, TimesheetEntryI
 	 */	
 	public List<BookedDay> getBookedHoursperDayInRange(Integer userId, DateRange dateRange);
 
+	/**
+	 * Get cumulated hours per day of every user in one query
+	 * @param dateRange
+	 * @return booked days with the userId set
+	 */
+	public List<BookedDay> getBookedHoursperDayInRange(DateRange dateRange);
+
 	/**
 	 * Get latest timesheet entry for assignment
 	 * @param assignmentId
@@ -85,4 +93,17 @@ public interface TimesheetDao extends GenericDao<TimesheetEntry, TimesheetEntryI
 	 * @return entries deleted
 	 */
 	public int deleteTimesheetEntries(List<? extends Serializable> assignmentIds);
+
+	/**
+	 * Flush the pending inserts, updates and deletes of the session. With JDBC batching
+	 * they're sent as one batch per statement rather than statement by statement
+	 */
+	public void flush();
+
+	/**
+	 * Evict entries from the session and, once the transaction completed, from the second level cache.
+	 * Rolling back to a savepoint only reverts the database, Hibernate still holds the rolled back state.
+	 * @param entries
+	 */
+	public void discard(Collection<TimesheetEntry> entries);
 }
@@ -25,10 +25,16 @@ import net.rrm.ehour.timesheet.dto.BookedDay;
 import org.hibernate.HibernateException;
 import org.hibernate.Query;
 import org.hibernate.Session;
+import org.hibernate.SessionFactory;
 import org.springframework.orm.hibernate3.HibernateCallback;
+import org.springframework.orm.hibernate3.HibernateTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -81,6 +87,19 @@ public class TimesheetDaoHibernateImpl
 	{
 		return getSheetOnUserIdAndRange(userId, dateRange, "Timesheet.getBookedDaysInRangeForUserId");
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.rrm.ehour.persistence.timesheet.dao.TimesheetDao#getBookedHoursperDayInRange(net.rrm.ehour.data.DateRange)
+	 */
+	@SuppressWarnings("unchecked")
+	public List<BookedDay> getBookedHoursperDayInRange(DateRange dateRange)
+	{
+		String[] keys = new String[]{"dateStart", "dateEnd"};
+		Object[] params = new Object[]{dateRange.getDateStart(), dateRange.getDateEnd()};
+
+		return getHibernateTemplate().findByNamedQueryAndNamedParam("Timesheet.getBookedDaysInRangePerUser", keys, params);
+	}
 	 	
 	/**
 	 * 
@@ -161,4 +180,60 @@ public class TimesheetDaoHibernateImpl
 		
 		return getHibernateTemplate().findByNamedQueryAndNamedParam("Timesheet.getEntriesBeforeDateForAssignment", keys, params);
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.rrm.ehour.persistence.timesheet.dao.TimesheetDao#flush()
+	 */
+	public void flush()
+	{
+		getHibernateTemplate().flush();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.rrm.ehour.persistence.timesheet.dao.TimesheetDao#discard(java.util.Collection)
+	 */
+	public void discard(Collection<TimesheetEntry> entries)
+	{
+		HibernateTemplate template = getHibernateTemplate();
+		final List<TimesheetEntryId> entryIds = new ArrayList<TimesheetEntryId>();
+
+		for (TimesheetEntry entry : entries)
+		{
+			if (template.contains(entry))
+			{
+				template.evict(entry);
+			}
+
+			entryIds.add(entry.getEntryId());
+		}
+
+		final SessionFactory sessionFactory = template.getSessionFactory();
+
+		if (TransactionSynchronizationManager.isSynchronizationActive())
+		{
+			// Hibernate puts the flushed state in the cache on commit, evict after that
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter()
+			{
+				@Override
+				public void afterCompletion(int status)
+				{
+					evictFromCache(sessionFactory, entryIds);
+				}
+			});
+		}
+		else
+		{
+			evictFromCache(sessionFactory, entryIds);
+		}
+	}
+
+	private void evictFromCache(SessionFactory sessionFactory, List<TimesheetEntryId> entryIds)
+	{
+		for (TimesheetEntryId entryId : entryIds)
+		{
+			sessionFactory.getCache().evictEntity(TimesheetEntry.class, entryId);
+		}
+	}
 }
@@ -0,0 +1,41 @@
+package net.rrm.ehour.persistence.mail.dao
+
+import net.rrm.ehour.persistence.dao.AbstractAnnotationDaoTest
+import org.junit.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.dao.DataIntegrityViolationException
+import static junit.framework.Assert.assertEquals
+
+class MailAssignmentSentDaoJdbcImplTest extends AbstractAnnotationDaoTest
+{
+	@Autowired
+	private MailAssignmentSentDao mailAssignmentSentDao
+
+	MailAssignmentSentDaoJdbcImplTest()
+	{
+		super("dataset-maillog.xml")
+	}
+
+	@Test
+	final void shouldFindIndexedAndLoggedMail()
+	{
+		def sent = mailAssignmentSentDao.findSent().collect { it as List }
+
+		assertEquals([[1, 1], [1, 2], [2, 2]], sent.sort { it[0] * 10 + it[1] })
+	}
+
+	@Test(expected = DataIntegrityViolationException)
+	final void shouldRejectSecondInsertForSameMail()
+	{
+		mailAssignmentSentDao.insert(1, 1)
+	}
+
+	@Test
+	final void shouldInsertAndDelete()
+	{
+		mailAssignmentSentDao.insert(2, 1)
+
+		assertEquals(1, mailAssignmentSentDao.delete(2, 1))
+		assertEquals(0, mailAssignmentSentDao.delete(2, 1))
+	}
+}
@@ -0,0 +1,88 @@
+package net.rrm.ehour.persistence.mail.dao
+
+import net.rrm.ehour.domain.MailOutbox
+import net.rrm.ehour.domain.MailType
+import net.rrm.ehour.persistence.dao.AbstractAnnotationDaoTest
+import org.hibernate.Hibernate
+import org.junit.Test
+import org.springframework.beans.factory.annotation.Autowired
+import static junit.framework.Assert.assertEquals
+import static junit.framework.Assert.assertNotNull
+import static junit.framework.Assert.assertTrue
+
+class MailOutboxDaoHibernateImplTest extends AbstractAnnotationDaoTest
+{
+	@Autowired
+	private MailOutboxDao mailOutboxDao
+
+	MailOutboxDaoHibernateImplTest()
+	{
+		super("dataset-mailoutbox.xml")
+	}
+
+	@Test
+	final void shouldFindPendingInQueueOrder()
+	{
+		def pending = mailOutboxDao.findPending(new Date(), 0, 2)
+
+		assertEquals([3, 4], pending*.outboxId)
+	}
+
+	@Test
+	final void shouldLeaveOutMailWaitingForFirstAttempt()
+	{
+		def pending = mailOutboxDao.findPending(new GregorianCalendar(2007, Calendar.APRIL, 7, 12, 30).time, 0, 10)
+
+		assertEquals([4], pending*.outboxId)
+	}
+
+	@Test
+	final void shouldFindOnlyFirstWaitingRetryPerRecipient()
+	{
+		def pending = mailOutboxDao.findPending(new GregorianCalendar(2007, Calendar.APRIL, 7, 12, 42).time, 0, 10)
+
+		// 6 is due, 4 is the first of user@localhost waiting for a retry
+		assertEquals([3, 4, 5, 6], pending*.outboxId)
+
+		pending = mailOutboxDao.findPending(new GregorianCalendar(2007, Calendar.APRIL, 7, 12, 38).time, 0, 10)
+
+		assertEquals([3, 4, 5], pending*.outboxId)
+	}
+
+	@Test
+	final void shouldFindPendingAfterOutboxId()
+	{
+		def pending = mailOutboxDao.findPending(new Date(), 4, 10)
+
+		assertEquals([5, 6], pending*.outboxId)
+	}
+
+	@Test
+	final void shouldFetchTypeAndAssignmentOfPending()
+	{
+		def pending = mailOutboxDao.findPending(new Date(), 0, 10)
+
+		assertTrue(Hibernate.isInitialized(pending[0].projectAssignment))
+		assertEquals(1, pending[0].mailType.mailTypeId)
+		assertEquals(1, pending[0].projectAssignment.assignmentId)
+	}
+
+	@Test
+	final void shouldDeleteOnIds()
+	{
+		assertEquals(2, mailOutboxDao.deleteOnIds([3, 5]))
+
+		assertEquals([4, 6], mailOutboxDao.findPending(new Date(), 0, 10)*.outboxId)
+	}
+
+	@Test
+	final void shouldPersist()
+	{
+		def mail = new MailOutbox(new MailType(1), null, "pm@localhost", "admin@localhost", "subject", "body")
+
+		mailOutboxDao.persist(mail)
+
+		assertNotNull(mail.outboxId)
+		assertEquals(5, mailOutboxDao.findPending(new Date(), 0, 10).size())
+	}
+}
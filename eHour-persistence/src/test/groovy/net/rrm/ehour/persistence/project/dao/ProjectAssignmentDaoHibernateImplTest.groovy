@@ -38,6 +38,16 @@ class ProjectAssignmentDaoHibernateImplTest extends AbstractAnnotationDaoTest
     assertEquals(7, pas.size());
   }
 
+  @Test
+  void shouldFindActiveAssignments()
+  {
+    def october = new DateRange(new Date(2006 - 1900, 10 - 1, 1), new Date(2006 - 1900, 10 - 1, 31))
+    def february = new DateRange(new Date(2007 - 1900, 2 - 1, 1), new Date(2007 - 1900, 2 - 1, 28))
+
+    assertEquals([1], projectAssignmentDAO.findActiveAssignments(october).collect { it.user.userId }.unique())
+    assertEquals([1, 2], projectAssignmentDAO.findActiveAssignments(february).collect { it.user.userId }.unique().sort())
+  }
+
   @Test
   void shouldFindAll()
   {
@@ -116,4 +126,17 @@ class ProjectAssignmentDaoHibernateImplTest extends AbstractAnnotationDaoTest
 
     assertEquals(3, list.size())
   }
+
+  @Test
+  void shouldMatchManagedAssignmentsOnIdentity()
+  {
+    ProjectAssignment pa = projectAssignmentDAO.findById(1)
+
+    assertEquals(new ProjectAssignment(1), pa)
+    assertEquals(new ProjectAssignment(1).hashCode(), pa.hashCode())
+    assertEquals(new Project(pa.project.projectId), pa.project)
+    assertTrue(pa.project.projectAssignments.contains(new ProjectAssignment(1)))
+    assertTrue(pa.user.projectAssignments.contains(pa))
+    assertTrue(new HashSet(projectAssignmentDAO.findProjectAssignments(pa.project)).contains(new ProjectAssignment(1)))
+  }
 }
@@ -5,6 +5,10 @@ import net.rrm.ehour.domain.ProjectAssignment
 import net.rrm.ehour.persistence.dao.AbstractAnnotationDaoTest
 import org.junit.Test
 import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.TransactionDefinition
+import org.springframework.transaction.support.TransactionCallback
+import org.springframework.transaction.support.TransactionTemplate
 import static junit.framework.Assert.assertEquals
 
 /**
@@ -16,6 +20,9 @@ class TimesheetDaoHibernateImplTest extends AbstractAnnotationDaoTest
 	@Autowired
 	private	TimesheetDao	timesheetDAO;
 
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
 	TimesheetDaoHibernateImplTest()
 	{
 		super("dataset-timesheet.xml");
@@ -62,6 +69,18 @@ class TimesheetDaoHibernateImplTest extends AbstractAnnotationDaoTest
 		assertEquals(-1, results[2].hours, 0.01);
 	}
 
+	@Test
+	void shouldGetBookedHoursperDayInRangeForAllUsers()
+	{
+		DateRange	dateRange = new DateRange(new Date(2007 - 1900, 2 - 1, 1), new Date(2007 - 1900, 2 - 1, 28));
+
+		def results = timesheetDAO.getBookedHoursperDayInRange(dateRange);
+
+		assertEquals(3, results.size());
+		assertEquals([1, 2, 2], results.collect { it.userId }.sort());
+		assertEquals(24, results.sum { it.hours }, 0.01);
+	}
+
 	@Test
 	void shouldGetTimesheetEntriesBefore()
 	{
@@ -94,6 +113,31 @@ class TimesheetDaoHibernateImplTest extends AbstractAnnotationDaoTest
 
 		assertEquals(2, deleted);
 	}
+
+	@Test
+	void shouldDiscardEntriesRolledBackToSavepoint()
+	{
+		Calendar 	dateStart = new GregorianCalendar(2006, 10 - 1, 1);
+		Calendar 	dateEnd = new GregorianCalendar(2006, 11 - 1, 1);
+		DateRange	dateRange = new DateRange(dateStart.getTime(), dateEnd.getTime());
+
+		def template = new TransactionTemplate(transactionManager)
+		template.propagationBehavior = TransactionDefinition.PROPAGATION_NESTED
+
+		template.execute({ status ->
+			def entries = timesheetDAO.getTimesheetEntriesInRange(new ProjectAssignment(2), dateRange);
+			entries.each { it.hours = 99f }
+			timesheetDAO.flush();
+
+			timesheetDAO.discard(entries);
+			status.setRollbackOnly();
+		} as TransactionCallback)
+
+		def results = timesheetDAO.getTimesheetEntriesInRange(new ProjectAssignment(2), dateRange);
+
+		assertEquals(2, results.size());
+		results.each { assert it.hours != 99f }
+	}
 }
 
 
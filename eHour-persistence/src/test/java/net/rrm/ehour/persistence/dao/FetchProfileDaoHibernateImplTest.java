@@ -0,0 +1,92 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.persistence.dao;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import net.rrm.ehour.domain.DomainFetchProfiles;
+import net.rrm.ehour.domain.Project;
+import net.rrm.ehour.persistence.project.dao.ProjectDao;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+public class FetchProfileDaoHibernateImplTest extends AbstractAnnotationDaoTest
+{
+	@Autowired
+	private FetchProfileDao fetchProfileDao;
+
+	@Autowired
+	private ProjectDao projectDao;
+
+	@Autowired
+	private SessionFactory sessionFactory;
+
+	public FetchProfileDaoHibernateImplTest()
+	{
+		super("dataset-projectassignment.xml");
+	}
+
+	@Test
+	public void shouldOnlyDisableProfileEnabledByOutermostCall()
+	{
+		fetchProfileDao.withFetchProfile(DomainFetchProfiles.USER_ADMIN, new FetchProfileCallback<Object>()
+		{
+			public Object doWithFetchProfile()
+			{
+				fetchProfileDao.withFetchProfile(DomainFetchProfiles.USER_ADMIN, new FetchProfileCallback<Object>()
+				{
+					public Object doWithFetchProfile()
+					{
+						return null;
+					}
+				});
+
+				assertTrue(isEnabled(DomainFetchProfiles.USER_ADMIN));
+				return null;
+			}
+		});
+
+		assertFalse(isEnabled(DomainFetchProfiles.USER_ADMIN));
+	}
+
+	@Test
+	public void shouldJoinFetchAssignmentsWithProjectAdminProfile()
+	{
+		sessionFactory.getCache().evictEntityRegion(Project.class);
+
+		Project project = fetchProfileDao.withFetchProfile(DomainFetchProfiles.PROJECT_ADMIN, new FetchProfileCallback<Project>()
+		{
+			public Project doWithFetchProfile()
+			{
+				return projectDao.findById(1);
+			}
+		});
+
+		assertTrue(Hibernate.isInitialized(project.getProjectAssignments()));
+		assertFalse(project.getProjectAssignments().isEmpty());
+		assertFalse(isEnabled(DomainFetchProfiles.PROJECT_ADMIN));
+	}
+
+	private boolean isEnabled(String profileName)
+	{
+		return sessionFactory.getCurrentSession().isFetchProfileEnabled(profileName);
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.persistence.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class InClauseUtilTest
+{
+	@Test
+	public void shouldNotChunkSmallLists()
+	{
+		List<Integer> ids = createIds(InClauseUtil.MAX_PARAMETER_LIST_SIZE);
+
+		List<List<Integer>> chunks = InClauseUtil.partition(ids);
+
+		assertFalse(InClauseUtil.requiresChunking(ids));
+		assertEquals(1, chunks.size());
+		assertSame(ids, chunks.get(0));
+	}
+
+	@Test
+	public void shouldChunkLargeLists()
+	{
+		List<Integer> ids = createIds(InClauseUtil.MAX_PARAMETER_LIST_SIZE * 2 + 1);
+
+		List<List<Integer>> chunks = InClauseUtil.partition(ids);
+
+		assertTrue(InClauseUtil.requiresChunking(ids));
+		assertEquals(3, chunks.size());
+		assertEquals(InClauseUtil.MAX_PARAMETER_LIST_SIZE, chunks.get(1).size());
+		assertEquals(1, chunks.get(2).size());
+		assertEquals(Integer.valueOf(ids.size() - 1), chunks.get(2).get(0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectInvalidChunkSize()
+	{
+		InClauseUtil.partition(createIds(1), 0);
+	}
+
+	private List<Integer> createIds(int count)
+	{
+		List<Integer> ids = new ArrayList<Integer>();
+
+		for (int i = 0; i < count; i++)
+		{
+			ids.add(i);
+		}
+
+		return ids;
+	}
+}
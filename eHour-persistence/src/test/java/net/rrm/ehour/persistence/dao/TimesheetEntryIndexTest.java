@@ -0,0 +1,133 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.persistence.dao;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.apache.log4j.Logger;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+/**
+ * Captures the Derby query plans of the hot TIMESHEET_ENTRY access paths
+ * to verify they're resolved on the indexes rather than with table scans
+ */
+public class TimesheetEntryIndexTest extends AbstractAnnotationDaoTest
+{
+	private static final Logger LOGGER = Logger.getLogger(TimesheetEntryIndexTest.class);
+
+	@Autowired
+	private DataSource eHourDataSource;
+
+	public TimesheetEntryIndexTest()
+	{
+		super("dataset-reportaggregated.xml");
+	}
+
+	@Test
+	public void shouldUseCoveringIndexForAssignmentAndDateRange() throws SQLException
+	{
+		String plan = getQueryPlan("SELECT ENTRY_DATE, HOURS FROM TIMESHEET_ENTRY WHERE ASSIGNMENT_ID = ? AND ENTRY_DATE BETWEEN ? AND ?",
+									1, Date.valueOf("2006-10-01"), Date.valueOf("2006-10-31"));
+
+		assertTrue(plan, plan.contains("using index IDX_ENTRY_ASSIGNMENT_DATE"));
+		// covering, the hours are read from the index without visiting the table
+		assertFalse(plan, plan.contains("Index Row to Base Row ResultSet"));
+	}
+
+	@Test
+	public void shouldUseIndexForSummingHoursPerAssignment() throws SQLException
+	{
+		String plan = getQueryPlan("SELECT ASSIGNMENT_ID, SUM(HOURS) FROM TIMESHEET_ENTRY WHERE ASSIGNMENT_ID IN (1, 2) AND ENTRY_DATE >= ? GROUP BY ASSIGNMENT_ID",
+									Date.valueOf("2006-10-01"));
+
+		assertTrue(plan, plan.contains("using index IDX_ENTRY_ASSIGNMENT_DATE"));
+		assertFalse(plan, plan.contains("Table Scan ResultSet for TIMESHEET_ENTRY"));
+	}
+
+	@Test
+	public void shouldNotScanTableForEntryDateRange() throws SQLException
+	{
+		String plan = getQueryPlan("SELECT MIN(ENTRY_DATE), MAX(ENTRY_DATE) FROM TIMESHEET_ENTRY WHERE ENTRY_DATE >= ?",
+									Date.valueOf("2006-10-01"));
+
+		assertTrue(plan, plan.contains("Index Scan ResultSet for TIMESHEET_ENTRY"));
+		assertFalse(plan, plan.contains("Table Scan ResultSet for TIMESHEET_ENTRY"));
+	}
+
+	/**
+	 * Execute the query with runtime statistics enabled and return Derby's plan description
+	 */
+	private String getQueryPlan(String sql, Object... parameters) throws SQLException
+	{
+		Connection connection = DataSourceUtils.getConnection(eHourDataSource);
+		Statement statement = connection.createStatement();
+
+		try
+		{
+			statement.execute("CALL SYSCS_UTIL.SYSCS_SET_RUNTIMESTATISTICS(1)");
+
+			PreparedStatement query = connection.prepareStatement(sql);
+
+			try
+			{
+				for (int i = 0; i < parameters.length; i++)
+				{
+					query.setObject(i + 1, parameters[i]);
+				}
+
+				ResultSet results = query.executeQuery();
+
+				while (results.next())
+				{
+					// the plan is only complete when all rows are read
+				}
+
+				results.close();
+			}
+			finally
+			{
+				query.close();
+			}
+
+			ResultSet statistics = statement.executeQuery("VALUES SYSCS_UTIL.SYSCS_GET_RUNTIMESTATISTICS()");
+			statistics.next();
+			String plan = statistics.getString(1);
+			statistics.close();
+
+			LOGGER.debug(plan);
+
+			return plan;
+		}
+		finally
+		{
+			statement.execute("CALL SYSCS_UTIL.SYSCS_SET_RUNTIMESTATISTICS(0)");
+			statement.close();
+		}
+	}
+}
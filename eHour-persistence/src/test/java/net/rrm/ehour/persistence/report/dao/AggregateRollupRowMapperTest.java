@@ -0,0 +1,95 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.persistence.report.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import net.rrm.ehour.report.reports.element.AggregateRollupRow;
+import net.rrm.ehour.report.reports.element.AssignmentAggregateRow;
+
+import org.hibernate.HibernateException;
+import org.junit.Test;
+
+public class AggregateRollupRowMapperTest
+{
+	private static final String[] ALIASES = {"customerId", "projectId", "assignmentId", "totalHours", "totalTurnOver",
+											 "hourlyRate", "dateStart", "dateEnd", "role", "allottedHours", "allowedOverrun", "active",
+											 "assignmentTypeId", "userId", "userFirstName", "userLastName",
+											 "projectCode", "projectName", "projectDescription", "projectBillable",
+											 "customerCode", "customerName"};
+
+	@Test
+	public void shouldMapAssignmentRow()
+	{
+		AggregateRollupRowMapper mapper = new AggregateRollupRowMapper("test");
+
+		Date start = new Date();
+		AggregateRollupRow row = (AggregateRollupRow) mapper.transformTuple(new Object[]{1L, 2, 3, 8.5f, new BigDecimal("85.00"),
+													new BigDecimal("10.00"), start, null, "dev", null, null, 'Y',
+													2, 4, "first", "last",
+													"PRJ", "project", null, "N",
+													"CUST", "customer"}, ALIASES);
+
+		assertTrue(row.isAssignmentRow());
+		assertEquals(85f, row.getTurnOver().floatValue(), 0.001f);
+
+		AssignmentAggregateRow assignmentRow = row.getAssignmentRow();
+		assertEquals(Integer.valueOf(3), assignmentRow.getAssignmentId());
+		assertEquals(Integer.valueOf(1), assignmentRow.getCustomerId());
+		assertEquals(10f, assignmentRow.getHourlyRate(), 0.001f);
+		assertEquals(start, assignmentRow.getDateStart());
+		assertEquals(Boolean.TRUE, assignmentRow.getActive());
+		assertEquals(Boolean.FALSE, assignmentRow.getProjectBillable());
+		assertEquals("customer", assignmentRow.getCustomerName());
+	}
+
+	@Test
+	public void shouldMapSubtotalRows()
+	{
+		AggregateRollupRowMapper mapper = new AggregateRollupRowMapper("test");
+
+		Object[] projectTotal = new Object[ALIASES.length];
+		projectTotal[0] = 1;
+		projectTotal[1] = 2;
+		projectTotal[3] = 16f;
+		projectTotal[4] = 160f;
+
+		AggregateRollupRow row = (AggregateRollupRow) mapper.transformTuple(projectTotal, ALIASES);
+		assertTrue(row.isProjectSubtotal());
+		assertFalse(row.isCustomerSubtotal());
+		assertNull(row.getAssignmentRow());
+
+		Object[] grandTotal = new Object[ALIASES.length];
+		grandTotal[3] = 32f;
+
+		row = (AggregateRollupRow) mapper.transformTuple(grandTotal, ALIASES);
+		assertTrue(row.isGrandTotal());
+		assertEquals(32f, row.getHours().floatValue(), 0.001f);
+	}
+
+	@Test(expected = HibernateException.class)
+	public void shouldFailOnMissingColumn()
+	{
+		new AggregateRollupRowMapper("test").transformTuple(new Object[]{1}, new String[]{"customerId"});
+	}
+}
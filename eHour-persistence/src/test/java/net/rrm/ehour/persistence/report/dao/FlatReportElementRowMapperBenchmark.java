@@ -0,0 +1,108 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.persistence.report.dao;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import net.rrm.ehour.report.reports.element.FlatReportElement;
+
+import org.hibernate.transform.ResultTransformer;
+import org.hibernate.transform.Transformers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Row mapping throughput of the typed FlatReportElementRowMapper against Transformers.aliasToBean
+ * for the tuple shape of Report.getHoursPerDayForUsers.
+ * Not a unit test, run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=...FlatReportElementRowMapperBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlatReportElementRowMapperBenchmark
+{
+	private static final int ROWS = 1000;
+
+	private static final String[] ALIASES = {"customerId", "customerName", "customerCode", "projectId", "projectName",
+											 "assignmentId", "assignmentDesc", "userId", "userLastName", "userFirstName",
+											 "totalHours", "totalTurnOver", "dayDate", "comment"};
+
+	private Object[][] tuples;
+
+	private ResultTransformer aliasToBean;
+	private ResultTransformer rowMapper;
+
+	@Setup
+	public void setUp()
+	{
+		tuples = new Object[ROWS][];
+
+		for (int i = 0; i < ROWS; i++)
+		{
+			tuples[i] = new Object[]{i % 10, "customer", "CUST", i % 50, "project",
+									 i, "role", i % 100, "last", "first",
+									 8f, new BigDecimal("80.00"), new Date(), "comment " + i};
+		}
+
+		aliasToBean = Transformers.aliasToBean(FlatReportElement.class);
+		rowMapper = new FlatReportElementRowMapper("Report.getHoursPerDayForUsers");
+	}
+
+	@Benchmark
+	public void aliasToBean(Blackhole blackhole)
+	{
+		transform(aliasToBean, blackhole);
+	}
+
+	@Benchmark
+	public void rowMapper(Blackhole blackhole)
+	{
+		transform(rowMapper, blackhole);
+	}
+
+	private void transform(ResultTransformer transformer, Blackhole blackhole)
+	{
+		for (Object[] tuple : tuples)
+		{
+			blackhole.consume(transformer.transformTuple(tuple, ALIASES));
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder()
+				.include(FlatReportElementRowMapperBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.persistence.report.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import net.rrm.ehour.report.reports.element.FlatReportElement;
+
+import org.hibernate.HibernateException;
+import org.junit.Test;
+
+public class FlatReportElementRowMapperTest
+{
+	private static final String[] ALIASES = {"totalHours", "totalTurnOver", "dayDate", "customerId", "customerCode",
+											 "projectId", "projectName", "userId", "userLastName", "comment"};
+
+	@Test
+	public void shouldMapTupleOnAlias()
+	{
+		FlatReportElementRowMapper mapper = new FlatReportElementRowMapper("test");
+
+		Date day = new Date();
+		FlatReportElement element = (FlatReportElement) mapper.transformTuple(
+				new Object[]{8.5f, new BigDecimal("85.00"), day, 1, "CUST", 2L, "project", (short) 3, "last", null}, ALIASES);
+
+		assertEquals(8.5f, element.getTotalHours().floatValue(), 0.001f);
+		assertEquals(85f, element.getTotalTurnOver().floatValue(), 0.001f);
+		assertEquals(day, element.getDayDate());
+		assertEquals(Integer.valueOf(1), element.getCustomerId());
+		assertEquals("CUST", element.getCustomerCode());
+		assertEquals(Integer.valueOf(2), element.getProjectId());
+		assertEquals("project", element.getProjectName());
+		assertEquals(Integer.valueOf(3), element.getUserId());
+		assertEquals("last", element.getUserLastName());
+		assertNull(element.getComment());
+	}
+
+	@Test
+	public void shouldMatchAliasesCaseInsensitive()
+	{
+		FlatReportElementRowMapper mapper = new FlatReportElementRowMapper("test");
+
+		FlatReportElement element = (FlatReportElement) mapper.transformTuple(new Object[]{4, "first"}, new String[]{"ASSIGNMENTID", "userfirstname"});
+
+		assertEquals(Integer.valueOf(4), element.getAssignmentId());
+		assertEquals("first", element.getUserFirstName());
+	}
+
+	@Test
+	public void shouldReuseResolvedColumnsForNextRows()
+	{
+		FlatReportElementRowMapper mapper = new FlatReportElementRowMapper("test");
+
+		mapper.transformTuple(new Object[]{1, "a"}, new String[]{"projectId", "projectName"});
+		FlatReportElement element = (FlatReportElement) mapper.transformTuple(new Object[]{2, "b"}, new String[]{"projectId", "projectName"});
+
+		assertEquals(Integer.valueOf(2), element.getProjectId());
+		assertEquals("b", element.getProjectName());
+	}
+
+	@Test
+	public void shouldSkipUnaliasedColumns()
+	{
+		FlatReportElementRowMapper mapper = new FlatReportElementRowMapper("test");
+
+		FlatReportElement element = (FlatReportElement) mapper.transformTuple(new Object[]{"x", 5}, new String[]{null, "userId"});
+
+		assertEquals(Integer.valueOf(5), element.getUserId());
+	}
+
+	@Test(expected = HibernateException.class)
+	public void shouldFailOnUnknownAlias()
+	{
+		new FlatReportElementRowMapper("test").transformTuple(new Object[]{1}, new String[]{"unknown"});
+	}
+}
@@ -17,10 +17,14 @@
 package net.rrm.ehour.persistence.report.dao;
 
 import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.domain.Customer;
 import net.rrm.ehour.domain.Project;
 import net.rrm.ehour.domain.User;
+import net.rrm.ehour.domain.UserDepartment;
 import net.rrm.ehour.persistence.dao.AbstractAnnotationDaoTest;
+import net.rrm.ehour.persistence.dao.InClauseUtil;
 import net.rrm.ehour.report.reports.element.AssignmentAggregateReportElement;
+import net.rrm.ehour.report.reports.element.AssignmentAggregateRow;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -29,6 +33,7 @@ import java.util.Date;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 @SuppressWarnings({ "deprecation" })
 public class ReportAggregatedDaoTest extends AbstractAnnotationDaoTest
@@ -186,4 +191,160 @@ public class ReportAggregatedDaoTest extends AbstractAnnotationDaoTest
 		assertEquals(2, results.size());
 	}
 
+	@Test
+	public void shouldGetAggregateRowsPerAssignmentForUserAndDate()
+	{
+		DateRange dateRange = new DateRange(new Date(2006 - 1900, 10 - 1, 1), new Date(2007 - 1900, 10, 30));
+
+		List<User> ids = new ArrayList<User>();
+		ids.add(new User(1));
+
+		List<AssignmentAggregateRow> results = reportAggregatedDAO.getAggregateRowsPerAssignmentForUsers(ids, dateRange);
+
+		assertEquals(3, results.size());
+
+		AssignmentAggregateRow row = findRow(results, 1);
+		assertEquals("eHour", row.getProjectName());
+		assertEquals("TEC", row.getCustomerCode());
+		assertEquals(Integer.valueOf(1), row.getUserId());
+
+		AssignmentAggregateReportElement element = row.toReportElement();
+		assertEquals("eHour", element.getProjectAssignment().getProject().getName());
+		assertEquals(3676.5f, element.getTurnOver().floatValue(), 0.1);
+	}
+
+	@Test
+	public void shouldGetAggregateRowsPerAssignmentForUserProjectDate()
+	{
+		DateRange dateRange = new DateRange(new Date(2006 - 1900, 10 - 1, 1), new Date(2006 - 1900, 10 - 1, 4));
+		List<User> ids = new ArrayList<User>();
+		ids.add(new User(1));
+		List<Project> pids = new ArrayList<Project>();
+		pids.add(new Project(1));
+
+		List<AssignmentAggregateRow> results = reportAggregatedDAO.getAggregateRowsPerAssignmentForUsers(ids, pids, dateRange);
+
+		assertEquals(2, results.size());
+		assertEquals(14f, findRow(results, 1).getHours().floatValue(), 0.1);
+	}
+
+	@Test
+	public void shouldGetAggregateRowsPerAssignment()
+	{
+		DateRange dateRange = new DateRange(new Date(2006 - 1900, 10 - 1, 1), new Date(2006 - 1900, 10 - 1, 4));
+
+		List<AssignmentAggregateRow> results = reportAggregatedDAO.getAggregateRowsPerAssignment(dateRange);
+
+		assertEquals(3, results.size());
+	}
+
+	@Test
+	public void shouldGetAggregateRowsPerAssignmentForProjects()
+	{
+		DateRange dateRange = new DateRange(new Date(2006 - 1900, 10 - 1, 1), new Date(2006 - 1900, 10 - 1, 4));
+		List<Project> pids = new ArrayList<Project>();
+		pids.add(new Project(1));
+
+		List<AssignmentAggregateRow> results = reportAggregatedDAO.getAggregateRowsPerAssignmentForProjects(pids, dateRange);
+
+		assertEquals(2, results.size());
+
+		for (AssignmentAggregateRow row : results)
+		{
+			assertEquals(Integer.valueOf(1), row.getProjectId());
+		}
+	}
+
+	@Test
+	public void shouldGetAggregateRowsPerAssignmentForChunkedUsers()
+	{
+		DateRange dateRange = new DateRange(new Date(2006 - 1900, 10 - 1, 1), new Date(2006 - 1900, 10 - 1, 4));
+
+		List<User> ids = new ArrayList<User>();
+
+		for (int i = 1; i <= InClauseUtil.MAX_PARAMETER_LIST_SIZE * 2 + 1; i++)
+		{
+			ids.add(new User(i));
+		}
+
+		List<AssignmentAggregateRow> results = reportAggregatedDAO.getAggregateRowsPerAssignmentForUsers(ids, dateRange);
+
+		assertEquals(3, results.size());
+	}
+
+	@Test
+	public void shouldGetAggregateRowsPerAssignmentForDepartments()
+	{
+		DateRange dateRange = new DateRange(new Date(2006 - 1900, 10 - 1, 1), new Date(2006 - 1900, 10 - 1, 4));
+		List<UserDepartment> departments = new ArrayList<UserDepartment>();
+		departments.add(new UserDepartment(10));
+
+		List<AssignmentAggregateRow> results = reportAggregatedDAO.getAggregateRowsPerAssignmentForDepartments(departments, true, dateRange);
+
+		assertEquals(3, results.size());
+		assertEquals(3, reportAggregatedDAO.getAggregateRowsPerAssignmentForDepartments(departments, false, dateRange).size());
+	}
+
+	@Test
+	public void shouldGetNoAggregateRowsForEmptyDepartment()
+	{
+		DateRange dateRange = new DateRange(new Date(2006 - 1900, 10 - 1, 1), new Date(2006 - 1900, 10 - 1, 4));
+		List<UserDepartment> departments = new ArrayList<UserDepartment>();
+		departments.add(new UserDepartment(20));
+
+		assertEquals(0, reportAggregatedDAO.getAggregateRowsPerAssignmentForDepartments(departments, false, dateRange).size());
+	}
+
+	@Test
+	public void shouldGetAggregateRowsPerAssignmentForCustomers()
+	{
+		DateRange dateRange = new DateRange(new Date(2006 - 1900, 10 - 1, 1), new Date(2006 - 1900, 10 - 1, 4));
+		List<Customer> customers = new ArrayList<Customer>();
+		customers.add(new Customer(1));
+
+		List<AssignmentAggregateRow> results = reportAggregatedDAO.getAggregateRowsPerAssignmentForCustomers(customers, true, dateRange);
+
+		assertEquals(2, results.size());
+
+		for (AssignmentAggregateRow row : results)
+		{
+			assertEquals(Integer.valueOf(1), row.getCustomerId());
+		}
+	}
+
+	@Test
+	public void shouldGetAggregateRowsPerAssignmentForDepartmentsAndCustomers()
+	{
+		DateRange dateRange = new DateRange(new Date(2006 - 1900, 10 - 1, 1), new Date(2006 - 1900, 10 - 1, 4));
+		List<UserDepartment> departments = new ArrayList<UserDepartment>();
+		departments.add(new UserDepartment(10));
+		List<Customer> customers = new ArrayList<Customer>();
+		customers.add(new Customer(2));
+
+		List<AssignmentAggregateRow> results = reportAggregatedDAO.getAggregateRowsPerAssignmentForDepartmentsAndCustomers(departments, true, customers, false, dateRange);
+
+		assertEquals(1, results.size());
+		assertEquals(Integer.valueOf(2), results.get(0).getAssignmentId());
+	}
+
+	@Test
+	public void shouldNotSupportRollupOnDerby()
+	{
+		// the rolled up queries only exist in the mysql and postgresql query files
+		assertFalse(reportAggregatedDAO.isRollupSupported());
+	}
+
+	private AssignmentAggregateRow findRow(List<AssignmentAggregateRow> rows, Integer assignmentId)
+	{
+		for (AssignmentAggregateRow row : rows)
+		{
+			if (row.getAssignmentId().equals(assignmentId))
+			{
+				return row;
+			}
+		}
+
+		throw new AssertionError("No row for assignment " + assignmentId);
+	}
+
 }
@@ -0,0 +1,83 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.persistence.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class StatisticsInterceptorTest
+{
+    private StatisticsInterceptor interceptor = new StatisticsInterceptor();
+
+    @After
+    public void tearDown()
+    {
+        RequestStatisticsHolder.end();
+    }
+
+    @Test
+    public void shouldNotCountWithoutStartedRequest()
+    {
+        interceptor.onPrepareStatement("select 1");
+
+        assertNull(RequestStatisticsHolder.end());
+    }
+
+    @Test
+    public void shouldCountStatementsAndEntityLoads()
+    {
+        RequestStatisticsHolder.begin();
+
+        interceptor.onPrepareStatement("select 1");
+        interceptor.onPrepareStatement("select 2");
+        interceptor.onLoad(new Object(), 1, null, null, null);
+
+        RequestStatistics statistics = RequestStatisticsHolder.end();
+
+        assertEquals(2, statistics.getQueryCount());
+        assertEquals(1, statistics.getEntityLoadCount());
+        assertNull(RequestStatisticsHolder.end());
+    }
+
+    @Test
+    public void shouldReturnRepeatedStatementsMostExecutedFirst()
+    {
+        RequestStatisticsHolder.begin();
+
+        interceptor.onPrepareStatement("select once");
+        interceptor.onPrepareStatement("select twice");
+        interceptor.onPrepareStatement("select twice");
+
+        for (int i = 0; i < 3; i++)
+        {
+            interceptor.onPrepareStatement("select thrice");
+        }
+
+        List<Map.Entry<String, Integer>> repeated = RequestStatisticsHolder.end().getRepeatedStatements(5);
+
+        assertEquals(2, repeated.size());
+        assertEquals("select thrice", repeated.get(0).getKey());
+        assertEquals(Integer.valueOf(3), repeated.get(0).getValue());
+        assertEquals("select twice", repeated.get(1).getKey());
+    }
+}
@@ -21,12 +21,17 @@ import java.util.List;
 import net.rrm.ehour.audit.annot.NonAuditable;
 import net.rrm.ehour.data.AuditReportRequest;
 import net.rrm.ehour.domain.Audit;
+import net.rrm.ehour.domain.AuditActionType;
+import net.rrm.ehour.init.WarmUp;
 import net.rrm.ehour.persistence.audit.dao.AuditDao;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * @author thies
@@ -37,6 +42,11 @@ public class AuditServiceImpl implements AuditService
 {
 	private AuditDao	auditDAO;
 	
+	@Autowired
+	private ReadAuditPolicy readAuditPolicy;
+	
+	private TransactionTemplate transactionTemplate;
+	
 	@Autowired
 	public AuditServiceImpl(AuditDao auditDao)
 	{
@@ -46,11 +56,29 @@ public class AuditServiceImpl implements AuditService
 	/* (non-Javadoc)
 	 * @see net.rrm.ehour.persistence.persistence.audit.service.AuditService#persistAudit(net.rrm.ehour.persistence.persistence.domain.Audit)
 	 */
-	@Transactional(propagation=Propagation.REQUIRES_NEW)
 	@NonAuditable
 	public void doAudit(final Audit audit)
 	{
-		auditDAO.persist(audit);
+		// calls made while warming up are no user activity
+		if (WarmUp.isRunning())
+		{
+			return;
+		}
+
+		// reads may be sampled or coalesced, without opening a transaction for them
+		if (audit.getAuditActionType() == AuditActionType.READ && readAuditPolicy.offer(audit))
+		{
+			return;
+		}
+		
+		transactionTemplate.execute(new TransactionCallbackWithoutResult()
+		{
+			@Override
+			protected void doInTransactionWithoutResult(TransactionStatus status)
+			{
+				auditDAO.persist(audit);
+			}
+		});
 	}	
 	
 	/*
@@ -83,4 +111,16 @@ public class AuditServiceImpl implements AuditService
 		
 		return (number == null) ? 0 : number;
 	}
+
+	public void setReadAuditPolicy(ReadAuditPolicy readAuditPolicy)
+	{
+		this.readAuditPolicy = readAuditPolicy;
+	}
+
+	@Autowired
+	public void setTransactionManager(PlatformTransactionManager transactionManager)
+	{
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
 }
@@ -0,0 +1,365 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.audit.service;
+
+import net.rrm.ehour.audit.annot.NonAuditable;
+import net.rrm.ehour.domain.Audit;
+import net.rrm.ehour.persistence.audit.dao.AuditDao;
+import org.apache.commons.lang.ObjectUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cuts down the number of READ audit rows, a single page easily reads 10-30 times.
+ * 
+ * Sampling keeps 1 in n READ events per action, configured as <code>action=rate</code> pairs
+ * in <code>ehour.audit.read.sampling</code> where action is a method name, optionally prefixed
+ * with the class, e.g. <code>getConfiguration=0.1,UserServiceImpl.getUsers=0.5</code>.
+ * 
+ * The sampled events of the same user, action, page and outcome within the window are coalesced
+ * in one row, its count holds the number of events. Rows are written when their window closes.
+ */
+@NonAuditable
+@Component
+public class ReadAuditPolicy
+{
+	private static final Logger LOGGER = Logger.getLogger(ReadAuditPolicy.class);
+	
+	private static final long FLUSH_INTERVAL = 1000;
+	
+	private static final Sampler RECORD_ALL = new Sampler(1);
+	
+	@Autowired
+	private AuditDao auditDao;
+	
+	private PlatformTransactionManager transactionManager;
+	
+	// millis, 0 writes every sampled event right away
+	@Value("${ehour.audit.read.window:10000}")
+	private long window;
+	
+	private Map<String, Integer> sampling = new HashMap<String, Integer>();
+	
+	private final ConcurrentMap<String, Sampler> samplers = new ConcurrentHashMap<String, Sampler>();
+	
+	private final ConcurrentMap<CoalesceKey, Coalesced> coalesced = new ConcurrentHashMap<CoalesceKey, Coalesced>();
+	
+	private ScheduledExecutorService scheduler;
+	
+	@PostConstruct
+	public void start()
+	{
+		if (window <= 0)
+		{
+			return;
+		}
+		
+		scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+		{
+			public Thread newThread(Runnable runnable)
+			{
+				Thread thread = new Thread(runnable, "audit-flush");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		
+		scheduler.scheduleWithFixedDelay(new Runnable()
+		{
+			public void run()
+			{
+				try
+				{
+					flush(false);
+				} catch (RuntimeException e)
+				{
+					// an escaping exception would stop the scheduled flushes
+					LOGGER.error("Failed to write coalesced audit", e);
+				}
+			}
+		}, FLUSH_INTERVAL, FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+	}
+	
+	@PreDestroy
+	public void stop()
+	{
+		if (scheduler != null)
+		{
+			scheduler.shutdownNow();
+		}
+		
+		flush(true);
+	}
+	
+	/**
+	 * Offer a READ event to the policy
+	 * @param audit
+	 * @return true when the policy took care of the event, false when it should be written now 
+	 */
+	public boolean offer(Audit audit)
+	{
+		if (!getSampler(audit.getAction()).sample())
+		{
+			return true;
+		}
+		
+		if (window <= 0)
+		{
+			return false;
+		}
+		
+		CoalesceKey key = new CoalesceKey(audit);
+		
+		while (true)
+		{
+			Coalesced current = coalesced.get(key);
+			
+			if (current == null)
+			{
+				if (coalesced.putIfAbsent(key, new Coalesced(audit, now() + window)) == null)
+				{
+					return true;
+				}
+			} else if (current.add())
+			{
+				return true;
+			} else
+			{
+				// being written, start a new window
+				coalesced.remove(key, current);
+			}
+		}
+	}
+	
+	/**
+	 * Write the coalesced events
+	 * @param all also the ones whose window didn't close yet
+	 */
+	void flush(boolean all)
+	{
+		long now = now();
+		final List<Audit> audits = new ArrayList<Audit>();
+		
+		for (Map.Entry<CoalesceKey, Coalesced> entry : coalesced.entrySet())
+		{
+			Coalesced events = entry.getValue();
+			
+			if (all || events.closes <= now)
+			{
+				audits.add(events.close());
+				coalesced.remove(entry.getKey(), events);
+			}
+		}
+		
+		if (audits.isEmpty())
+		{
+			return;
+		}
+		
+		new TransactionTemplate(transactionManager).execute(new TransactionCallbackWithoutResult()
+		{
+			@Override
+			protected void doInTransactionWithoutResult(TransactionStatus status)
+			{
+				for (Audit audit : audits)
+				{
+					auditDao.persist(audit);
+				}
+			}
+		});
+	}
+	
+	private Sampler getSampler(String action)
+	{
+		if (action == null || sampling.isEmpty())
+		{
+			return RECORD_ALL;
+		}
+		
+		Sampler sampler = samplers.get(action);
+		
+		if (sampler == null)
+		{
+			String name = StringUtils.substringBefore(action, "(");
+			Integer every = sampling.get(name);
+			
+			if (every == null)
+			{
+				every = sampling.get(name.substring(name.lastIndexOf('.') + 1));
+			}
+			
+			sampler = (every == null) ? RECORD_ALL : new Sampler(every);
+			
+			Sampler previous = samplers.putIfAbsent(action, sampler);
+			sampler = (previous == null) ? sampler : previous;
+		}
+		
+		return sampler;
+	}
+	
+	/**
+	 * @param sampling comma separated action=rate pairs, rate between 0 and 1
+	 */
+	@Value("${ehour.audit.read.sampling:}")
+	public void setSampling(String sampling)
+	{
+		Map<String, Integer> parsed = new HashMap<String, Integer>();
+		
+		for (String actionRate : StringUtils.split(StringUtils.defaultString(sampling), ','))
+		{
+			String action = StringUtils.substringBefore(actionRate, "=").trim();
+			float rate = Float.parseFloat(StringUtils.substringAfter(actionRate, "=").trim());
+			
+			// keep 1 in every n, 0 keeps none
+			parsed.put(action, rate <= 0 ? 0 : Math.max(1, Math.round(1 / Math.min(rate, 1f))));
+		}
+		
+		this.sampling = parsed;
+		samplers.clear();
+	}
+	
+	void setWindow(long window)
+	{
+		this.window = window;
+	}
+	
+	protected long now()
+	{
+		return System.currentTimeMillis();
+	}
+	
+	public void setAuditDao(AuditDao auditDao)
+	{
+		this.auditDao = auditDao;
+	}
+	
+	@Autowired
+	public void setTransactionManager(PlatformTransactionManager transactionManager)
+	{
+		this.transactionManager = transactionManager;
+	}
+	
+	private static class Sampler
+	{
+		private final int every;
+		private final AtomicLong events = new AtomicLong();
+		
+		Sampler(int every)
+		{
+			this.every = every;
+		}
+		
+		boolean sample()
+		{
+			return every == 1 || (every > 0 && events.getAndIncrement() % every == 0);
+		}
+	}
+	
+	private static class Coalesced
+	{
+		private final Audit first;
+		private final long closes;
+		private int count = 1;
+		private boolean closed;
+		
+		Coalesced(Audit first, long closes)
+		{
+			this.first = first;
+			this.closes = closes;
+		}
+		
+		synchronized boolean add()
+		{
+			if (closed)
+			{
+				return false;
+			}
+			
+			count++;
+			return true;
+		}
+		
+		synchronized Audit close()
+		{
+			closed = true;
+			return first.setCount(count);
+		}
+	}
+	
+	private static class CoalesceKey
+	{
+		private final Object user;
+		private final String action;
+		private final String page;
+		private final Boolean success;
+		
+		CoalesceKey(Audit audit)
+		{
+			user = audit.getUser() != null ? audit.getUser().getUserId() : audit.getUserFullName();
+			action = audit.getAction();
+			page = audit.getPage();
+			success = audit.getSuccess();
+		}
+		
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (!(obj instanceof CoalesceKey))
+			{
+				return false;
+			}
+			
+			CoalesceKey other = (CoalesceKey) obj;
+			
+			return ObjectUtils.equals(user, other.user)
+					&& ObjectUtils.equals(action, other.action)
+					&& ObjectUtils.equals(page, other.page)
+					&& ObjectUtils.equals(success, other.success);
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			int hash = ObjectUtils.hashCode(user);
+			hash = 31 * hash + ObjectUtils.hashCode(action);
+			hash = 31 * hash + ObjectUtils.hashCode(page);
+			return 31 * hash + ObjectUtils.hashCode(success);
+		}
+	}
+}
@@ -1,6 +1,7 @@
 package net.rrm.ehour.config;
 
 import net.rrm.ehour.appconfig.EhourHomeUtil;
+import net.rrm.ehour.appconfig.StartupTimeline;
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -8,6 +9,10 @@ import org.springframework.stereotype.Component;
 import javax.annotation.PostConstruct;
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 /**
  * User: x082062 (Thies Edeling - thies@te-con.nl)
@@ -17,7 +22,6 @@ import java.util.*;
 public class TranslationDiscovery {
     private static final String FILE_PREFIX = "EhourWebApplication";
     private static final Logger LOG = Logger.getLogger(TranslationDiscovery.class);
-    private static final Map<String, Locale> LOCALE_MAP = createLocaleMap();
 
     @Value("${EHOUR_HOME}")
     private String eHourHome;
@@ -25,10 +29,31 @@ public class TranslationDiscovery {
     @Value("${ehour.translations}")
     private String translationsDir;
 
-    private List<String> translations;
+    private volatile Future<List<String>> scan;
+    private volatile List<String> translations;
 
+    /**
+     * Scans in the background, the translations are only needed when the configuration is shown
+     */
     @PostConstruct
     public void scanTranslations() {
+        FutureTask<List<String>> task = new FutureTask<List<String>>(new Callable<List<String>>() {
+            public List<String> call() {
+                StartupTimeline.Phase phase = StartupTimeline.start("Translation scan");
+                List<String> translations = scanTranslationsDir();
+                phase.end();
+                return translations;
+            }
+        });
+
+        scan = task;
+
+        Thread thread = new Thread(task, "translation-scan");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private List<String> scanTranslationsDir() {
         String absoluteTranslationsPath = EhourHomeUtil.getTranslationsDir(eHourHome, translationsDir);
 
         File transDir = new File(absoluteTranslationsPath);
@@ -36,25 +61,45 @@ public class TranslationDiscovery {
         LOG.info("Looking for translations in " + transDir.getAbsolutePath());
 
         if (transDir.exists()) {
-            translations = scanTranslations(transDir);
+            return scanTranslations(transDir);
         } else {
             LOG.fatal("Translations dir " + transDir + " does not exist");
-            translations = null;
+            return null;
         }
     }
 
     public List<String> getTranslations() {
+        Future<List<String>> pendingScan = scan;
+
+        if (pendingScan != null) {
+            translations = waitForScan(pendingScan);
+            scan = null;
+        }
+
         return translations;
     }
 
+    private List<String> waitForScan(Future<List<String>> pendingScan) {
+        try {
+            return pendingScan.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            LOG.error("Failed to scan translations", e.getCause());
+            return null;
+        }
+    }
+
     private List<String> scanTranslations(File dir) {
         File[] files = dir.listFiles();
 
         List<String> translations = new ArrayList<String>();
+        Map<String, Locale> localeMap = createLocaleMap();
 
         for (File file : files) {
             if (file.getName().startsWith(FILE_PREFIX)) {
-                translations.add(parseTranslationFile(file));
+                translations.add(parseTranslationFile(file, localeMap));
             } else {
                 LOG.warn("Invalid filename for translations, ignoring: " + file.getName());
             }
@@ -63,7 +108,7 @@ public class TranslationDiscovery {
         return translations;
     }
 
-    private String parseTranslationFile(File file) {
+    private String parseTranslationFile(File file, Map<String, Locale> localeMap) {
         String fileName = file.getName();
 
         String localeShort;
@@ -71,8 +116,8 @@ public class TranslationDiscovery {
         if (fileName.contains("_")) {
             localeShort = fileName.substring(fileName.indexOf('_') + 1, fileName.indexOf('.'));
 
-            if (LOCALE_MAP.containsKey(localeShort)) {
-                String localeDisplayName = LOCALE_MAP.get(localeShort).getDisplayName();
+            if (localeMap.containsKey(localeShort)) {
+                String localeDisplayName = localeMap.get(localeShort).getDisplayName();
 
                 String name;
 
@@ -25,6 +25,7 @@ import net.rrm.ehour.exception.ObjectNotFoundException;
 import net.rrm.ehour.exception.ObjectNotUniqueException;
 import net.rrm.ehour.exception.ParentChildConstraintException;
 import net.rrm.ehour.persistence.customer.dao.CustomerDao;
+import net.rrm.ehour.timesheet.service.TimesheetService;
 
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,6 +41,9 @@ public class CustomerServiceImpl implements CustomerService
 {
 	@Autowired
 	private	CustomerDao		customerDAO;
+
+	@Autowired
+	private	TimesheetService	timesheetService;
 	
 	private	static final Logger	LOGGER = Logger.getLogger(CustomerServiceImpl.class);
 
@@ -163,6 +167,8 @@ public class CustomerServiceImpl implements CustomerService
 		{
 			throw new ObjectNotUniqueException(cve);
 		}
+
+		timesheetService.invalidateAllCachedTimesheets();
 		
 		return customer;
 	}
@@ -185,4 +191,12 @@ public class CustomerServiceImpl implements CustomerService
 	{
 		this.customerDAO = customerDAO;
 	}
+
+	/**
+	 * @param timesheetService the timesheetService to set
+	 */
+	public void setTimesheetService(TimesheetService timesheetService)
+	{
+		this.timesheetService = timesheetService;
+	}
 }
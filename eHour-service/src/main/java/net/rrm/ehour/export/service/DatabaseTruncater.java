@@ -4,6 +4,8 @@ import net.rrm.ehour.domain.BinaryConfiguration;
 import net.rrm.ehour.domain.Configuration;
 import net.rrm.ehour.domain.MailLog;
 import net.rrm.ehour.domain.MailLogAssignment;
+import net.rrm.ehour.domain.MailOutbox;
+import net.rrm.ehour.mail.service.AssignmentMailIndex;
 import net.rrm.ehour.persistence.export.dao.ExportType;
 import net.rrm.ehour.persistence.export.dao.ImportDao;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,9 +24,16 @@ public class DatabaseTruncater
     @Autowired
     private ImportDao importDao;
 
+    @Autowired
+    private AssignmentMailIndex assignmentMailIndex;
+
     @Transactional
     public void truncateDatabase()
     {
+        // not exported, referencing the assignments
+        importDao.delete(MailOutbox.class);
+        assignmentMailIndex.clear();
+
         List<ExportType> types = ExportType.reverseOrderedValues();
 
         for (ExportType type : types)
@@ -45,4 +54,9 @@ public class DatabaseTruncater
     {
         this.importDao = importDao;
     }
+
+    public void setAssignmentMailIndex(AssignmentMailIndex assignmentMailIndex)
+    {
+        this.assignmentMailIndex = assignmentMailIndex;
+    }
 }
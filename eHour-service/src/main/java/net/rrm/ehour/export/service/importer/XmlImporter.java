@@ -136,8 +136,8 @@ public class XmlImporter
 
     private void isDatabaseCompatible(String version, String dbVersion) throws ImportException
     {
-        dbVersion = dbVersion != null && dbVersion.equalsIgnoreCase("0.8.3") ? "0.8.4" : dbVersion;
-        version = version != null && version.equalsIgnoreCase("0.8.3") ? "0.8.4" : version;
+        dbVersion = toDataCompatibleVersion(dbVersion);
+        version = toDataCompatibleVersion(version);
 
         if (version == null || !version.equalsIgnoreCase(dbVersion))
         {
@@ -146,4 +146,14 @@ public class XmlImporter
             throw new ImportException("Invalid database version (" + dbVersion + ") specified in file, target database should match backup database version (" + foundVersion + ")");
         }
     }
+
+    /**
+     * 0.8.3 and 0.8.4 backups can be imported in 0.8.5. The tables added since, MAIL_OUTBOX and
+     * MAIL_ASSIGNMENT_SENT, are not exported and stay empty after an import, and the added AUDIT_COUNT
+     * column is nullable with Audit.getCount() treating a missing count as 1.
+     */
+    private static String toDataCompatibleVersion(String version)
+    {
+        return version != null && (version.equalsIgnoreCase("0.8.3") || version.equalsIgnoreCase("0.8.4")) ? "0.8.5" : version;
+    }
 }
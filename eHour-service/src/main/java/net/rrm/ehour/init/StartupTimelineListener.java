@@ -0,0 +1,49 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.init;
+
+import net.rrm.ehour.appconfig.StartupTimeline;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds the creation of the singletons to the startup timeline. Post processing the bean factory is the
+ * first hook into the refresh, the refreshed event the last.
+ */
+@Component
+public class StartupTimelineListener implements BeanFactoryPostProcessor, ApplicationListener<ContextRefreshedEvent>
+{
+    private StartupTimeline.Phase phase;
+
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException
+    {
+        phase = StartupTimeline.start("Spring application context");
+    }
+
+    public void onApplicationEvent(ContextRefreshedEvent event)
+    {
+        if (phase != null)
+        {
+            phase.end();
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.init;
+
+import net.rrm.ehour.appconfig.StartupTimeline;
+import net.rrm.ehour.config.EhourConfig;
+import net.rrm.ehour.customer.service.CustomerService;
+import net.rrm.ehour.domain.User;
+import net.rrm.ehour.project.service.ProjectAssignmentService;
+import net.rrm.ehour.project.service.ProjectService;
+import net.rrm.ehour.report.criteria.ReportCriteria;
+import net.rrm.ehour.report.criteria.UserCriteria;
+import net.rrm.ehour.report.service.AggregateReportService;
+import net.rrm.ehour.report.service.DetailedReportService;
+import net.rrm.ehour.timesheet.service.TimesheetService;
+import net.rrm.ehour.user.service.UserService;
+import net.rrm.ehour.util.DateUtil;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+/**
+ * Optional warm-up before the first request: preloads the reference data into the second level cache
+ * and repeats representative service calls so the named queries are prepared and the timesheet and
+ * report code is compiled. It runs when the context is refreshed, the standalone server only opens its
+ * connector after the web application started.
+ */
+@Component
+public class WarmUp implements ApplicationListener<ContextRefreshedEvent>
+{
+    private static final Logger LOGGER = Logger.getLogger(WarmUp.class);
+
+    private static final ThreadLocal<Boolean> RUNNING = new ThreadLocal<Boolean>();
+
+    private static final int WEEK_OVERVIEW_USERS = 5;
+
+    @Value("${ehour.warmup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ehour.warmup.iterations:50}")
+    private int iterations;
+
+    @Value("${ehour.warmup.maxDuration:60000}")
+    private long maxDuration;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private ProjectService projectService;
+    @Autowired
+    private ProjectAssignmentService projectAssignmentService;
+    @Autowired
+    private TimesheetService timesheetService;
+    @Autowired
+    private AggregateReportService aggregateReportService;
+    @Autowired
+    private DetailedReportService detailedReportService;
+    @Autowired
+    private EhourConfig ehourConfig;
+
+    private TransactionTemplate transactionTemplate;
+
+    private boolean warmedUp;
+
+    /**
+     * Whether the calling thread is warming up, its service calls are not audited
+     */
+    public static boolean isRunning()
+    {
+        return Boolean.TRUE.equals(RUNNING.get());
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public void onApplicationEvent(ContextRefreshedEvent event)
+    {
+        if (!enabled || warmedUp)
+        {
+            return;
+        }
+
+        warmedUp = true;
+
+        execute("Reference data preload", new Runnable()
+        {
+            public void run()
+            {
+                preloadReferenceData();
+            }
+        }, 1);
+
+        warmUp("Service warm-up", new Runnable()
+        {
+            public void run()
+            {
+                callServices();
+            }
+        });
+    }
+
+    /**
+     * Repeat a warm-up step for the configured number of iterations or until the max duration passed.
+     * Every iteration runs in its own read-only transaction which is rolled back, so nothing is written
+     * and the session doesn't serve later iterations from its first level cache.
+     * A failing step is logged and abandoned, it never stops the startup.
+     */
+    public void warmUp(String name, Runnable step)
+    {
+        execute(name, step, iterations);
+    }
+
+    /**
+     * Criteria for an aggregate or detailed report over the previous month
+     */
+    public ReportCriteria createReportCriteria()
+    {
+        Calendar month = new GregorianCalendar();
+        month.add(Calendar.MONTH, -1);
+
+        return new ReportCriteria(new UserCriteria().setReportRange(DateUtil.calendarToMonthRange(month)));
+    }
+
+    private void execute(String name, final Runnable step, int times)
+    {
+        StartupTimeline.Phase phase = StartupTimeline.start(name);
+        long deadline = System.currentTimeMillis() + maxDuration;
+        int iteration = 0;
+
+        RUNNING.set(Boolean.TRUE);
+
+        try
+        {
+            for (; iteration < times && System.currentTimeMillis() < deadline; iteration++)
+            {
+                transactionTemplate.execute(new TransactionCallbackWithoutResult()
+                {
+                    @Override
+                    protected void doInTransactionWithoutResult(TransactionStatus status)
+                    {
+                        status.setRollbackOnly();
+                        step.run();
+                    }
+                });
+            }
+        } catch (RuntimeException e)
+        {
+            LOGGER.warn("Warm-up step '" + name + "' failed, continuing the startup", e);
+        } finally
+        {
+            RUNNING.remove();
+            phase.end();
+        }
+
+        LOGGER.info(String.format("Warm-up step '%s' ran %d of %d iterations", name, iteration, times));
+    }
+
+    private void preloadReferenceData()
+    {
+        userService.getUserRoles();
+        projectAssignmentService.getProjectAssignmentTypes();
+        customerService.getCustomers();
+        projectService.getProjects(false);
+    }
+
+    private void callServices()
+    {
+        List<User> users = userService.getActiveUsers();
+        Calendar week = new GregorianCalendar();
+
+        for (User user : users.subList(0, Math.min(WEEK_OVERVIEW_USERS, users.size())))
+        {
+            timesheetService.getWeekOverview(user, week, ehourConfig);
+        }
+
+        aggregateReportService.getAggregateReportData(createReportCriteria());
+        aggregateReportService.getAggregateRollupReportData(createReportCriteria());
+        detailedReportService.getDetailedReportData(createReportCriteria());
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager)
+    {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+    }
+
+    void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    void setIterations(int iterations)
+    {
+        this.iterations = iterations;
+    }
+
+    void setMaxDuration(long maxDuration)
+    {
+        this.maxDuration = maxDuration;
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.mail.service;
+
+import net.rrm.ehour.persistence.mail.dao.MailAssignmentSentDao;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which assignment mails were sent or are waiting in the outbox, per assignment and mail type.
+ * The set is loaded from MAIL_ASSIGNMENT_SENT on first use and answers most checks. A mail not in the
+ * set is claimed by inserting its row, the primary key lets only one transaction have it.
+ */
+@Service("assignmentMailIndex")
+public class AssignmentMailIndex
+{
+    private static final Logger LOGGER = Logger.getLogger(AssignmentMailIndex.class);
+
+    private final Set<Long> sent = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+
+    private volatile boolean warm;
+
+    @Autowired
+    private MailAssignmentSentDao mailAssignmentSentDao;
+
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Claim an assignment mail for sending within the current transaction.
+     * While another transaction holds an uncommitted claim on the same mail this waits for it to complete.
+     *
+     * @param assignmentId
+     * @param mailTypeId
+     * @return false when the mail was already sent or claimed
+     */
+    public boolean claim(final Integer assignmentId, final int mailTypeId)
+    {
+        warmUp();
+
+        final Long key = toKey(assignmentId, mailTypeId);
+
+        if (sent.contains(key))
+        {
+            return false;
+        }
+
+        try
+        {
+            // a savepoint, a failed insert mustn't take the caller's transaction down on every database
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+
+            template.execute(new TransactionCallbackWithoutResult()
+            {
+                @Override
+                protected void doInTransactionWithoutResult(TransactionStatus status)
+                {
+                    mailAssignmentSentDao.insert(assignmentId, mailTypeId);
+                }
+            });
+        } catch (DataIntegrityViolationException dive)
+        {
+            LOGGER.info("Mail " + mailTypeId + " for assignment " + assignmentId + " was already sent, not sending again");
+            sent.add(key);
+            return false;
+        }
+
+        // when the caller rolls back the claim is gone again
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    sent.add(key);
+                }
+            });
+        } else
+        {
+            sent.add(key);
+        }
+
+        return true;
+    }
+
+    /**
+     * Release the claim on a mail which couldn't be sent so it's sent again when it's due again
+     *
+     * @param assignmentId
+     * @param mailTypeId
+     */
+    public void release(Integer assignmentId, int mailTypeId)
+    {
+        mailAssignmentSentDao.delete(assignmentId, mailTypeId);
+        sent.remove(toKey(assignmentId, mailTypeId));
+    }
+
+    /**
+     * Forget all sent assignment mails, the set is loaded again on first use after the current transaction
+     * commits. Until then other transactions still see the old rows so the loaded set stays valid, and a set
+     * loaded in between is dropped again once the deletes and whatever the transaction restores are visible.
+     */
+    public void clear()
+    {
+        mailAssignmentSentDao.deleteAll();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    reset();
+                }
+            });
+        } else
+        {
+            reset();
+        }
+    }
+
+    private synchronized void reset()
+    {
+        warm = false;
+        sent.clear();
+    }
+
+    private void warmUp()
+    {
+        if (!warm)
+        {
+            synchronized (this)
+            {
+                if (!warm)
+                {
+                    for (Integer[] assignmentMail : mailAssignmentSentDao.findSent())
+                    {
+                        sent.add(toKey(assignmentMail[0], assignmentMail[1]));
+                    }
+
+                    LOGGER.info("Loaded " + sent.size() + " sent assignment mails");
+                    warm = true;
+                }
+            }
+        }
+    }
+
+    private static Long toKey(Integer assignmentId, int mailTypeId)
+    {
+        return ((long) assignmentId << 32) | mailTypeId;
+    }
+
+    int size()
+    {
+        return sent.size();
+    }
+
+    public void setMailAssignmentSentDao(MailAssignmentSentDao mailAssignmentSentDao)
+    {
+        this.mailAssignmentSentDao = mailAssignmentSentDao;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager)
+    {
+        this.transactionManager = transactionManager;
+    }
+}
@@ -0,0 +1,709 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.mail.service;
+
+import net.rrm.ehour.audit.annot.NonAuditable;
+import net.rrm.ehour.config.EhourConfig;
+import net.rrm.ehour.config.service.ConfigurationService;
+import net.rrm.ehour.domain.MailLog;
+import net.rrm.ehour.domain.MailLogAssignment;
+import net.rrm.ehour.domain.MailOutbox;
+import net.rrm.ehour.persistence.mail.dao.MailLogDao;
+import net.rrm.ehour.persistence.mail.dao.MailOutboxDao;
+import org.apache.commons.lang.StringUtils;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSender;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sends the mail queued in the outbox.
+ *
+ * Passes run on a single scheduler thread, every interval and right after a transaction queued mail.
+ * The mail of a pass is split per recipient over at most <code>concurrency</code> lanes, one of them
+ * on the scheduler thread and the others on the task executor. A recipient's mail is sent in queue
+ * order: when a mail has to be retried the recipient's later mail waits for it. Failed sends are
+ * retried with an exponentially growing delay until <code>maxAttempts</code> is reached.
+ *
+ * The mail log is written and the outbox is cleaned up in one transaction per pass. When that
+ * transaction fails the mail of the pass is sent again, mail is delivered at least once.
+ *
+ * With a <code>digestWindow</code> the assignment mail of a recipient waits for the end of the window
+ * and is sent as one digest. The recipient's other mail doesn't wait for it.
+ */
+@NonAuditable
+@Service("mailOutboxDispatcher")
+public class MailOutboxDispatcher
+{
+    private static final Logger LOGGER = Logger.getLogger(MailOutboxDispatcher.class);
+
+    private static final MailTemplate DIGEST_SUBJECT = MailTemplate.compile("eHour: {0} project budget notifications");
+
+    private static final MailTemplate DIGEST_HEADER = MailTemplate.compile(
+            "{0} project assignments reached their allotted hours since the previous notification.\r\n\r\n");
+
+    // subject and body of a digested mail
+    private static final MailTemplate DIGEST_ENTRY = MailTemplate.compile(
+            "----------------------------------------------------------------\r\n{0}\r\n\r\n{1}\r\n\r\n");
+
+    enum Outcome
+    {
+        SENT, FAILED, RETRY
+    }
+
+    @Autowired
+    private MailOutboxDao mailOutboxDao;
+
+    @Autowired
+    private MailLogDao mailLogDAO;
+
+    @Autowired
+    private ConfigurationService configurationService;
+
+    @Autowired
+    private MailSenderFactory mailSenderFactory;
+
+    @Autowired
+    private AssignmentMailIndex assignmentMailIndex;
+
+    private TaskExecutor taskExecutor;
+
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${ehour.mail.outbox.interval:60000}")
+    private long interval;
+
+    @Value("${ehour.mail.outbox.concurrency:3}")
+    private int concurrency;
+
+    @Value("${ehour.mail.outbox.batchSize:100}")
+    private int batchSize;
+
+    @Value("${ehour.mail.outbox.maxAttempts:8}")
+    private int maxAttempts;
+
+    // delay before the first retry, doubled for every next one
+    @Value("${ehour.mail.outbox.retryDelay:60000}")
+    private long retryDelay;
+
+    @Value("${ehour.mail.outbox.maxRetryDelay:3600000}")
+    private long maxRetryDelay;
+
+    // millis, 0 sends every assignment mail right away
+    @Value("${ehour.mail.digest.window:0}")
+    private long digestWindow;
+
+    private final AtomicBoolean dispatchRequested = new AtomicBoolean();
+
+    private ScheduledExecutorService scheduler;
+
+    private final Runnable dispatchRun = new Runnable()
+    {
+        public void run()
+        {
+            try
+            {
+                dispatch();
+            } catch (RuntimeException e)
+            {
+                // an escaping exception would stop the scheduled passes
+                LOGGER.error("Failed to dispatch mail outbox", e);
+            }
+        }
+    };
+
+    @PostConstruct
+    public void start()
+    {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+        {
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "mail-outbox");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        scheduler.scheduleWithFixedDelay(dispatchRun, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        if (scheduler != null)
+        {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Hold back an assignment mail until the end of the digest window it was queued in.
+     * Windows are aligned so all mail queued in the same window is due at once.
+     *
+     * @param mail not persisted yet
+     * @return false when digests are off or the mail isn't an assignment mail, it's due right away
+     */
+    public boolean queueInDigest(MailOutbox mail)
+    {
+        if (!isDigested(mail))
+        {
+            return false;
+        }
+
+        long queued = mail.getCreated().getTime();
+        mail.setNextAttempt(new Date((queued / digestWindow + 1) * digestWindow));
+
+        return true;
+    }
+
+    private boolean isDigested(MailOutbox mail)
+    {
+        return digestWindow > 0 && mail.getMailType() != null && mail.getProjectAssignment() != null;
+    }
+
+    /**
+     * Dispatch the outbox once the current transaction committed, straight away when there is none
+     */
+    public void dispatchAfterCommit()
+    {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    dispatchSoon();
+                }
+            });
+        } else
+        {
+            dispatchSoon();
+        }
+    }
+
+    /**
+     * Request a pass on the scheduler thread, requests coming in before it started share the pass
+     */
+    void dispatchSoon()
+    {
+        if (scheduler != null && dispatchRequested.compareAndSet(false, true))
+        {
+            try
+            {
+                scheduler.execute(dispatchRun);
+            } catch (RejectedExecutionException ree)
+            {
+                dispatchRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * Send the due mail in the outbox. Keeps going while full batches are worked off, a batch without
+     * due mail is paged past so mail waiting for a retry can't hold up the mail queued after it.
+     */
+    public void dispatch()
+    {
+        dispatchRequested.set(false);
+
+        List<MailOutbox> pending;
+        int afterOutboxId = 0;
+        Set<String> waiting = new HashSet<String>();
+
+        do
+        {
+            pending = findPending(afterOutboxId);
+
+            List<List<MailOutbox>> queues = getDueQueuesPerRecipient(pending, new Date(now()), waiting);
+
+            if (queues.isEmpty())
+            {
+                if (pending.isEmpty())
+                {
+                    return;
+                }
+
+                // the recipients waiting in this batch stay held back in the next
+                afterOutboxId = pending.get(pending.size() - 1).getOutboxId();
+            } else
+            {
+                List<SendResult> results = send(queues, createMailSender(configurationService.getConfiguration()));
+
+                if (bookResults(results) == 0)
+                {
+                    return;
+                }
+
+                // start over, the mail which is retried now holds back its recipient
+                afterOutboxId = 0;
+                waiting.clear();
+            }
+        } while (pending.size() >= batchSize);
+    }
+
+    private List<MailOutbox> findPending(final int afterOutboxId)
+    {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+
+        return template.execute(new TransactionCallback<List<MailOutbox>>()
+        {
+            public List<MailOutbox> doInTransaction(TransactionStatus status)
+            {
+                return mailOutboxDao.findPending(new Date(now()), afterOutboxId, batchSize);
+            }
+        });
+    }
+
+    /**
+     * Group the pending mail per recipient in queue order. A recipient's queue ends at its first mail
+     * which isn't due yet so its later mail can't overtake it.
+     *
+     * @param pending mail in queue order
+     * @param now
+     * @return
+     */
+    List<List<MailOutbox>> getDueQueuesPerRecipient(List<MailOutbox> pending, Date now)
+    {
+        return getDueQueuesPerRecipient(pending, now, new HashSet<String>());
+    }
+
+    /**
+     * @param waiting lowercased recipients held back by earlier mail, the recipients held back by
+     *                <code>pending</code> are added
+     */
+    private List<List<MailOutbox>> getDueQueuesPerRecipient(List<MailOutbox> pending, Date now, Set<String> waiting)
+    {
+        Map<String, List<MailOutbox>> queues = new LinkedHashMap<String, List<MailOutbox>>();
+
+        for (MailOutbox mail : pending)
+        {
+            String recipient = mail.getRecipient().toLowerCase();
+
+            if (waiting.contains(recipient))
+            {
+                continue;
+            }
+
+            if (mail.getNextAttempt().after(now))
+            {
+                waiting.add(recipient);
+                continue;
+            }
+
+            List<MailOutbox> queue = queues.get(recipient);
+
+            if (queue == null)
+            {
+                queue = new ArrayList<MailOutbox>();
+                queues.put(recipient, queue);
+            }
+
+            queue.add(mail);
+        }
+
+        return new ArrayList<List<MailOutbox>>(queues.values());
+    }
+
+    private List<SendResult> send(List<List<MailOutbox>> queues, MailSender mailSender)
+    {
+        int laneCount = Math.max(1, Math.min(concurrency, queues.size()));
+
+        List<Lane> lanes = new ArrayList<Lane>(laneCount);
+
+        for (int i = 0; i < laneCount; i++)
+        {
+            lanes.add(new Lane(mailSender));
+        }
+
+        for (int i = 0; i < queues.size(); i++)
+        {
+            lanes.get(i % laneCount).queues.add(queues.get(i));
+        }
+
+        List<FutureTask<List<SendResult>>> futures = new ArrayList<FutureTask<List<SendResult>>>();
+
+        for (Lane lane : lanes.subList(1, laneCount))
+        {
+            FutureTask<List<SendResult>> future = new FutureTask<List<SendResult>>(lane);
+
+            try
+            {
+                taskExecutor.execute(future);
+            } catch (TaskRejectedException tre)
+            {
+                // executor is saturated, send this lane's mail on this thread as well
+                future.run();
+            }
+
+            futures.add(future);
+        }
+
+        List<SendResult> results = lanes.get(0).call();
+
+        for (FutureTask<List<SendResult>> future : futures)
+        {
+            try
+            {
+                results.addAll(future.get());
+            } catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                LOGGER.warn("Interrupted while sending mail, unfinished mail is sent again in a later pass");
+                break;
+            } catch (ExecutionException e)
+            {
+                LOGGER.error("Failed to send mail, the lane's mail is sent again in a later pass", e.getCause());
+            }
+        }
+
+        return results;
+    }
+
+    SendResult send(MailOutbox mail, MailSender mailSender)
+    {
+        SimpleMailMessage msg = new SimpleMailMessage();
+        msg.setFrom(mail.getFromAddress());
+        msg.setTo(mail.getRecipient());
+        msg.setSubject(mail.getSubject());
+        msg.setText(mail.getBody());
+
+        try
+        {
+            mailSender.send(msg);
+            return new SendResult(mail, Outcome.SENT, null);
+        } catch (MailParseException mpe)
+        {
+            // a message which can't be parsed fails on every attempt
+            return failed(mail, mpe);
+        } catch (MailPreparationException mpe)
+        {
+            return failed(mail, mpe);
+        } catch (MailException me)
+        {
+            int attempts = mail.getAttempts() + 1;
+
+            if (attempts >= maxAttempts)
+            {
+                return failed(mail, me);
+            }
+
+            LOGGER.info("Failed to e-mail to " + mail.getRecipient() + " (attempt " + attempts + "), retrying later: " + me.getMessage());
+            return new SendResult(mail, Outcome.RETRY, me.getMessage());
+        }
+    }
+
+    /**
+     * Send a recipient's assignment mails as one, they share the outcome
+     *
+     * @param mails in queue order
+     * @param mailSender
+     * @return
+     */
+    List<SendResult> sendDigest(List<MailOutbox> mails, MailSender mailSender)
+    {
+        if (mails.size() == 1)
+        {
+            return Collections.singletonList(send(mails.get(0), mailSender));
+        }
+
+        MailOutbox first = mails.get(0);
+
+        StringBuilder body = new StringBuilder(DIGEST_HEADER.render(mails.size()));
+        int attempts = 0;
+
+        for (MailOutbox mail : mails)
+        {
+            body.append(DIGEST_ENTRY.render(mail.getSubject(), mail.getBody()));
+            attempts = Math.max(attempts, mail.getAttempts());
+        }
+
+        MailOutbox digest = new MailOutbox(null, first.getToUser(), first.getRecipient(), first.getFromAddress(),
+                                           DIGEST_SUBJECT.render(mails.size()), body.toString());
+        digest.setAttempts(attempts);
+
+        SendResult digestResult = send(digest, mailSender);
+
+        List<SendResult> results = new ArrayList<SendResult>(mails.size());
+
+        for (MailOutbox mail : mails)
+        {
+            results.add(new SendResult(mail, digestResult.outcome, digestResult.error));
+        }
+
+        return results;
+    }
+
+    private SendResult failed(MailOutbox mail, MailException me)
+    {
+        LOGGER.warn("Failed to e-mail to " + mail.getRecipient() + ", giving up: " + me.getMessage());
+        return new SendResult(mail, Outcome.FAILED, me.getMessage());
+    }
+
+    /**
+     * Write the mail log for sent and failed mail, reschedule the retries and remove the rest from the outbox
+     *
+     * @param results
+     * @return number of mails removed from the outbox
+     */
+    private int bookResults(final List<SendResult> results)
+    {
+        final Date timestamp = new Date(now());
+        final List<Integer> removedIds = new ArrayList<Integer>();
+
+        new TransactionTemplate(transactionManager).execute(new TransactionCallbackWithoutResult()
+        {
+            @Override
+            protected void doInTransactionWithoutResult(TransactionStatus status)
+            {
+                for (SendResult result : results)
+                {
+                    MailOutbox mail = result.mail;
+
+                    if (result.outcome == Outcome.RETRY)
+                    {
+                        mail.setAttempts(mail.getAttempts() + 1);
+                        mail.setNextAttempt(new Date(timestamp.getTime() + getRetryDelay(mail.getAttempts())));
+                        mail.setLastError(StringUtils.abbreviate(result.error, 255));
+                        mailOutboxDao.persist(mail);
+                    } else
+                    {
+                        removedIds.add(mail.getOutboxId());
+
+                        if (mail.getMailType() != null)
+                        {
+                            mailLogDAO.persist(createMailLog(result, timestamp));
+
+                            // a mail given up on may be sent when the next booking crosses the threshold
+                            if (result.outcome == Outcome.FAILED && mail.getProjectAssignment() != null)
+                            {
+                                assignmentMailIndex.release(mail.getProjectAssignment().getAssignmentId(),
+                                                            mail.getMailType().getMailTypeId());
+                            }
+                        }
+                    }
+                }
+
+                mailOutboxDao.deleteOnIds(removedIds);
+            }
+        });
+
+        return removedIds.size();
+    }
+
+    private MailLog createMailLog(SendResult result, Date timestamp)
+    {
+        MailOutbox mail = result.mail;
+        MailLog mailLog;
+
+        if (mail.getProjectAssignment() != null)
+        {
+            MailLogAssignment mailLogAssignment = new MailLogAssignment();
+            mailLogAssignment.setProjectAssignment(mail.getProjectAssignment());
+            mailLogAssignment.setBookDate(mail.getBookDate());
+            mailLogAssignment.setBookedHours(mail.getBookedHours());
+            mailLog = mailLogAssignment;
+        } else
+        {
+            mailLog = new MailLog();
+        }
+
+        mailLog.setMailType(mail.getMailType());
+        mailLog.setToUser(mail.getToUser());
+        mailLog.setTimestamp(timestamp);
+        mailLog.setSuccess(result.outcome == Outcome.SENT);
+        mailLog.setResultMsg(StringUtils.abbreviate(result.error, 255));
+
+        return mailLog;
+    }
+
+    /**
+     * @param attempts number of failed attempts so far, at least 1
+     * @return delay in millis before the next attempt
+     */
+    long getRetryDelay(int attempts)
+    {
+        long delay = retryDelay << Math.min(Math.max(attempts - 1, 0), 30);
+
+        return (delay <= 0 || delay > maxRetryDelay) ? maxRetryDelay : delay;
+    }
+
+    protected MailSender createMailSender(EhourConfig config)
+    {
+        return mailSenderFactory.getMailSender(config);
+    }
+
+    protected long now()
+    {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Sends the queues of a couple of recipients one after the other
+     */
+    private class Lane implements Callable<List<SendResult>>
+    {
+        private final List<List<MailOutbox>> queues = new ArrayList<List<MailOutbox>>();
+        private final MailSender mailSender;
+
+        Lane(MailSender mailSender)
+        {
+            this.mailSender = mailSender;
+        }
+
+        public List<SendResult> call()
+        {
+            List<SendResult> results = new ArrayList<SendResult>();
+
+            for (List<MailOutbox> queue : queues)
+            {
+                List<MailOutbox> digest = new ArrayList<MailOutbox>();
+
+                for (MailOutbox mail : queue)
+                {
+                    if (isDigested(mail))
+                    {
+                        digest.add(mail);
+                        continue;
+                    }
+
+                    SendResult result = send(mail, mailSender);
+                    results.add(result);
+
+                    if (result.outcome == Outcome.RETRY)
+                    {
+                        break;
+                    }
+                }
+
+                if (!digest.isEmpty())
+                {
+                    results.addAll(sendDigest(digest, mailSender));
+                }
+            }
+
+            return results;
+        }
+    }
+
+    static class SendResult
+    {
+        final MailOutbox mail;
+        final Outcome outcome;
+        final String error;
+
+        SendResult(MailOutbox mail, Outcome outcome, String error)
+        {
+            this.mail = mail;
+            this.outcome = outcome;
+            this.error = error;
+        }
+    }
+
+    @Autowired
+    public void setTaskExecutor(TaskExecutor taskExecutor)
+    {
+        this.taskExecutor = taskExecutor;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager)
+    {
+        this.transactionManager = transactionManager;
+    }
+
+    public void setMailOutboxDao(MailOutboxDao mailOutboxDao)
+    {
+        this.mailOutboxDao = mailOutboxDao;
+    }
+
+    public void setMailLogDAO(MailLogDao mailLogDAO)
+    {
+        this.mailLogDAO = mailLogDAO;
+    }
+
+    public void setConfigurationService(ConfigurationService configurationService)
+    {
+        this.configurationService = configurationService;
+    }
+
+    public void setMailSenderFactory(MailSenderFactory mailSenderFactory)
+    {
+        this.mailSenderFactory = mailSenderFactory;
+    }
+
+    void setDigestWindow(long digestWindow)
+    {
+        this.digestWindow = digestWindow;
+    }
+
+    public void setAssignmentMailIndex(AssignmentMailIndex assignmentMailIndex)
+    {
+        this.assignmentMailIndex = assignmentMailIndex;
+    }
+
+    void setConcurrency(int concurrency)
+    {
+        this.concurrency = concurrency;
+    }
+
+    void setBatchSize(int batchSize)
+    {
+        this.batchSize = batchSize;
+    }
+
+    void setMaxAttempts(int maxAttempts)
+    {
+        this.maxAttempts = maxAttempts;
+    }
+
+    void setRetryDelay(long retryDelay, long maxRetryDelay)
+    {
+        this.retryDelay = retryDelay;
+        this.maxRetryDelay = maxRetryDelay;
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.mail.service;
+
+import net.rrm.ehour.config.EhourConfig;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Hands out one pooled mail sender per SMTP configuration.
+ * A sender is only built when the mail settings change, the sender of the previous settings is kept
+ * for a while so testing other settings doesn't throw away the pool of the stored ones.
+ */
+@Service("mailSenderFactory")
+public class MailSenderFactory
+{
+    private static final Logger LOGGER = Logger.getLogger(MailSenderFactory.class);
+
+    private static final int MAX_SENDERS = 2;
+
+    @Value("${ehour.mail.smtp.connections:3}")
+    private int maxConnections = 3;
+
+    @Value("${ehour.mail.smtp.idleTimeout:30000}")
+    private long idleTimeout = 30000;
+
+    private final Map<SmtpSettings, PooledJavaMailSender> senders = new LinkedHashMap<SmtpSettings, PooledJavaMailSender>(4, 0.75f, true);
+
+    /**
+     * Get the mail sender for the mail settings of the config
+     *
+     * @param config
+     * @return
+     */
+    public synchronized MailSender getMailSender(EhourConfig config)
+    {
+        SmtpSettings settings = new SmtpSettings(config);
+
+        PooledJavaMailSender mailSender = senders.get(settings);
+
+        if (mailSender == null)
+        {
+            mailSender = createMailSender(settings);
+            senders.put(settings, mailSender);
+
+            evictOldestSenders();
+        }
+
+        return mailSender;
+    }
+
+    private void evictOldestSenders()
+    {
+        Iterator<PooledJavaMailSender> iterator = senders.values().iterator();
+
+        while (senders.size() > MAX_SENDERS && iterator.hasNext())
+        {
+            iterator.next().close();
+            iterator.remove();
+        }
+    }
+
+    private PooledJavaMailSender createMailSender(SmtpSettings settings)
+    {
+        PooledJavaMailSender mailSender = new PooledJavaMailSender(maxConnections, idleTimeout);
+        mailSender.setHost(settings.host);
+        mailSender.setPort(settings.port);
+
+        if (!StringUtils.isBlank(settings.username)
+                && !StringUtils.isBlank(settings.password))
+        {
+            LOGGER.debug("Using SMTP authentication");
+
+            Properties prop = new Properties();
+            prop.put("mail.smtp.auth", "true");
+
+            mailSender.setJavaMailProperties(prop);
+            mailSender.setUsername(settings.username);
+            mailSender.setPassword(settings.password);
+        }
+
+        LOGGER.info("Created mail sender for " + settings.host + ":" + settings.port);
+
+        return mailSender;
+    }
+
+    @PreDestroy
+    public synchronized void close()
+    {
+        for (PooledJavaMailSender mailSender : senders.values())
+        {
+            mailSender.close();
+        }
+
+        senders.clear();
+    }
+
+    synchronized int getSenderCount()
+    {
+        return senders.size();
+    }
+
+    void setMaxConnections(int maxConnections)
+    {
+        this.maxConnections = maxConnections;
+    }
+
+    void setIdleTimeout(long idleTimeout)
+    {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * The mail settings of a config which end up in the mail sender
+     */
+    private static class SmtpSettings
+    {
+        private final String host;
+        private final int port;
+        private final String username;
+        private final String password;
+
+        SmtpSettings(EhourConfig config)
+        {
+            host = config.getMailSmtp();
+            port = parsePort(config.getSmtpPort());
+            username = config.getSmtpUsername();
+            password = config.getSmtpPassword();
+        }
+
+        private static int parsePort(String smtpPort)
+        {
+            int port = JavaMailSenderImpl.DEFAULT_PORT;
+
+            if (!StringUtils.isBlank(smtpPort))
+            {
+                try
+                {
+                    port = Float.valueOf(smtpPort).intValue();
+                } catch (NumberFormatException nfe)
+                {
+                    LOGGER.error("Using default port 25, couldn't parse configured port " + smtpPort);
+                }
+            }
+
+            return port;
+        }
+
+        @Override
+        public boolean equals(Object object)
+        {
+            if (!(object instanceof SmtpSettings))
+            {
+                return false;
+            }
+
+            SmtpSettings rhs = (SmtpSettings) object;
+
+            return new EqualsBuilder()
+                    .append(host, rhs.host)
+                    .append(port, rhs.port)
+                    .append(username, rhs.username)
+                    .append(password, rhs.password)
+                    .isEquals();
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return new HashCodeBuilder()
+                    .append(host)
+                    .append(port)
+                    .append(username)
+                    .append(password)
+                    .toHashCode();
+        }
+    }
+}
@@ -23,6 +23,7 @@ import net.rrm.ehour.config.EhourConfig;
 import net.rrm.ehour.domain.MailLogAssignment;
 import net.rrm.ehour.domain.User;
 import net.rrm.ehour.report.reports.element.AssignmentAggregateReportElement;
+import net.rrm.ehour.timesheet.dto.CompletenessReport;
 
 /**
  * Mail service
@@ -62,6 +63,14 @@ public interface MailService
 	 */
 	public List<MailLogAssignment> getSentMailForAssignment(Integer[] assignmentId);
 	
+	/**
+	 * Remind the users of a completeness report about the days they didn't book yet,
+	 * one mail per user with an e-mail address
+	 * @param report
+	 * @return the number of reminders sent
+	 */
+	public int mailTimesheetReminders(CompletenessReport report);
+	
 	/**
 	 * Send a test message
 	 * @param config to use
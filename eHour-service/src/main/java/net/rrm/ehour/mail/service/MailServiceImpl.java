@@ -20,13 +20,16 @@ import net.rrm.ehour.audit.annot.NonAuditable;
 import net.rrm.ehour.config.EhourConfig;
 import net.rrm.ehour.config.service.ConfigurationService;
 import net.rrm.ehour.domain.MailLogAssignment;
+import net.rrm.ehour.domain.MailOutbox;
 import net.rrm.ehour.domain.MailType;
+import net.rrm.ehour.domain.ProjectAssignment;
 import net.rrm.ehour.domain.User;
-import net.rrm.ehour.mail.callbacks.AssignmentMsgCallback;
-import net.rrm.ehour.mail.dto.AssignmentPMMessage;
 import net.rrm.ehour.mail.dto.MailTaskMessage;
 import net.rrm.ehour.persistence.mail.dao.MailLogDao;
+import net.rrm.ehour.persistence.mail.dao.MailOutboxDao;
 import net.rrm.ehour.report.reports.element.AssignmentAggregateReportElement;
+import net.rrm.ehour.timesheet.dto.CompletenessReport;
+import net.rrm.ehour.timesheet.dto.UserCompleteness;
 import net.rrm.ehour.util.EhourConstants;
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
@@ -37,15 +40,17 @@ import org.springframework.mail.MailSender;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
-import java.util.Properties;
 
 /**
- * Mail service which takes care of sending mail async
+ * Mail service which takes care of sending mail async.
+ * Mail is queued in the outbox within the caller's transaction, the outbox dispatcher sends it
+ * after the commit. Only the test message, which uses the unsaved configuration, is sent directly.
  */
 @NonAuditable
 @Service("mailService")
@@ -53,6 +58,32 @@ public class MailServiceImpl implements MailService
 {
     private final static Logger LOGGER = Logger.getLogger(MailServiceImpl.class);
 
+    // arguments: project, customer, employee, allotted hours, book date, booked hours and overrun
+    private static final MailTemplate ALLOTTED_REACHED_SUBJECT = MailTemplate.compile(
+            "eHour: All allotted hours used for project {0} by {2}");
+
+    private static final MailTemplate OVERRUN_REACHED_SUBJECT = MailTemplate.compile(
+            "eHour: All allotted and overrun hours used for project {0} by {2}");
+
+    private static final MailTemplate FIXED_ALLOTTED_REACHED_BODY = MailTemplate.compile(
+            "Project warning for project {0} ({1})\r\n\r\n"
+                    + "{3} hours were allotted for this project to {2}.\r\n"
+                    + "On {4}, a total of {5} hours were booked reaching the allotted hours mark.\r\n\r\n"
+                    + "Take note, {2} can't book anymore hours on the project. Add more hours in the project assignment if needed.");
+
+    private static final MailTemplate FLEX_OVERRUN_REACHED_BODY = MailTemplate.compile(
+            "Project warning for project {0} ({1})\r\n\r\n"
+                    + "{3} hours were allotted for this project to {2}.\r\n"
+                    + "Additionally an extra overrun of {6} hours was created for this employee.\r\n\r\n"
+                    + "On {4}, a total of {5} hours were booked consuming as well the allotted hours as the extra overrun.\r\n\r\n"
+                    + "Take note, {2} can't book anymore hours on the project. Add more hours in the project assignment if needed.");
+
+    private static final MailTemplate FLEX_ALLOTTED_REACHED_BODY = MailTemplate.compile(
+            "Project warning for project {0} ({1})\r\n\r\n"
+                    + "{3} hours were allotted for this project to {2}.\r\n"
+                    + "On {4}, a total of {5} hours were booked reaching the allotted hours mark.\r\n\r\n"
+                    + "An extra overrun of {6} hours was granted when the employee was assigned on this project. Hours can still be booked on this project.");
+
     @Autowired
     private MailLogDao mailLogDAO;
 
@@ -62,7 +93,16 @@ public class MailServiceImpl implements MailService
     private ConfigurationService configurationService;
 
     @Autowired
-    private AssignmentMsgCallback assignmentMsgCallback;
+    private MailOutboxDao mailOutboxDao;
+
+    @Autowired
+    private MailOutboxDispatcher mailOutboxDispatcher;
+
+    @Autowired
+    private MailSenderFactory mailSenderFactory;
+
+    @Autowired
+    private AssignmentMailIndex assignmentMailIndex;
 
     @Autowired
     public MailServiceImpl(TaskExecutor taskExecutor)
@@ -94,7 +134,7 @@ public class MailServiceImpl implements MailService
 
         taskMessage.setMailMessage(msg);
 
-        mailTask = new MailTask(taskMessage, createMailSender(config));
+        mailTask = new MailTask(taskMessage, mailSenderFactory.getMailSender(config));
         taskExecutor.execute(mailTask);
     }
 
@@ -102,49 +142,12 @@ public class MailServiceImpl implements MailService
       * (non-Javadoc)
       * @see net.rrm.ehour.persistence.persistence.mail.service.MailService#mailPMFixedAllottedReached(net.rrm.ehour.persistence.persistence.report.reports.ProjectAssignmentAggregate, java.util.Date, net.rrm.ehour.persistence.persistence.user.domain.User)
       */
+    @Transactional
     public void mailPMFixedAllottedReached(AssignmentAggregateReportElement assignmentAggregate, Date bookDate, User user)
     {
-        String subject;
-        StringBuffer body = new StringBuffer();
-        NumberFormat numberFormat = NumberFormat.getNumberInstance();
-        SimpleDateFormat dateFormat = new SimpleDateFormat("dd MMM yyyy");
-
-        // TODO use templates
-        subject = "eHour: All allotted hours used for project "
-                + assignmentAggregate.getProjectAssignment().getProject().getFullName()
-                + " by "
-                + assignmentAggregate.getProjectAssignment().getUser().getFirstName()
-                + " "
-                + assignmentAggregate.getProjectAssignment().getUser().getLastName();
-
-        body.append("Project warning for project "
-                + assignmentAggregate.getProjectAssignment().getProject().getFullName()
-                + " ("
-                + assignmentAggregate.getProjectAssignment().getProject().getCustomer().getName()
-                + ")"
-                + "\r\n\r\n");
-        body.append(numberFormat.format(assignmentAggregate.getProjectAssignment().getAllottedHours().floatValue())
-                + " hours were allotted for this project to "
-                + assignmentAggregate.getProjectAssignment().getUser().getFirstName()
-                + " "
-                + assignmentAggregate.getProjectAssignment().getUser().getLastName()
-                + "."
-                + "\r\n");
-        body.append("On "
-                + dateFormat.format(bookDate)
-                + ", a total of "
-                + numberFormat.format(assignmentAggregate.getHours())
-                + " hours were booked reaching the allotted hours mark."
-                + "\r\n\r\n");
-        body.append("Take note, "
-                + assignmentAggregate.getProjectAssignment().getUser().getFirstName()
-                + " "
-                + assignmentAggregate.getProjectAssignment().getUser().getLastName()
-                + " can't book anymore hours on the project. Add more hours in the project assignment if needed.");
-
         mailPMAggregateMessage(assignmentAggregate,
-                subject,
-                body.toString(),
+                ALLOTTED_REACHED_SUBJECT,
+                FIXED_ALLOTTED_REACHED_BODY,
                 EhourConstants.MAILTYPE_FIXED_ALLOTTED_REACHED,
                 bookDate,
                 user);
@@ -154,55 +157,12 @@ public class MailServiceImpl implements MailService
       * (non-Javadoc)
       * @see net.rrm.ehour.persistence.persistence.mail.service.MailService#mailPMFlexOverrunReached(net.rrm.ehour.persistence.persistence.report.reports.ProjectAssignmentAggregate, java.util.Date, net.rrm.ehour.persistence.persistence.user.domain.User)
       */
+    @Transactional
     public void mailPMFlexOverrunReached(AssignmentAggregateReportElement assignmentAggregate, Date bookDate, User user)
     {
-        String subject;
-        StringBuffer body = new StringBuffer();
-        NumberFormat numberFormat = NumberFormat.getNumberInstance();
-        SimpleDateFormat dateFormat = new SimpleDateFormat("dd MMM yyyy");
-
-        // TODO use templates
-
-        // and no, stringbuffers aren't faster anymore..
-        subject = "eHour: All allotted and overrun hours used for project "
-                + assignmentAggregate.getProjectAssignment().getProject().getFullName()
-                + " by "
-                + assignmentAggregate.getProjectAssignment().getUser().getFirstName()
-                + " "
-                + assignmentAggregate.getProjectAssignment().getUser().getLastName();
-
-        body.append("Project warning for project "
-                + assignmentAggregate.getProjectAssignment().getProject().getFullName()
-                + " ("
-                + assignmentAggregate.getProjectAssignment().getProject().getCustomer().getName()
-                + ")"
-                + "\r\n\r\n");
-        body.append(numberFormat.format(assignmentAggregate.getProjectAssignment().getAllottedHours().floatValue())
-                + " hours were allotted for this project to "
-                + assignmentAggregate.getProjectAssignment().getUser().getFirstName()
-                + " "
-                + assignmentAggregate.getProjectAssignment().getUser().getLastName()
-                + "."
-                + "\r\n");
-        body.append("Additionally an extra overrun of "
-                + numberFormat.format(assignmentAggregate.getProjectAssignment().getAllowedOverrun())
-                + " hours was created for this employee.\r\n\r\n");
-        body.append("On "
-                + dateFormat.format(bookDate)
-                + ", a total of "
-                + numberFormat.format(assignmentAggregate.getHours())
-                + " hours were booked consuming as well the allotted hours as the extra overrun."
-                + "\r\n\r\n");
-        body.append("Take note, "
-                + assignmentAggregate.getProjectAssignment().getUser().getFirstName()
-                + " "
-                + assignmentAggregate.getProjectAssignment().getUser().getLastName()
-                + " can't book anymore hours on the project. Add more hours in the project assignment if needed.");
-
-
         mailPMAggregateMessage(assignmentAggregate,
-                subject,
-                body.toString(),
+                OVERRUN_REACHED_SUBJECT,
+                FLEX_OVERRUN_REACHED_BODY,
                 EhourConstants.MAILTYPE_FLEX_OVERRUN_REACHED,
                 bookDate,
                 user);
@@ -212,112 +172,130 @@ public class MailServiceImpl implements MailService
       * (non-Javadoc)
       * @see net.rrm.ehour.persistence.persistence.mail.service.MailService#mailPMFlexOverrunReached(net.rrm.ehour.persistence.persistence.report.reports.ProjectAssignmentAggregate, java.util.Date, net.rrm.ehour.persistence.persistence.user.domain.User)
       */
+    @Transactional
     public void mailPMFlexAllottedReached(AssignmentAggregateReportElement assignmentAggregate, Date bookDate, User user)
     {
-        String subject;
-        StringBuffer body = new StringBuffer();
-        NumberFormat numberFormat = NumberFormat.getNumberInstance();
-        SimpleDateFormat dateFormat = new SimpleDateFormat("dd MMM yyyy");
-
-        // TODO use templates
-
-        // and no, stringbuffers aren't faster anymore..
-        subject = "eHour: All allotted hours used for project "
-                + assignmentAggregate.getProjectAssignment().getProject().getFullName()
-                + " by "
-                + assignmentAggregate.getProjectAssignment().getUser().getFirstName()
-                + " "
-                + assignmentAggregate.getProjectAssignment().getUser().getLastName();
-
-        body.append("Project warning for project "
-                + assignmentAggregate.getProjectAssignment().getProject().getFullName()
-                + " ("
-                + assignmentAggregate.getProjectAssignment().getProject().getCustomer().getName()
-                + ")"
-                + "\r\n\r\n");
-        body.append(numberFormat.format(assignmentAggregate.getProjectAssignment().getAllottedHours().floatValue())
-                + " hours were allotted for this project to "
-                + assignmentAggregate.getProjectAssignment().getUser().getFirstName()
-                + " "
-                + assignmentAggregate.getProjectAssignment().getUser().getLastName()
-                + "."
-                + "\r\n");
-        body.append("On "
-                + dateFormat.format(bookDate)
-                + ", a total of "
-                + numberFormat.format(assignmentAggregate.getHours())
-                + " hours were booked reaching the allotted hours mark."
-                + "\r\n\r\n");
-        body.append("An extra overrun of "
-                + numberFormat.format(assignmentAggregate.getProjectAssignment().getAllowedOverrun())
-                + " hours was granted when the employee was assigned on this project. Hours can still be booked on this project.");
-
         mailPMAggregateMessage(assignmentAggregate,
-                subject,
-                body.toString(),
+                ALLOTTED_REACHED_SUBJECT,
+                FLEX_ALLOTTED_REACHED_BODY,
                 EhourConstants.MAILTYPE_FLEX_ALLOTTED_REACHED,
                 bookDate,
                 user);
     }
 
+    /*
+      * (non-Javadoc)
+      * @see net.rrm.ehour.mail.service.MailService#mailTimesheetReminders(net.rrm.ehour.timesheet.dto.CompletenessReport)
+      */
+    @Transactional
+    public int mailTimesheetReminders(CompletenessReport report)
+    {
+        EhourConfig config = configurationService.getConfiguration();
+        SimpleDateFormat dateFormat = new SimpleDateFormat("EEE dd MMM yyyy");
+
+        String subject = "eHour: your timesheet for "
+                + dateFormat.format(report.getPeriod().getDateStart())
+                + " - "
+                + dateFormat.format(report.getPeriod().getDateEnd())
+                + " is incomplete";
+
+        int reminded = 0;
+
+        for (UserCompleteness userCompleteness : report.getIncompleteUsers())
+        {
+            User user = userCompleteness.getUser();
+
+            if (StringUtils.isBlank(user.getEmail()))
+            {
+                continue;
+            }
+
+            StringBuilder body = new StringBuilder();
+            body.append("Hello ").append(user.getFirstName()).append(",\r\n\r\n");
+            body.append("No complete day was booked yet on the following days:\r\n\r\n");
+
+            for (Date missingDay : userCompleteness.getMissingDays())
+            {
+                body.append("  ").append(dateFormat.format(missingDay)).append("\r\n");
+            }
+
+            body.append("\r\nPlease complete your timesheet.");
+
+            mailOutboxDao.persist(new MailOutbox(null, user, user.getEmail(), config.getMailFrom(), subject, body.toString()));
+            reminded++;
+        }
+
+        if (reminded > 0)
+        {
+            mailOutboxDispatcher.dispatchAfterCommit();
+        }
+
+        LOGGER.info("Queued " + reminded + " timesheet reminders for " + report.getPeriod());
+
+        return reminded;
+    }
+
     /**
-     * Mail project assignment msg
+     * Queue project assignment msg, right away or in the PM's digest
      *
      * @param assignmentAggregate
-     * @param mailBody
+     * @param subject
+     * @param body
      * @param mailTypeId
      * @param user
      */
     private void mailPMAggregateMessage(AssignmentAggregateReportElement assignmentAggregate,
-                                        String subject,
-                                        String mailBody, int mailTypeId, Date bookDate, User user)
+                                        MailTemplate subject,
+                                        MailTemplate body, int mailTypeId, Date bookDate, User user)
     {
-        SimpleMailMessage msg;
-        AssignmentPMMessage asgMsg;
-        MailTask mailTask;
-
-        if (!isAssignmentMailAlreadySent(assignmentAggregate, mailTypeId))
+        if (StringUtils.isBlank(user.getEmail()))
+        {
+            LOGGER.warn("No e-mail address for " + user.getUsername() + ", not mailing assignment " + assignmentAggregate.getProjectAssignment().getAssignmentId());
+        } else if (assignmentMailIndex.claim(assignmentAggregate.getProjectAssignment().getAssignmentId(), mailTypeId))
         {
             EhourConfig config = configurationService.getConfiguration();
 
-            asgMsg = new AssignmentPMMessage();
-            msg = new SimpleMailMessage();
-            msg.setText(mailBody);
-            msg.setSubject(subject);
-            msg.setFrom(config.getMailFrom());
-
-            asgMsg.setMailMessage(msg);
-            asgMsg.setToUser(user);
-            asgMsg.setBookDate(bookDate);
-            asgMsg.setAggregate(assignmentAggregate);
-            asgMsg.setMailType(new MailType(mailTypeId));
-            asgMsg.setCallBack(assignmentMsgCallback);
-
-            mailTask = new MailTask(asgMsg, createMailSender(config));
-            taskExecutor.execute(mailTask);
+            Object[] args = getTemplateArguments(assignmentAggregate, bookDate);
+
+            MailOutbox mail = new MailOutbox(new MailType(mailTypeId), user, user.getEmail(), config.getMailFrom(), subject.render(args), body.render(args));
+            mail.setProjectAssignment(assignmentAggregate.getProjectAssignment());
+            mail.setBookDate(bookDate);
+            mail.setBookedHours(assignmentAggregate.getHours().floatValue());
+
+            boolean digested = mailOutboxDispatcher.queueInDigest(mail);
+
+            mailOutboxDao.persist(mail);
+
+            if (!digested)
+            {
+                mailOutboxDispatcher.dispatchAfterCommit();
+            }
         }
     }
 
     /**
-     * @return
+     * Arguments for the assignment mail templates
+     *
+     * @param assignmentAggregate
+     * @param bookDate
+     * @return project, customer, employee, allotted hours, book date, booked hours and overrun
      */
-    private boolean isAssignmentMailAlreadySent(AssignmentAggregateReportElement aggregate, int mailTypeId)
+    private Object[] getTemplateArguments(AssignmentAggregateReportElement assignmentAggregate, Date bookDate)
     {
-        List<MailLogAssignment> mlaList = mailLogDAO.findMailLogOnAssignmentIds(new Integer[]{aggregate.getProjectAssignment().getAssignmentId()});
-        boolean alreadySent = false;
-
-        for (MailLogAssignment mailLog : mlaList)
-        {
-            if ((mailLog.getMailType().getMailTypeId().intValue() == mailTypeId)
-                    && mailLog.getSuccess().booleanValue())
-            {
-                alreadySent = true;
-                LOGGER.info("Mail was already sent for assignment " + aggregate.getProjectAssignment().getAssignmentId() + ", not sending again");
-                break;
-            }
-        }
+        NumberFormat numberFormat = NumberFormat.getNumberInstance();
+        SimpleDateFormat dateFormat = new SimpleDateFormat("dd MMM yyyy");
 
-        return alreadySent;
+        ProjectAssignment assignment = assignmentAggregate.getProjectAssignment();
+
+        return new Object[]{
+                assignment.getProject().getFullName(),
+                assignment.getProject().getCustomer().getName(),
+                assignment.getUser().getFirstName() + " " + assignment.getUser().getLastName(),
+                assignment.getAllottedHours() == null ? null : numberFormat.format(assignment.getAllottedHours().floatValue()),
+                dateFormat.format(bookDate),
+                numberFormat.format(assignmentAggregate.getHours()),
+                assignment.getAllowedOverrun() == null ? null : numberFormat.format(assignment.getAllowedOverrun())
+        };
     }
 
     /**
@@ -357,7 +335,11 @@ public class MailServiceImpl implements MailService
             } catch (MailException me)
             {
                 LOGGER.info("Failed to e-mail to " + msg.getTo()[0] + ": " + me.getMessage());
-                mailTaskMessage.getCallback().mailTaskFailure(mailTaskMessage, me);
+
+                if (mailTaskMessage.getCallback() != null)
+                {
+                    mailTaskMessage.getCallback().mailTaskFailure(mailTaskMessage, me);
+                }
             }
         }
     }
@@ -371,52 +353,24 @@ public class MailServiceImpl implements MailService
         return mailLogDAO.findMailLogOnAssignmentIds(assignmentIds);
     }
 
-    /**
-     * Create mail sender
-     *
-     * @param config
-     * @return
-     */
-    private MailSender createMailSender(EhourConfig config)
+    public void setMailOutboxDao(MailOutboxDao mailOutboxDao)
     {
-        MailSender mailSender = new JavaMailSenderImpl();
-        ((JavaMailSenderImpl) mailSender).setHost(config.getMailSmtp());
-
-        if (!StringUtils.isBlank(config.getSmtpPort()))
-        {
-            try
-            {
-                int port = Float.valueOf(config.getSmtpPort()).intValue();
-                ((JavaMailSenderImpl) mailSender).setPort(port);
-            } catch (NumberFormatException nfe)
-            {
-                LOGGER.error("Using default port 25, couldn't parse configured port " + config.getSmtpPort());
-            }
-        }
-
-
-        if (!StringUtils.isBlank(config.getSmtpUsername())
-                && !StringUtils.isBlank(config.getSmtpPassword()))
-        {
-            LOGGER.debug("Using SMTP authentication");
-
-            Properties prop = new Properties();
-            prop.put("mail.smtp.auth", "true");
+        this.mailOutboxDao = mailOutboxDao;
+    }
 
-            ((JavaMailSenderImpl) mailSender).setJavaMailProperties(prop);
-            ((JavaMailSenderImpl) mailSender).setUsername(config.getSmtpUsername());
-            ((JavaMailSenderImpl) mailSender).setPassword(config.getSmtpPassword());
-        }
+    public void setMailOutboxDispatcher(MailOutboxDispatcher mailOutboxDispatcher)
+    {
+        this.mailOutboxDispatcher = mailOutboxDispatcher;
+    }
 
-        return mailSender;
+    public void setMailSenderFactory(MailSenderFactory mailSenderFactory)
+    {
+        this.mailSenderFactory = mailSenderFactory;
     }
 
-    /**
-     * @param assignmentMsgCallback the assignmentMsgCallback to set
-     */
-    public void setAssignmentMsgCallback(AssignmentMsgCallback assignmentMsgCallback)
+    public void setAssignmentMailIndex(AssignmentMailIndex assignmentMailIndex)
     {
-        this.assignmentMsgCallback = assignmentMsgCallback;
+        this.assignmentMailIndex = assignmentMailIndex;
     }
 
     /**
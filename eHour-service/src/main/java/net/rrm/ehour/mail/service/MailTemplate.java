@@ -0,0 +1,119 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.mail.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mail text with numbered placeholders like <code>{0}</code>, parsed once and rendered many times.
+ * Unlike MessageFormat quotes have no special meaning and rendering is thread safe, the arguments
+ * are formatted by the caller.
+ */
+public final class MailTemplate
+{
+    private final String[] texts;
+    private final int[] argIndexes;
+    private final int length;
+
+    private MailTemplate(String[] texts, int[] argIndexes)
+    {
+        this.texts = texts;
+        this.argIndexes = argIndexes;
+
+        int textLength = 0;
+
+        for (String text : texts)
+        {
+            textLength += text.length();
+        }
+
+        length = textLength;
+    }
+
+    /**
+     * @param template text with placeholders <code>{n}</code> where n is the index of the argument
+     * @return
+     * @throws IllegalArgumentException when a brace isn't part of a placeholder
+     */
+    public static MailTemplate compile(String template)
+    {
+        List<String> texts = new ArrayList<String>();
+        List<Integer> argIndexes = new ArrayList<Integer>();
+
+        int textStart = 0;
+        int open;
+
+        while ((open = template.indexOf('{', textStart)) >= 0)
+        {
+            int close = template.indexOf('}', open);
+
+            if (close < 0)
+            {
+                throw new IllegalArgumentException("Unclosed placeholder at " + open + " in " + template);
+            }
+
+            try
+            {
+                argIndexes.add(Integer.parseInt(template.substring(open + 1, close)));
+            } catch (NumberFormatException nfe)
+            {
+                throw new IllegalArgumentException("Invalid placeholder at " + open + " in " + template);
+            }
+
+            texts.add(template.substring(textStart, open));
+            textStart = close + 1;
+        }
+
+        texts.add(template.substring(textStart));
+
+        int[] indexes = new int[argIndexes.size()];
+
+        for (int i = 0; i < indexes.length; i++)
+        {
+            indexes[i] = argIndexes.get(i);
+        }
+
+        return new MailTemplate(texts.toArray(new String[texts.size()]), indexes);
+    }
+
+    /**
+     * @param args values for the placeholders, missing ones are rendered empty
+     * @return
+     */
+    public String render(Object... args)
+    {
+        StringBuilder out = new StringBuilder(length + 16 * argIndexes.length);
+
+        for (int i = 0; i < argIndexes.length; i++)
+        {
+            out.append(texts[i]);
+
+            int argIndex = argIndexes[i];
+
+            if (argIndex < args.length && args[argIndex] != null)
+            {
+                out.append(args[argIndex]);
+            }
+        }
+
+        out.append(texts[texts.length - 1]);
+
+        return out.toString();
+    }
+}
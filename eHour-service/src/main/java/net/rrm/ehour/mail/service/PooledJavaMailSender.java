@@ -0,0 +1,233 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.mail.service;
+
+import org.apache.log4j.Logger;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import javax.mail.AuthenticationFailedException;
+import javax.mail.MessagingException;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Mail sender which keeps its SMTP connections open between sends.
+ * At most <code>maxConnections</code> connections are in use at once, a sender needing one more waits.
+ * Connections idle for longer than <code>idleTimeout</code> are closed rather than reused as most
+ * SMTP servers drop them by then.
+ */
+class PooledJavaMailSender extends JavaMailSenderImpl
+{
+    private static final Logger LOGGER = Logger.getLogger(PooledJavaMailSender.class);
+
+    private final int maxConnections;
+    private final long idleTimeout;
+
+    private final Semaphore permits;
+
+    // most recently used first so the least used connections are the ones timing out
+    private final LinkedBlockingDeque<PooledTransport> idleTransports = new LinkedBlockingDeque<PooledTransport>();
+
+    private volatile boolean closed;
+
+    PooledJavaMailSender(int maxConnections, long idleTimeout)
+    {
+        this.maxConnections = maxConnections;
+        this.idleTimeout = idleTimeout;
+        permits = new Semaphore(maxConnections, true);
+    }
+
+    /**
+     * Send the messages over one pooled connection
+     */
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException
+    {
+        PooledTransport transport = borrowTransport();
+        boolean broken = false;
+
+        Map<Object, Exception> failedMessages = new LinkedHashMap<Object, Exception>();
+
+        try
+        {
+            for (int i = 0; i < mimeMessages.length; i++)
+            {
+                MimeMessage mimeMessage = mimeMessages[i];
+
+                try
+                {
+                    if (mimeMessage.getSentDate() == null)
+                    {
+                        mimeMessage.setSentDate(new Date());
+                    }
+
+                    mimeMessage.saveChanges();
+                    transport.transport.sendMessage(mimeMessage, mimeMessage.getAllRecipients());
+                } catch (MessagingException ex)
+                {
+                    failedMessages.put(originalMessages != null ? originalMessages[i] : mimeMessage, ex);
+
+                    if (!transport.transport.isConnected())
+                    {
+                        broken = true;
+                        break;
+                    }
+                }
+            }
+        } finally
+        {
+            releaseTransport(transport, broken);
+        }
+
+        if (!failedMessages.isEmpty())
+        {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    private PooledTransport borrowTransport() throws MailException
+    {
+        try
+        {
+            permits.acquire();
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for an SMTP connection");
+        }
+
+        try
+        {
+            long now = System.currentTimeMillis();
+            PooledTransport transport;
+
+            while ((transport = idleTransports.pollFirst()) != null)
+            {
+                if (now - transport.lastUsed < idleTimeout && transport.transport.isConnected())
+                {
+                    return transport;
+                }
+
+                close(transport);
+            }
+
+            return connect();
+        } catch (RuntimeException e)
+        {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledTransport connect() throws MailException
+    {
+        try
+        {
+            Transport transport = getTransport(getSession());
+            transport.connect(getHost(), getPort(), getUsername(), getPassword());
+
+            LOGGER.debug("Opened SMTP connection to " + getHost() + ":" + getPort());
+            return new PooledTransport(transport);
+        } catch (AuthenticationFailedException ex)
+        {
+            throw new MailAuthenticationException(ex);
+        } catch (MessagingException ex)
+        {
+            throw new MailSendException("Mail server connection failed", ex);
+        }
+    }
+
+    private void releaseTransport(PooledTransport transport, boolean broken)
+    {
+        try
+        {
+            if (broken || closed)
+            {
+                close(transport);
+            } else
+            {
+                transport.lastUsed = System.currentTimeMillis();
+                idleTransports.offerFirst(transport);
+
+                // close() may have drained the pool in the meantime
+                if (closed && idleTransports.remove(transport))
+                {
+                    close(transport);
+                }
+            }
+        } finally
+        {
+            permits.release();
+        }
+    }
+
+    /**
+     * Close the idle connections, connections in use are closed when they're released
+     */
+    void close()
+    {
+        closed = true;
+
+        PooledTransport transport;
+
+        while ((transport = idleTransports.pollFirst()) != null)
+        {
+            close(transport);
+        }
+    }
+
+    private void close(PooledTransport transport)
+    {
+        try
+        {
+            transport.transport.close();
+        } catch (MessagingException ex)
+        {
+            LOGGER.debug("Failed to close SMTP connection: " + ex.getMessage());
+        }
+    }
+
+    int getMaxConnections()
+    {
+        return maxConnections;
+    }
+
+    int getIdleConnectionCount()
+    {
+        return idleTransports.size();
+    }
+
+    private static class PooledTransport
+    {
+        private final Transport transport;
+        private long lastUsed;
+
+        PooledTransport(Transport transport)
+        {
+            this.transport = transport;
+        }
+    }
+}
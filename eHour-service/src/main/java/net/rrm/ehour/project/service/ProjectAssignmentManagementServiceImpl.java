@@ -14,6 +14,7 @@ import net.rrm.ehour.exception.ParentChildConstraintException;
 import net.rrm.ehour.persistence.project.dao.ProjectAssignmentDao;
 import net.rrm.ehour.persistence.project.dao.ProjectDao;
 import net.rrm.ehour.project.dto.ProjectAssignmentCollection;
+import net.rrm.ehour.timesheet.service.TimesheetService;
 import net.rrm.ehour.user.service.UserService;
 
 import org.apache.log4j.Logger;
@@ -38,6 +39,9 @@ public class ProjectAssignmentManagementServiceImpl implements ProjectAssignment
 	@Autowired
 	private ProjectAssignmentService projectAssignmentService;
 
+	@Autowired
+	private TimesheetService		timesheetService;
+
 	@Transactional
 	@Auditable(actionType=AuditActionType.UPDATE)
 	public void assignUsersToProjects(Project project)
@@ -65,6 +69,7 @@ public class ProjectAssignmentManagementServiceImpl implements ProjectAssignment
 	public ProjectAssignment assignUserToProject(ProjectAssignment projectAssignment) 
 	{
 		projectAssignmentDAO.persist(projectAssignment);
+		timesheetService.invalidateCachedTimesheets(projectAssignment.getUser().getUserId());
 		
 		return projectAssignment;
 	}
@@ -144,6 +149,7 @@ public class ProjectAssignmentManagementServiceImpl implements ProjectAssignment
 		if (pa.isDeletable())
 		{
 			projectAssignmentDAO.delete(pa);
+			timesheetService.invalidateCachedTimesheets(pa.getUser().getUserId());
 		}
 		else
 		{
@@ -155,6 +161,7 @@ public class ProjectAssignmentManagementServiceImpl implements ProjectAssignment
 	public void updateProjectAssignment(ProjectAssignment assignment)
 	{
 		projectAssignmentDAO.persist(assignment);
+		timesheetService.invalidateCachedTimesheets(assignment.getUser().getUserId());
 	}
 	
 
@@ -195,4 +202,9 @@ public class ProjectAssignmentManagementServiceImpl implements ProjectAssignment
 	{
 		this.projectAssignmentService = projectAssignmentService;
 	}
+
+	public void setTimesheetService(TimesheetService timesheetService)
+	{
+		this.timesheetService = timesheetService;
+	}
 }
@@ -23,15 +23,19 @@ import java.util.Set;
 import net.rrm.ehour.audit.annot.Auditable;
 import net.rrm.ehour.data.DateRange;
 import net.rrm.ehour.domain.AuditActionType;
+import net.rrm.ehour.domain.DomainFetchProfiles;
 import net.rrm.ehour.domain.Project;
 import net.rrm.ehour.domain.ProjectAssignment;
 import net.rrm.ehour.domain.User;
 import net.rrm.ehour.exception.ObjectNotFoundException;
 import net.rrm.ehour.exception.ParentChildConstraintException;
+import net.rrm.ehour.persistence.dao.FetchProfileCallback;
+import net.rrm.ehour.persistence.dao.FetchProfileDao;
 import net.rrm.ehour.persistence.project.dao.ProjectDao;
 import net.rrm.ehour.report.reports.element.AssignmentAggregateReportElement;
 import net.rrm.ehour.report.reports.util.ReportUtil;
 import net.rrm.ehour.report.service.AggregateReportService;
+import net.rrm.ehour.timesheet.service.TimesheetService;
 import net.rrm.ehour.user.service.UserService;
 import net.rrm.ehour.util.EhourUtil;
 
@@ -63,6 +67,12 @@ public class ProjectServiceImpl implements ProjectService
 	
 	@Autowired
 	private UserService					userService;
+
+	@Autowired
+	private FetchProfileDao				fetchProfileDao;
+
+	@Autowired
+	private TimesheetService			timesheetService;
 	
 	/**
 	 * @param userService the userService to set
@@ -82,9 +92,15 @@ public class ProjectServiceImpl implements ProjectService
 	 * (non-Javadoc)
 	 * @see net.rrm.ehour.persistence.persistence.project.service.ProjectService#getProject(java.lang.Integer)
 	 */
-	public Project getProject(Integer projectId) throws ObjectNotFoundException
+	public Project getProject(final Integer projectId) throws ObjectNotFoundException
 	{
-		Project project = projectDAO.findById(projectId);
+		Project project = fetchProfileDao.withFetchProfile(DomainFetchProfiles.PROJECT_ADMIN, new FetchProfileCallback<Project>()
+		{
+			public Project doWithFetchProfile()
+			{
+				return projectDAO.findById(projectId);
+			}
+		});
 		
 		if (project == null)
 		{
@@ -141,6 +157,9 @@ public class ProjectServiceImpl implements ProjectService
 		{
 			projectAssignmentManagementService.assignUsersToProjects(project);
 		}
+
+		// the project is part of the month summaries of every assigned user
+		timesheetService.invalidateAllCachedTimesheets();
 		
 		return project;
 	}
@@ -257,4 +276,14 @@ public class ProjectServiceImpl implements ProjectService
 	{
 		this.aggregateReportService = aggregateReportService;
 	}
+
+	public void setFetchProfileDao(FetchProfileDao fetchProfileDao)
+	{
+		this.fetchProfileDao = fetchProfileDao;
+	}
+
+	public void setTimesheetService(TimesheetService timesheetService)
+	{
+		this.timesheetService = timesheetService;
+	}
 }
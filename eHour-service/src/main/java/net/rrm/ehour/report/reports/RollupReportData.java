@@ -0,0 +1,87 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.report.reports;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.report.reports.element.AggregateRollupRow;
+import net.rrm.ehour.report.reports.element.ReportElement;
+
+/**
+ * Aggregate report data with the customer and project subtotals and the grand total
+ * as calculated by the database
+ **/
+
+public class RollupReportData extends ReportData
+{
+	private static final long serialVersionUID = 3180716392958125519L;
+
+	private final Map<Serializable, AggregateRollupRow> customerSubtotals = new HashMap<Serializable, AggregateRollupRow>();
+	private final Map<Serializable, AggregateRollupRow> projectSubtotals = new HashMap<Serializable, AggregateRollupRow>();
+	private AggregateRollupRow grandTotal;
+
+	public RollupReportData(List<? extends ReportElement> reportElements, DateRange reportRange, List<AggregateRollupRow> subtotals)
+	{
+		super(reportElements, reportRange);
+
+		for (AggregateRollupRow row : subtotals)
+		{
+			if (row.isGrandTotal())
+			{
+				grandTotal = row;
+			}
+			else if (row.isCustomerSubtotal())
+			{
+				customerSubtotals.put(row.getCustomerId(), row);
+			}
+			else if (row.isProjectSubtotal())
+			{
+				projectSubtotals.put(row.getProjectId(), row);
+			}
+		}
+	}
+
+	/**
+	 * @param customerId
+	 * @return the customer subtotal or null when the customer is not in the report
+	 */
+	public AggregateRollupRow getCustomerSubtotal(Serializable customerId)
+	{
+		return customerSubtotals.get(customerId);
+	}
+
+	/**
+	 * @param projectId
+	 * @return the project subtotal or null when the project is not in the report
+	 */
+	public AggregateRollupRow getProjectSubtotal(Serializable projectId)
+	{
+		return projectSubtotals.get(projectId);
+	}
+
+	/**
+	 * @return the grand total, null for an empty report
+	 */
+	public AggregateRollupRow getGrandTotal()
+	{
+		return grandTotal;
+	}
+}
@@ -50,16 +50,25 @@ public abstract class AbstractReportServiceImpl<RE extends ReportElement>
 	 */
 	protected ReportData getReportData(ReportCriteria reportCriteria)
 	{
-		UserCriteria	userCriteria;
+		DateRange reportRange = reportCriteria.getReportRange();
+
+		return new ReportData(getReportElements(reportCriteria.getUserCriteria(), reportRange), reportRange);
+	}
+
+	/**
+	 * Get the report elements for the user criteria. Selected departments and customers are
+	 * expanded into their users and projects, subclasses which can join on the departments and
+	 * customers directly should override this
+	 * @param userCriteria
+	 * @param reportRange
+	 * @return
+	 */
+	protected List<RE> getReportElements(UserCriteria userCriteria, DateRange reportRange)
+	{
 		List<Project>	projects = null;
 		List<User>		users = null;
 		boolean			ignoreUsers;
 		boolean			ignoreProjects;
-		DateRange		reportRange;
-		
-		userCriteria = reportCriteria.getUserCriteria();
-
-		reportRange = reportCriteria.getReportRange();
 		
 		ignoreUsers = userCriteria.isEmptyDepartments() && userCriteria.isEmptyUsers();
 		ignoreProjects = userCriteria.isEmptyCustomers() && userCriteria.isEmptyProjects();
@@ -81,7 +90,7 @@ public abstract class AbstractReportServiceImpl<RE extends ReportElement>
 			projects = getProjects(userCriteria);
 		}
 
-		return new ReportData(getReportElements(users, projects, reportRange), reportRange);
+		return getReportElements(users, projects, reportRange);
 	}
 
 	/**
@@ -58,6 +58,15 @@ public interface AggregateReportService
 	 * @return
 	 */
 	public ReportData getAggregateReportData(ReportCriteria criteria);
+
+	/**
+	 * Get aggregate report data with the customer and project subtotals calculated by the database
+	 * (RollupReportData). Falls back to getAggregateReportData when the database doesn't support
+	 * rolled up queries or the criteria can't be expressed in them
+	 * @param criteria
+	 * @return
+	 */
+	public ReportData getAggregateRollupReportData(ReportCriteria criteria);
 	
 	/**
 	 * Get project manager report
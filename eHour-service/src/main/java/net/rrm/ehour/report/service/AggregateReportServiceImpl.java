@@ -28,13 +28,19 @@ import net.rrm.ehour.domain.Project;
 import net.rrm.ehour.domain.ProjectAssignment;
 import net.rrm.ehour.domain.User;
 import net.rrm.ehour.mail.service.MailService;
+import net.rrm.ehour.persistence.dao.InClauseUtil;
 import net.rrm.ehour.persistence.report.dao.ReportAggregatedDao;
 import net.rrm.ehour.project.service.ProjectAssignmentService;
 import net.rrm.ehour.report.criteria.ReportCriteria;
+import net.rrm.ehour.report.criteria.UserCriteria;
 import net.rrm.ehour.report.reports.ProjectManagerDashboard;
 import net.rrm.ehour.report.reports.ProjectManagerReport;
 import net.rrm.ehour.report.reports.ReportData;
+import net.rrm.ehour.report.reports.RollupReportData;
+import net.rrm.ehour.report.reports.element.AggregateRollupRow;
 import net.rrm.ehour.report.reports.element.AssignmentAggregateReportElement;
+import net.rrm.ehour.report.reports.element.AssignmentAggregateRow;
+import net.rrm.ehour.util.EhourUtil;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.log4j.Logger;
@@ -98,6 +104,105 @@ public class AggregateReportServiceImpl extends AbstractReportServiceImpl<Assign
 		return getReportData(criteria);
 	}	
 
+	/*
+	 * (non-Javadoc)
+	 * @see net.rrm.ehour.report.service.AggregateReportService#getAggregateRollupReportData(net.rrm.ehour.report.criteria.ReportCriteria)
+	 */
+	public ReportData getAggregateRollupReportData(ReportCriteria criteria)
+	{
+		UserCriteria	userCriteria = criteria.getUserCriteria();
+		List<User>		users = userCriteria.isEmptyUsers() ? null : userCriteria.getUsers();
+		List<Project>	projects = userCriteria.isEmptyProjects() ? null : userCriteria.getProjects();
+
+		// departments and customers are joined on, large id lists are chunked; neither fit in one rolled up query
+		boolean rollupPossible = (users != null || userCriteria.isEmptyDepartments())
+									&& (projects != null || userCriteria.isEmptyCustomers())
+									&& !InClauseUtil.requiresChunking(users)
+									&& !InClauseUtil.requiresChunking(projects);
+
+		if (!rollupPossible || !reportAggregatedDAO.isRollupSupported())
+		{
+			return getAggregateReportData(criteria);
+		}
+
+		DateRange					reportRange = criteria.getReportRange();
+		List<AggregateRollupRow>	rollupRows;
+
+		if (users == null && projects == null)
+		{
+			rollupRows = reportAggregatedDAO.getAggregateRollupRows(reportRange);
+		}
+		else if (projects == null)
+		{
+			rollupRows = reportAggregatedDAO.getAggregateRollupRowsForUsers(EhourUtil.getIdsFromDomainObjects(users), reportRange);
+		}
+		else if (users == null)
+		{
+			rollupRows = reportAggregatedDAO.getAggregateRollupRowsForProjects(EhourUtil.getIdsFromDomainObjects(projects), reportRange);
+		}
+		else
+		{
+			rollupRows = reportAggregatedDAO.getAggregateRollupRowsForUsersAndProjects(EhourUtil.getIdsFromDomainObjects(users),
+																						EhourUtil.getIdsFromDomainObjects(projects),
+																						reportRange);
+		}
+
+		List<AssignmentAggregateRow>	assignmentRows = new ArrayList<AssignmentAggregateRow>();
+		List<AggregateRollupRow>		subtotals = new ArrayList<AggregateRollupRow>();
+
+		for (AggregateRollupRow rollupRow : rollupRows)
+		{
+			if (rollupRow.isAssignmentRow())
+			{
+				assignmentRows.add(rollupRow.getAssignmentRow());
+			}
+			else
+			{
+				subtotals.add(rollupRow);
+			}
+		}
+
+		return new RollupReportData(toReportElements(assignmentRows), reportRange, subtotals);
+	}
+
+	/**
+	 * Departments and customers without explicitly selected users or projects are joined on
+	 * in the query instead of being expanded into (possibly thousands of) users and projects
+	 * @see net.rrm.ehour.report.service.AbstractReportServiceImpl#getReportElements(net.rrm.ehour.report.criteria.UserCriteria, net.rrm.ehour.data.DateRange)
+	 */
+	@Override
+	protected List<AssignmentAggregateReportElement> getReportElements(UserCriteria userCriteria, DateRange reportRange)
+	{
+		boolean	joinDepartments = userCriteria.isEmptyUsers() && !userCriteria.isEmptyDepartments();
+		boolean	joinCustomers = userCriteria.isEmptyProjects() && !userCriteria.isEmptyCustomers();
+		boolean	noUsers = userCriteria.isEmptyUsers() && userCriteria.isEmptyDepartments();
+		boolean	noProjects = userCriteria.isEmptyProjects() && userCriteria.isEmptyCustomers();
+
+		List<AssignmentAggregateRow>	rows;
+
+		if (joinDepartments && joinCustomers)
+		{
+			rows = reportAggregatedDAO.getAggregateRowsPerAssignmentForDepartmentsAndCustomers(userCriteria.getDepartments(), userCriteria.isOnlyActiveUsers(),
+																								userCriteria.getCustomers(), userCriteria.isOnlyActiveProjects(),
+																								reportRange);
+		}
+		else if (joinDepartments && noProjects)
+		{
+			rows = reportAggregatedDAO.getAggregateRowsPerAssignmentForDepartments(userCriteria.getDepartments(), userCriteria.isOnlyActiveUsers(), reportRange);
+		}
+		else if (joinCustomers && noUsers)
+		{
+			rows = reportAggregatedDAO.getAggregateRowsPerAssignmentForCustomers(userCriteria.getCustomers(), userCriteria.isOnlyActiveProjects(), reportRange);
+		}
+		else
+		{
+			// explicit users or projects, large lists are chunked by the dao
+			return super.getReportElements(userCriteria, reportRange);
+		}
+
+		return toReportElements(rows);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see net.rrm.ehour.persistence.persistence.report.service.AbstractReportServiceImpl#getReportElements(java.util.List, java.util.List, net.rrm.ehour.persistence.persistence.data.DateRange)
@@ -107,34 +212,52 @@ public class AggregateReportServiceImpl extends AbstractReportServiceImpl<Assign
 																			List<Project >projects,
 																			DateRange reportRange)
 	{
-		List<AssignmentAggregateReportElement>	aggregates = new ArrayList<AssignmentAggregateReportElement>();
+		List<AssignmentAggregateRow>	rows = new ArrayList<AssignmentAggregateRow>();
 		
 		if (users == null && projects == null)
 		{
-			aggregates = reportAggregatedDAO.getCumulatedHoursPerAssignment(reportRange);
+			rows = reportAggregatedDAO.getAggregateRowsPerAssignment(reportRange);
 		}
 		else if (projects == null)
 		{
 			if (!CollectionUtils.isEmpty(users))
 			{
-				aggregates = reportAggregatedDAO.getCumulatedHoursPerAssignmentForUsers(users, reportRange);
+				rows = reportAggregatedDAO.getAggregateRowsPerAssignmentForUsers(users, reportRange);
 			}
 		}
 		else if (users == null)
 		{
 			if (!CollectionUtils.isEmpty(projects))
 			{
-				aggregates = reportAggregatedDAO.getCumulatedHoursPerAssignmentForProjects(projects, reportRange);
+				rows = reportAggregatedDAO.getAggregateRowsPerAssignmentForProjects(projects, reportRange);
 			}
 		}
 		else
 		{
 			if (!CollectionUtils.isEmpty(users) && !CollectionUtils.isEmpty(projects))
 			{
-				aggregates = reportAggregatedDAO.getCumulatedHoursPerAssignmentForUsers(users, projects, reportRange);
+				rows = reportAggregatedDAO.getAggregateRowsPerAssignmentForUsers(users, projects, reportRange);
 			}
 		}
 		
+		return toReportElements(rows);
+	}
+	
+	/**
+	 * Report elements backed by the detached assignment graph of the projected rows,
+	 * the aggregate reports only read from them
+	 * @param rows
+	 * @return
+	 */
+	private List<AssignmentAggregateReportElement> toReportElements(List<AssignmentAggregateRow> rows)
+	{
+		List<AssignmentAggregateReportElement> aggregates = new ArrayList<AssignmentAggregateReportElement>(rows.size());
+		
+		for (AssignmentAggregateRow row : rows)
+		{
+			aggregates.add(row.toReportElement());
+		}
+		
 		return aggregates;
 	}
 	
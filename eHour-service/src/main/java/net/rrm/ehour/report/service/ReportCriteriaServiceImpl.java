@@ -24,10 +24,13 @@ import java.util.Set;
 
 import net.rrm.ehour.audit.annot.NonAuditable;
 import net.rrm.ehour.domain.Customer;
+import net.rrm.ehour.domain.DomainFetchProfiles;
 import net.rrm.ehour.domain.Project;
 import net.rrm.ehour.domain.ProjectAssignment;
 import net.rrm.ehour.domain.User;
 import net.rrm.ehour.persistence.customer.dao.CustomerDao;
+import net.rrm.ehour.persistence.dao.FetchProfileCallback;
+import net.rrm.ehour.persistence.dao.FetchProfileDao;
 import net.rrm.ehour.persistence.project.dao.ProjectAssignmentDao;
 import net.rrm.ehour.persistence.project.dao.ProjectDao;
 import net.rrm.ehour.persistence.report.dao.ReportAggregatedDao;
@@ -63,6 +66,8 @@ public class ReportCriteriaServiceImpl implements ReportCriteriaService
 	private	ProjectAssignmentDao	projectAssignmentDAO;
 	@Autowired
 	private	ReportAggregatedDao		reportAggregatedDAO;
+	@Autowired
+	private	FetchProfileDao			fetchProfileDao;
 
 	private	static final Logger	LOGGER = Logger.getLogger(ReportCriteriaServiceImpl.class);
 
@@ -70,7 +75,18 @@ public class ReportCriteriaServiceImpl implements ReportCriteriaService
 	 * Update available report criteria 
 	 */
 	
-	public ReportCriteria syncUserReportCriteria(ReportCriteria reportCriteria, ReportCriteriaUpdateType updateType)
+	public ReportCriteria syncUserReportCriteria(final ReportCriteria reportCriteria, final ReportCriteriaUpdateType updateType)
+	{
+		return fetchProfileDao.withFetchProfile(DomainFetchProfiles.REPORT_CRITERIA, new FetchProfileCallback<ReportCriteria>()
+		{
+			public ReportCriteria doWithFetchProfile()
+			{
+				return syncCriteria(reportCriteria, updateType);
+			}
+		});
+	}
+
+	private ReportCriteria syncCriteria(ReportCriteria reportCriteria, ReportCriteriaUpdateType updateType)
 	{
 		UserCriteria		userCriteria = reportCriteria.getUserCriteria();
 		AvailableCriteria	availCriteria = reportCriteria.getAvailableCriteria();
@@ -319,4 +335,9 @@ public class ReportCriteriaServiceImpl implements ReportCriteriaService
 	{
 		this.reportAggregatedDAO = reportAggregatedDAO;
 	}
+
+	public void setFetchProfileDao(FetchProfileDao fetchProfileDao)
+	{
+		this.fetchProfileDao = fetchProfileDao;
+	}
 }
@@ -0,0 +1,66 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.statistics.service;
+
+import java.util.List;
+
+import net.rrm.ehour.persistence.statistics.RequestStatistics;
+import net.rrm.ehour.persistence.statistics.dao.QueryExecutionStatistics;
+
+/**
+ * Per request query counting to track down N+1 selects and other chatty pages.
+ * Only active when ehour.statistics.enabled is set to true.
+ */
+public interface QueryStatisticsService
+{
+    /**
+     * @return whether statistics are collected
+     */
+    boolean isEnabled();
+
+    /**
+     * Start counting statements, entity loads and collection fetches for the request on the current thread
+     */
+    void beginRequest();
+
+    /**
+     * Stop counting for the current thread. Requests that cross one of the configured thresholds
+     * are logged and recorded as offender
+     * @param requestName page or component that handled the request
+     * @return the statistics of the request, null when counting wasn't started
+     */
+    RequestStatistics endRequest(String requestName);
+
+    /**
+     * Get the requests which crossed the thresholds
+     * @param max
+     * @return the offenders, most queries first
+     */
+    List<RequestOffender> getTopOffenders(int max);
+
+    /**
+     * Get Hibernate's query statistics
+     * @param max
+     * @return most executed first, empty when statistics are disabled
+     */
+    List<QueryExecutionStatistics> getMostExecutedQueries(int max);
+
+    /**
+     * Forget all recorded offenders and query statistics
+     */
+    void clear();
+}
@@ -0,0 +1,197 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.statistics.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.rrm.ehour.persistence.statistics.RequestStatistics;
+import net.rrm.ehour.persistence.statistics.RequestStatisticsHolder;
+import net.rrm.ehour.persistence.statistics.dao.QueryExecutionStatistics;
+import net.rrm.ehour.persistence.statistics.dao.QueryStatisticsDao;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Service("queryStatisticsService")
+public class QueryStatisticsServiceImpl implements QueryStatisticsService
+{
+    private static final Logger LOGGER = Logger.getLogger(QueryStatisticsServiceImpl.class);
+
+    // bounds the memory used when every request of a badly behaving application is an offender
+    private static final int MAX_OFFENDERS = 200;
+
+    private final ConcurrentMap<String, RequestOffender> offenders = new ConcurrentHashMap<String, RequestOffender>();
+
+    @Autowired
+    private QueryStatisticsDao queryStatisticsDao;
+
+    @Value("${ehour.statistics.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ehour.statistics.threshold.queries:50}")
+    private int queryThreshold;
+
+    @Value("${ehour.statistics.threshold.entityLoads:500}")
+    private int entityLoadThreshold;
+
+    @Value("${ehour.statistics.threshold.collectionFetches:25}")
+    private int collectionFetchThreshold;
+
+    /*
+     * (non-Javadoc)
+     * @see net.rrm.ehour.statistics.service.QueryStatisticsService#isEnabled()
+     */
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see net.rrm.ehour.statistics.service.QueryStatisticsService#beginRequest()
+     */
+    public void beginRequest()
+    {
+        if (enabled)
+        {
+            RequestStatisticsHolder.begin();
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see net.rrm.ehour.statistics.service.QueryStatisticsService#endRequest(java.lang.String)
+     */
+    public RequestStatistics endRequest(String requestName)
+    {
+        RequestStatistics statistics = RequestStatisticsHolder.end();
+
+        if (statistics != null && isOverThreshold(statistics))
+        {
+            LOGGER.warn(requestName + " executed " + statistics.getQueryCount() + " statements, loaded "
+                            + statistics.getEntityLoadCount() + " entities and fetched "
+                            + statistics.getCollectionFetchCount() + " collections. Repeated statements: "
+                            + statistics.getRepeatedStatements(3) + ", repeated collection fetches: "
+                            + statistics.getRepeatedCollectionFetches(3));
+
+            RequestOffender offender = getOffender(requestName);
+
+            if (offender != null)
+            {
+                offender.record(statistics);
+            }
+        }
+
+        return statistics;
+    }
+
+    private boolean isOverThreshold(RequestStatistics statistics)
+    {
+        return statistics.getQueryCount() > queryThreshold
+                || statistics.getEntityLoadCount() > entityLoadThreshold
+                || statistics.getCollectionFetchCount() > collectionFetchThreshold;
+    }
+
+    private RequestOffender getOffender(String requestName)
+    {
+        RequestOffender offender = offenders.get(requestName);
+
+        if (offender == null && offenders.size() < MAX_OFFENDERS)
+        {
+            RequestOffender newOffender = new RequestOffender(requestName);
+            offender = offenders.putIfAbsent(requestName, newOffender);
+            offender = (offender == null) ? newOffender : offender;
+        }
+
+        return offender;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see net.rrm.ehour.statistics.service.QueryStatisticsService#getTopOffenders(int)
+     */
+    public List<RequestOffender> getTopOffenders(int max)
+    {
+        List<RequestOffender> topOffenders = new ArrayList<RequestOffender>(offenders.values());
+
+        Collections.sort(topOffenders, new Comparator<RequestOffender>()
+        {
+            public int compare(RequestOffender o1, RequestOffender o2)
+            {
+                return o2.getQueryCount() - o1.getQueryCount();
+            }
+        });
+
+        return topOffenders.size() > max ? new ArrayList<RequestOffender>(topOffenders.subList(0, max)) : topOffenders;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see net.rrm.ehour.statistics.service.QueryStatisticsService#getMostExecutedQueries(int)
+     */
+    public List<QueryExecutionStatistics> getMostExecutedQueries(int max)
+    {
+        if (!queryStatisticsDao.isStatisticsEnabled())
+        {
+            return new ArrayList<QueryExecutionStatistics>();
+        }
+
+        return queryStatisticsDao.getMostExecutedQueries(max);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see net.rrm.ehour.statistics.service.QueryStatisticsService#clear()
+     */
+    public void clear()
+    {
+        offenders.clear();
+        queryStatisticsDao.clear();
+    }
+
+    void setQueryStatisticsDao(QueryStatisticsDao queryStatisticsDao)
+    {
+        this.queryStatisticsDao = queryStatisticsDao;
+    }
+
+    void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    void setQueryThreshold(int queryThreshold)
+    {
+        this.queryThreshold = queryThreshold;
+    }
+
+    void setEntityLoadThreshold(int entityLoadThreshold)
+    {
+        this.entityLoadThreshold = entityLoadThreshold;
+    }
+
+    void setCollectionFetchThreshold(int collectionFetchThreshold)
+    {
+        this.collectionFetchThreshold = collectionFetchThreshold;
+    }
+}
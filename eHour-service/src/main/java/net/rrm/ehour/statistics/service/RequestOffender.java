@@ -0,0 +1,127 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.statistics.service;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import net.rrm.ehour.persistence.statistics.RequestStatistics;
+
+/**
+ * A page or component of which requests crossed the query thresholds, with the worst request seen
+ */
+public class RequestOffender implements Serializable
+{
+    private static final long serialVersionUID = -4405983372785262040L;
+
+    private static final int MAX_REPEATED = 5;
+
+    private final String requestName;
+    private int occurrences;
+    private Date lastOccurrence;
+    private int queryCount;
+    private int entityLoadCount;
+    private int collectionFetchCount;
+    private List<String> repeatedStatements = Collections.emptyList();
+    private List<String> repeatedCollectionFetches = Collections.emptyList();
+
+    public RequestOffender(String requestName)
+    {
+        this.requestName = requestName;
+    }
+
+    /**
+     * Record an offending request, the statements of the request with the most queries are kept
+     * @param statistics
+     */
+    synchronized void record(RequestStatistics statistics)
+    {
+        occurrences++;
+        lastOccurrence = new Date();
+
+        if (statistics.getQueryCount() >= queryCount)
+        {
+            queryCount = statistics.getQueryCount();
+            entityLoadCount = statistics.getEntityLoadCount();
+            collectionFetchCount = statistics.getCollectionFetchCount();
+            repeatedStatements = describe(statistics.getRepeatedStatements(MAX_REPEATED));
+            repeatedCollectionFetches = describe(statistics.getRepeatedCollectionFetches(MAX_REPEATED));
+        }
+    }
+
+    private static List<String> describe(List<Map.Entry<String, Integer>> counts)
+    {
+        List<String> descriptions = new ArrayList<String>();
+
+        for (Map.Entry<String, Integer> count : counts)
+        {
+            descriptions.add(count.getValue() + "x " + count.getKey());
+        }
+
+        return descriptions;
+    }
+
+    public String getRequestName()
+    {
+        return requestName;
+    }
+
+    public synchronized int getOccurrences()
+    {
+        return occurrences;
+    }
+
+    public synchronized Date getLastOccurrence()
+    {
+        return lastOccurrence;
+    }
+
+    public synchronized int getQueryCount()
+    {
+        return queryCount;
+    }
+
+    public synchronized int getEntityLoadCount()
+    {
+        return entityLoadCount;
+    }
+
+    public synchronized int getCollectionFetchCount()
+    {
+        return collectionFetchCount;
+    }
+
+    /**
+     * @return statements executed more than once in the worst request, prefixed with their count
+     */
+    public synchronized List<String> getRepeatedStatements()
+    {
+        return repeatedStatements;
+    }
+
+    /**
+     * @return collections fetched more than once in the worst request, prefixed with their count
+     */
+    public synchronized List<String> getRepeatedCollectionFetches()
+    {
+        return repeatedCollectionFetches;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.timesheet.service;
+
+import net.rrm.ehour.timesheet.dto.MonthSummary;
+
+import java.util.*;
+
+/**
+ * Bounded, expiring cache of month summaries keyed on user and month.
+ * Invalidation is per user or of everything; a summary loaded while an invalidation for the same user
+ * happened is not stored as it may have been read before the change was committed.
+ **/
+class MonthSummaryCache
+{
+    static final int DEFAULT_MAX_ENTRIES = 500;
+    static final long DEFAULT_TIME_TO_LIVE = 10 * 60 * 1000L;
+
+    private final int maxEntries;
+    private final long timeToLive;
+
+    private final Map<Key, CachedSummary> summaries;
+    private final Map<Integer, Long> userGenerations = new HashMap<Integer, Long>();
+    private long clearCount;
+
+    MonthSummaryCache()
+    {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TIME_TO_LIVE);
+    }
+
+    MonthSummaryCache(final int maxEntries, long timeToLive)
+    {
+        this.maxEntries = maxEntries;
+        this.timeToLive = timeToLive;
+
+        summaries = new LinkedHashMap<Key, CachedSummary>(16, 0.75f, true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedSummary> eldest)
+            {
+                return size() > MonthSummaryCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return the cached summary or null when absent or expired
+     */
+    synchronized MonthSummary get(Integer userId, Calendar month)
+    {
+        Key key = new Key(userId, month);
+        CachedSummary cached = summaries.get(key);
+
+        if (cached == null)
+        {
+            return null;
+        }
+
+        if (cached.expiresAt < now())
+        {
+            summaries.remove(key);
+            return null;
+        }
+
+        return cached.summary;
+    }
+
+    /**
+     * Generation of the user's cached data, to be passed to put when the summary is loaded
+     */
+    synchronized long getGeneration(Integer userId)
+    {
+        Long generation = userGenerations.get(userId);
+        return clearCount + ((generation == null) ? 0 : generation);
+    }
+
+    synchronized void put(Integer userId, Calendar month, long generation, MonthSummary summary)
+    {
+        if (generation == getGeneration(userId))
+        {
+            summaries.put(new Key(userId, month), new CachedSummary(summary, now() + timeToLive));
+        }
+    }
+
+    /**
+     * Drop all months of a user
+     */
+    synchronized void invalidate(Integer userId)
+    {
+        Long generation = userGenerations.get(userId);
+        userGenerations.put(userId, (generation == null) ? 1 : generation + 1);
+
+        for (Iterator<Key> keys = summaries.keySet().iterator(); keys.hasNext(); )
+        {
+            if (keys.next().userId.equals(userId))
+            {
+                keys.remove();
+            }
+        }
+    }
+
+    /**
+     * Drop all months of all users
+     */
+    synchronized void clear()
+    {
+        clearCount++;
+        summaries.clear();
+    }
+
+    synchronized int size()
+    {
+        return summaries.size();
+    }
+
+    long now()
+    {
+        return System.currentTimeMillis();
+    }
+
+    private static final class CachedSummary
+    {
+        private final MonthSummary summary;
+        private final long expiresAt;
+
+        private CachedSummary(MonthSummary summary, long expiresAt)
+        {
+            this.summary = summary;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Key
+    {
+        private final Integer userId;
+        private final int year;
+        private final int month;
+
+        private Key(Integer userId, Calendar month)
+        {
+            this.userId = userId;
+            this.year = month.get(Calendar.YEAR);
+            this.month = month.get(Calendar.MONTH);
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            if (!(other instanceof Key))
+            {
+                return false;
+            }
+
+            Key key = (Key) other;
+            return userId.equals(key.userId) && year == key.year && month == key.month;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return (userId.hashCode() * 31 + year) * 31 + month;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.timesheet.service;
+
+import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.timesheet.dto.CompletenessReport;
+
+/**
+ * Evaluates the timesheets of the whole organisation at once
+ **/
+public interface TimesheetCompletenessService
+{
+	/**
+	 * Find the users who didn't book complete days on every work day of the period.
+	 * Users are expected to book when they have an active assignment in the period;
+	 * a day is complete when at least the configured complete day hours are booked.
+	 * @param period
+	 * @return
+	 */
+	public CompletenessReport getCompleteness(DateRange period);
+
+	/**
+	 * Mail every incomplete user of the period a reminder listing the missing days
+	 * @param period
+	 * @return the number of users reminded
+	 */
+	public int remindIncompleteUsers(DateRange period);
+}
@@ -0,0 +1,224 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.timesheet.service;
+
+import net.rrm.ehour.config.EhourConfig;
+import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.domain.ProjectAssignment;
+import net.rrm.ehour.domain.User;
+import net.rrm.ehour.mail.service.MailService;
+import net.rrm.ehour.persistence.project.dao.ProjectAssignmentDao;
+import net.rrm.ehour.persistence.timesheet.dao.TimesheetDao;
+import net.rrm.ehour.timesheet.dto.BookedDay;
+import net.rrm.ehour.timesheet.dto.CompletenessReport;
+import net.rrm.ehour.timesheet.dto.UserCompleteness;
+import net.rrm.ehour.util.DateUtil;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Completeness is evaluated with two queries per period regardless of the number of users:
+ * the booked hours per user per day and the assignments active in the period. Complete days are
+ * kept as a bitset per user which is compared against the work days the user was assigned on.
+ **/
+@Service("timesheetCompletenessService")
+public class TimesheetCompletenessServiceImpl implements TimesheetCompletenessService
+{
+	private static final Logger LOGGER = Logger.getLogger(TimesheetCompletenessServiceImpl.class);
+
+	@Autowired
+	private TimesheetDao			timesheetDAO;
+
+	@Autowired
+	private ProjectAssignmentDao	projectAssignmentDAO;
+
+	@Autowired
+	private MailService				mailService;
+
+	@Autowired
+	private EhourConfig				configuration;
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.rrm.ehour.timesheet.service.TimesheetCompletenessService#getCompleteness(net.rrm.ehour.data.DateRange)
+	 */
+	public CompletenessReport getCompleteness(DateRange period)
+	{
+		List<Date> days = new ArrayList<Date>();
+		BitSet workDays = new BitSet();
+		Map<Long, Integer> dayIndexes = new HashMap<Long, Integer>();
+
+		Calendar cal = new GregorianCalendar();
+		cal.setTime(DateUtil.nullifyTime(period.getDateStart()));
+		Date end = DateUtil.nullifyTime(period.getDateEnd());
+
+		while (!cal.getTime().after(end))
+		{
+			int index = days.size();
+			days.add(cal.getTime());
+			dayIndexes.put(cal.getTimeInMillis(), index);
+
+			if (!DateUtil.isWeekend(cal))
+			{
+				workDays.set(index);
+			}
+
+			cal.add(Calendar.DAY_OF_MONTH, 1);
+		}
+
+		Map<Integer, BitSet> completeDays = getCompleteDaysPerUser(period, dayIndexes);
+
+		CompletenessReport report = new CompletenessReport(period, days, workDays);
+		Map<User, BitSet> assignedDays = getAssignedDaysPerUser(period, days);
+		Set<User> users = assignedDays.keySet();
+
+		for (User user : users)
+		{
+			BitSet missingDays = assignedDays.get(user);
+			missingDays.and(workDays);
+			BitSet userCompleteDays = completeDays.get(user.getUserId());
+
+			if (userCompleteDays != null)
+			{
+				missingDays.andNot(userCompleteDays);
+			}
+
+			if (!missingDays.isEmpty())
+			{
+				report.addIncompleteUser(new UserCompleteness(user, missingDays, days));
+			}
+		}
+
+		Collections.sort(report.getIncompleteUsers());
+		report.setEvaluatedUserCount(users.size());
+
+		LOGGER.debug("Completeness for " + period + ": " + report.getIncompleteUsers().size() + " of " + users.size() + " users incomplete");
+
+		return report;
+	}
+
+	/**
+	 * Days of the period a user can book on: the union of the user's assignments within the period
+	 * @param period
+	 * @param days the days of the period in order
+	 * @return
+	 */
+	private Map<User, BitSet> getAssignedDaysPerUser(DateRange period, List<Date> days)
+	{
+		Map<User, BitSet> assignedDays = new LinkedHashMap<User, BitSet>();
+
+		for (ProjectAssignment assignment : projectAssignmentDAO.findActiveAssignments(period))
+		{
+			BitSet userDays = assignedDays.get(assignment.getUser());
+
+			if (userDays == null)
+			{
+				userDays = new BitSet(days.size());
+				assignedDays.put(assignment.getUser(), userDays);
+			}
+
+			int from = 0;
+			int to = days.size();
+
+			if (assignment.getDateStart() != null)
+			{
+				int index = Collections.binarySearch(days, DateUtil.nullifyTime(assignment.getDateStart()));
+				from = index >= 0 ? index : -index - 1;
+			}
+
+			if (assignment.getDateEnd() != null)
+			{
+				int index = Collections.binarySearch(days, DateUtil.nullifyTime(assignment.getDateEnd()));
+				to = index >= 0 ? index + 1 : -index - 1;
+			}
+
+			if (from < to)
+			{
+				userDays.set(from, to);
+			}
+		}
+
+		return assignedDays;
+	}
+
+	private Map<Integer, BitSet> getCompleteDaysPerUser(DateRange period, Map<Long, Integer> dayIndexes)
+	{
+		Map<Integer, BitSet> completeDays = new HashMap<Integer, BitSet>();
+		float completeDayHours = configuration.getCompleteDayHours();
+		Calendar day = new GregorianCalendar();
+
+		for (BookedDay bookedDay : timesheetDAO.getBookedHoursperDayInRange(period))
+		{
+			if (bookedDay.getHours() == null || bookedDay.getHours().floatValue() < completeDayHours)
+			{
+				continue;
+			}
+
+			day.setTime(bookedDay.getDate());
+			DateUtil.nullifyTime(day);
+			Integer index = dayIndexes.get(day.getTimeInMillis());
+
+			if (index != null)
+			{
+				BitSet userDays = completeDays.get(bookedDay.getUserId());
+
+				if (userDays == null)
+				{
+					userDays = new BitSet(dayIndexes.size());
+					completeDays.put(bookedDay.getUserId(), userDays);
+				}
+
+				userDays.set(index);
+			}
+		}
+
+		return completeDays;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.rrm.ehour.timesheet.service.TimesheetCompletenessService#remindIncompleteUsers(net.rrm.ehour.data.DateRange)
+	 */
+	public int remindIncompleteUsers(DateRange period)
+	{
+		return mailService.mailTimesheetReminders(getCompleteness(period));
+	}
+
+	public void setTimesheetDAO(TimesheetDao timesheetDAO)
+	{
+		this.timesheetDAO = timesheetDAO;
+	}
+
+	public void setProjectAssignmentDAO(ProjectAssignmentDao projectAssignmentDAO)
+	{
+		this.projectAssignmentDAO = projectAssignmentDAO;
+	}
+
+	public void setMailService(MailService mailService)
+	{
+		this.mailService = mailService;
+	}
+
+	public void setEhourConfig(EhourConfig configuration)
+	{
+		this.configuration = configuration;
+	}
+}
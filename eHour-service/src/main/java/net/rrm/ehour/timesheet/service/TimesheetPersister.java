@@ -31,7 +31,8 @@ import net.rrm.ehour.exception.OverBudgetException;
 public interface TimesheetPersister
 {
 	/**
-	 * Validate, persist and notify list of timesheet entries
+	 * Validate, persist and notify list of timesheet entries. Runs within the caller's transaction,
+	 * an over budget row is rolled back to a savepoint without affecting the other rows
 	 * @param assignment
 	 * @param entries
 	 * @throws BusinessException
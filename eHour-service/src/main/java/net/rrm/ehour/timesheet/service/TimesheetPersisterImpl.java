@@ -26,14 +26,18 @@ import net.rrm.ehour.persistence.timesheet.dao.TimesheetDao;
 import net.rrm.ehour.project.status.ProjectAssignmentStatus;
 import net.rrm.ehour.project.status.ProjectAssignmentStatusService;
 import net.rrm.ehour.util.EhourConstants;
+import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Timesheet persister
@@ -58,7 +62,7 @@ public class TimesheetPersisterImpl implements TimesheetPersister
       * @see net.rrm.ehour.persistence.persistence.timesheet.service.TimesheetPersister#validateAndPersist(net.rrm.ehour.persistence.persistence.domain.ProjectAssignment, java.util.List, net.rrm.ehour.persistence.persistence.data.DateRange)
       */
     @Transactional(rollbackFor = OverBudgetException.class,
-            propagation = Propagation.REQUIRES_NEW)
+            propagation = Propagation.NESTED)
     public void validateAndPersist(ProjectAssignment assignment,
                                    List<TimesheetEntry> entries,
                                    DateRange weekRange) throws OverBudgetException
@@ -67,19 +71,28 @@ public class TimesheetPersisterImpl implements TimesheetPersister
 
         boolean checkAfterStatus = beforeStatus.isValid();
 
+        List<TimesheetEntry> previousEntries = timesheetDAO.getTimesheetEntriesInRange(assignment, weekRange);
+        List<TimesheetEntry> rowEntries = new ArrayList<TimesheetEntry>(previousEntries);
+        rowEntries.addAll(entries);
+
         try
         {
-            persistEntries(assignment, entries, weekRange, !beforeStatus.isValid());
+            persistEntries(assignment, entries, previousEntries, !beforeStatus.isValid());
         } catch (OverBudgetException obe)
         {
             // make sure it's retrown by checking the after status
             checkAfterStatus = true;
         }
 
+        // write the row in one batch within the savepoint, before the status reads it back
+        timesheetDAO.flush();
+
         ProjectAssignmentStatus afterStatus = projectAssignmentStatusService.getAssignmentStatus(assignment);
 
         if (checkAfterStatus && !afterStatus.isValid())
         {
+            // the row is rolled back to the savepoint, the session and cache shouldn't keep what was written
+            timesheetDAO.discard(rowEntries);
             throw new OverBudgetException(afterStatus);
         } else if (!beforeStatus.equals(afterStatus) && canNotifyPm(assignment))
         {
@@ -88,81 +101,107 @@ public class TimesheetPersisterImpl implements TimesheetPersister
     }
 
     /**
-     * Persist entry by entry
+     * Diff the submitted entries against the stored ones by entry date and write the differences.
+     * When an entry is over budget the changes up to that entry are still written, the after status decides.
      *
      * @param assignment
      * @param entries
-     * @param weekRange
+     * @param previousEntries entries of the assignment in the week as currently stored
      * @param onlyLessThanExisting
      */
-    private void persistEntries(ProjectAssignment assignment, List<TimesheetEntry> entries, DateRange weekRange, boolean onlyLessThanExisting) throws OverBudgetException
+    private void persistEntries(ProjectAssignment assignment, List<TimesheetEntry> entries, List<TimesheetEntry> previousEntries, boolean onlyLessThanExisting) throws OverBudgetException
     {
-        List<TimesheetEntry> previousEntries = timesheetDAO.getTimesheetEntriesInRange(assignment, weekRange);
+        Map<Date, TimesheetEntry> previousEntriesByDate = new HashMap<Date, TimesheetEntry>();
 
-        for (TimesheetEntry entry : entries)
+        for (TimesheetEntry previousEntry : previousEntries)
         {
-            if (!entry.getEntryId().getProjectAssignment().equals(assignment))
-            {
-                LOGGER.error("Invalid entry in assignment list, skipping: " + entry);
-                continue;
-            }
-
-            if (entry.isEmptyEntry())
-            {
-                deleteEntry(getEntry(previousEntries, entry));
-            } else
-            {
-                persistEntry(onlyLessThanExisting, entry, getEntry(previousEntries, entry));
-            }
-
-            previousEntries.remove(entry);
+            previousEntriesByDate.put(getDateKey(previousEntry), previousEntry);
         }
 
-        removeOldEntries(previousEntries);
-    }
+        List<TimesheetEntry> inserts = new ArrayList<TimesheetEntry>();
+        List<TimesheetEntry> updates = new ArrayList<TimesheetEntry>();
+        List<TimesheetEntry> deletes = new ArrayList<TimesheetEntry>();
 
-    private void removeOldEntries(List<TimesheetEntry> previousEntries)
-    {
-        for (TimesheetEntry entry : previousEntries)
+        try
         {
-            if (LOGGER.isDebugEnabled())
+            for (TimesheetEntry entry : entries)
             {
-                LOGGER.debug("Deleting stale timesheet entry for assignment id " + entry.getEntryId().getProjectAssignment().getAssignmentId() +
-                        " for date " + entry.getEntryId().getEntryDate() + ", hours booked: " + entry.getHours());
+                if (!entry.getEntryId().getProjectAssignment().equals(assignment))
+                {
+                    LOGGER.error("Invalid entry in assignment list, skipping: " + entry);
+                    continue;
+                }
+
+                TimesheetEntry existingEntry = previousEntriesByDate.remove(getDateKey(entry));
+
+                if (entry.isEmptyEntry())
+                {
+                    if (existingEntry != null)
+                    {
+                        deletes.add(existingEntry);
+                    }
+                } else if (existingEntry == null)
+                {
+                    checkBudget(onlyLessThanExisting, entry, null);
+                    inserts.add(entry);
+                } else if (!isUnchanged(entry, existingEntry))
+                {
+                    checkBudget(onlyLessThanExisting, entry, existingEntry);
+                    updates.add(entry);
+                }
             }
 
-            timesheetDAO.delete(entry);
+            // stored entries which weren't submitted anymore
+            deletes.addAll(previousEntriesByDate.values());
+        } finally
+        {
+            writeChanges(inserts, updates, deletes);
         }
     }
 
     /**
-     * Delete existing entry
+     * Write the changes of a row, Hibernate sends each kind as one JDBC batch on flush
      *
-     * @param existingEntry
+     * @param inserts
+     * @param updates
+     * @param deletes
      */
-    private void deleteEntry(TimesheetEntry existingEntry)
+    private void writeChanges(List<TimesheetEntry> inserts, List<TimesheetEntry> updates, List<TimesheetEntry> deletes)
     {
-        if (existingEntry != null)
+        if (LOGGER.isDebugEnabled())
         {
-            if (LOGGER.isDebugEnabled())
-            {
-                LOGGER.debug("Deleting timesheet entry for assignment id " + existingEntry.getEntryId().getProjectAssignment().getAssignmentId() +
-                        " for date " + existingEntry.getEntryId().getEntryDate() + ", hours booked: " + existingEntry.getHours());
-            }
+            LOGGER.debug("Timesheet entries to insert: " + inserts + ", to update: " + updates + ", to delete: " + deletes);
+        }
 
-            timesheetDAO.delete(existingEntry);
+        Date updateDate = new Date();
+
+        for (TimesheetEntry entry : deletes)
+        {
+            timesheetDAO.delete(entry);
+        }
+
+        for (TimesheetEntry entry : updates)
+        {
+            entry.setUpdateDate(updateDate);
+            timesheetDAO.merge(entry);
+        }
+
+        for (TimesheetEntry entry : inserts)
+        {
+            entry.setUpdateDate(updateDate);
+            timesheetDAO.persist(entry);
         }
     }
 
     /**
-     * Persist entry
+     * When the assignment is already over budget, hours can only be lowered
      *
      * @param onlyLessThanExisting
      * @param newEntry
      * @param existingEntry
      * @throws OverBudgetException
      */
-    private void persistEntry(boolean onlyLessThanExisting, TimesheetEntry newEntry, TimesheetEntry existingEntry) throws OverBudgetException
+    private void checkBudget(boolean onlyLessThanExisting, TimesheetEntry newEntry, TimesheetEntry existingEntry) throws OverBudgetException
     {
         if (onlyLessThanExisting &&
                 (existingEntry == null ||
@@ -170,44 +209,23 @@ public class TimesheetPersisterImpl implements TimesheetPersister
         {
             throw new OverBudgetException();
         }
+    }
 
-        if (LOGGER.isDebugEnabled())
-        {
-            LOGGER.debug("Persisting timesheet entry for assignment id " + newEntry.getEntryId().getProjectAssignment().getAssignmentId() +
-                    " for date " + newEntry.getEntryId().getEntryDate() + ", hours booked: " + newEntry.getHours()
-                    + ", comment: " + newEntry.getComment()
-            );
-        }
-
-        newEntry.setUpdateDate(new Date());
-
-        if (existingEntry != null)
-        {
-            timesheetDAO.merge(newEntry);
-        } else
-        {
-            timesheetDAO.persist(newEntry);
-        }
+    private boolean isUnchanged(TimesheetEntry newEntry, TimesheetEntry existingEntry)
+    {
+        return newEntry.getHours().equals(existingEntry.getHours())
+                && StringUtils.defaultString(newEntry.getComment()).equals(StringUtils.defaultString(existingEntry.getComment()));
     }
 
     /**
-     * Get entry from list
+     * Stored entry dates are timestamps, which never equal a plain date
      *
-     * @param entries
      * @param entry
      * @return
      */
-    private TimesheetEntry getEntry(List<TimesheetEntry> entries, TimesheetEntry entry)
+    private Date getDateKey(TimesheetEntry entry)
     {
-        int index = entries.indexOf(entry);
-
-        if (index >= 0)
-        {
-            return entries.get(index);
-        } else
-        {
-            return null;
-        }
+        return new Date(entry.getEntryId().getEntryDate().getTime());
     }
 
     /**
@@ -28,6 +28,7 @@ import net.rrm.ehour.domain.User;
 import net.rrm.ehour.exception.ObjectNotFoundException;
 import net.rrm.ehour.project.status.ProjectAssignmentStatus;
 import net.rrm.ehour.timesheet.dto.BookedDay;
+import net.rrm.ehour.timesheet.dto.MonthSummary;
 import net.rrm.ehour.timesheet.dto.TimesheetOverview;
 import net.rrm.ehour.timesheet.dto.WeekOverview;
 
@@ -56,6 +57,15 @@ public interface TimesheetService
 	 * @throws ObjectNotFoundException
 	 */
 	public List<BookedDay> getBookedDaysMonthOverview(Integer userId, Calendar requestedMonth);
+
+	/**
+	 * Get the summary of a user's month which backs both the month overview and the booked days.
+	 * Summaries are cached until the user's timesheet changes.
+	 * @param userId
+	 * @param requestedMonth only the month and year of the calendar is used
+	 * @return
+	 */
+	public MonthSummary getMonthSummary(Integer userId, Calendar requestedMonth);
 	
 	/**
 	 * Get week overview for a date. Weeknumber of supplied requested week is used
@@ -64,6 +74,15 @@ public interface TimesheetService
 	 * @return
 	 */
 	public WeekOverview getWeekOverview(User userId, Calendar requestedWeek, EhourConfig config);
+
+	/**
+	 * Start loading the weeks before and after the requested week in the background so navigating
+	 * to them doesn't have to wait for the database. Pending prefetches of other weeks of the user are cancelled.
+	 * @param user
+	 * @param requestedWeek
+	 * @param config
+	 */
+	public void prefetchAdjacentWeeks(User user, Calendar requestedWeek, EhourConfig config);
 	
 	/**
 	 * Persist timesheet entries and comment
@@ -81,4 +100,17 @@ public interface TimesheetService
 	 * @return
 	 */
 	public void deleteTimesheetEntries(User user);
+
+	/**
+	 * Drop the cached month summaries and prefetched weeks of a user after its assignments
+	 * or account changed outside of booking hours
+	 * @param userId
+	 */
+	public void invalidateCachedTimesheets(Integer userId);
+
+	/**
+	 * Drop the cached month summaries and prefetched weeks of all users, for changes to
+	 * projects or customers which are shared by many users
+	 */
+	public void invalidateAllCachedTimesheets();
 }
@@ -21,6 +21,8 @@ import net.rrm.ehour.data.DateRange;
 import net.rrm.ehour.domain.*;
 import net.rrm.ehour.exception.ObjectNotFoundException;
 import net.rrm.ehour.exception.OverBudgetException;
+import net.rrm.ehour.persistence.dao.FetchProfileCallback;
+import net.rrm.ehour.persistence.dao.FetchProfileDao;
 import net.rrm.ehour.persistence.timesheet.dao.TimesheetCommentDao;
 import net.rrm.ehour.persistence.timesheet.dao.TimesheetDao;
 import net.rrm.ehour.project.service.ProjectAssignmentService;
@@ -28,6 +30,7 @@ import net.rrm.ehour.project.status.ProjectAssignmentStatus;
 import net.rrm.ehour.report.reports.element.AssignmentAggregateReportElement;
 import net.rrm.ehour.report.service.AggregateReportService;
 import net.rrm.ehour.timesheet.dto.BookedDay;
+import net.rrm.ehour.timesheet.dto.MonthSummary;
 import net.rrm.ehour.timesheet.dto.TimesheetOverview;
 import net.rrm.ehour.timesheet.dto.UserProjectStatus;
 import net.rrm.ehour.timesheet.dto.WeekOverview;
@@ -36,8 +39,16 @@ import net.rrm.ehour.util.EhourUtil;
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.Serializable;
 import java.util.*;
@@ -68,7 +79,15 @@ public class TimesheetServiceImpl implements TimesheetService
 	
 	@Autowired
 	private TimesheetPersister	timesheetPersister;
+
+	@Autowired
+	private FetchProfileDao		fetchProfileDao;
 	
+	private MonthSummaryCache	monthSummaryCache = new MonthSummaryCache();
+
+	private WeekOverviewPrefetcher	weekOverviewPrefetcher;
+
+	private PlatformTransactionManager	transactionManager;
 
 	private	static final Logger	LOGGER = Logger.getLogger(TimesheetServiceImpl.class);
 
@@ -82,20 +101,38 @@ public class TimesheetServiceImpl implements TimesheetService
 	 */	
 	public TimesheetOverview getTimesheetOverview(User user, Calendar requestedMonth) 
 	{
-		TimesheetOverview overview = new TimesheetOverview();
+		return getMonthSummary(user.getUserId(), requestedMonth).toOverview();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.rrm.ehour.timesheet.service.TimesheetService#getMonthSummary(java.lang.Integer, java.util.Calendar)
+	 */
+	public MonthSummary getMonthSummary(Integer userId, Calendar requestedMonth)
+	{
+		MonthSummary summary = monthSummaryCache.get(userId, requestedMonth);
 
+		if (summary == null)
+		{
+			long generation = monthSummaryCache.getGeneration(userId);
+			summary = createMonthSummary(userId, requestedMonth);
+			monthSummaryCache.put(userId, requestedMonth, generation, summary);
+		}
+
+		return summary;
+	}
+
+	private MonthSummary createMonthSummary(Integer userId, Calendar requestedMonth)
+	{
 		DateRange monthRange = DateUtil.calendarToMonthRange(requestedMonth);
-		LOGGER.debug("Getting timesheet overview for userId " + user.getUserId() + " in range " + monthRange);
-		
-		overview.setProjectStatus(getProjectStatus(user.getUserId(), monthRange));
-		
-		List<TimesheetEntry> timesheetEntries = timesheetDAO.getTimesheetEntriesInRange(user.getUserId(), monthRange);
-		LOGGER.debug("Timesheet entries found for userId " + user.getUserId() + " in range " + monthRange + ": " + timesheetEntries.size());
+		LOGGER.debug("Getting month summary for userId " + userId + " in range " + monthRange);
 
-		Map<Integer, List<TimesheetEntry>> calendarMap = entriesToCalendarMap(timesheetEntries);
-		overview.setTimesheetEntries(calendarMap);
-		
-		return overview;
+		SortedSet<UserProjectStatus> projectStatus = getProjectStatus(userId, monthRange);
+
+		List<TimesheetEntry> timesheetEntries = timesheetDAO.getTimesheetEntriesInRange(userId, monthRange);
+		LOGGER.debug("Timesheet entries found for userId " + userId + " in range " + monthRange + ": " + timesheetEntries.size());
+
+		return new MonthSummary(requestedMonth, projectStatus, timesheetEntries);
 	}
 	
 	/**
@@ -160,83 +197,104 @@ public class TimesheetServiceImpl implements TimesheetService
 	 */
 	public List<BookedDay> getBookedDaysMonthOverview(Integer userId, Calendar requestedMonth)
 	{
-		DateRange		monthRange;
-		List<BookedDay>	bookedDays;
-		List<BookedDay>	bookedDaysReturn = new ArrayList<BookedDay>();
-		
-		monthRange = DateUtil.calendarToMonthRange(requestedMonth);
-		LOGGER.debug("Getting booked days overview for userId " + userId + " in range " + monthRange);
-		
-		bookedDays = timesheetDAO.getBookedHoursperDayInRange(userId, monthRange);
-		
-		for (BookedDay bookedDay : bookedDays)
-		{
-			if (bookedDay.getHours() != null &&
-					bookedDay.getHours().floatValue() >= configuration.getCompleteDayHours())
-			{
-				bookedDaysReturn.add(bookedDay);
-			}
-		}
-		
-		LOGGER.debug("Booked days found for userId " + userId + ": " + bookedDaysReturn.size());
-		LOGGER.debug("Total booked days found for userId " + userId + ": " + bookedDays.size());
-		
-		Collections.sort(bookedDaysReturn, new BookedDayComparator());
-		
-		return bookedDaysReturn;
+		List<BookedDay> bookedDays = getMonthSummary(userId, requestedMonth).getCompleteDays(configuration.getCompleteDayHours());
+
+		LOGGER.debug("Booked days found for userId " + userId + ": " + bookedDays.size());
+
+		return bookedDays;
 	}		
 	
 	/**
-	 * Put the timesheet entries in a map where the day is the key and
-	 * the value is a list of timesheet entries filled out for that date
-	 * @param timesheetEntries
+	 * Get week overview for a date. Week number of supplied requested week is used
+	 * @param userId
+	 * @param requestedWeek
 	 * @return
 	 */
-	private Map<Integer, List<TimesheetEntry>> entriesToCalendarMap(List<TimesheetEntry> timesheetEntries)
+	public WeekOverview getWeekOverview(User user, Calendar requestedWeek, EhourConfig config)
 	{
-		Map<Integer, List<TimesheetEntry>>	calendarMap;
-		Calendar							cal;
-		Integer								dayKey;
-		List<TimesheetEntry> 				dayEntries;
-		
-		calendarMap = new HashMap<Integer, List<TimesheetEntry>>();
-		
-		for (TimesheetEntry entry: timesheetEntries)
+		if (weekOverviewPrefetcher != null)
 		{
-			if (entry == null)
+			requestedWeek.setFirstDayOfWeek(config.getFirstDayOfWeek());
+
+			WeekOverview prefetched = weekOverviewPrefetcher.take(user.getUserId(), getWeekStart(requestedWeek));
+
+			if (prefetched != null)
 			{
-				continue;
+				LOGGER.debug("Week overview: using prefetched week for userId " + user.getUserId());
+				prefetched.setUser(user);
+				return prefetched;
 			}
-				
-           cal = new GregorianCalendar();
-           cal.setTime(entry.getEntryId().getEntryDate());
-           
-           dayKey = Integer.valueOf(cal.get(Calendar.DAY_OF_MONTH));
-
-           if (calendarMap.containsKey(dayKey))
-           {
-               dayEntries = calendarMap.get(dayKey);
-           }
-           else
-           {
-               dayEntries = new ArrayList<TimesheetEntry>();
-           }
-
-           dayEntries.add(entry);
-
-           calendarMap.put(dayKey, dayEntries);
-        }		
-		
-		return calendarMap;
+		}
+
+		return loadWeekOverview(user, requestedWeek, config);
 	}
-	
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.rrm.ehour.timesheet.service.TimesheetService#prefetchAdjacentWeeks(net.rrm.ehour.domain.User, java.util.Calendar, net.rrm.ehour.config.EhourConfig)
+	 */
+	public void prefetchAdjacentWeeks(User user, Calendar requestedWeek, EhourConfig config)
+	{
+		if (weekOverviewPrefetcher == null)
+		{
+			return;
+		}
+
+		Map<Date, Calendar> weeks = new HashMap<Date, Calendar>();
+
+		for (int weekDiff = -1; weekDiff <= 1; weekDiff += 2)
+		{
+			Calendar week = (Calendar)requestedWeek.clone();
+			week.setFirstDayOfWeek(config.getFirstDayOfWeek());
+			week.add(Calendar.WEEK_OF_YEAR, weekDiff);
+
+			weeks.put(getWeekStart(week), week);
+		}
+
+		weekOverviewPrefetcher.prefetch(user, weeks, config);
+	}
+
+	private Date getWeekStart(Calendar week)
+	{
+		return DateUtil.nullifyTime(DateUtil.getDateRangeForWeek(week).getDateStart());
+	}
+
 	/**
-	 * Get week overview for a date. Week number of supplied requested week is used
-	 * @param userId
-	 * @param requestedWeek
-	 * @return
+	 * Load a week overview in the background. The transaction keeps one session bound
+	 * to the worker thread so the fetch profile applies.
 	 */
-	public WeekOverview getWeekOverview(User user, Calendar requestedWeek, EhourConfig config)
+	private WeekOverview prefetchWeekOverview(final User user, final Calendar week, final EhourConfig config)
+	{
+		if (transactionManager == null)
+		{
+			return loadWeekOverview(user, week, config);
+		}
+
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setReadOnly(true);
+
+		return template.execute(new TransactionCallback<WeekOverview>()
+		{
+			public WeekOverview doInTransaction(TransactionStatus status)
+			{
+				return loadWeekOverview(user, week, config);
+			}
+		});
+	}
+
+	private WeekOverview loadWeekOverview(final User user, final Calendar requestedWeek, final EhourConfig config)
+	{
+		// assignments of a cached query are loaded one by one by id, with their project, customer and type joined in
+		return fetchProfileDao.withFetchProfile(DomainFetchProfiles.TIMESHEET_WEEK, new FetchProfileCallback<WeekOverview>()
+		{
+			public WeekOverview doWithFetchProfile()
+			{
+				return createWeekOverview(user, requestedWeek, config);
+			}
+		});
+	}
+
+	private WeekOverview createWeekOverview(User user, Calendar requestedWeek, EhourConfig config)
 	{
 		WeekOverview	weekOverview;
 		DateRange		range;
@@ -294,6 +352,16 @@ public class TimesheetServiceImpl implements TimesheetService
 			LOGGER.debug("Persisting timesheet comment for week " + comment.getCommentId().getCommentDate());
 			timesheetCommentDAO.persist(comment);
 		}
+
+		invalidateCachedTimesheets(comment.getCommentId().getUserId());
+
+		for (ProjectAssignment assignment : timesheetRows.keySet())
+		{
+			if (assignment.getUser() != null)
+			{
+				invalidateCachedTimesheets(assignment.getUser().getUserId());
+			}
+		}
 		
 		return errorStatusses;
 	}
@@ -336,6 +404,78 @@ public class TimesheetServiceImpl implements TimesheetService
 		{
 			timesheetDAO.deleteTimesheetEntries(EhourUtil.getIdsFromDomainObjects(user.getProjectAssignments()));
 		}
+
+		invalidateCachedTimesheets(user.getUserId());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * Within a transaction the caches are dropped again after commit, otherwise a concurrent reader
+	 * could cache the old state before the change is visible.
+	 * Totals of fixed and flex assignments span all months so every month of the user is dropped.
+	 * @see net.rrm.ehour.timesheet.service.TimesheetService#invalidateCachedTimesheets(java.lang.Integer)
+	 */
+	public void invalidateCachedTimesheets(final Integer userId)
+	{
+		if (userId == null)
+		{
+			return;
+		}
+
+		invalidateCaches(userId);
+
+		if (TransactionSynchronizationManager.isSynchronizationActive())
+		{
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter()
+			{
+				@Override
+				public void afterCompletion(int status)
+				{
+					invalidateCaches(userId);
+				}
+			});
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.rrm.ehour.timesheet.service.TimesheetService#invalidateAllCachedTimesheets()
+	 */
+	public void invalidateAllCachedTimesheets()
+	{
+		invalidateAllCaches();
+
+		if (TransactionSynchronizationManager.isSynchronizationActive())
+		{
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter()
+			{
+				@Override
+				public void afterCompletion(int status)
+				{
+					invalidateAllCaches();
+				}
+			});
+		}
+	}
+
+	private void invalidateCaches(Integer userId)
+	{
+		monthSummaryCache.invalidate(userId);
+
+		if (weekOverviewPrefetcher != null)
+		{
+			weekOverviewPrefetcher.invalidate(userId);
+		}
+	}
+
+	private void invalidateAllCaches()
+	{
+		monthSummaryCache.clear();
+
+		if (weekOverviewPrefetcher != null)
+		{
+			weekOverviewPrefetcher.invalidateAll();
+		}
 	}
 		
 	
@@ -367,6 +507,35 @@ public class TimesheetServiceImpl implements TimesheetService
 		this.configuration = config;
 	}
 
+	void setMonthSummaryCache(MonthSummaryCache monthSummaryCache)
+	{
+		this.monthSummaryCache = monthSummaryCache;
+	}
+
+	/**
+	 * Executor used to prefetch weeks, without one weeks are only loaded on request.
+	 * Not the shared task executor, prefetches would crowd out the mail sent with it
+	 * @param prefetchExecutor
+	 */
+	@Autowired
+	public void setPrefetchExecutor(@Qualifier("weekPrefetchExecutor") TaskExecutor prefetchExecutor)
+	{
+		weekOverviewPrefetcher = new WeekOverviewPrefetcher(prefetchExecutor)
+		{
+			@Override
+			protected WeekOverview load(User user, Calendar week, EhourConfig config)
+			{
+				return prefetchWeekOverview(user, week, config);
+			}
+		};
+	}
+
+	@Autowired
+	public void setTransactionManager(PlatformTransactionManager transactionManager)
+	{
+		this.transactionManager = transactionManager;
+	}
+
 	/**
 	 * @param timesheetCommentDAO the timesheetCommentDAO to set
 	 */
@@ -375,6 +544,14 @@ public class TimesheetServiceImpl implements TimesheetService
 		this.timesheetCommentDAO = timesheetCommentDAO;
 	}
 
+	/**
+	 * @param fetchProfileDao the fetchProfileDao to set
+	 */
+	public void setFetchProfileDao(FetchProfileDao fetchProfileDao)
+	{
+		this.fetchProfileDao = fetchProfileDao;
+	}
+
 	/**
 	 * @param projectService the projectService to set
 	 */
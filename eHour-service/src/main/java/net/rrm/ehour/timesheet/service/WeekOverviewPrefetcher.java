@@ -0,0 +1,268 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.timesheet.service;
+
+import net.rrm.ehour.config.EhourConfig;
+import net.rrm.ehour.domain.User;
+import net.rrm.ehour.timesheet.dto.WeekOverview;
+import org.apache.log4j.Logger;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Loads week overviews in the background before the user navigates to them.
+ * A prefetched overview is handed out once: the timesheet form edits the entries of the
+ * overview it is given, so a second reader would see unsaved changes.
+ **/
+abstract class WeekOverviewPrefetcher
+{
+    static final long DEFAULT_TIME_TO_LIVE = 60 * 1000L;
+    static final int DEFAULT_MAX_PREFETCHES = 200;
+
+    private static final Logger LOGGER = Logger.getLogger(WeekOverviewPrefetcher.class);
+
+    private final TaskExecutor taskExecutor;
+    private final long timeToLive;
+    private final int maxPrefetches;
+
+    private final Map<Key, Prefetch> prefetches = new HashMap<Key, Prefetch>();
+
+    WeekOverviewPrefetcher(TaskExecutor taskExecutor)
+    {
+        this(taskExecutor, DEFAULT_TIME_TO_LIVE, DEFAULT_MAX_PREFETCHES);
+    }
+
+    WeekOverviewPrefetcher(TaskExecutor taskExecutor, long timeToLive, int maxPrefetches)
+    {
+        this.taskExecutor = taskExecutor;
+        this.timeToLive = timeToLive;
+        this.maxPrefetches = maxPrefetches;
+    }
+
+    /**
+     * Load the week overview of a week
+     */
+    protected abstract WeekOverview load(User user, Calendar week, EhourConfig config);
+
+    /**
+     * Start loading the given weeks of a user. Prefetches of the user's other weeks are cancelled
+     * as the user navigated away from them.
+     * @param user
+     * @param weeks the weeks to load keyed on the start date of the week
+     * @param config
+     */
+    void prefetch(User user, Map<Date, Calendar> weeks, EhourConfig config)
+    {
+        Integer userId = user.getUserId();
+        List<Prefetch> scheduled = new ArrayList<Prefetch>();
+
+        synchronized (this)
+        {
+            long now = now();
+
+            for (Iterator<Map.Entry<Key, Prefetch>> iterator = prefetches.entrySet().iterator(); iterator.hasNext(); )
+            {
+                Map.Entry<Key, Prefetch> entry = iterator.next();
+                Key key = entry.getKey();
+
+                if (entry.getValue().isExpired(now) ||
+                        (key.userId.equals(userId) && !weeks.containsKey(new Date(key.weekStart))))
+                {
+                    entry.getValue().task.cancel(false);
+                    iterator.remove();
+                }
+            }
+
+            for (Map.Entry<Date, Calendar> week : weeks.entrySet())
+            {
+                Key key = new Key(userId, week.getKey());
+
+                if (!prefetches.containsKey(key) && prefetches.size() < maxPrefetches)
+                {
+                    Prefetch prefetch = new Prefetch(user, key, week.getValue(), config, now + timeToLive);
+                    prefetches.put(key, prefetch);
+                    scheduled.add(prefetch);
+                }
+            }
+        }
+
+        for (Prefetch prefetch : scheduled)
+        {
+            try
+            {
+                taskExecutor.execute(prefetch.task);
+            } catch (TaskRejectedException e)
+            {
+                LOGGER.debug("Executor busy, not prefetching week " + prefetch.week.getTime() + " of user " + userId);
+                remove(prefetch);
+            }
+        }
+    }
+
+    /**
+     * Take the prefetched overview of a week. When the prefetch is still running this waits for it,
+     * when it did not start yet it is cancelled so the caller can load the week itself.
+     * @return the prefetched overview or null when not available
+     */
+    WeekOverview take(Integer userId, Date weekStart)
+    {
+        Prefetch prefetch;
+
+        synchronized (this)
+        {
+            prefetch = prefetches.remove(new Key(userId, weekStart));
+        }
+
+        if (prefetch == null || prefetch.isExpired(now()) || (!prefetch.started && prefetch.task.cancel(false)))
+        {
+            return null;
+        }
+
+        try
+        {
+            return prefetch.task.get();
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e)
+        {
+            LOGGER.warn("Prefetching week " + weekStart + " of user " + userId + " failed", e.getCause());
+            return null;
+        } catch (RuntimeException e)
+        {
+            // cancelled by an invalidation while waiting
+            return null;
+        }
+    }
+
+    /**
+     * Cancel and drop all prefetched weeks of a user
+     */
+    synchronized void invalidate(Integer userId)
+    {
+        for (Iterator<Map.Entry<Key, Prefetch>> iterator = prefetches.entrySet().iterator(); iterator.hasNext(); )
+        {
+            Map.Entry<Key, Prefetch> entry = iterator.next();
+
+            if (entry.getKey().userId.equals(userId))
+            {
+                entry.getValue().task.cancel(false);
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Cancel and drop all prefetched weeks
+     */
+    synchronized void invalidateAll()
+    {
+        for (Prefetch prefetch : prefetches.values())
+        {
+            prefetch.task.cancel(false);
+        }
+
+        prefetches.clear();
+    }
+
+    synchronized int size()
+    {
+        return prefetches.size();
+    }
+
+    long now()
+    {
+        return System.currentTimeMillis();
+    }
+
+    private synchronized void remove(Prefetch prefetch)
+    {
+        if (prefetches.get(prefetch.key) == prefetch)
+        {
+            prefetches.remove(prefetch.key);
+        }
+    }
+
+    private final class Prefetch implements Callable<WeekOverview>
+    {
+        private final Key key;
+        private final User user;
+        private final Calendar week;
+        private final EhourConfig config;
+        private final long expiresAt;
+        private final FutureTask<WeekOverview> task;
+        private volatile boolean started;
+
+        private Prefetch(User user, Key key, Calendar week, EhourConfig config, long expiresAt)
+        {
+            this.key = key;
+            this.user = user;
+            this.week = week;
+            this.config = config;
+            this.expiresAt = expiresAt;
+            this.task = new FutureTask<WeekOverview>(this);
+        }
+
+        public WeekOverview call()
+        {
+            started = true;
+            return load(user, week, config);
+        }
+
+        private boolean isExpired(long now)
+        {
+            return expiresAt < now;
+        }
+    }
+
+    private static final class Key
+    {
+        private final Integer userId;
+        private final long weekStart;
+
+        private Key(Integer userId, Date weekStart)
+        {
+            this.userId = userId;
+            this.weekStart = weekStart.getTime();
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            if (!(other instanceof Key))
+            {
+                return false;
+            }
+
+            Key key = (Key) other;
+            return userId.equals(key.userId) && weekStart == key.weekStart;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return userId.hashCode() * 31 + (int) (weekStart ^ (weekStart >>> 32));
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package net.rrm.ehour.user.service;
 
 import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.domain.DomainFetchProfiles;
 import net.rrm.ehour.domain.ProjectAssignment;
 import net.rrm.ehour.domain.User;
 import net.rrm.ehour.domain.UserDepartment;
@@ -24,6 +25,8 @@ import net.rrm.ehour.domain.UserRole;
 import net.rrm.ehour.exception.ObjectNotFoundException;
 import net.rrm.ehour.exception.ObjectNotUniqueException;
 import net.rrm.ehour.exception.PasswordEmptyException;
+import net.rrm.ehour.persistence.dao.FetchProfileCallback;
+import net.rrm.ehour.persistence.dao.FetchProfileDao;
 import net.rrm.ehour.persistence.user.dao.UserDao;
 import net.rrm.ehour.persistence.user.dao.UserDepartmentDao;
 import net.rrm.ehour.persistence.user.dao.UserRoleDao;
@@ -56,6 +59,8 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private UserRoleDao userRoleDAO;
     @Autowired
+    private FetchProfileDao fetchProfileDao;
+    @Autowired
     private ProjectAssignmentManagementService projectAssignmentManagementService;
     @Autowired
     private AggregateReportService aggregateReportService;
@@ -67,7 +72,7 @@ public class UserServiceImpl implements UserService {
 
 
     public User getUser(Integer userId) throws ObjectNotFoundException {
-        User user = userDAO.findById(userId);
+        User user = findUserForAdmin(userId);
         Set<ProjectAssignment> inactiveAssignments = new HashSet<ProjectAssignment>();
         Date currentDate = new Date();
 
@@ -90,6 +95,14 @@ public class UserServiceImpl implements UserService {
         return user;
     }
 
+    private User findUserForAdmin(final Integer userId) {
+        return fetchProfileDao.withFetchProfile(DomainFetchProfiles.USER_ADMIN, new FetchProfileCallback<User>() {
+            public User doWithFetchProfile() {
+                return userDAO.findById(userId);
+            }
+        });
+    }
+
     /*
       * (non-Javadoc)
       * @see net.rrm.ehour.persistence.persistence.user.service.UserService#getUserAndCheckDeletability(java.lang.Integer)
@@ -141,6 +154,10 @@ public class UserServiceImpl implements UserService {
         userRoleDAO = dao;
     }
 
+    public void setFetchProfileDao(FetchProfileDao fetchProfileDao) {
+        this.fetchProfileDao = fetchProfileDao;
+    }
+
     @Transactional
     public UserDepartment persistUserDepartment(UserDepartment department) throws ObjectNotUniqueException {
         UserDepartment otherDept;
@@ -223,6 +240,7 @@ public class UserServiceImpl implements UserService {
         dbUser.setUserRoles(user.getUserRoles());
 
         userDAO.persist(dbUser);
+        timesheetService.invalidateCachedTimesheets(dbUser.getUserId());
 
         return dbUser;
     }
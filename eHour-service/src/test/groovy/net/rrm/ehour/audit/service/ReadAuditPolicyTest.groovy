@@ -0,0 +1,111 @@
+package net.rrm.ehour.audit.service
+
+import net.rrm.ehour.domain.Audit
+import net.rrm.ehour.domain.AuditActionType
+import net.rrm.ehour.persistence.audit.dao.AuditDao
+import org.junit.Before
+import org.junit.Test
+import org.mockito.ArgumentCaptor
+import org.mockito.Mock
+import org.mockito.MockitoAnnotations
+import org.springframework.transaction.PlatformTransactionManager
+import static org.mockito.Matchers.any
+import static org.mockito.Mockito.never
+import static org.mockito.Mockito.times
+import static org.mockito.Mockito.verify
+
+class ReadAuditPolicyTest
+{
+  ReadAuditPolicy policy
+
+  @Mock
+  AuditDao auditDao
+
+  @Mock
+  PlatformTransactionManager transactionManager
+
+  long time = 1000000
+
+  @Before
+  void setUp()
+  {
+    MockitoAnnotations.initMocks this
+
+    policy = new ReadAuditPolicy() {
+      @Override
+      protected long now()
+      {
+        return time
+      }
+    }
+
+    policy.auditDao = auditDao
+    policy.transactionManager = transactionManager
+    policy.window = 10000
+    policy.sampling = ""
+  }
+
+  @Test
+  void shouldCoalesceIdenticalReadsUntilWindowCloses()
+  {
+    3.times { assert policy.offer(createRead("getUsers()", "UserPage")) }
+
+    policy.flush(false)
+    verify(auditDao, never()).persist(any(Audit))
+
+    time += 10000
+    policy.flush(false)
+
+    def captor = ArgumentCaptor.forClass(Audit)
+    verify(auditDao).persist(captor.capture())
+    assert captor.value.count == 3
+  }
+
+  @Test
+  void shouldKeepReadsOnDifferentPagesApart()
+  {
+    policy.offer(createRead("getUsers()", "UserPage"))
+    policy.offer(createRead("getUsers()", "ReportPage"))
+    policy.offer(createRead("getUsers()", "ReportPage"))
+
+    policy.flush(true)
+
+    def captor = ArgumentCaptor.forClass(Audit)
+    verify(auditDao, times(2)).persist(captor.capture())
+    assert captor.allValues*.count.sort() == [1, 2]
+  }
+
+  @Test
+  void shouldStartNewWindowAfterFlush()
+  {
+    policy.offer(createRead("getUsers()", "UserPage"))
+    policy.flush(true)
+    policy.offer(createRead("getUsers()", "UserPage"))
+    policy.flush(true)
+
+    verify(auditDao, times(2)).persist(any(Audit))
+  }
+
+  @Test
+  void shouldSampleConfiguredActions()
+  {
+    policy.window = 0
+    policy.sampling = "getConfiguration=0.25, UserServiceImpl.getUsers=0"
+
+    def written = (1..8).findAll { !policy.offer(createRead("ConfigurationServiceImpl.getConfiguration()", "UserPage")) }
+    assert written.size() == 2
+
+    assert policy.offer(createRead("UserServiceImpl.getUsers()", "UserPage"))
+    assert !policy.offer(createRead("ProjectServiceImpl.getProjects(..)", "UserPage"))
+  }
+
+  private Audit createRead(String action, String page)
+  {
+    return new Audit()
+            .setUserFullName("Dummy TestUser")
+            .setAction(action)
+            .setPage(page)
+            .setAuditActionType(AuditActionType.READ)
+            .setDate(new Date(time))
+  }
+}
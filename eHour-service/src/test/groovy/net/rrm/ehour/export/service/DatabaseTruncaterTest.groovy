@@ -1,5 +1,6 @@
 package net.rrm.ehour.export.service
 
+import net.rrm.ehour.mail.service.AssignmentMailIndex
 import net.rrm.ehour.persistence.export.dao.ExportType
 import net.rrm.ehour.persistence.export.dao.ImportDao
 import org.junit.Before
@@ -19,6 +20,9 @@ class DatabaseTruncaterTest
   @Mock
   ImportDao importDao
 
+  @Mock
+  AssignmentMailIndex assignmentMailIndex
+
   DatabaseTruncater truncater
 
   @Before
@@ -27,6 +31,7 @@ class DatabaseTruncaterTest
     MockitoAnnotations.initMocks this
     truncater = new DatabaseTruncater()
     truncater.importDao = importDao
+    truncater.assignmentMailIndex = assignmentMailIndex
   }
 
   @Test
@@ -34,7 +39,8 @@ class DatabaseTruncaterTest
   {
     truncater.truncateDatabase()
 
-    verify(importDao, times(ExportType.reverseOrderedValues()[0].order + 4)).delete anyObject()
+    verify(importDao, times(ExportType.reverseOrderedValues()[0].order + 5)).delete anyObject()
+    verify(assignmentMailIndex).clear()
 
   }
 }
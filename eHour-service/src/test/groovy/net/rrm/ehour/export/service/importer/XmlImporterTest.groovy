@@ -46,6 +46,24 @@ class XmlImporterTest {
     importer.importXml(null, eventReader)
   }
 
+  @Test
+  void shouldMatch085On084() {
+    MockitoAnnotations.initMocks this
+
+    def config = new Configuration("version", "0.8.5")
+
+    when(configurationDao.findById(ConfigurationItem.VERSION.getDbField())).thenReturn(config)
+
+    String xmlData = """<?xml version="1.0" ?>
+<EHOUR DB_VERSION="0.8.4"></EHOUR>"""
+
+    XMLInputFactory inputFactory = XMLInputFactory.newInstance()
+    eventReader = inputFactory.createXMLEventReader(new StringReader(xmlData))
+
+    def importer = new XmlImporter(configurationDao, null, null, null, false)
+    importer.importXml(null, eventReader)
+  }
+
   @Test(expected = ImportException.class)
   void shouldNotMatch084On081() {
     MockitoAnnotations.initMocks this
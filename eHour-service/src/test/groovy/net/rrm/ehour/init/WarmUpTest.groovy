@@ -0,0 +1,130 @@
+package net.rrm.ehour.init
+
+import net.rrm.ehour.config.EhourConfig
+import net.rrm.ehour.customer.service.CustomerService
+import net.rrm.ehour.domain.User
+import net.rrm.ehour.project.service.ProjectAssignmentService
+import net.rrm.ehour.project.service.ProjectService
+import net.rrm.ehour.report.criteria.ReportCriteria
+import net.rrm.ehour.report.service.AggregateReportService
+import net.rrm.ehour.report.service.DetailedReportService
+import net.rrm.ehour.timesheet.service.TimesheetService
+import net.rrm.ehour.user.service.UserService
+import org.junit.Before
+import org.junit.Test
+import org.mockito.Mock
+import org.mockito.MockitoAnnotations
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.TransactionDefinition
+import org.springframework.transaction.TransactionStatus
+import static org.mockito.Matchers.any
+import static org.mockito.Mockito.times
+import static org.mockito.Mockito.verify
+import static org.mockito.Mockito.verifyZeroInteractions
+import static org.mockito.Mockito.when
+
+class WarmUpTest
+{
+  WarmUp warmUp
+
+  @Mock
+  UserService userService
+  @Mock
+  CustomerService customerService
+  @Mock
+  ProjectService projectService
+  @Mock
+  ProjectAssignmentService projectAssignmentService
+  @Mock
+  TimesheetService timesheetService
+  @Mock
+  AggregateReportService aggregateReportService
+  @Mock
+  DetailedReportService detailedReportService
+  @Mock
+  EhourConfig ehourConfig
+  @Mock
+  PlatformTransactionManager transactionManager
+  @Mock
+  TransactionStatus transactionStatus
+
+  @Before
+  void setUp()
+  {
+    MockitoAnnotations.initMocks this
+
+    when(transactionManager.getTransaction(any(TransactionDefinition))).thenReturn(transactionStatus)
+    when(userService.getActiveUsers()).thenReturn((1..7).collect { new User(it) })
+
+    warmUp = new WarmUp(userService: userService, customerService: customerService, projectService: projectService,
+                        projectAssignmentService: projectAssignmentService, timesheetService: timesheetService,
+                        aggregateReportService: aggregateReportService, detailedReportService: detailedReportService,
+                        ehourConfig: ehourConfig)
+    warmUp.transactionManager = transactionManager
+    warmUp.enabled = true
+    warmUp.iterations = 3
+    warmUp.maxDuration = 60000
+  }
+
+  @Test
+  void shouldNotWarmUpWhenDisabled()
+  {
+    warmUp.enabled = false
+
+    warmUp.onApplicationEvent(null)
+
+    verifyZeroInteractions(transactionManager, userService, timesheetService)
+  }
+
+  @Test
+  void shouldPreloadOnceAndRepeatServiceCallsInRolledBackTransactions()
+  {
+    warmUp.onApplicationEvent(null)
+    warmUp.onApplicationEvent(null)
+
+    verify(userService).getUserRoles()
+    verify(projectAssignmentService).getProjectAssignmentTypes()
+    verify(customerService).getCustomers()
+    verify(projectService).getProjects(false)
+
+    verify(timesheetService, times(15)).getWeekOverview(any(User), any(Calendar), any(EhourConfig))
+    verify(aggregateReportService, times(3)).getAggregateReportData(any(ReportCriteria))
+    verify(aggregateReportService, times(3)).getAggregateRollupReportData(any(ReportCriteria))
+    verify(detailedReportService, times(3)).getDetailedReportData(any(ReportCriteria))
+
+    verify(transactionStatus, times(4)).setRollbackOnly()
+  }
+
+  @Test
+  void shouldMarkThreadAsWarmingUpWhileRunningStep()
+  {
+    def running = []
+
+    warmUp.warmUp("step", { running << WarmUp.isRunning() } as Runnable)
+
+    assert running == [true, true, true]
+    assert !WarmUp.isRunning()
+  }
+
+  @Test
+  void shouldAbandonFailingStepWithoutFailingStartup()
+  {
+    int calls = 0
+
+    warmUp.warmUp("failing", { calls++; throw new IllegalStateException("no data") } as Runnable)
+
+    assert calls == 1
+    assert !WarmUp.isRunning()
+  }
+
+  @Test
+  void shouldStopIteratingWhenMaxDurationPassed()
+  {
+    int calls = 0
+    warmUp.maxDuration = 0
+
+    warmUp.warmUp("slow", { calls++ } as Runnable)
+
+    assert calls == 0
+  }
+}
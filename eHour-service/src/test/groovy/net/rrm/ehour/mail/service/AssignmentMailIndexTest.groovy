@@ -0,0 +1,131 @@
+package net.rrm.ehour.mail.service
+
+import net.rrm.ehour.persistence.mail.dao.MailAssignmentSentDao
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.mockito.Mock
+import org.mockito.MockitoAnnotations
+import org.springframework.dao.DataIntegrityViolationException
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import static org.mockito.Mockito.doThrow
+import static org.mockito.Mockito.times
+import static org.mockito.Mockito.verify
+import static org.mockito.Mockito.when
+
+class AssignmentMailIndexTest
+{
+  AssignmentMailIndex index
+
+  @Mock
+  MailAssignmentSentDao mailAssignmentSentDao
+
+  @Mock
+  PlatformTransactionManager transactionManager
+
+  @Before
+  void setUp()
+  {
+    MockitoAnnotations.initMocks this
+
+    index = new AssignmentMailIndex()
+    index.mailAssignmentSentDao = mailAssignmentSentDao
+    index.transactionManager = transactionManager
+
+    when(mailAssignmentSentDao.findSent()).thenReturn([[1, 1] as Integer[]])
+  }
+
+  @After
+  void tearDown()
+  {
+    if (TransactionSynchronizationManager.isSynchronizationActive())
+    {
+      TransactionSynchronizationManager.clearSynchronization()
+    }
+  }
+
+  @Test
+  void shouldNotClaimLoadedMailWithoutInsert()
+  {
+    assert !index.claim(1, 1)
+    assert !index.claim(1, 1)
+
+    verify(mailAssignmentSentDao, times(1)).findSent()
+    verify(mailAssignmentSentDao, times(0)).insert(1, 1)
+  }
+
+  @Test
+  void shouldClaimOnlyOnce()
+  {
+    assert index.claim(1, 2)
+    assert !index.claim(1, 2)
+
+    verify(mailAssignmentSentDao, times(1)).insert(1, 2)
+  }
+
+  @Test
+  void shouldNotClaimMailInsertedByOtherTransaction()
+  {
+    doThrow(new DataIntegrityViolationException("duplicate")).when(mailAssignmentSentDao).insert(2, 1)
+
+    assert !index.claim(2, 1)
+    assert !index.claim(2, 1)
+
+    verify(mailAssignmentSentDao, times(1)).insert(2, 1)
+  }
+
+  @Test
+  void shouldRememberClaimOnlyAfterCommit()
+  {
+    TransactionSynchronizationManager.initSynchronization()
+
+    assert index.claim(3, 1)
+    assert index.size() == 1
+
+    TransactionSynchronizationManager.synchronizations*.afterCommit()
+
+    assert index.size() == 2
+  }
+
+  @Test
+  void shouldClaimAgainAfterRelease()
+  {
+    assert !index.claim(1, 1)
+
+    index.release(1, 1)
+
+    assert index.claim(1, 1)
+
+    verify(mailAssignmentSentDao).delete(1, 1)
+    verify(mailAssignmentSentDao).insert(1, 1)
+  }
+
+  @Test
+  void shouldReloadAfterClear()
+  {
+    index.claim(1, 1)
+    index.clear()
+    index.claim(1, 1)
+
+    verify(mailAssignmentSentDao).deleteAll()
+    verify(mailAssignmentSentDao, times(2)).findSent()
+  }
+
+  @Test
+  void shouldReloadOnlyAfterClearIsCommitted()
+  {
+    TransactionSynchronizationManager.initSynchronization()
+
+    index.clear()
+    index.claim(1, 1)
+
+    verify(mailAssignmentSentDao, times(1)).findSent()
+
+    TransactionSynchronizationManager.synchronizations*.afterCommit()
+
+    index.claim(1, 1)
+
+    verify(mailAssignmentSentDao, times(2)).findSent()
+  }
+}
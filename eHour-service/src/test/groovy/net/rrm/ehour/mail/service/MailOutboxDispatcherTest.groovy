@@ -0,0 +1,343 @@
+package net.rrm.ehour.mail.service
+
+import net.rrm.ehour.config.EhourConfig
+import net.rrm.ehour.config.EhourConfigStub
+import net.rrm.ehour.config.service.ConfigurationService
+import net.rrm.ehour.domain.MailLog
+import net.rrm.ehour.domain.MailLogAssignment
+import net.rrm.ehour.domain.MailOutbox
+import net.rrm.ehour.domain.MailType
+import net.rrm.ehour.domain.ProjectAssignmentMother
+import net.rrm.ehour.persistence.mail.dao.MailLogDao
+import net.rrm.ehour.persistence.mail.dao.MailOutboxDao
+import org.junit.Before
+import org.junit.Test
+import org.mockito.ArgumentCaptor
+import org.mockito.Mock
+import org.mockito.MockitoAnnotations
+import org.springframework.core.task.TaskExecutor
+import org.springframework.mail.MailSendException
+import org.springframework.mail.MailSender
+import org.springframework.mail.SimpleMailMessage
+import org.springframework.transaction.PlatformTransactionManager
+import static org.mockito.Matchers.any
+import static org.mockito.Matchers.anyInt
+import static org.mockito.Mockito.never
+import static org.mockito.Mockito.times
+import static org.mockito.Mockito.verify
+import static org.mockito.Mockito.when
+
+class MailOutboxDispatcherTest
+{
+  static final long NOW = 1000000000000L
+
+  MailOutboxDispatcher dispatcher
+
+  @Mock
+  MailOutboxDao mailOutboxDao
+
+  @Mock
+  MailLogDao mailLogDao
+
+  @Mock
+  ConfigurationService configurationService
+
+  @Mock
+  PlatformTransactionManager transactionManager
+
+  @Mock
+  AssignmentMailIndex assignmentMailIndex
+
+  MailSenderStub mailSender
+
+  ExecutorStub taskExecutor
+
+  @Before
+  void setUp()
+  {
+    MockitoAnnotations.initMocks this
+
+    mailSender = new MailSenderStub()
+    taskExecutor = new ExecutorStub()
+
+    dispatcher = new MailOutboxDispatcher() {
+      @Override
+      protected MailSender createMailSender(EhourConfig config)
+      {
+        return mailSender
+      }
+
+      @Override
+      protected long now()
+      {
+        return NOW
+      }
+    }
+
+    dispatcher.mailOutboxDao = mailOutboxDao
+    dispatcher.mailLogDAO = mailLogDao
+    dispatcher.configurationService = configurationService
+    dispatcher.taskExecutor = taskExecutor
+    dispatcher.transactionManager = transactionManager
+    dispatcher.assignmentMailIndex = assignmentMailIndex
+    dispatcher.concurrency = 2
+    dispatcher.batchSize = 100
+    dispatcher.maxAttempts = 3
+    dispatcher.setRetryDelay(60000, 3600000)
+
+    when(configurationService.getConfiguration()).thenReturn new EhourConfigStub()
+  }
+
+  @Test
+  void shouldSendDueMailAndLogTypedMail()
+  {
+    def assignmentMail = createMail(1, "pm@localhost")
+    assignmentMail.mailType = new MailType(1)
+    assignmentMail.projectAssignment = ProjectAssignmentMother.createProjectAssignment(1)
+    assignmentMail.bookedHours = 40f
+
+    def reminder = createMail(2, "user@localhost")
+
+    when(mailOutboxDao.findPending(new Date(NOW), 0, 100)).thenReturn([assignmentMail, reminder])
+
+    dispatcher.dispatch()
+
+    assert mailSender.sent*.to.flatten().sort() == ["pm@localhost", "user@localhost"]
+
+    def captor = ArgumentCaptor.forClass(MailLog.class)
+    verify(mailLogDao).persist(captor.capture())
+
+    MailLogAssignment mailLog = (MailLogAssignment) captor.value
+    assert mailLog.success
+    assert mailLog.bookedHours == 40f
+    assert mailLog.projectAssignment == assignmentMail.projectAssignment
+
+    verify(mailOutboxDao).deleteOnIds([1, 2])
+    verify(assignmentMailIndex, never()).release(anyInt(), anyInt())
+  }
+
+  @Test
+  void shouldRetryLaterAndKeepRecipientsMailInOrder()
+  {
+    def first = createMail(1, "pm@localhost")
+    def second = createMail(2, "PM@localhost")
+    def other = createMail(3, "user@localhost")
+
+    mailSender.failingRecipients << "pm@localhost"
+
+    when(mailOutboxDao.findPending(new Date(NOW), 0, 100)).thenReturn([first, second, other])
+
+    dispatcher.dispatch()
+
+    assert mailSender.sent*.to.flatten() == ["user@localhost"]
+    assert mailSender.attempts == 2
+
+    assert first.attempts == 1
+    assert first.nextAttempt == new Date(NOW + 60000)
+    assert first.lastError == "connection refused"
+    verify(mailOutboxDao).persist(first)
+    verify(mailOutboxDao, never()).persist(second)
+
+    verify(mailOutboxDao).deleteOnIds([3])
+  }
+
+  @Test
+  void shouldGiveUpAfterMaxAttemptsAndReleaseAssignmentMail()
+  {
+    def mail = createMail(1, "pm@localhost")
+    mail.mailType = new MailType(2)
+    mail.projectAssignment = ProjectAssignmentMother.createProjectAssignment(5)
+    mail.attempts = 2
+
+    mailSender.failingRecipients << "pm@localhost"
+
+    when(mailOutboxDao.findPending(new Date(NOW), 0, 100)).thenReturn([mail])
+
+    dispatcher.dispatch()
+
+    def captor = ArgumentCaptor.forClass(MailLog.class)
+    verify(mailLogDao).persist(captor.capture())
+    assert !captor.value.success
+    assert captor.value.resultMsg == "connection refused"
+
+    verify(mailOutboxDao).deleteOnIds([1])
+    verify(assignmentMailIndex).release(mail.projectAssignment.assignmentId, 2)
+  }
+
+  @Test
+  void shouldNotSendRecipientsMailBehindWaitingMail()
+  {
+    def waiting = createMail(1, "pm@localhost")
+    waiting.nextAttempt = new Date(NOW + 1)
+
+    def queues = dispatcher.getDueQueuesPerRecipient([waiting, createMail(2, "pm@localhost"), createMail(3, "user@localhost")], new Date(NOW))
+
+    assert queues.size() == 1
+    assert queues[0]*.outboxId == [3]
+  }
+
+  @Test
+  void shouldPagePastBatchOfMailWaitingForRetry()
+  {
+    dispatcher.batchSize = 3
+
+    def retries = (1..3).collect {
+      def mail = createMail(it, "user${it}@localhost")
+      mail.attempts = 1
+      mail.nextAttempt = new Date(NOW + 60000)
+      return mail
+    }
+
+    def due = createMail(4, "pm@localhost")
+    def behindRetry = createMail(5, "user1@localhost")
+
+    when(mailOutboxDao.findPending(new Date(NOW), 0, 3)).thenReturn(retries)
+    when(mailOutboxDao.findPending(new Date(NOW), 3, 3)).thenReturn([due, behindRetry])
+
+    dispatcher.dispatch()
+
+    assert mailSender.sent*.to.flatten() == ["pm@localhost"]
+    verify(mailOutboxDao).deleteOnIds([4])
+    verify(mailOutboxDao, never()).persist(any(MailOutbox.class))
+  }
+
+  @Test
+  void shouldSpreadRecipientsOverBoundedLanes()
+  {
+    def mails = (1..6).collect { createMail(it, "user${it}@localhost") }
+
+    when(mailOutboxDao.findPending(new Date(NOW), 0, 100)).thenReturn(mails)
+
+    dispatcher.dispatch()
+
+    // one lane on the dispatching thread, concurrency - 1 on the executor
+    assert taskExecutor.executed == 1
+    assert mailSender.sent.size() == 6
+  }
+
+  @Test
+  void shouldHoldBackAssignmentMailUntilEndOfDigestWindow()
+  {
+    dispatcher.digestWindow = 3600000
+
+    def assignmentMail = createAssignmentMail(1, "pm@localhost", 1)
+    def reminder = createMail(2, "pm@localhost")
+
+    assert dispatcher.queueInDigest(assignmentMail)
+    assert assignmentMail.nextAttempt.time % 3600000 == 0
+    assert assignmentMail.nextAttempt.after(assignmentMail.created)
+    assert assignmentMail.nextAttempt.time - assignmentMail.created.time <= 3600000
+
+    assert !dispatcher.queueInDigest(reminder)
+    assert reminder.nextAttempt == reminder.created
+  }
+
+  @Test
+  void shouldNotHoldBackAssignmentMailWithoutDigestWindow()
+  {
+    assert !dispatcher.queueInDigest(createAssignmentMail(1, "pm@localhost", 1))
+  }
+
+  @Test
+  void shouldSendRecipientsAssignmentMailAsOneDigest()
+  {
+    dispatcher.digestWindow = 3600000
+
+    def digested = (1..3).collect { createAssignmentMail(it, "pm@localhost", it) }
+    def reminder = createMail(4, "pm@localhost")
+    def other = createAssignmentMail(5, "other@localhost", 5)
+
+    when(mailOutboxDao.findPending(new Date(NOW), 0, 100)).thenReturn(digested + [reminder, other])
+
+    dispatcher.dispatch()
+
+    assert mailSender.sent.size() == 3
+
+    def digest = mailSender.sent.find { it.subject == "eHour: 3 project budget notifications" }
+    assert digest.to == ["pm@localhost"]
+    assert digested.every { digest.text.contains(it.subject) }
+
+    assert mailSender.sent.find { it.to == ["other@localhost"] }.subject == other.subject
+
+    verify(mailLogDao, times(4)).persist(any(MailLog.class))
+    verify(mailOutboxDao).deleteOnIds([4, 1, 2, 3, 5])
+  }
+
+  @Test
+  void shouldRetryDigestAsWhole()
+  {
+    dispatcher.digestWindow = 3600000
+
+    def digested = (1..2).collect { createAssignmentMail(it, "pm@localhost", it) }
+    mailSender.failingRecipients << "pm@localhost"
+
+    when(mailOutboxDao.findPending(new Date(NOW), 0, 100)).thenReturn(digested)
+
+    dispatcher.dispatch()
+
+    assert mailSender.attempts == 1
+    assert digested.every { it.attempts == 1 && it.nextAttempt == new Date(NOW + 60000) }
+  }
+
+  @Test
+  void shouldDoubleRetryDelayUpToMax()
+  {
+    assert dispatcher.getRetryDelay(1) == 60000
+    assert dispatcher.getRetryDelay(2) == 120000
+    assert dispatcher.getRetryDelay(4) == 480000
+    assert dispatcher.getRetryDelay(7) == 3600000
+    assert dispatcher.getRetryDelay(100) == 3600000
+  }
+
+  private MailOutbox createAssignmentMail(Integer id, String recipient, Integer assignmentId)
+  {
+    def mail = createMail(id, recipient)
+    mail.mailType = new MailType(1)
+    mail.projectAssignment = ProjectAssignmentMother.createProjectAssignment(assignmentId)
+    return mail
+  }
+
+  private MailOutbox createMail(Integer id, String recipient)
+  {
+    def mail = new MailOutbox(null, null, recipient, "admin@localhost", "subject ${id}", "body")
+    mail.outboxId = id
+    mail.created = new Date(NOW - 1000)
+    mail.nextAttempt = mail.created
+    return mail
+  }
+
+  class MailSenderStub implements MailSender
+  {
+    List<SimpleMailMessage> sent = Collections.synchronizedList([])
+    Set<String> failingRecipients = [] as Set
+    int attempts
+
+    void send(SimpleMailMessage msg)
+    {
+      attempts++
+
+      if (failingRecipients.contains(msg.to[0].toLowerCase()))
+      {
+        throw new MailSendException("connection refused")
+      }
+
+      sent << msg
+    }
+
+    void send(SimpleMailMessage[] msgs)
+    {
+      msgs.each { send(it) }
+    }
+  }
+
+  class ExecutorStub implements TaskExecutor
+  {
+    int executed
+
+    void execute(Runnable task)
+    {
+      executed++
+      task.run()
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package net.rrm.ehour.mail.service
+
+import net.rrm.ehour.config.EhourConfigStub
+import org.junit.Test
+
+class MailSenderFactoryTest
+{
+  MailSenderFactory factory = new MailSenderFactory()
+
+  @Test
+  void shouldReuseSenderForSameSettings()
+  {
+    def sender = factory.getMailSender(createConfig("smtp.localhost", "25"))
+
+    assert factory.getMailSender(createConfig("smtp.localhost", "25.0")).is(sender)
+    assert factory.senderCount == 1
+  }
+
+  @Test
+  void shouldCreateSenderWhenSettingsChange()
+  {
+    def sender = factory.getMailSender(createConfig("smtp.localhost", "25"))
+
+    def config = createConfig("smtp.localhost", "25")
+    config.smtpUsername = "thies"
+    config.smtpPassword = "rosalie"
+
+    PooledJavaMailSender authenticated = factory.getMailSender(config)
+
+    assert !authenticated.is(sender)
+    assert authenticated.username == "thies"
+    assert authenticated.javaMailProperties["mail.smtp.auth"] == "true"
+  }
+
+  @Test
+  void shouldKeepTwoMostRecentlyUsedSenders()
+  {
+    def first = factory.getMailSender(createConfig("first", "25"))
+    factory.getMailSender(createConfig("second", "25"))
+    factory.getMailSender(createConfig("first", "25"))
+    factory.getMailSender(createConfig("third", "25"))
+
+    assert factory.senderCount == 2
+    assert factory.getMailSender(createConfig("first", "25")).is(first)
+  }
+
+  private EhourConfigStub createConfig(String host, String port)
+  {
+    def config = new EhourConfigStub()
+    config.mailSmtp = host
+    config.smtpPort = port
+    return config
+  }
+}
@@ -3,16 +3,22 @@ package net.rrm.ehour.mail.service
 import net.rrm.ehour.config.EhourConfig
 import net.rrm.ehour.config.EhourConfigStub
 import net.rrm.ehour.config.service.ConfigurationService
+import net.rrm.ehour.domain.MailOutbox
 import net.rrm.ehour.domain.UserMother
 import net.rrm.ehour.mail.service.MailServiceImpl.MailTask
 import net.rrm.ehour.persistence.mail.dao.MailLogDao
+import net.rrm.ehour.persistence.mail.dao.MailOutboxDao
 import net.rrm.ehour.report.reports.element.AssignmentAggregateReportElementMother
 import org.junit.Before
 import org.junit.Test
+import org.mockito.ArgumentCaptor
 import org.mockito.Mock
 import org.mockito.MockitoAnnotations
 import org.springframework.core.task.TaskExecutor
+import static org.mockito.Mockito.never
+import static org.mockito.Mockito.verify
 import static org.mockito.Mockito.when
+import static org.mockito.Matchers.any
 
 /**
  * @author thies (Thies Edeling - thies@te-con.nl)
@@ -33,6 +39,15 @@ class MailServiceImplTest
   @Mock
   ConfigurationService configurationService
 
+  @Mock
+  MailOutboxDao mailOutboxDao
+
+  @Mock
+  MailOutboxDispatcher mailOutboxDispatcher
+
+  @Mock
+  AssignmentMailIndex assignmentMailIndex
+
   @Before
   void setUp()
   {
@@ -43,6 +58,10 @@ class MailServiceImplTest
     mailService = new MailServiceImpl(taskExecutor)
     mailService.mailLogDAO = mailLogDao
     mailService.configurationService = configurationService
+    mailService.mailOutboxDao = mailOutboxDao
+    mailService.mailOutboxDispatcher = mailOutboxDispatcher
+    mailService.mailSenderFactory = new MailSenderFactory()
+    mailService.assignmentMailIndex = assignmentMailIndex
   }
 
   @Test
@@ -73,10 +92,57 @@ class MailServiceImplTest
 
     when(configurationService.getConfiguration()).thenReturn stub
 
+    when(assignmentMailIndex.claim(aggregate.projectAssignment.assignmentId, 1)).thenReturn true
+
     mailService.mailPMFixedAllottedReached(aggregate, new Date(), UserMother.createUser())
 
-    MailTask task = (MailTask)taskExecutor.task
-    assert task.mailTaskMessage.mailMessage.subject == "eHour: All allotted hours used for project aa10 - aa10 by Dummy TestUser"
+    def captor = ArgumentCaptor.forClass(MailOutbox.class)
+    verify(mailOutboxDao).persist(captor.capture())
+    verify(mailOutboxDispatcher).dispatchAfterCommit()
+
+    MailOutbox mail = captor.value
+    assert mail.subject == "eHour: All allotted hours used for project aa10 - aa10 by Dummy TestUser"
+    assert mail.recipient == "thies@te-con.nl"
+    assert mail.mailType.mailTypeId == 1
+    assert mail.projectAssignment == aggregate.projectAssignment
+    assert taskExecutor.task == null
+  }
+
+  @Test
+  void shouldNotQueueMailPMAlreadyClaimed()
+  {
+    def aggregate = AssignmentAggregateReportElementMother.createProjectAssignmentAggregate(1, 2, 3)
+    aggregate.projectAssignment.allottedHours = 5
+
+    when(configurationService.getConfiguration()).thenReturn new EhourConfigStub()
+
+    when(assignmentMailIndex.claim(aggregate.projectAssignment.assignmentId, 1)).thenReturn false
+
+    mailService.mailPMFixedAllottedReached(aggregate, new Date(), UserMother.createUser())
+
+    verify(mailOutboxDao, never()).persist(any(MailOutbox.class))
+    verify(mailOutboxDispatcher, never()).dispatchAfterCommit()
+  }
+
+  @Test
+  void shouldNotDispatchMailPMQueuedInDigest()
+  {
+    def aggregate = AssignmentAggregateReportElementMother.createProjectAssignmentAggregate(1, 2, 3)
+    aggregate.projectAssignment.allottedHours = 5
+    aggregate.projectAssignment.allowedOverrun = 2
+
+    when(configurationService.getConfiguration()).thenReturn new EhourConfigStub()
+    when(assignmentMailIndex.claim(aggregate.projectAssignment.assignmentId, 2)).thenReturn true
+    when(mailOutboxDispatcher.queueInDigest(any(MailOutbox.class))).thenReturn true
+
+    mailService.mailPMFlexAllottedReached(aggregate, new Date(), UserMother.createUser())
+
+    def captor = ArgumentCaptor.forClass(MailOutbox.class)
+    verify(mailOutboxDao).persist(captor.capture())
+    verify(mailOutboxDispatcher, never()).dispatchAfterCommit()
+
+    assert captor.value.body.contains("5 hours were allotted for this project to Dummy TestUser.")
+    assert captor.value.body.contains("An extra overrun of 2 hours was granted")
   }
 
   class ExecutorStub implements TaskExecutor
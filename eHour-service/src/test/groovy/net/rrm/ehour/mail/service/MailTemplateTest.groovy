@@ -0,0 +1,32 @@
+package net.rrm.ehour.mail.service
+
+import org.junit.Test
+
+class MailTemplateTest
+{
+  @Test
+  void shouldRenderArgumentsInPlaceholders()
+  {
+    def template = MailTemplate.compile("{1} can't book on {0}, {1}.")
+
+    assert template.render("project", "Thies") == "Thies can't book on project, Thies."
+  }
+
+  @Test
+  void shouldRenderMissingArgumentsEmpty()
+  {
+    assert MailTemplate.compile("a{0}b{2}").render("x") == "axb"
+  }
+
+  @Test
+  void shouldRenderTemplateWithoutPlaceholders()
+  {
+    assert MailTemplate.compile("plain").render() == "plain"
+  }
+
+  @Test(expected = IllegalArgumentException)
+  void shouldRejectInvalidPlaceholder()
+  {
+    MailTemplate.compile("a {name} b")
+  }
+}
@@ -0,0 +1,125 @@
+package net.rrm.ehour.mail.service
+
+import org.apache.log4j.Logger
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.springframework.mail.SimpleMailMessage
+import org.springframework.mail.javamail.JavaMailSenderImpl
+
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
+class PooledJavaMailSenderTest
+{
+  private static final Logger LOGGER = Logger.getLogger(PooledJavaMailSenderTest.class)
+
+  SmtpServerStub server
+
+  PooledJavaMailSender mailSender
+
+  @Before
+  void setUp()
+  {
+    server = new SmtpServerStub()
+    server.start()
+
+    mailSender = configure(new PooledJavaMailSender(2, 30000))
+  }
+
+  @After
+  void tearDown()
+  {
+    mailSender.close()
+    server.stop()
+  }
+
+  @Test
+  void shouldReuseOneConnectionForConsecutiveMessages()
+  {
+    20.times { mailSender.send(createMessage(it)) }
+
+    assert server.messages.get() == 20
+    assert server.connections.get() == 1
+    assert mailSender.idleConnectionCount == 1
+  }
+
+  @Test
+  void shouldNotOpenMoreConnectionsThanPooled()
+  {
+    def executor = Executors.newFixedThreadPool(4)
+
+    try
+    {
+      def sends = (0..3).collect { thread ->
+        { -> 10.times { mailSender.send(createMessage(thread * 10 + it)) } } as Callable
+      }
+
+      executor.invokeAll(sends).each { it.get() }
+    } finally
+    {
+      executor.shutdown()
+    }
+
+    assert server.messages.get() == 40
+    assert server.connections.get() <= 2
+  }
+
+  @Test
+  void shouldReconnectWhenServerDroppedConnection()
+  {
+    server.dropAfterMessage = true
+
+    3.times { mailSender.send(createMessage(it)) }
+
+    assert server.messages.get() == 3
+    assert server.connections.get() == 3
+  }
+
+  @Test
+  void shouldSendFasterThanConnectionPerMessage()
+  {
+    // stands in for the TCP and TLS handshakes of a remote server
+    server.connectDelay = 10
+
+    int count = 30
+
+    long start = System.nanoTime()
+    count.times { configure(new JavaMailSenderImpl()).send(createMessage(it)) }
+    long perMessageMillis = (System.nanoTime() - start).intdiv(1000000)
+
+    int connectionsPerMessage = server.connections.getAndSet(0)
+
+    start = System.nanoTime()
+    count.times { mailSender.send(createMessage(it)) }
+    long pooledMillis = (System.nanoTime() - start).intdiv(1000000)
+
+    LOGGER.info("Sent " + count + " messages in " + perMessageMillis + "ms with a connection per message, in " + pooledMillis + "ms pooled")
+
+    assert connectionsPerMessage == count
+    assert server.connections.get() == 1
+    assert pooledMillis < perMessageMillis
+  }
+
+  private <T extends JavaMailSenderImpl> T configure(T sender)
+  {
+    sender.host = "127.0.0.1"
+    sender.port = server.port
+
+    def props = new Properties()
+    props.put("mail.smtp.localhost", "localhost")
+    sender.javaMailProperties = props
+
+    return sender
+  }
+
+  private SimpleMailMessage createMessage(int i)
+  {
+    def msg = new SimpleMailMessage()
+    msg.from = "admin@localhost"
+    msg.setTo("user${i % 5}@localhost".toString())
+    msg.subject = "message ${i}".toString()
+    msg.text = "body"
+    return msg
+  }
+}
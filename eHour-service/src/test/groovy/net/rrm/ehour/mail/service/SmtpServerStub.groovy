@@ -0,0 +1,112 @@
+package net.rrm.ehour.mail.service
+
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Stand-in SMTP server on a free local port which accepts every message.
+ * Counts the connections and messages and can add latency to the connection set up.
+ */
+class SmtpServerStub
+{
+  final AtomicInteger connections = new AtomicInteger()
+  final AtomicInteger messages = new AtomicInteger()
+
+  long connectDelay
+  boolean dropAfterMessage
+
+  private ServerSocket serverSocket
+
+  void start()
+  {
+    serverSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"))
+
+    startDaemon {
+      while (!serverSocket.closed)
+      {
+        try
+        {
+          Socket socket = serverSocket.accept()
+          startDaemon { session(socket) }
+        } catch (IOException e)
+        {
+          // stopped
+        }
+      }
+    }
+  }
+
+  private void startDaemon(Closure closure)
+  {
+    def thread = new Thread(closure as Runnable)
+    thread.daemon = true
+    thread.start()
+  }
+
+  int getPort()
+  {
+    serverSocket.localPort
+  }
+
+  void stop()
+  {
+    serverSocket?.close()
+  }
+
+  private void session(Socket socket)
+  {
+    connections.incrementAndGet()
+
+    try
+    {
+      def reader = new BufferedReader(new InputStreamReader(socket.inputStream, "US-ASCII"))
+      def writer = new OutputStreamWriter(socket.outputStream, "US-ASCII")
+
+      def reply = { String line ->
+        writer.write(line + "\r\n")
+        writer.flush()
+      }
+
+      if (connectDelay > 0)
+      {
+        Thread.sleep(connectDelay)
+      }
+
+      reply "220 localhost ESMTP stub"
+
+      String line
+      while ((line = reader.readLine()) != null)
+      {
+        String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase()
+
+        switch (command)
+        {
+          case "EHLO":
+          case "HELO":
+            reply "250 localhost"
+            break
+          case "DATA":
+            reply "354 End data with <CR><LF>.<CR><LF>"
+            while ((line = reader.readLine()) != null && line != ".")
+            {
+            }
+            messages.incrementAndGet()
+            reply "250 OK"
+
+            if (dropAfterMessage)
+            {
+              return
+            }
+            break
+          case "QUIT":
+            reply "221 Bye"
+            return
+          default:
+            reply "250 OK"
+        }
+      }
+    } finally
+    {
+      socket.close()
+    }
+  }
+}
@@ -31,6 +31,7 @@ import net.rrm.ehour.exception.ObjectNotFoundException;
 import net.rrm.ehour.exception.ObjectNotUniqueException;
 import net.rrm.ehour.exception.ParentChildConstraintException;
 import net.rrm.ehour.persistence.customer.dao.CustomerDao;
+import net.rrm.ehour.timesheet.service.TimesheetService;
 
 /**
  * TODO 
@@ -40,6 +41,7 @@ public class CustomerServiceTest extends TestCase
 {
 	private	CustomerService	customerService;
 	private	CustomerDao		customerDAO;
+	private	TimesheetService	timesheetService;
 	
 	/**
 	 * 
@@ -50,6 +52,9 @@ public class CustomerServiceTest extends TestCase
 
 		customerDAO = createMock(CustomerDao.class);
 		((CustomerServiceImpl)customerService).setCustomerDAO(customerDAO);
+
+		timesheetService = createMock(TimesheetService.class);
+		((CustomerServiceImpl)customerService).setTimesheetService(timesheetService);
 	}
 
 
@@ -142,12 +147,14 @@ public class CustomerServiceTest extends TestCase
 		
 		customerDAO.persist(cust);
 		expectLastCall().andReturn(cust);
+
+		timesheetService.invalidateAllCachedTimesheets();
 		
-		replay(customerDAO);
+		replay(customerDAO, timesheetService);
 		
 		customerService.persistCustomer(cust);
 		
-		verify(customerDAO);
+		verify(customerDAO, timesheetService);
 	}
 
 }
@@ -26,8 +26,10 @@ import java.util.ArrayList;
 import junit.framework.TestCase;
 import net.rrm.ehour.domain.Project;
 import net.rrm.ehour.exception.ObjectNotFoundException;
+import net.rrm.ehour.persistence.dao.FetchProfileDaoStub;
 import net.rrm.ehour.persistence.project.dao.ProjectDao;
 import net.rrm.ehour.report.service.AggregateReportService;
+import net.rrm.ehour.timesheet.service.TimesheetService;
 import net.rrm.ehour.user.service.UserService;
 
 /**
@@ -41,6 +43,7 @@ public class ProjectServiceTest extends TestCase
 	private ProjectAssignmentService	projectAssignmentService;
 	private UserService		userService;
 	private AggregateReportService aggregateReportService;
+	private TimesheetService	timesheetService;
 	/**
 	 * 
 	 */
@@ -59,6 +62,11 @@ public class ProjectServiceTest extends TestCase
 		
 		aggregateReportService = createMock(AggregateReportService.class);
 		((ProjectServiceImpl)projectService).setAggregateReportService(aggregateReportService);		
+
+		((ProjectServiceImpl)projectService).setFetchProfileDao(new FetchProfileDaoStub());
+
+		timesheetService = createMock(TimesheetService.class);
+		((ProjectServiceImpl)projectService).setTimesheetService(timesheetService);
 	}
 
 	
@@ -120,14 +128,18 @@ public class ProjectServiceTest extends TestCase
 		
 		expect(userService.validateProjectManagementRoles(null))
 			.andReturn(null);
+
+		timesheetService.invalidateAllCachedTimesheets();
 	
 		replay(userService);
 		replay(projectDAO);
+		replay(timesheetService);
 	
 		projectService.persistProject(prj);
 	
 		verify(userService);
 		verify(projectDAO);
+		verify(timesheetService);
 	}
 	
 	/**
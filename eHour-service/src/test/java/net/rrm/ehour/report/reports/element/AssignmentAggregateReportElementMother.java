@@ -1,6 +1,7 @@
 package net.rrm.ehour.report.reports.element;
 
 import net.rrm.ehour.domain.ProjectAssignmentMother;
+import net.rrm.ehour.util.EhourConstants;
 
 /**
  * Created on Feb 7, 2010 2:58:49 PM
@@ -17,4 +18,15 @@ public class AssignmentAggregateReportElementMother
 		pag.setProjectAssignment(ProjectAssignmentMother.createProjectAssignment(baseId, customerId, userId));
 		return pag;
 	}
+
+	public static AssignmentAggregateRow createAggregateRow(int baseId, int customerId, int userId)
+	{
+		return new AssignmentAggregateRow(baseId * 100, baseId,
+											10f, null, null, "role",
+											null, null, true,
+											EhourConstants.ASSIGNMENT_DATE,
+											userId, "first", "last",
+											baseId * 10, "PRJ" + baseId, "project " + baseId, null, true,
+											customerId, "CUST" + customerId, "customer " + customerId);
+	}
 }
@@ -43,8 +43,12 @@ import net.rrm.ehour.project.service.ProjectAssignmentService;
 import net.rrm.ehour.report.criteria.ReportCriteria;
 import net.rrm.ehour.report.criteria.UserCriteria;
 import net.rrm.ehour.report.reports.ProjectManagerReport;
+import net.rrm.ehour.report.reports.ReportData;
+import net.rrm.ehour.report.reports.RollupReportData;
+import net.rrm.ehour.report.reports.element.AggregateRollupRow;
 import net.rrm.ehour.report.reports.element.AssignmentAggregateReportElement;
 import net.rrm.ehour.report.reports.element.AssignmentAggregateReportElementMother;
+import net.rrm.ehour.report.reports.element.AssignmentAggregateRow;
 
 /**
  *  
@@ -115,14 +119,14 @@ private	ProjectAssignmentService	assignmentService;
 		List<User> l = new ArrayList<User>();
 		l.add(new User(1));
 		uc.setUsers(l);
-		List<AssignmentAggregateReportElement> pags = new ArrayList<AssignmentAggregateReportElement>();
+		List<AssignmentAggregateRow> pags = new ArrayList<AssignmentAggregateRow>();
 		ReportCriteria rc = new ReportCriteria(uc);
 		
-		pags.add(AssignmentAggregateReportElementMother.createProjectAssignmentAggregate(1, 1, 1));
-		pags.add(AssignmentAggregateReportElementMother.createProjectAssignmentAggregate(2, 2, 2));
-		pags.add(AssignmentAggregateReportElementMother.createProjectAssignmentAggregate(3, 3, 3));
+		pags.add(AssignmentAggregateReportElementMother.createAggregateRow(1, 1, 1));
+		pags.add(AssignmentAggregateReportElementMother.createAggregateRow(2, 2, 2));
+		pags.add(AssignmentAggregateReportElementMother.createAggregateRow(3, 3, 3));
 		
-		expect(reportAggregatedDAO.getCumulatedHoursPerAssignmentForUsers(isA(List.class), isA(DateRange.class)))
+		expect(reportAggregatedDAO.getAggregateRowsPerAssignmentForUsers(isA(List.class), isA(DateRange.class)))
 					.andReturn(pags);
 		replay(reportAggregatedDAO);
 		aggregateReportService.getAggregateReportData(rc);
@@ -135,16 +139,22 @@ private	ProjectAssignmentService	assignmentService;
 		UserCriteria uc = new UserCriteria();
 		uc.setReportRange(dr);
 		ReportCriteria rc = new ReportCriteria(uc);
-		List<AssignmentAggregateReportElement> pags = new ArrayList<AssignmentAggregateReportElement>();
+		List<AssignmentAggregateRow> pags = new ArrayList<AssignmentAggregateRow>();
 		
-		pags.add(AssignmentAggregateReportElementMother.createProjectAssignmentAggregate(1, 1, 1));
-		pags.add(AssignmentAggregateReportElementMother.createProjectAssignmentAggregate(2, 2, 2));
-		pags.add(AssignmentAggregateReportElementMother.createProjectAssignmentAggregate(3, 3, 3));
+		pags.add(AssignmentAggregateReportElementMother.createAggregateRow(1, 1, 1));
+		pags.add(AssignmentAggregateReportElementMother.createAggregateRow(2, 2, 2));
+		pags.add(AssignmentAggregateReportElementMother.createAggregateRow(3, 3, 3));
 		
-		expect(reportAggregatedDAO.getCumulatedHoursPerAssignment(isA(DateRange.class))).andReturn(pags);
+		expect(reportAggregatedDAO.getAggregateRowsPerAssignment(isA(DateRange.class))).andReturn(pags);
 		replay(reportAggregatedDAO);
-		aggregateReportService.getAggregateReportData(rc);
+		ReportData data = aggregateReportService.getAggregateReportData(rc);
 		verify(reportAggregatedDAO);
+
+		assertEquals(3, data.getReportElements().size());
+		AssignmentAggregateReportElement element = (AssignmentAggregateReportElement)data.getReportElements().get(1);
+		assertEquals(new Integer(200), element.getProjectAssignment().getAssignmentId());
+		assertEquals("CUST2 - customer 2", element.getProjectAssignment().getProject().getCustomer().getFullName());
+		assertEquals(20f, element.getTurnOver().floatValue(), 0.01f);
 	}
 
 	public void testCreateProjectReportNoUserIdDptId()
@@ -162,17 +172,52 @@ private	ProjectAssignmentService	assignmentService;
 		uc.setDepartments(l);
 		uc.setOnlyActiveUsers(true);
 		ReportCriteria rc = new ReportCriteria(uc);
-		List<AssignmentAggregateReportElement> pags = new ArrayList<AssignmentAggregateReportElement>();
+		List<AssignmentAggregateRow> pags = new ArrayList<AssignmentAggregateRow>();
 		
-		pags.add(AssignmentAggregateReportElementMother.createProjectAssignmentAggregate(1, 1, 1));
-		pags.add(AssignmentAggregateReportElementMother.createProjectAssignmentAggregate(2, 2, 2));
-		pags.add(AssignmentAggregateReportElementMother.createProjectAssignmentAggregate(3, 3, 3));
+		pags.add(AssignmentAggregateReportElementMother.createAggregateRow(1, 1, 1));
+		pags.add(AssignmentAggregateReportElementMother.createAggregateRow(2, 2, 2));
+		pags.add(AssignmentAggregateReportElementMother.createAggregateRow(3, 3, 3));
 		
-		expect(reportAggregatedDAO.getCumulatedHoursPerAssignmentForUsers(isA(List.class), isA(DateRange.class)))
+		// departments are joined on in the query, not expanded into users
+		expect(reportAggregatedDAO.getAggregateRowsPerAssignmentForDepartments(l, true, dr))
 		.andReturn(pags);
-		
+
+		replay(reportAggregatedDAO);
+		replay(userDAO);
+		ReportData data = aggregateReportService.getAggregateReportData(rc);
+		verify(reportAggregatedDAO);
+		verify(userDAO);
+
+		assertEquals(3, data.getReportElements().size());
+	}
+
+	public void testCreateProjectReportDptIdAndProjects()
+	{
+		List<User> users = new ArrayList<User>();
+		users.add(new User(1));
+
+		List<Project> prjs = new ArrayList<Project>();
+		prjs.add(new Project(1));
+
+		DateRange dr = new DateRange();
+		UserCriteria uc = new UserCriteria();
+		uc.setReportRange(dr);
+		List<UserDepartment> l = new ArrayList<UserDepartment>();
+		l.add(new UserDepartment(2));
+
+		uc.setDepartments(l);
+		uc.setProjects(prjs);
+		uc.setOnlyActiveUsers(true);
+		ReportCriteria rc = new ReportCriteria(uc);
+		List<AssignmentAggregateRow> pags = new ArrayList<AssignmentAggregateRow>();
+
+		pags.add(AssignmentAggregateReportElementMother.createAggregateRow(1, 1, 1));
+
+		// explicit projects can't be joined on, the departments are expanded into users
 		expect(userDAO.findUsersForDepartments(null, l, true)).andReturn(users);
-		
+		expect(reportAggregatedDAO.getAggregateRowsPerAssignmentForUsers(users, prjs, dr))
+		.andReturn(pags);
+
 		replay(reportAggregatedDAO);
 		replay(userDAO);
 		aggregateReportService.getAggregateReportData(rc);
@@ -186,25 +231,20 @@ private	ProjectAssignmentService	assignmentService;
 		List<Customer> customers = new ArrayList<Customer>();
 		customers.add(cust);
 
-		List<Project> prjs = new ArrayList<Project>();
-		Project prj = new Project(1);
-		prjs.add(prj);		
-		
 		DateRange dr = new DateRange();
 		UserCriteria uc = new UserCriteria();
 		uc.setReportRange(dr);
 		uc.setCustomers(customers);
 		ReportCriteria rc = new ReportCriteria(uc);
-		List<AssignmentAggregateReportElement> pags = new ArrayList<AssignmentAggregateReportElement>();
+		List<AssignmentAggregateRow> pags = new ArrayList<AssignmentAggregateRow>();
 		
-		pags.add(AssignmentAggregateReportElementMother.createProjectAssignmentAggregate(1, 1, 1));
-		pags.add(AssignmentAggregateReportElementMother.createProjectAssignmentAggregate(2, 2, 2));
-		pags.add(AssignmentAggregateReportElementMother.createProjectAssignmentAggregate(3, 3, 3));
+		pags.add(AssignmentAggregateReportElementMother.createAggregateRow(1, 1, 1));
+		pags.add(AssignmentAggregateReportElementMother.createAggregateRow(2, 2, 2));
+		pags.add(AssignmentAggregateReportElementMother.createAggregateRow(3, 3, 3));
 		
-		expect(reportAggregatedDAO.getCumulatedHoursPerAssignmentForProjects(isA(List.class), isA(DateRange.class)))
+		expect(reportAggregatedDAO.getAggregateRowsPerAssignmentForCustomers(customers, uc.isOnlyActiveProjects(), dr))
 		.andReturn(pags);
-		expect(projectDAO.findProjectForCustomers(customers, true)).andReturn(prjs);
-		
+
 		replay(reportAggregatedDAO);
 		replay(projectDAO);
 
@@ -213,6 +253,75 @@ private	ProjectAssignmentService	assignmentService;
 		verify(projectDAO);
 	}
 	
+	public void testGetAggregateRollupReportDataUnsupported()
+	{
+		DateRange dr = new DateRange();
+		UserCriteria uc = new UserCriteria();
+		uc.setReportRange(dr);
+		ReportCriteria rc = new ReportCriteria(uc);
+		List<AssignmentAggregateRow> pags = new ArrayList<AssignmentAggregateRow>();
+
+		pags.add(AssignmentAggregateReportElementMother.createAggregateRow(1, 1, 1));
+
+		expect(reportAggregatedDAO.isRollupSupported()).andReturn(false);
+		expect(reportAggregatedDAO.getAggregateRowsPerAssignment(isA(DateRange.class))).andReturn(pags);
+		replay(reportAggregatedDAO);
+		ReportData data = aggregateReportService.getAggregateRollupReportData(rc);
+		verify(reportAggregatedDAO);
+
+		assertFalse(data instanceof RollupReportData);
+		assertEquals(1, data.getReportElements().size());
+	}
+
+	public void testGetAggregateRollupReportDataForUsers()
+	{
+		DateRange dr = new DateRange();
+		UserCriteria uc = new UserCriteria();
+		uc.setReportRange(dr);
+		List<User> l = new ArrayList<User>();
+		l.add(new User(1));
+		uc.setUsers(l);
+		ReportCriteria rc = new ReportCriteria(uc);
+		List<AggregateRollupRow> rows = new ArrayList<AggregateRollupRow>();
+
+		rows.add(new AggregateRollupRow(AssignmentAggregateReportElementMother.createAggregateRow(1, 1, 1), 10f));
+		rows.add(new AggregateRollupRow(AssignmentAggregateReportElementMother.createAggregateRow(2, 1, 1), 40f));
+		rows.add(new AggregateRollupRow(1, 10, 1, 10f));
+		rows.add(new AggregateRollupRow(1, 20, 2, 40f));
+		rows.add(new AggregateRollupRow(1, null, 3, 50f));
+		rows.add(new AggregateRollupRow(null, null, 3, 50f));
+
+		expect(reportAggregatedDAO.isRollupSupported()).andReturn(true);
+		expect(reportAggregatedDAO.getAggregateRollupRowsForUsers(isA(List.class), isA(DateRange.class))).andReturn(rows);
+		replay(reportAggregatedDAO);
+		RollupReportData data = (RollupReportData)aggregateReportService.getAggregateRollupReportData(rc);
+		verify(reportAggregatedDAO);
+
+		assertEquals(2, data.getReportElements().size());
+		assertEquals(40f, data.getProjectSubtotal(20).getTurnOver().floatValue(), 0.01f);
+		assertEquals(3f, data.getCustomerSubtotal(1).getHours().floatValue(), 0.01f);
+		assertEquals(50f, data.getGrandTotal().getTurnOver().floatValue(), 0.01f);
+	}
+
+	public void testGetAggregateRollupReportDataDepartmentsFallback()
+	{
+		DateRange dr = new DateRange();
+		UserCriteria uc = new UserCriteria();
+		uc.setReportRange(dr);
+		List<UserDepartment> l = new ArrayList<UserDepartment>();
+		l.add(new UserDepartment(2));
+		uc.setDepartments(l);
+		uc.setOnlyActiveUsers(true);
+		ReportCriteria rc = new ReportCriteria(uc);
+
+		// departments are joined on, not possible in the rolled up queries
+		expect(reportAggregatedDAO.getAggregateRowsPerAssignmentForDepartments(l, true, dr))
+			.andReturn(new ArrayList<AssignmentAggregateRow>());
+		replay(reportAggregatedDAO);
+		aggregateReportService.getAggregateRollupReportData(rc);
+		verify(reportAggregatedDAO);
+	}
+
 	public void testGetProjectManagerReport()
 	{
 		Project prj = new Project(1);
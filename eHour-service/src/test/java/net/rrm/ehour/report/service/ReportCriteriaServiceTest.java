@@ -35,6 +35,7 @@ import net.rrm.ehour.domain.ProjectAssignmentMother;
 import net.rrm.ehour.domain.User;
 import net.rrm.ehour.domain.UserDepartment;
 import net.rrm.ehour.persistence.customer.dao.CustomerDao;
+import net.rrm.ehour.persistence.dao.FetchProfileDaoStub;
 import net.rrm.ehour.persistence.project.dao.ProjectAssignmentDao;
 import net.rrm.ehour.persistence.project.dao.ProjectDao;
 import net.rrm.ehour.persistence.report.dao.ReportAggregatedDao;
@@ -84,6 +85,8 @@ public class ReportCriteriaServiceTest
 
 		userDepartmentDAO = createMock(UserDepartmentDao.class);
 		((ReportCriteriaServiceImpl)reportCriteriaService).setUserDepartmentDAO(userDepartmentDAO);
+
+		((ReportCriteriaServiceImpl)reportCriteriaService).setFetchProfileDao(new FetchProfileDaoStub());
 	}
 	
 	@Test
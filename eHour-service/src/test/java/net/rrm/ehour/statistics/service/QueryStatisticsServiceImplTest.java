@@ -0,0 +1,109 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.statistics.service;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import net.rrm.ehour.persistence.statistics.StatisticsInterceptor;
+import net.rrm.ehour.persistence.statistics.dao.QueryStatisticsDao;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class QueryStatisticsServiceImplTest
+{
+    private QueryStatisticsServiceImpl service;
+    private QueryStatisticsDao queryStatisticsDao;
+    private StatisticsInterceptor interceptor;
+
+    @Before
+    public void setUp()
+    {
+        queryStatisticsDao = createMock(QueryStatisticsDao.class);
+
+        service = new QueryStatisticsServiceImpl();
+        service.setQueryStatisticsDao(queryStatisticsDao);
+        service.setEnabled(true);
+        service.setQueryThreshold(2);
+        service.setEntityLoadThreshold(10);
+        service.setCollectionFetchThreshold(10);
+
+        interceptor = new StatisticsInterceptor();
+    }
+
+    @Test
+    public void shouldReturnNullWhenRequestNotStarted()
+    {
+        assertNull(service.endRequest("page"));
+    }
+
+    @Test
+    public void shouldNotStartRequestWhenDisabled()
+    {
+        service.setEnabled(false);
+        service.beginRequest();
+
+        assertNull(service.endRequest("page"));
+    }
+
+    @Test
+    public void shouldRecordRequestOverThreshold()
+    {
+        service.beginRequest();
+
+        for (int i = 0; i < 3; i++)
+        {
+            interceptor.onPrepareStatement("select * from PROJECT where PROJECT_ID = ?");
+        }
+
+        assertNotNull(service.endRequest("overview"));
+
+        assertEquals(1, service.getTopOffenders(10).size());
+        RequestOffender offender = service.getTopOffenders(10).get(0);
+        assertEquals("overview", offender.getRequestName());
+        assertEquals(3, offender.getQueryCount());
+        assertEquals(1, offender.getRepeatedStatements().size());
+    }
+
+    @Test
+    public void shouldNotRecordRequestUnderThreshold()
+    {
+        service.beginRequest();
+        interceptor.onPrepareStatement("select 1");
+        service.endRequest("overview");
+
+        assertTrue(service.getTopOffenders(10).isEmpty());
+    }
+
+    @Test
+    public void shouldNotQueryStatisticsWhenDisabledInHibernate()
+    {
+        expect(queryStatisticsDao.isStatisticsEnabled()).andReturn(false);
+        replay(queryStatisticsDao);
+
+        assertTrue(service.getMostExecutedQueries(10).isEmpty());
+
+        verify(queryStatisticsDao);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.timesheet.service;
+
+import net.rrm.ehour.domain.TimesheetEntry;
+import net.rrm.ehour.timesheet.dto.MonthSummary;
+import net.rrm.ehour.timesheet.dto.UserProjectStatus;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class MonthSummaryCacheTest
+{
+    private static final Calendar NOVEMBER = new GregorianCalendar(2006, 10, 5);
+    private static final Calendar DECEMBER = new GregorianCalendar(2006, 11, 5);
+
+    private long now;
+    private MonthSummaryCache cache;
+
+    @Before
+    public void setUp()
+    {
+        cache = new MonthSummaryCache(2, 1000)
+        {
+            @Override
+            long now()
+            {
+                return now;
+            }
+        };
+    }
+
+    @Test
+    public void shouldReturnSummaryForAnyDayInTheMonth()
+    {
+        MonthSummary summary = createSummary(NOVEMBER);
+        cache.put(1, NOVEMBER, cache.getGeneration(1), summary);
+
+        assertSame(summary, cache.get(1, new GregorianCalendar(2006, 10, 30)));
+        assertNull(cache.get(2, NOVEMBER));
+        assertNull(cache.get(1, DECEMBER));
+    }
+
+    @Test
+    public void shouldExpireSummaries()
+    {
+        cache.put(1, NOVEMBER, cache.getGeneration(1), createSummary(NOVEMBER));
+
+        now = 1001;
+
+        assertNull(cache.get(1, NOVEMBER));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsed()
+    {
+        cache.put(1, NOVEMBER, cache.getGeneration(1), createSummary(NOVEMBER));
+        cache.put(1, DECEMBER, cache.getGeneration(1), createSummary(DECEMBER));
+        cache.get(1, NOVEMBER);
+        cache.put(2, NOVEMBER, cache.getGeneration(2), createSummary(NOVEMBER));
+
+        assertNotNull(cache.get(1, NOVEMBER));
+        assertNull(cache.get(1, DECEMBER));
+        assertNotNull(cache.get(2, NOVEMBER));
+    }
+
+    @Test
+    public void shouldInvalidateAllMonthsOfUserOnly()
+    {
+        cache.put(1, NOVEMBER, cache.getGeneration(1), createSummary(NOVEMBER));
+        cache.put(2, NOVEMBER, cache.getGeneration(2), createSummary(NOVEMBER));
+
+        cache.invalidate(1);
+
+        assertNull(cache.get(1, NOVEMBER));
+        assertNotNull(cache.get(2, NOVEMBER));
+    }
+
+    @Test
+    public void shouldNotStoreSummaryLoadedBeforeInvalidation()
+    {
+        long generation = cache.getGeneration(1);
+
+        cache.invalidate(1);
+        cache.put(1, NOVEMBER, generation, createSummary(NOVEMBER));
+
+        assertNull(cache.get(1, NOVEMBER));
+    }
+
+    @Test
+    public void shouldClearAllUsersAndRejectSummariesLoadedBeforeClear()
+    {
+        cache.put(1, NOVEMBER, cache.getGeneration(1), createSummary(NOVEMBER));
+        long generation = cache.getGeneration(2);
+
+        cache.clear();
+        cache.put(2, NOVEMBER, generation, createSummary(NOVEMBER));
+
+        assertNull(cache.get(1, NOVEMBER));
+        assertNull(cache.get(2, NOVEMBER));
+        assertEquals(0, cache.size());
+    }
+
+    private MonthSummary createSummary(Calendar month)
+    {
+        return new MonthSummary(month, new TreeSet<UserProjectStatus>(), new ArrayList<TimesheetEntry>());
+    }
+}
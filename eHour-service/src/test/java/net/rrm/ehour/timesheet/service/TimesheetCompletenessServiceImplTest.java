@@ -0,0 +1,157 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.timesheet.service;
+
+import net.rrm.ehour.config.EhourConfigStub;
+import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.domain.ProjectAssignment;
+import net.rrm.ehour.domain.User;
+import net.rrm.ehour.mail.service.MailService;
+import net.rrm.ehour.persistence.project.dao.ProjectAssignmentDao;
+import net.rrm.ehour.persistence.timesheet.dao.TimesheetDao;
+import net.rrm.ehour.timesheet.dto.BookedDay;
+import net.rrm.ehour.timesheet.dto.CompletenessReport;
+import net.rrm.ehour.timesheet.dto.UserCompleteness;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.assertEquals;
+
+@SuppressWarnings("deprecation")
+public class TimesheetCompletenessServiceImplTest
+{
+	private TimesheetCompletenessServiceImpl completenessService;
+	private TimesheetDao timesheetDAO;
+	private ProjectAssignmentDao projectAssignmentDAO;
+	private MailService mailService;
+
+	// monday 2 till sunday 8 october 2006
+	private DateRange period = new DateRange(new Date(2006 - 1900, 10 - 1, 2), new Date(2006 - 1900, 10 - 1, 8, 23, 59));
+
+	@Before
+	public void setUp()
+	{
+		completenessService = new TimesheetCompletenessServiceImpl();
+
+		timesheetDAO = createMock(TimesheetDao.class);
+		projectAssignmentDAO = createMock(ProjectAssignmentDao.class);
+		mailService = createMock(MailService.class);
+
+		EhourConfigStub config = new EhourConfigStub();
+		config.setCompleteDayHours(8);
+
+		completenessService.setTimesheetDAO(timesheetDAO);
+		completenessService.setProjectAssignmentDAO(projectAssignmentDAO);
+		completenessService.setMailService(mailService);
+		completenessService.setEhourConfig(config);
+
+		List<BookedDay> bookedDays = new ArrayList<BookedDay>();
+
+		for (int day = 2; day <= 6; day++)
+		{
+			bookedDays.add(new BookedDay(1, new Date(2006 - 1900, 10 - 1, day), 8));
+		}
+
+		for (int day = 2; day <= 4; day++)
+		{
+			bookedDays.add(new BookedDay(2, new Date(2006 - 1900, 10 - 1, day), 9));
+		}
+
+		bookedDays.add(new BookedDay(2, new Date(2006 - 1900, 10 - 1, 5), 4));
+
+		expect(timesheetDAO.getBookedHoursperDayInRange(period)).andReturn(bookedDays);
+	}
+
+	@Test
+	public void shouldFindIncompleteUsers()
+	{
+		expect(projectAssignmentDAO.findActiveAssignments(period)).andReturn(Arrays.asList(createAssignment(1, "a", null, null),
+				createAssignment(2, "b", null, null), createAssignment(3, "c", null, null)));
+		replay(timesheetDAO, projectAssignmentDAO);
+
+		CompletenessReport report = completenessService.getCompleteness(period);
+
+		verify(timesheetDAO, projectAssignmentDAO);
+
+		assertEquals(7, report.getDays().size());
+		assertEquals(5, report.getWorkDayCount());
+		assertEquals(3, report.getEvaluatedUserCount());
+		assertEquals(2, report.getIncompleteUsers().size());
+
+		UserCompleteness partial = report.getIncompleteUsers().get(0);
+		assertEquals(2, partial.getUser().getUserId().intValue());
+		assertEquals(Arrays.asList(new Date(2006 - 1900, 10 - 1, 5), new Date(2006 - 1900, 10 - 1, 6)), partial.getMissingDays());
+
+		assertEquals(5, report.getIncompleteUsers().get(1).getMissingDayCount());
+	}
+
+	@Test
+	public void shouldOnlyExpectDaysUserWasAssignedOn()
+	{
+		// user 1 starts wednesday 4th with a second assignment on the monday, user 3 leaves after tuesday 3rd
+		expect(projectAssignmentDAO.findActiveAssignments(period)).andReturn(Arrays.asList(
+				createAssignment(1, "a", new Date(2006 - 1900, 10 - 1, 4), new Date(2006 - 1900, 11 - 1, 30)),
+				createAssignment(1, "a", new Date(2006 - 1900, 9 - 1, 1), new Date(2006 - 1900, 10 - 1, 2)),
+				createAssignment(2, "b", new Date(2006 - 1900, 10 - 1, 5, 12, 0), null),
+				createAssignment(3, "c", null, new Date(2006 - 1900, 10 - 1, 3))));
+		replay(timesheetDAO, projectAssignmentDAO);
+
+		CompletenessReport report = completenessService.getCompleteness(period);
+
+		assertEquals(3, report.getEvaluatedUserCount());
+		assertEquals(2, report.getIncompleteUsers().size());
+
+		UserCompleteness partial = report.getIncompleteUsers().get(0);
+		assertEquals(2, partial.getUser().getUserId().intValue());
+		assertEquals(Arrays.asList(new Date(2006 - 1900, 10 - 1, 5), new Date(2006 - 1900, 10 - 1, 6)), partial.getMissingDays());
+
+		UserCompleteness leaving = report.getIncompleteUsers().get(1);
+		assertEquals(3, leaving.getUser().getUserId().intValue());
+		assertEquals(Arrays.asList(new Date(2006 - 1900, 10 - 1, 2), new Date(2006 - 1900, 10 - 1, 3)), leaving.getMissingDays());
+	}
+
+	@Test
+	public void shouldRemindIncompleteUsers()
+	{
+		expect(projectAssignmentDAO.findActiveAssignments(period)).andReturn(new ArrayList<ProjectAssignment>());
+		expect(mailService.mailTimesheetReminders(isA(CompletenessReport.class))).andReturn(2);
+		replay(timesheetDAO, projectAssignmentDAO, mailService);
+
+		assertEquals(2, completenessService.remindIncompleteUsers(period));
+
+		verify(mailService);
+	}
+
+	private ProjectAssignment createAssignment(int userId, String lastName, Date dateStart, Date dateEnd)
+	{
+		User user = new User(userId);
+		user.setLastName(lastName);
+
+		ProjectAssignment assignment = new ProjectAssignment();
+		assignment.setUser(user);
+		assignment.setDateStart(dateStart);
+		assignment.setDateEnd(dateEnd);
+		return assignment;
+	}
+}
@@ -16,14 +16,19 @@
 
 package net.rrm.ehour.timesheet.service;
 
+import static org.easymock.EasyMock.capture;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.isA;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -44,6 +49,7 @@ import net.rrm.ehour.project.status.ProjectAssignmentStatusService;
 import net.rrm.ehour.report.reports.element.AssignmentAggregateReportElement;
 import net.rrm.ehour.util.EhourConstants;
 
+import org.easymock.Capture;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -145,6 +151,8 @@ public class TimesheetPersisterImplTest
 
 		expect(timesheetDAO.getTimesheetEntriesInRange(assignment, dateRange)).andReturn(existingEntries);
 
+		timesheetDAO.flush();
+
 		expect(statusService.getAssignmentStatus(assignment)).andReturn(new ProjectAssignmentStatus()).times(2);
 
 		replay(statusService);
@@ -163,12 +171,17 @@ public class TimesheetPersisterImplTest
 	@Test
 	public void testPersistInvalidTimesheet()
 	{
+		Capture<Collection<TimesheetEntry>> discarded = new Capture<Collection<TimesheetEntry>>();
+		timesheetDAO.discard(capture(discarded));
+
 		timesheetDAO.delete(isA(TimesheetEntry.class));
 
 		expect(timesheetDAO.merge(isA(TimesheetEntry.class))).andReturn(null);
 
 		expect(timesheetDAO.getTimesheetEntriesInRange(isA(ProjectAssignment.class), isA(DateRange.class))).andReturn(existingEntries);
 
+		timesheetDAO.flush();
+
 		expect(statusService.getAssignmentStatus(assignment)).andReturn(new ProjectAssignmentStatus());
 
 		ProjectAssignmentStatus status = new ProjectAssignmentStatus();
@@ -188,6 +201,10 @@ public class TimesheetPersisterImplTest
 		{
 			verify(timesheetDAO);
 			verify(statusService);
+
+			// both the stored and the submitted state of the row are discarded
+			assertEquals(4, discarded.getValue().size());
+			assertTrue(discarded.getValue().containsAll(newEntries));
 		}
 	}
 
@@ -229,6 +246,8 @@ public class TimesheetPersisterImplTest
 
 		expect(timesheetDAO.getTimesheetEntriesInRange(isA(ProjectAssignment.class), isA(DateRange.class))).andReturn(existingEntries);
 
+		timesheetDAO.flush();
+
 		ProjectAssignmentStatus beforeStatus = new ProjectAssignmentStatus();
 		beforeStatus.addStatus(Status.OVER_OVERRUN);
 		beforeStatus.setValid(false);
@@ -254,11 +273,16 @@ public class TimesheetPersisterImplTest
 	 * @throws OverBudgetException
 	 * @throws OverBudgetException
 	 */
+	@SuppressWarnings("unchecked")
 	@Test
 	public void testPersistOverrunInvalidTimesheet()
 	{
+		timesheetDAO.discard(isA(Collection.class));
+
 		expect(timesheetDAO.getTimesheetEntriesInRange(isA(ProjectAssignment.class), isA(DateRange.class))).andReturn(existingEntries);
 
+		timesheetDAO.flush();
+
 		ProjectAssignmentStatus beforeStatus = new ProjectAssignmentStatus();
 		beforeStatus.setValid(false);
 
@@ -285,6 +309,59 @@ public class TimesheetPersisterImplTest
 		verify(statusService);
 	}
 
+	@Test
+	public void shouldNotWriteUnchangedEntries() throws OverBudgetException
+	{
+		newEntries.clear();
+
+		for (TimesheetEntry existingEntry : existingEntries)
+		{
+			TimesheetEntryId id = existingEntry.getEntryId();
+			// stored dates come back as timestamps
+			TimesheetEntry entry = new TimesheetEntry(new TimesheetEntryId(new Timestamp(id.getEntryDate().getTime()), assignment));
+			entry.setHours(existingEntry.getHours());
+			entry.setComment("");
+			newEntries.add(entry);
+		}
+
+		expect(timesheetDAO.getTimesheetEntriesInRange(isA(ProjectAssignment.class), isA(DateRange.class))).andReturn(existingEntries);
+
+		timesheetDAO.flush();
+
+		expect(statusService.getAssignmentStatus(assignment)).andReturn(new ProjectAssignmentStatus()).times(2);
+
+		replay(statusService);
+		replay(timesheetDAO);
+
+		persister.validateAndPersist(assignment, newEntries, new DateRange());
+
+		verify(timesheetDAO);
+		verify(statusService);
+	}
+
+	@Test
+	public void shouldDeleteEntriesNoLongerSubmitted() throws OverBudgetException
+	{
+		newEntries.remove(1);
+
+		expect(timesheetDAO.merge(newEntries.get(0))).andReturn(null);
+		timesheetDAO.delete(existingEntries.get(1));
+
+		expect(timesheetDAO.getTimesheetEntriesInRange(isA(ProjectAssignment.class), isA(DateRange.class))).andReturn(existingEntries);
+
+		timesheetDAO.flush();
+
+		expect(statusService.getAssignmentStatus(assignment)).andReturn(new ProjectAssignmentStatus()).times(2);
+
+		replay(statusService);
+		replay(timesheetDAO);
+
+		persister.validateAndPersist(assignment, newEntries, new DateRange());
+
+		verify(timesheetDAO);
+		verify(statusService);
+	}
+
 	@Test
 	public void testMailStatusChange() throws OverBudgetException
 	{
@@ -296,6 +373,8 @@ public class TimesheetPersisterImplTest
 
 		expect(timesheetDAO.getTimesheetEntriesInRange(isA(ProjectAssignment.class), isA(DateRange.class))).andReturn(existingEntries);
 
+		timesheetDAO.flush();
+
 		ProjectAssignmentStatus beforeStatus = new ProjectAssignmentStatus();
 		beforeStatus.addStatus(Status.IN_ALLOTTED);
 		beforeStatus.setValid(true);
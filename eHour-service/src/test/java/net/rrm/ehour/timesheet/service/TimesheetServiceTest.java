@@ -20,20 +20,25 @@ import net.rrm.ehour.config.EhourConfig;
 import net.rrm.ehour.config.EhourConfigStub;
 import net.rrm.ehour.data.DateRange;
 import net.rrm.ehour.domain.*;
+import net.rrm.ehour.persistence.dao.FetchProfileDaoStub;
 import net.rrm.ehour.persistence.timesheet.dao.TimesheetCommentDao;
 import net.rrm.ehour.persistence.timesheet.dao.TimesheetDao;
 import net.rrm.ehour.project.service.ProjectAssignmentService;
 import net.rrm.ehour.report.reports.element.AssignmentAggregateReportElement;
 import net.rrm.ehour.report.service.AggregateReportService;
 import net.rrm.ehour.timesheet.dto.BookedDay;
+import net.rrm.ehour.timesheet.dto.MonthSummary;
+import net.rrm.ehour.timesheet.dto.TimesheetOverview;
+import net.rrm.ehour.timesheet.dto.WeekOverview;
 import net.rrm.ehour.util.DateUtil;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.core.task.SyncTaskExecutor;
 
 import java.util.*;
 
 import static org.easymock.EasyMock.*;
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 @SuppressWarnings(
 { "deprecation" })
@@ -70,6 +75,8 @@ public class TimesheetServiceTest
 		((TimesheetServiceImpl) timesheetService).setEhourConfig(config);
 		((TimesheetServiceImpl) timesheetService).setTimesheetCommentDAO(timesheetCommentDAO);
 		((TimesheetServiceImpl) timesheetService).setProjectAssignmentService(projectAssignmentService);
+
+		((TimesheetServiceImpl) timesheetService).setFetchProfileDao(new FetchProfileDaoStub());
 	}
 
 	/**
@@ -79,28 +86,22 @@ public class TimesheetServiceTest
 	@Test
 	public void testGetBookedDaysMonthOverview() throws Exception
 	{
-		List<BookedDay> daoResults = new ArrayList<BookedDay>();
+		List<TimesheetEntry> daoResults = new ArrayList<TimesheetEntry>();
 		List<BookedDay> results;
-		BookedDay bda, bdb;
 		Calendar cal;
 		cal = new GregorianCalendar(2006, 10, 5);
 
-		bda = new BookedDay();
-		bda.setDate(new Date(2006 - 1900, 10, 1));
-		bda.setHours((float) 6);
-
-		bdb = new BookedDay();
-		bdb.setDate(new Date(2006 - 1900, 10, 2));
-		bdb.setHours((float) 8);
+		daoResults.add(TimesheetEntryMother.getTimesheetEntry(1, new Date(2006 - 1900, 10, 3), 8));
+		daoResults.add(TimesheetEntryMother.getTimesheetEntry(1, new Date(2006 - 1900, 10, 2), 5));
+		daoResults.add(TimesheetEntryMother.getTimesheetEntry(2, new Date(2006 - 1900, 10, 2), 3));
+		daoResults.add(TimesheetEntryMother.getTimesheetEntry(1, new Date(2006 - 1900, 10, 1), 6));
 
-		daoResults.add(bdb); // test sort as well
-		daoResults.add(bda);
-
-		expect(timesheetDAO.getBookedHoursperDayInRange(1, DateUtil.calendarToMonthRange(cal))).andReturn(daoResults);
-		expect(config.getCompleteDayHours()).andReturn(8f).times(2);
+		expect(timesheetDAO.getTimesheetEntriesInRange(1, DateUtil.calendarToMonthRange(cal))).andReturn(daoResults);
+		expect(aggregateReportService.getHoursPerAssignmentInRange(1, DateUtil.calendarToMonthRange(cal))).andReturn(new ArrayList<AssignmentAggregateReportElement>());
+		expect(config.getCompleteDayHours()).andReturn(8f);
 
 		replay(config);
-
+		replay(aggregateReportService);
 		replay(timesheetDAO);
 
 		results = timesheetService.getBookedDaysMonthOverview(1, cal);
@@ -108,7 +109,66 @@ public class TimesheetServiceTest
 		verify(timesheetDAO);
 		verify(config);
 
+		assertEquals(2, results.size());
 		assertEquals(2, results.get(0).getDate().getDate());
+		assertEquals(8f, results.get(0).getHours().floatValue(), 0.01f);
+		assertEquals(3, results.get(1).getDate().getDate());
+	}
+
+	@Test
+	public void shouldServeOverviewAndBookedDaysFromOneMonthSummary()
+	{
+		Calendar cal = new GregorianCalendar(2006, 10, 5);
+		List<TimesheetEntry> daoResults = new ArrayList<TimesheetEntry>();
+		TimesheetEntry entry = TimesheetEntryMother.getTimesheetEntry(1, new Date(2006 - 1900, 10, 2), 8);
+		entry.setComment("comment");
+		daoResults.add(entry);
+
+		expect(timesheetDAO.getTimesheetEntriesInRange(1, DateUtil.calendarToMonthRange(cal))).andReturn(daoResults);
+		expect(aggregateReportService.getHoursPerAssignmentInRange(1, DateUtil.calendarToMonthRange(cal))).andReturn(new ArrayList<AssignmentAggregateReportElement>());
+		expect(config.getCompleteDayHours()).andReturn(8f);
+
+		replay(timesheetDAO, aggregateReportService, config);
+
+		TimesheetOverview overview = timesheetService.getTimesheetOverview(new User(1), new GregorianCalendar(2006, 10, 20));
+		overview.getTimesheetEntries().get(2).clear();
+
+		List<BookedDay> bookedDays = timesheetService.getBookedDaysMonthOverview(1, cal);
+		MonthSummary summary = timesheetService.getMonthSummary(1, cal);
+
+		verify(timesheetDAO, aggregateReportService, config);
+
+		assertEquals(1, bookedDays.size());
+		assertEquals(1, timesheetService.getTimesheetOverview(new User(1), cal).getTimesheetEntries().get(2).size());
+		assertEquals(8f, summary.getHours(2), 0.01f);
+		assertEquals(8f, summary.getHoursForAssignment(entry.getEntryId().getProjectAssignment().getAssignmentId()), 0.01f);
+		assertTrue(summary.isBooked(2));
+		assertTrue(summary.isCommented(2));
+		assertFalse(summary.isBooked(3));
+		assertEquals(30, summary.getDaysInMonth());
+	}
+
+	@Test
+	public void shouldReloadMonthSummaryAfterPersistingWeek()
+	{
+		Calendar cal = new GregorianCalendar(2006, 10, 5);
+
+		expect(timesheetDAO.getTimesheetEntriesInRange(1, DateUtil.calendarToMonthRange(cal))).andReturn(new ArrayList<TimesheetEntry>()).times(2);
+		expect(aggregateReportService.getHoursPerAssignmentInRange(1, DateUtil.calendarToMonthRange(cal))).andReturn(new ArrayList<AssignmentAggregateReportElement>()).times(2);
+
+		replay(timesheetDAO, aggregateReportService);
+
+		timesheetService.getMonthSummary(1, cal);
+		timesheetService.getMonthSummary(1, cal);
+
+		TimesheetComment comment = new TimesheetComment();
+		comment.setCommentId(new TimesheetCommentId(1, new Date(2006 - 1900, 10, 5)));
+		comment.setNewComment(Boolean.TRUE);
+		timesheetService.persistTimesheetWeek(new ArrayList<TimesheetEntry>(), comment, new DateRange());
+
+		timesheetService.getMonthSummary(1, cal);
+
+		verify(timesheetDAO, aggregateReportService);
 	}
 
 	/**
@@ -155,6 +215,34 @@ public class TimesheetServiceTest
 		verify(aggregateReportService);
 	}
 
+	@Test
+	public void shouldServeNavigatedWeekFromPrefetch()
+	{
+		((TimesheetServiceImpl) timesheetService).setPrefetchExecutor(new SyncTaskExecutor());
+
+		expect(timesheetDAO.getTimesheetEntriesInRange(eq(1), isA(DateRange.class))).andReturn(new ArrayList<TimesheetEntry>()).times(3);
+		expect(timesheetCommentDAO.findById(isA(TimesheetCommentId.class))).andReturn(null).times(3);
+		expect(projectAssignmentService.getProjectAssignmentsForUser(eq(1), isA(DateRange.class))).andReturn(new ArrayList<ProjectAssignment>()).times(3);
+
+		replay(timesheetDAO, timesheetCommentDAO, projectAssignmentService);
+
+		EhourConfig config = new EhourConfigStub();
+		User user = new User(1);
+		Calendar week = new GregorianCalendar(2007, 1 - 1, 3);
+
+		timesheetService.getWeekOverview(user, week, config);
+		timesheetService.prefetchAdjacentWeeks(user, week, config);
+
+		Calendar nextWeek = (Calendar) week.clone();
+		nextWeek.add(Calendar.WEEK_OF_YEAR, 1);
+		WeekOverview overview = timesheetService.getWeekOverview(user, nextWeek, config);
+
+		verify(timesheetDAO, timesheetCommentDAO, projectAssignmentService);
+
+		assertSame(user, overview.getUser());
+		assertEquals(new Date(2007 - 1900, 1 - 1, 7), DateUtil.nullifyTime(overview.getWeekRange().getDateStart()));
+	}
+
 	@Test
 	public void testGetTimesheetEntries()
 	{
@@ -0,0 +1,185 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.timesheet.service;
+
+import net.rrm.ehour.config.EhourConfig;
+import net.rrm.ehour.config.EhourConfigStub;
+import net.rrm.ehour.domain.User;
+import net.rrm.ehour.timesheet.dto.WeekOverview;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class WeekOverviewPrefetcherTest
+{
+    private static final User USER = new User(1);
+    private static final EhourConfig CONFIG = new EhourConfigStub();
+
+    private List<Runnable> queued;
+    private int loads;
+    private long now;
+
+    private TaskExecutor queuingExecutor;
+
+    @Before
+    public void setUp()
+    {
+        queued = new ArrayList<Runnable>();
+        loads = 0;
+        now = 0;
+
+        queuingExecutor = new TaskExecutor()
+        {
+            public void execute(Runnable task)
+            {
+                queued.add(task);
+            }
+        };
+    }
+
+    @Test
+    public void shouldHandOutPrefetchedWeekOnce()
+    {
+        WeekOverviewPrefetcher prefetcher = createPrefetcher(new SyncTaskExecutor());
+
+        prefetcher.prefetch(USER, weeks(date(7), date(21)), CONFIG);
+
+        assertEquals(2, loads);
+        assertNotNull(prefetcher.take(1, date(21)));
+        assertNull(prefetcher.take(1, date(21)));
+        assertNull(prefetcher.take(2, date(7)));
+    }
+
+    @Test
+    public void shouldNotWaitForPrefetchThatDidNotStart()
+    {
+        WeekOverviewPrefetcher prefetcher = createPrefetcher(queuingExecutor);
+
+        prefetcher.prefetch(USER, weeks(date(7)), CONFIG);
+
+        assertNull(prefetcher.take(1, date(7)));
+
+        queued.get(0).run();
+        assertEquals(0, loads);
+    }
+
+    @Test
+    public void shouldCancelPrefetchesOfWeeksNavigatedAwayFrom()
+    {
+        WeekOverviewPrefetcher prefetcher = createPrefetcher(queuingExecutor);
+
+        prefetcher.prefetch(USER, weeks(date(7), date(21)), CONFIG);
+        prefetcher.prefetch(USER, weeks(date(21), date(28)), CONFIG);
+
+        assertEquals(3, queued.size());
+        assertEquals(2, prefetcher.size());
+
+        for (Runnable runnable : queued)
+        {
+            runnable.run();
+        }
+
+        assertEquals(2, loads);
+        assertNotNull(prefetcher.take(1, date(28)));
+    }
+
+    @Test
+    public void shouldDropPrefetchesOnInvalidate()
+    {
+        WeekOverviewPrefetcher prefetcher = createPrefetcher(new SyncTaskExecutor());
+
+        prefetcher.prefetch(USER, weeks(date(7)), CONFIG);
+        prefetcher.prefetch(new User(2), weeks(date(7)), CONFIG);
+        prefetcher.invalidate(1);
+
+        assertNull(prefetcher.take(1, date(7)));
+        assertNotNull(prefetcher.take(2, date(7)));
+    }
+
+    @Test
+    public void shouldDropPrefetchesWhenExecutorIsFull()
+    {
+        WeekOverviewPrefetcher prefetcher = createPrefetcher(new TaskExecutor()
+        {
+            public void execute(Runnable task)
+            {
+                throw new TaskRejectedException("full");
+            }
+        });
+
+        prefetcher.prefetch(USER, weeks(date(7), date(21)), CONFIG);
+
+        assertEquals(0, prefetcher.size());
+        assertNull(prefetcher.take(1, date(7)));
+    }
+
+    @Test
+    public void shouldExpirePrefetches()
+    {
+        WeekOverviewPrefetcher prefetcher = createPrefetcher(new SyncTaskExecutor());
+
+        prefetcher.prefetch(USER, weeks(date(7)), CONFIG);
+        now = 1001;
+
+        assertNull(prefetcher.take(1, date(7)));
+    }
+
+    private WeekOverviewPrefetcher createPrefetcher(TaskExecutor executor)
+    {
+        return new WeekOverviewPrefetcher(executor, 1000, 10)
+        {
+            @Override
+            protected WeekOverview load(User user, Calendar week, EhourConfig config)
+            {
+                loads++;
+                return new WeekOverview();
+            }
+
+            @Override
+            long now()
+            {
+                return now;
+            }
+        };
+    }
+
+    private Map<Date, Calendar> weeks(Date... weekStarts)
+    {
+        Map<Date, Calendar> weeks = new HashMap<Date, Calendar>();
+
+        for (Date weekStart : weekStarts)
+        {
+            Calendar week = new GregorianCalendar();
+            week.setTime(weekStart);
+            weeks.put(weekStart, week);
+        }
+
+        return weeks;
+    }
+
+    private Date date(int dayOfMonth)
+    {
+        return new GregorianCalendar(2010, Calendar.JUNE, dayOfMonth).getTime();
+    }
+}
@@ -20,10 +20,12 @@ import net.rrm.ehour.domain.*;
 import net.rrm.ehour.exception.ObjectNotFoundException;
 import net.rrm.ehour.exception.ObjectNotUniqueException;
 import net.rrm.ehour.exception.PasswordEmptyException;
+import net.rrm.ehour.persistence.dao.FetchProfileDaoStub;
 import net.rrm.ehour.persistence.user.dao.UserDao;
 import net.rrm.ehour.persistence.user.dao.UserDepartmentDao;
 import net.rrm.ehour.persistence.user.dao.UserRoleDao;
 import net.rrm.ehour.project.service.ProjectAssignmentManagementService;
+import net.rrm.ehour.timesheet.service.TimesheetService;
 import org.easymock.Capture;
 import org.junit.Before;
 import org.junit.Test;
@@ -40,6 +42,8 @@ public class UserServiceImplTest {
     private UserDepartmentDao userDepartmentDAO;
     private UserRoleDao userRoleDAO;
     private ProjectAssignmentManagementService assignmentService;
+    private FetchProfileDaoStub fetchProfileDao;
+    private TimesheetService timesheetService;
 
     @Before
     public void setUp() {
@@ -48,12 +52,15 @@ public class UserServiceImplTest {
         userDepartmentDAO = createMock(UserDepartmentDao.class);
         userRoleDAO = createMock(UserRoleDao.class);
         assignmentService = createMock(ProjectAssignmentManagementService.class);
-
+        fetchProfileDao = new FetchProfileDaoStub();
+        timesheetService = createMock(TimesheetService.class);
 
         userService.setUserDAO(userDAO);
         userService.setUserDepartmentDAO(userDepartmentDAO);
         userService.setUserRoleDAO(userRoleDAO);
         userService.setProjectAssignmentManagementService(assignmentService);
+        userService.setFetchProfileDao(fetchProfileDao);
+        userService.setTimesheetService(timesheetService);
 
         userService.setPasswordEncoder(new ShaPasswordEncoder(1));
     }
@@ -118,6 +125,7 @@ public class UserServiceImplTest {
         user = userService.getUser(1);
 
         verify(userDAO);
+        assertEquals(Arrays.asList(DomainFetchProfiles.USER_ADMIN), fetchProfileDao.getProfileNames());
 
         assertEquals("thies", user.getUsername());
         assertEquals(1, user.getProjectAssignments().size());
@@ -210,6 +218,22 @@ public class UserServiceImplTest {
         assertFalse(user.getPassword().equals("pwd"));
     }
 
+    @Test
+    public void shouldInvalidateCachedTimesheetsOfEditedUser() throws ObjectNotUniqueException, PasswordEmptyException {
+        User user = UserMother.createUser();
+
+        expect(userDAO.findByUsername(user.getUsername())).andReturn(user);
+        expect(userDAO.persist(user)).andReturn(user);
+
+        timesheetService.invalidateCachedTimesheets(user.getUserId());
+
+        replay(userDAO, timesheetService);
+
+        userService.editUser(user);
+
+        verify(userDAO, timesheetService);
+    }
+
     @Test
     public void shouldCreateNewUser() throws ObjectNotUniqueException, PasswordEmptyException {
         User user = UserMother.createUser();
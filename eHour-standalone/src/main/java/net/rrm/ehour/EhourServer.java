@@ -16,18 +16,26 @@
 
 package net.rrm.ehour;
 
+import net.rrm.ehour.appconfig.StartupTimeline;
 import net.rrm.ehour.persistence.datasource.DerbyDataSourceFactory;
-import org.apache.commons.dbcp.BasicDataSource;
+import org.apache.log4j.Logger;
 import org.eclipse.jetty.jndi.NamingUtil;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.xml.XmlConfiguration;
 
 import javax.naming.Context;
 import javax.naming.InitialContext;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.naming.NamingException;
-import javax.sql.DataSource;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 /**
  * Start jetty
@@ -35,25 +43,78 @@ import java.io.InputStream;
 
 public class EhourServer
 {
+    private static final Logger LOGGER = Logger.getLogger(EhourServer.class);
+
+    private static final String POOL_OBJECT_NAME = "net.rrm.ehour:type=ConnectionPool,name=eHourDS";
+
     public void startServer(ServerConfig config) throws Exception
     {
+        // booting the database doesn't depend on jetty, do it while jetty is configured
+        Future<MonitoredDataSource> dataSourceCreation = startDataSourceCreation(config);
+
+        StartupTimeline.Phase configurationPhase = StartupTimeline.start("Jetty configuration");
         Server server = new Server(config.getPort());
 
         InputStream inputStream = this.getClass().getClassLoader().getResourceAsStream(config.getDefaultConfigFileName());
 
         XmlConfiguration configuration = new XmlConfiguration(inputStream);
         configuration.configure(server);
+        configurationPhase.end();
+
+        MonitoredDataSource dataSource = getCreatedDataSource(dataSourceCreation);
+        registerJndiDS(dataSource);
+
+        try
+        {
+            StartupTimeline.Phase startPhase = StartupTimeline.start("Web application start");
+            server.start();
+            startPhase.end();
 
-        registerJndiDS(config);
+            // not needed to serve requests, done once the connector accepts them
+            registerPoolMBean(dataSource);
+            LOGGER.info(StartupTimeline.report());
 
-        server.start();
-        server.join();
+            server.join();
+        } finally
+        {
+            closePool(dataSource);
+        }
     }
 
-    private void registerJndiDS(ServerConfig config) throws IOException, NamingException
+    private Future<MonitoredDataSource> startDataSourceCreation(final ServerConfig config)
     {
-        DataSource dataSource = createDataSource(config);
+        FutureTask<MonitoredDataSource> creation = new FutureTask<MonitoredDataSource>(new Callable<MonitoredDataSource>()
+        {
+            public MonitoredDataSource call() throws Exception
+            {
+                StartupTimeline.Phase phase = StartupTimeline.start("Database and connection pool");
+                MonitoredDataSource dataSource = createDataSource(config);
+                phase.end();
+                return dataSource;
+            }
+        });
+
+        Thread thread = new Thread(creation, "database-init");
+        thread.setDaemon(true);
+        thread.start();
+
+        return creation;
+    }
 
+    private MonitoredDataSource getCreatedDataSource(Future<MonitoredDataSource> dataSourceCreation) throws Exception
+    {
+        try
+        {
+            return dataSourceCreation.get();
+        } catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : new IllegalStateException(cause);
+        }
+    }
+
+    private void registerJndiDS(MonitoredDataSource dataSource) throws NamingException
+    {
         Context context;
 
         context = new InitialContext();
@@ -62,24 +123,86 @@ public class EhourServer
         NamingUtil.bind(envCtx, "jdbc/eHourDS", dataSource);
     }
 
-    private DataSource createDataSource(ServerConfig config) throws IOException
+    // pool statistics show up in jconsole under net.rrm.ehour
+    private void registerPoolMBean(MonitoredDataSource dataSource)
+    {
+        try
+        {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            mBeanServer.registerMBean(dataSource, new ObjectName(POOL_OBJECT_NAME));
+        } catch (Exception e)
+        {
+            LOGGER.warn("Failed to register connection pool MBean", e);
+        }
+    }
+
+    private void closePool(MonitoredDataSource dataSource)
     {
-        DataSource dataSource;
+        LOGGER.info("Closing connection pool: " + dataSource);
+
+        try
+        {
+            dataSource.close();
+        } catch (SQLException e)
+        {
+            LOGGER.warn("Failed to close connection pool", e);
+        }
+    }
+
+    private MonitoredDataSource createDataSource(ServerConfig config) throws IOException
+    {
+        MonitoredDataSource dataSource;
 
         if ("derby".equalsIgnoreCase(config.getDataBase()))
         {
-            dataSource = new DerbyDataSourceFactory().createDataSource("ehourDb");
+            // creates or upgrades the database, the pool connects through the embedded driver afterwards
+            new DerbyDataSourceFactory().createDataSource("ehourDb");
+
+            dataSource = createPool(config, DerbyDataSourceFactory.DRIVER_CLASS_NAME, DerbyDataSourceFactory.getUrl("ehourDb"));
         } else
         {
-            BasicDataSource dbcpDataSource = new BasicDataSource();
+            dataSource = createPool(config, config.getDataBaseDriver(), config.getDataBaseURL());
+            dataSource.setUsername(config.getDataBaseUsername());
+            dataSource.setPassword(config.getDataBasePassword());
+        }
 
-            dbcpDataSource.setDriverClassName(config.getDataBaseDriver());
-            dbcpDataSource.setUrl(config.getDataBaseURL());
-            dbcpDataSource.setUsername(config.getDataBaseUsername());
-            dbcpDataSource.setPassword(config.getDataBasePassword());
+        return dataSource;
+    }
+
+    MonitoredDataSource createPool(ServerConfig config, String driverClassName, String url)
+    {
+        MonitoredDataSource dataSource = new MonitoredDataSource();
+
+        dataSource.setDriverClassName(driverClassName);
+        dataSource.setUrl(url);
+
+        dataSource.setInitialSize(config.getPoolMinIdle());
+        dataSource.setMinIdle(config.getPoolMinIdle());
+        dataSource.setMaxIdle(Math.max(config.getPoolMinIdle(), config.getPoolMaxIdle()));
+        dataSource.setMaxActive(config.getPoolMaxActive());
+        dataSource.setMaxWait(config.getPoolMaxWait());
+
+        String validationQuery = config.getPoolValidationQuery() != null ? config.getPoolValidationQuery() : getDefaultValidationQuery(driverClassName);
+        dataSource.setValidationQuery(validationQuery);
+        dataSource.setTestOnBorrow(config.isPoolTestOnBorrow());
+        dataSource.setTestWhileIdle(true);
+        dataSource.setTimeBetweenEvictionRunsMillis(config.getPoolEvictionInterval());
+
+        dataSource.setRemoveAbandoned(config.isPoolRemoveAbandoned());
+        dataSource.setRemoveAbandonedTimeout(config.getPoolRemoveAbandonedTimeout());
+        dataSource.setLogAbandoned(config.isPoolLogAbandoned());
+
+        dataSource.setPoolPreparedStatements(config.isPoolPreparedStatements());
+        dataSource.setMaxOpenPreparedStatements(config.getPoolMaxOpenPreparedStatements());
+
+        LOGGER.info(String.format("Connection pool for %s: min idle %d, max active %d, max wait %dms", url,
+                config.getPoolMinIdle(), config.getPoolMaxActive(), config.getPoolMaxWait()));
 
-            dataSource = dbcpDataSource;
-        }
         return dataSource;
     }
+
+    private String getDefaultValidationQuery(String driverClassName)
+    {
+        return driverClassName != null && driverClassName.startsWith("org.apache.derby") ? "VALUES 1" : "SELECT 1";
+    }
 }
@@ -1,6 +1,7 @@
 package net.rrm.ehour;
 
 import net.rrm.ehour.appconfig.EhourHomeUtil;
+import net.rrm.ehour.appconfig.StartupTimeline;
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
 
@@ -22,7 +23,10 @@ public class EhourServerRunner {
         ServerPropertiesConfigurator configuration = new ServerPropertiesConfigurator();
 
         try {
+            StartupTimeline.Phase phase = StartupTimeline.start("Server configuration");
             ServerConfig config = configuration.configureFromProperties(replaceSystemEnv(filename));
+            phase.end();
+
             new EhourServer().startServer(config);
         } catch (Exception e) {
             LOGGER.error("Failed to start server", e);
@@ -0,0 +1,111 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour;
+
+import org.apache.commons.dbcp.BasicDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DBCP pool that keeps track of how long callers wait for a connection.
+ * Active and idle counts come straight from the pool.
+ */
+public class MonitoredDataSource extends BasicDataSource implements MonitoredDataSourceMBean
+{
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong failedBorrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong peakWaitNanos = new AtomicLong();
+
+    @Override
+    public Connection getConnection() throws SQLException
+    {
+        long start = System.nanoTime();
+
+        try
+        {
+            Connection connection = super.getConnection();
+            borrowCount.incrementAndGet();
+            return connection;
+        } catch (SQLException e)
+        {
+            failedBorrowCount.incrementAndGet();
+            throw e;
+        } finally
+        {
+            recordWait(System.nanoTime() - start);
+        }
+    }
+
+    private void recordWait(long waitNanos)
+    {
+        totalWaitNanos.addAndGet(waitNanos);
+
+        long peak;
+
+        do
+        {
+            peak = peakWaitNanos.get();
+        } while (waitNanos > peak && !peakWaitNanos.compareAndSet(peak, waitNanos));
+    }
+
+    @Override
+    public long getBorrowCount()
+    {
+        return borrowCount.get();
+    }
+
+    @Override
+    public long getFailedBorrowCount()
+    {
+        return failedBorrowCount.get();
+    }
+
+    @Override
+    public long getAverageWaitMillis()
+    {
+        long attempts = borrowCount.get() + failedBorrowCount.get();
+
+        return attempts == 0 ? 0 : totalWaitNanos.get() / attempts / 1000000;
+    }
+
+    @Override
+    public long getPeakWaitMillis()
+    {
+        return peakWaitNanos.get() / 1000000;
+    }
+
+    @Override
+    public void resetStatistics()
+    {
+        borrowCount.set(0);
+        failedBorrowCount.set(0);
+        totalWaitNanos.set(0);
+        peakWaitNanos.set(0);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("active=%d, idle=%d, max=%d, borrowed=%d, failed=%d, avg wait=%dms, peak wait=%dms",
+                getNumActive(), getNumIdle(), getMaxActive(), getBorrowCount(), getFailedBorrowCount(),
+                getAverageWaitMillis(), getPeakWaitMillis());
+    }
+}
@@ -11,10 +11,36 @@ public class ServerConfig
 	private String dataBaseURL;
 	private String dataBaseUsername;
 	private String dataBasePassword;
+
+	// connection pool, see ehour.database.pool.* in ehour.properties
+	private int poolMinIdle;
+	private int poolMaxIdle;
+	private int poolMaxActive;
+	private long poolMaxWait;
+	private String poolValidationQuery;
+	private boolean poolTestOnBorrow;
+	private long poolEvictionInterval;
+	private boolean poolRemoveAbandoned;
+	private int poolRemoveAbandonedTimeout;
+	private boolean poolLogAbandoned;
+	private boolean poolPreparedStatements;
+	private int poolMaxOpenPreparedStatements;
 	
 	public ServerConfig() {
 		port = 8000;
 		defaultConfigFileName = "jetty.xml";
+
+		poolMinIdle = 2;
+		poolMaxIdle = 10;
+		poolMaxActive = 20;
+		poolMaxWait = 10000;
+		poolTestOnBorrow = true;
+		poolEvictionInterval = 60000;
+		poolRemoveAbandoned = true;
+		poolRemoveAbandonedTimeout = 300;
+		poolLogAbandoned = false;
+		poolPreparedStatements = true;
+		poolMaxOpenPreparedStatements = 100;
 	}
 
 	public ServerConfig setPort(Integer port)
@@ -99,5 +125,185 @@ public class ServerConfig
 		this.dataBasePassword = dataBasePassword;
 		return this;
 	}
-	
+
+	public int getPoolMinIdle()
+	{
+		return poolMinIdle;
+	}
+
+	public ServerConfig setPoolMinIdle(Integer poolMinIdle)
+	{
+		if (poolMinIdle != null) {
+			this.poolMinIdle = poolMinIdle;
+		}
+
+		return this;
+	}
+
+	public int getPoolMaxIdle()
+	{
+		return poolMaxIdle;
+	}
+
+	public ServerConfig setPoolMaxIdle(Integer poolMaxIdle)
+	{
+		if (poolMaxIdle != null) {
+			this.poolMaxIdle = poolMaxIdle;
+		}
+
+		return this;
+	}
+
+	public int getPoolMaxActive()
+	{
+		return poolMaxActive;
+	}
+
+	public ServerConfig setPoolMaxActive(Integer poolMaxActive)
+	{
+		if (poolMaxActive != null) {
+			this.poolMaxActive = poolMaxActive;
+		}
+
+		return this;
+	}
+
+	/**
+	 * Max time in milliseconds to wait for a free connection before failing, -1 waits forever
+	 */
+	public long getPoolMaxWait()
+	{
+		return poolMaxWait;
+	}
+
+	public ServerConfig setPoolMaxWait(Integer poolMaxWait)
+	{
+		if (poolMaxWait != null) {
+			this.poolMaxWait = poolMaxWait;
+		}
+
+		return this;
+	}
+
+	/**
+	 * Query used to validate connections, when blank a query matching the database is used
+	 */
+	public String getPoolValidationQuery()
+	{
+		return poolValidationQuery;
+	}
+
+	public ServerConfig setPoolValidationQuery(String poolValidationQuery)
+	{
+		if (StringUtils.isNotBlank(poolValidationQuery)) {
+			this.poolValidationQuery = poolValidationQuery;
+		}
+
+		return this;
+	}
+
+	public boolean isPoolTestOnBorrow()
+	{
+		return poolTestOnBorrow;
+	}
+
+	public ServerConfig setPoolTestOnBorrow(Boolean poolTestOnBorrow)
+	{
+		if (poolTestOnBorrow != null) {
+			this.poolTestOnBorrow = poolTestOnBorrow;
+		}
+
+		return this;
+	}
+
+	/**
+	 * Interval in milliseconds between runs of the idle connection evictor, which also
+	 * tops the pool up to its minimum idle size
+	 */
+	public long getPoolEvictionInterval()
+	{
+		return poolEvictionInterval;
+	}
+
+	public ServerConfig setPoolEvictionInterval(Integer poolEvictionInterval)
+	{
+		if (poolEvictionInterval != null) {
+			this.poolEvictionInterval = poolEvictionInterval;
+		}
+
+		return this;
+	}
+
+	public boolean isPoolRemoveAbandoned()
+	{
+		return poolRemoveAbandoned;
+	}
+
+	public ServerConfig setPoolRemoveAbandoned(Boolean poolRemoveAbandoned)
+	{
+		if (poolRemoveAbandoned != null) {
+			this.poolRemoveAbandoned = poolRemoveAbandoned;
+		}
+
+		return this;
+	}
+
+	/**
+	 * Seconds a connection may be borrowed before it is considered leaked
+	 */
+	public int getPoolRemoveAbandonedTimeout()
+	{
+		return poolRemoveAbandonedTimeout;
+	}
+
+	public ServerConfig setPoolRemoveAbandonedTimeout(Integer poolRemoveAbandonedTimeout)
+	{
+		if (poolRemoveAbandonedTimeout != null) {
+			this.poolRemoveAbandonedTimeout = poolRemoveAbandonedTimeout;
+		}
+
+		return this;
+	}
+
+	public boolean isPoolLogAbandoned()
+	{
+		return poolLogAbandoned;
+	}
+
+	public ServerConfig setPoolLogAbandoned(Boolean poolLogAbandoned)
+	{
+		if (poolLogAbandoned != null) {
+			this.poolLogAbandoned = poolLogAbandoned;
+		}
+
+		return this;
+	}
+
+	public boolean isPoolPreparedStatements()
+	{
+		return poolPreparedStatements;
+	}
+
+	public ServerConfig setPoolPreparedStatements(Boolean poolPreparedStatements)
+	{
+		if (poolPreparedStatements != null) {
+			this.poolPreparedStatements = poolPreparedStatements;
+		}
+
+		return this;
+	}
+
+	public int getPoolMaxOpenPreparedStatements()
+	{
+		return poolMaxOpenPreparedStatements;
+	}
+
+	public ServerConfig setPoolMaxOpenPreparedStatements(Integer poolMaxOpenPreparedStatements)
+	{
+		if (poolMaxOpenPreparedStatements != null) {
+			this.poolMaxOpenPreparedStatements = poolMaxOpenPreparedStatements;
+		}
+
+		return this;
+	}
 }
@@ -22,26 +22,50 @@ public class ServerPropertiesConfigurator
                 .setDataBaseUsername(props.getProperty("ehour.database.username"))
                 .setDataBasePassword(props.getProperty("ehour.database.password"))
                 .setPort(parseServerPort(props))
-                .setDefaultConfigFileName(props.getProperty("jetty.config.location"));
+                .setDefaultConfigFileName(props.getProperty("jetty.config.location"))
+                .setPoolMinIdle(parseInteger(props, "ehour.database.pool.minIdle"))
+                .setPoolMaxIdle(parseInteger(props, "ehour.database.pool.maxIdle"))
+                .setPoolMaxActive(parseInteger(props, "ehour.database.pool.maxActive"))
+                .setPoolMaxWait(parseInteger(props, "ehour.database.pool.maxWait"))
+                .setPoolValidationQuery(props.getProperty("ehour.database.pool.validationQuery"))
+                .setPoolTestOnBorrow(parseBoolean(props, "ehour.database.pool.testOnBorrow"))
+                .setPoolEvictionInterval(parseInteger(props, "ehour.database.pool.evictionInterval"))
+                .setPoolRemoveAbandoned(parseBoolean(props, "ehour.database.pool.removeAbandoned"))
+                .setPoolRemoveAbandonedTimeout(parseInteger(props, "ehour.database.pool.removeAbandonedTimeout"))
+                .setPoolLogAbandoned(parseBoolean(props, "ehour.database.pool.logAbandoned"))
+                .setPoolPreparedStatements(parseBoolean(props, "ehour.database.pool.poolPreparedStatements"))
+                .setPoolMaxOpenPreparedStatements(parseInteger(props, "ehour.database.pool.maxOpenPreparedStatements"));
     }
 
     private Integer parseServerPort(Properties props)
     {
-        String serverPort = props.getProperty("ehour.standalone.port");
-        Integer port = null;
+        return parseInteger(props, "ehour.standalone.port");
+    }
+
+    private Integer parseInteger(Properties props, String key)
+    {
+        String value = props.getProperty(key);
+        Integer parsed = null;
 
-        if (StringUtils.isNotBlank(serverPort))
+        if (StringUtils.isNotBlank(value))
         {
 
             try
             {
-                port = Integer.valueOf(serverPort);
+                parsed = Integer.valueOf(value.trim());
             } catch (NumberFormatException nfe)
             {
-                LOGGER.warn("Invalid port " + serverPort + ", using default port");
+                LOGGER.warn("Invalid value " + value + " for " + key + ", using default");
             }
         }
-        return port;
+        return parsed;
+    }
+
+    private Boolean parseBoolean(Properties props, String key)
+    {
+        String value = props.getProperty(key);
+
+        return StringUtils.isNotBlank(value) ? Boolean.valueOf(value.trim()) : null;
     }
 
     private Properties loadProperties(String filename) throws IOException
@@ -0,0 +1,71 @@
+package net.rrm.ehour;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class EhourServerTest
+{
+	private MonitoredDataSource dataSource;
+
+	@Before
+	public void setUp()
+	{
+		ServerConfig config = new ServerConfig()
+				.setPoolMinIdle(1)
+				.setPoolMaxActive(2)
+				.setPoolMaxWait(100);
+
+		dataSource = new EhourServer().createPool(config, "org.apache.derby.jdbc.EmbeddedDriver", "jdbc:derby:memory:poolTest;create=true");
+	}
+
+	@After
+	public void tearDown() throws SQLException
+	{
+		dataSource.close();
+	}
+
+	@Test
+	public void shouldReuseReturnedConnections() throws SQLException
+	{
+		Connection connection = dataSource.getConnection();
+		assertEquals(1, dataSource.getNumActive());
+		connection.close();
+
+		dataSource.getConnection().close();
+
+		assertEquals(0, dataSource.getNumActive());
+		assertEquals(1, dataSource.getNumIdle());
+		assertEquals(2, dataSource.getBorrowCount());
+	}
+
+	@Test
+	public void shouldFailBorrowWhenPoolIsExhausted() throws SQLException
+	{
+		Connection first = dataSource.getConnection();
+		Connection second = dataSource.getConnection();
+
+		try
+		{
+			dataSource.getConnection();
+			fail("pool should be exhausted");
+		} catch (SQLException e)
+		{
+			assertEquals(1, dataSource.getFailedBorrowCount());
+			assertEquals(2, dataSource.getNumActive());
+			assertTrue(dataSource.getPeakWaitMillis() >= 50);
+		} finally
+		{
+			first.close();
+			second.close();
+		}
+	}
+}
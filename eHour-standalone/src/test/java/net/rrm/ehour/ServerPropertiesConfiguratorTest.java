@@ -5,6 +5,8 @@ import org.junit.Test;
 import java.io.IOException;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 
 public class ServerPropertiesConfiguratorTest
@@ -18,4 +20,20 @@ public class ServerPropertiesConfiguratorTest
 		assertEquals(8000, config.getPort());
 //		assertEquals("derby", config.getDataBase());
 	}
+
+	@Test
+	public void shouldLoadPoolConfigAndKeepDefaultsForMissingKeys() throws IOException
+	{
+		ServerPropertiesConfigurator configurator = new ServerPropertiesConfigurator();
+		ServerConfig config = configurator.configureFromProperties("conf/ehour.properties");
+
+		assertEquals(5, config.getPoolMaxActive());
+		assertEquals(2500, config.getPoolMaxWait());
+		assertTrue(config.isPoolLogAbandoned());
+		assertNull(config.getPoolValidationQuery());
+
+		assertEquals(2, config.getPoolMinIdle());
+		assertTrue(config.isPoolRemoveAbandoned());
+		assertTrue(config.isPoolPreparedStatements());
+	}
 }
@@ -17,6 +17,9 @@
 package net.rrm.ehour.ui;
 
 import net.rrm.ehour.appconfig.EhourHomeUtil;
+import net.rrm.ehour.appconfig.StartupTimeline;
+import net.rrm.ehour.init.WarmUp;
+import net.rrm.ehour.statistics.service.QueryStatisticsService;
 import net.rrm.ehour.ui.admin.assignment.page.AssignmentAdmin;
 import net.rrm.ehour.ui.admin.config.page.MainConfigPage;
 import net.rrm.ehour.ui.admin.customer.page.CustomerAdmin;
@@ -24,12 +27,15 @@ import net.rrm.ehour.ui.admin.department.page.DepartmentAdmin;
 import net.rrm.ehour.ui.admin.export.page.ExportDatabase;
 import net.rrm.ehour.ui.admin.export.page.ExportPage;
 import net.rrm.ehour.ui.admin.project.page.ProjectAdmin;
+import net.rrm.ehour.ui.admin.statistics.page.QueryStatisticsPage;
 import net.rrm.ehour.ui.admin.user.page.UserAdmin;
 import net.rrm.ehour.ui.audit.page.AuditReportPage;
 import net.rrm.ehour.ui.audit.panel.AuditReportExcel;
 import net.rrm.ehour.ui.common.component.AbstractExcelResource;
 import net.rrm.ehour.ui.common.converter.FloatConverter;
 import net.rrm.ehour.ui.common.i18n.EhourHomeResourceLoader;
+import net.rrm.ehour.ui.common.report.ExcelReportWarmUp;
+import net.rrm.ehour.ui.common.request.QueryStatisticsRequestCycle;
 import net.rrm.ehour.ui.common.session.EhourWebSession;
 import net.rrm.ehour.ui.login.page.Login;
 import net.rrm.ehour.ui.login.page.Logout;
@@ -54,6 +60,7 @@ import org.apache.wicket.authorization.UnauthorizedInstantiationException;
 import org.apache.wicket.authorization.strategies.role.RoleAuthorizationStrategy;
 import org.apache.wicket.markup.html.WebPage;
 import org.apache.wicket.protocol.http.WebApplication;
+import org.apache.wicket.protocol.http.WebRequest;
 import org.apache.wicket.protocol.http.request.urlcompressing.UrlCompressingWebRequestProcessor;
 import org.apache.wicket.request.IRequestCycleProcessor;
 import org.apache.wicket.request.target.coding.HybridUrlCodingStrategy;
@@ -62,9 +69,11 @@ import org.apache.wicket.resource.PropertiesFactory;
 import org.apache.wicket.spring.injection.annot.SpringComponentInjector;
 import org.apache.wicket.util.convert.ConverterLocator;
 import org.apache.wicket.util.lang.PackageName;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -75,6 +84,8 @@ public class EhourWebApplication extends AuthenticatedWebApplication
 {
     private static final Logger LOGGER = Logger.getLogger(EhourWebApplication.class);
 
+    private static final int RESOURCE_CACHE_DURATION = 365 * 24 * 3600;
+
     private AuthenticationManager authenticationManager;
     private String version;
     private String wikiBaseUrl;
@@ -89,25 +100,58 @@ public class EhourWebApplication extends AuthenticatedWebApplication
     @Value("${ehour.translations}")
     private String translationsDir;
 
+    @Autowired(required = false)
+    private QueryStatisticsService queryStatisticsService;
+
+    @Autowired(required = false)
+    private WarmUp warmUp;
+
     public void init()
     {
         if (!initialized)
         {
+            StartupTimeline.Phase phase = StartupTimeline.start("Wicket application init");
+
             super.init();
             springInjection();
 
             getMarkupSettings().setStripWicketTags(true);
             mountPages();
             getRequestCycleSettings().setResponseRequestEncoding("UTF-8");
+            configureResourceCaching();
             setupSecurity();
             registerSharedResources();
 
             registerStringLoader();
 
+            if (warmUp != null && warmUp.isEnabled())
+            {
+                warmUpExcelReports();
+            }
+
             initialized = true;
+            phase.end();
         }
     }
 
+    // the spring injector is registered by now, the report models can load their data
+    private void warmUpExcelReports()
+    {
+        warmUp.warmUp("Excel report warm-up", new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    new ExcelReportWarmUp().writeReports(warmUp.createReportCriteria());
+                } catch (IOException e)
+                {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+    }
+
     private void registerStringLoader()
     {
         IPropertiesFactory propertiesFactory = getResourceSettings().getPropertiesFactory();
@@ -124,6 +168,17 @@ public class EhourWebApplication extends AuthenticatedWebApplication
         }
     }
 
+    /**
+     * Package resource urls get the last modified time of the resource appended, a changed
+     * resource gets a new url so browsers can keep them for a year instead of Wicket's default hour.
+     * Dynamic resources (reports, exports) are not cacheable and are not affected
+     */
+    private void configureResourceCaching()
+    {
+        getResourceSettings().setAddLastModifiedTimeToResourceReferenceUrl(true);
+        getResourceSettings().setDefaultCacheDuration(RESOURCE_CACHE_DURATION);
+    }
+
     private void registerSharedResources()
     {
         mountExcelReport(new CustomerReportExcel(), CustomerReportExcel.getId());
@@ -168,6 +223,7 @@ public class EhourWebApplication extends AuthenticatedWebApplication
         mount(new HybridUrlCodingStrategy("/admin/customer", CustomerAdmin.class));
         mount(new HybridUrlCodingStrategy("/admin/project", ProjectAdmin.class));
         mount(new HybridUrlCodingStrategy("/admin/assignment", AssignmentAdmin.class));
+        mount(new HybridUrlCodingStrategy("/admin/statistics", QueryStatisticsPage.class));
 
         mount(new HybridUrlCodingStrategy("/consultant/overview", MonthOverviewPage.class));
 
@@ -269,6 +325,21 @@ public class EhourWebApplication extends AuthenticatedWebApplication
         return new UrlCompressingWebRequestProcessor();
     }
 
+    /*
+      * (non-Javadoc)
+      * @see org.apache.wicket.protocol.http.WebApplication#newRequestCycle(org.apache.wicket.Request, org.apache.wicket.Response)
+      */
+    @Override
+    public RequestCycle newRequestCycle(Request request, Response response)
+    {
+        if (queryStatisticsService != null && queryStatisticsService.isEnabled())
+        {
+            return new QueryStatisticsRequestCycle(this, (WebRequest) request, response, queryStatisticsService);
+        }
+
+        return super.newRequestCycle(request, response);
+    }
+
     public static EhourWebApplication get()
     {
         return (EhourWebApplication) WebApplication.get();
@@ -0,0 +1,146 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.ui.admin.statistics.page;
+
+import java.util.List;
+
+import net.rrm.ehour.persistence.statistics.dao.QueryExecutionStatistics;
+import net.rrm.ehour.statistics.service.QueryStatisticsService;
+import net.rrm.ehour.statistics.service.RequestOffender;
+import net.rrm.ehour.ui.admin.AbstractAdminPage;
+import net.rrm.ehour.ui.common.border.GreyRoundedBorder;
+
+import org.apache.wicket.markup.html.WebMarkupContainer;
+import org.apache.wicket.markup.html.basic.Label;
+import org.apache.wicket.markup.html.link.Link;
+import org.apache.wicket.markup.html.list.ListItem;
+import org.apache.wicket.markup.html.list.ListView;
+import org.apache.wicket.model.LoadableDetachableModel;
+import org.apache.wicket.model.ResourceModel;
+import org.apache.wicket.spring.injection.annot.SpringBean;
+
+/**
+ * Shows the requests which crossed the query thresholds and the most executed queries
+ */
+public class QueryStatisticsPage extends AbstractAdminPage<Void>
+{
+    private static final long serialVersionUID = -2446133218006612457L;
+
+    private static final int MAX_ROWS = 25;
+
+    @SpringBean
+    private QueryStatisticsService queryStatisticsService;
+
+    public QueryStatisticsPage()
+    {
+        super(new ResourceModel("admin.statistics.title"), "admin.statistics.help.header", "admin.statistics.help.body");
+
+        GreyRoundedBorder frame = new GreyRoundedBorder("frame", new ResourceModel("admin.statistics.title"));
+        add(frame);
+
+        Label disabled = new Label("disabled", new ResourceModel("admin.statistics.disabled"));
+        disabled.setVisible(!queryStatisticsService.isEnabled());
+        frame.add(disabled);
+
+        WebMarkupContainer statistics = new WebMarkupContainer("statistics");
+        statistics.setVisible(queryStatisticsService.isEnabled());
+        frame.add(statistics);
+
+        statistics.add(new Link<Void>("clear")
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public void onClick()
+            {
+                queryStatisticsService.clear();
+            }
+        });
+
+        statistics.add(createOffenderList("offenders"));
+        statistics.add(createQueryList("queries"));
+    }
+
+    @SuppressWarnings("serial")
+    private ListView<RequestOffender> createOffenderList(String id)
+    {
+        return new ListView<RequestOffender>(id, new LoadableDetachableModel<List<RequestOffender>>()
+        {
+            @Override
+            protected List<RequestOffender> load()
+            {
+                return queryStatisticsService.getTopOffenders(MAX_ROWS);
+            }
+        })
+        {
+            @Override
+            protected void populateItem(ListItem<RequestOffender> item)
+            {
+                RequestOffender offender = item.getModelObject();
+
+                item.add(new Label("requestName", offender.getRequestName()));
+                item.add(new Label("occurrences", Integer.toString(offender.getOccurrences())));
+                item.add(new Label("queryCount", Integer.toString(offender.getQueryCount())));
+                item.add(new Label("entityLoadCount", Integer.toString(offender.getEntityLoadCount())));
+                item.add(new Label("collectionFetchCount", Integer.toString(offender.getCollectionFetchCount())));
+
+                item.add(new ListView<String>("repeatedStatements", offender.getRepeatedStatements())
+                {
+                    @Override
+                    protected void populateItem(ListItem<String> statement)
+                    {
+                        statement.add(new Label("statement", statement.getModelObject()));
+                    }
+                });
+
+                item.add(new ListView<String>("repeatedCollectionFetches", offender.getRepeatedCollectionFetches())
+                {
+                    @Override
+                    protected void populateItem(ListItem<String> fetch)
+                    {
+                        fetch.add(new Label("fetch", fetch.getModelObject()));
+                    }
+                });
+            }
+        };
+    }
+
+    @SuppressWarnings("serial")
+    private ListView<QueryExecutionStatistics> createQueryList(String id)
+    {
+        return new ListView<QueryExecutionStatistics>(id, new LoadableDetachableModel<List<QueryExecutionStatistics>>()
+        {
+            @Override
+            protected List<QueryExecutionStatistics> load()
+            {
+                return queryStatisticsService.getMostExecutedQueries(MAX_ROWS);
+            }
+        })
+        {
+            @Override
+            protected void populateItem(ListItem<QueryExecutionStatistics> item)
+            {
+                QueryExecutionStatistics query = item.getModelObject();
+
+                item.add(new Label("query", query.getQuery()));
+                item.add(new Label("executionCount", Long.toString(query.getExecutionCount())));
+                item.add(new Label("executionAvgTime", Long.toString(query.getExecutionAvgTime())));
+                item.add(new Label("executionMaxTime", Long.toString(query.getExecutionMaxTime())));
+            }
+        };
+    }
+}
@@ -101,11 +101,12 @@ public class AuditReportDataPanel extends AbstractAjaxPanel<ReportCriteria>
 		dataContainer.setOutputMarkupId(true);
 		final EhourConfig config = EhourWebSession.getSession().getEhourConfig();
         
-		IColumn<Audit>[] columns = new IColumn[4];
+		IColumn<Audit>[] columns = new IColumn[5];
         columns[0] = new DateColumn(new ResourceModel("audit.report.column.date"), config);
         columns[1] = new PropertyColumn<Audit>(new ResourceModel("audit.report.column.lastName"), "userFullName");
         columns[2] = new PropertyColumn<Audit>(new ResourceModel("audit.report.column.action"), "action");
         columns[3] = new PropertyColumn<Audit>(new ResourceModel("audit.report.column.type"), "auditActionType.value");
+        columns[4] = new PropertyColumn<Audit>(new ResourceModel("audit.report.column.count"), "count");
 
         AjaxFallbackDefaultDataTable<Audit> table = new AjaxFallbackDefaultDataTable<Audit>("data", columns, new AuditReportDataProvider(getReportRequest(model)), 20);
 
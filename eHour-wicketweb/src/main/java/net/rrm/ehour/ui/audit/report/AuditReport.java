@@ -72,12 +72,13 @@ public class AuditReport extends AbstractCachableReportModel
 		
 		for (Audit audit : data)
 		{
-			Serializable[] row = new Serializable[4];
+			Serializable[] row = new Serializable[5];
 			
 			row[0] = audit.getDate();
 			row[1] = audit.getFullName();
 			row[2] = audit.getAction();
 			row[3] = audit.getAuditActionType().getValue();
+			row[4] = audit.getCount();
 			
 			matrix.add(new TreeReportElement(row));
 		}
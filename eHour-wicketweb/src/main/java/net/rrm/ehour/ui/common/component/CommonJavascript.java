@@ -21,6 +21,7 @@ import org.apache.wicket.Component;
 import org.apache.wicket.ResourceReference;
 import org.apache.wicket.markup.html.IHeaderResponse;
 import org.apache.wicket.markup.html.JavascriptPackageResource;
+import org.apache.wicket.markup.html.resources.CompressedResourceReference;
 import org.apache.wicket.model.IModel;
 import org.apache.wicket.model.Model;
 
@@ -34,7 +35,10 @@ import org.apache.wicket.model.Model;
  */
 public class CommonJavascript 
 {
-	private static final ResourceReference JS_MOUSE_OVER = new ResourceReference(CommonJavascript.class, "js/ImageMouseOver.js");
+	/**
+	 * The mouse over and formguard scripts bundled in one file, a page using both only needs one request
+	 */
+	public static final ResourceReference JS_COMMON = new CompressedResourceReference(CommonJavascript.class, "js/CommonJavascript.js");
 	
 	/**
 	 * Add mouse over on importer
@@ -45,7 +49,7 @@ public class CommonJavascript
 	 */
 	public static void addMouseOver(Component imgComponent, Component parent, String imageUriOn, String imageUriOff, String id)
 	{
-		parent.add(JavascriptPackageResource.getHeaderContribution(JS_MOUSE_OVER));
+		parent.add(JavascriptPackageResource.getHeaderContribution(JS_COMMON));
 		
 		imgComponent.add(new OnMouseOnLoad("onmouseover", true, new Model<String>("onMouseOver(this, '" + imageUriOn + "', '" + id + "');")));
 		imgComponent.add(new AttributeModifier("onmouseout", true, new Model<String>("onMouseOut(this, '" + imageUriOff + "', '" + id + "');")));
@@ -1,53 +1,85 @@
-// initialize namespace
-if (!window.wicket)
-{
-    window.wicket = {};
-}
-
-if (!wicket.guardform)
-{
-    wicket.guardform = {};
-}
-
-wicket.guardform.serializedForm = "";
-wicket.guardform.formId = "";
-
-wicket.guardform.init = function(id)
-{
-    wicket.guardform.formId = id;
-    wicket.guardform.clean();
-
-    window.onbeforeunload = function()
-    {
-        if (wicket.guardform.isDirty())
-        {
-            return decodeURIComponent(wicket.guardform.prompt);
-        } else {
-            return;
-        }
-    }
-
-};
-
-wicket.guardform.promptForDirtyForm = function()
-{
-    if (wicket.guardform.isDirty())
-    {
-        return confirm(decodeURIComponent(wicket.guardform.prompt));
-    }
-
-    return true;
-}
-
-wicket.guardform.isDirty = function()
-{
-    var postClick = Wicket.Form.serialize(document.getElementById(wicket.guardform.formId));
-
-    return postClick != wicket.guardform.serializedForm;
-}
-
-wicket.guardform.clean = function()
-{
-    wicket.guardform.serializedForm = Wicket.Form.serialize(document.getElementById(wicket.guardform.formId));
-}
-
+var imgs = 
+{
+	Set : function(key, value) {this[key] = value;},
+	Get : function(key) {return this[key];}
+}
+
+function initImagePreload()
+{
+}
+
+function onMouseOver(elm, img, id)
+{
+	if (imgs[id + 'over'] == null)
+	{
+		imgs[id + 'over'] = new Image();
+		imgs[id + 'over'].src = img;
+	}
+	
+	elm.src = imgs[id + 'over'].src;
+}
+
+function onMouseOut(elm, img, id)
+{
+	if (imgs[id + 'out'] == null)
+	{
+		imgs[id + 'out'] = new Image();
+		imgs[id + 'out'].src = img;
+	}
+
+	elm.src = imgs[id + 'out'].src;
+}
+
+// formguard: warns about unsaved changes when leaving a form
+// initialize namespace
+if (!window.wicket)
+{
+    window.wicket = {};
+}
+
+if (!wicket.guardform)
+{
+    wicket.guardform = {};
+}
+
+wicket.guardform.serializedForm = "";
+wicket.guardform.formId = "";
+
+wicket.guardform.init = function(id)
+{
+    wicket.guardform.formId = id;
+    wicket.guardform.clean();
+
+    window.onbeforeunload = function()
+    {
+        if (wicket.guardform.isDirty())
+        {
+            return decodeURIComponent(wicket.guardform.prompt);
+        } else {
+            return;
+        }
+    }
+
+};
+
+wicket.guardform.promptForDirtyForm = function()
+{
+    if (wicket.guardform.isDirty())
+    {
+        return confirm(decodeURIComponent(wicket.guardform.prompt));
+    }
+
+    return true;
+}
+
+wicket.guardform.isDirty = function()
+{
+    var postClick = Wicket.Form.serialize(document.getElementById(wicket.guardform.formId));
+
+    return postClick != wicket.guardform.serializedForm;
+}
+
+wicket.guardform.clean = function()
+{
+    wicket.guardform.serializedForm = Wicket.Form.serialize(document.getElementById(wicket.guardform.formId));
+}
@@ -1,12 +1,12 @@
 package net.rrm.ehour.ui.common.formguard;
 
+import net.rrm.ehour.ui.common.component.CommonJavascript;
 import org.apache.wicket.Component;
 import org.apache.wicket.WicketRuntimeException;
 import org.apache.wicket.behavior.AbstractBehavior;
 import org.apache.wicket.markup.ComponentTag;
 import org.apache.wicket.markup.html.IHeaderResponse;
 import org.apache.wicket.markup.html.form.Form;
-import org.apache.wicket.markup.html.resources.CompressedResourceReference;
 import org.apache.wicket.model.IComponentAssignedModel;
 import org.apache.wicket.model.IModel;
 
@@ -64,7 +64,7 @@ public class GuardDirtyFormBehavior extends AbstractBehavior
     @Override
     public void renderHead(final IHeaderResponse response)
     {
-        response.renderJavascriptReference(new CompressedResourceReference(GuardDirtyFormBehavior.class, "GuardDirtyFormBehavior.js"));
+        response.renderJavascriptReference(CommonJavascript.JS_COMMON);
 
         if (this.promptModel != null)
         {
@@ -0,0 +1,101 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package net.rrm.ehour.ui.common.report;
+
+import net.rrm.ehour.report.criteria.ReportCriteria;
+import net.rrm.ehour.ui.common.report.excel.CellFactory;
+import net.rrm.ehour.ui.common.report.excel.StaticCellStyle;
+import net.rrm.ehour.ui.report.TreeReportElement;
+import net.rrm.ehour.ui.report.TreeReportModel;
+import net.rrm.ehour.ui.report.aggregate.CustomerAggregateReportModel;
+import net.rrm.ehour.ui.report.aggregate.ProjectAggregateReportModel;
+import net.rrm.ehour.ui.report.aggregate.UserAggregateReportModel;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Builds the aggregate report trees and writes them to a workbook, like the excel downloads do.
+ * Used to warm up before there is a user session, so the localized headers and the currency cells,
+ * which depend on the session, are left out.
+ */
+public class ExcelReportWarmUp
+{
+    /**
+     * @return size of the workbook
+     */
+    public int writeReports(ReportCriteria criteria) throws IOException
+    {
+        HSSFWorkbook workbook = new HSSFWorkbook();
+
+        writeSheet(workbook, new CustomerAggregateReportModel(criteria), ReportConfig.AGGREGATE_CUSTOMER);
+        writeSheet(workbook, new UserAggregateReportModel(criteria), ReportConfig.AGGREGATE_EMPLOYEE);
+        writeSheet(workbook, new ProjectAggregateReportModel(criteria), ReportConfig.AGGREGATE_PROJECT);
+
+        return PoiUtil.getWorkbookAsBytes(workbook).length;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeSheet(HSSFWorkbook workbook, TreeReportModel report, ReportConfig reportConfig)
+    {
+        HSSFSheet sheet = workbook.createSheet(reportConfig.name());
+        ReportColumn[] columns = reportConfig.getReportColumns();
+        int rowNumber = 0;
+
+        for (TreeReportElement element : (List<TreeReportElement>) report.getReportData().getReportElements())
+        {
+            HSSFRow row = sheet.createRow(rowNumber++);
+            int cellNumber = 0;
+            int i = 0;
+
+            for (Serializable cellValue : element.getRow())
+            {
+                if (columns[i].isVisible() && cellValue != null)
+                {
+                    CellFactory.createCell(row, cellNumber, cellValue, workbook, getCellStyle(columns[i].getColumnType()));
+                }
+
+                if (columns[i].isVisible())
+                {
+                    cellNumber++;
+                }
+
+                i++;
+            }
+        }
+    }
+
+    private StaticCellStyle getCellStyle(ColumnType columnType)
+    {
+        switch (columnType)
+        {
+            case HOUR:
+            case TURNOVER:
+            case RATE:
+                return StaticCellStyle.DIGIT;
+            case DATE:
+                return StaticCellStyle.DATE;
+            default:
+                return StaticCellStyle.NORMAL;
+        }
+    }
+}
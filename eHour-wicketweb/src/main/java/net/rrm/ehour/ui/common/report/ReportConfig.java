@@ -66,7 +66,8 @@ public enum ReportConfig
 	AUDIT_REPORT (new ReportColumn("audit.report.column.date", ColumnType.DATE, new DateConverter(FULL_SHORT, ""), VISIBLE),
 					new ReportColumn("audit.report.column.lastName"),
 					new ReportColumn("audit.report.column.action"),
-					new ReportColumn("audit.report.column.type"));
+					new ReportColumn("audit.report.column.type"),
+					new ReportColumn("audit.report.column.count"));
 
 	private ReportColumn[] 	reportColumns;
 
@@ -0,0 +1,90 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.ui.common.request;
+
+import net.rrm.ehour.statistics.service.QueryStatisticsService;
+
+import org.apache.wicket.IRequestTarget;
+import org.apache.wicket.Page;
+import org.apache.wicket.Response;
+import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.protocol.http.WebApplication;
+import org.apache.wicket.protocol.http.WebRequest;
+import org.apache.wicket.protocol.http.WebRequestCycle;
+
+/**
+ * Request cycle which counts the queries executed while handling a page or ajax request
+ */
+public class QueryStatisticsRequestCycle extends WebRequestCycle
+{
+    private final QueryStatisticsService queryStatisticsService;
+
+    public QueryStatisticsRequestCycle(WebApplication application, WebRequest request, Response response, QueryStatisticsService queryStatisticsService)
+    {
+        super(application, request, response);
+
+        this.queryStatisticsService = queryStatisticsService;
+    }
+
+    @Override
+    protected void onBeginRequest()
+    {
+        super.onBeginRequest();
+
+        queryStatisticsService.beginRequest();
+    }
+
+    @Override
+    protected void onEndRequest()
+    {
+        try
+        {
+            queryStatisticsService.endRequest(getRequestName());
+        }
+        finally
+        {
+            super.onEndRequest();
+        }
+    }
+
+    private String getRequestName()
+    {
+        String name;
+
+        Class<? extends Page> pageClass = getResponsePageClass();
+        IRequestTarget target = getRequestTarget();
+
+        if (pageClass != null)
+        {
+            name = pageClass.getSimpleName();
+        }
+        else if (target instanceof AjaxRequestTarget && ((AjaxRequestTarget) target).getPage() != null)
+        {
+            name = ((AjaxRequestTarget) target).getPage().getClass().getSimpleName();
+        }
+        else if (target != null)
+        {
+            name = target.getClass().getSimpleName();
+        }
+        else
+        {
+            name = getWebRequest().getPath();
+        }
+
+        return getWebRequest().isAjax() ? name + " (ajax)" : name;
+    }
+}
@@ -46,9 +46,24 @@ public abstract class AbstractAggregateReportModel extends TreeReportModel
 	@Override
 	protected final ReportData fetchReportData(ReportCriteria reportCriteria)
 	{
+		if (isUseDatabaseSubtotals())
+		{
+			return getAggregateReportService().getAggregateRollupReportData(reportCriteria);
+		}
+
 		return getAggregateReportService().getAggregateReportData(reportCriteria);
 	}
 
+	/**
+	 * Whether the subtotals of this report's hierarchy can be calculated by the database (ROLLUP),
+	 * only true when the hierarchy is customer -> project -> assignment
+	 * @return
+	 */
+	protected boolean isUseDatabaseSubtotals()
+	{
+		return false;
+	}
+
 	private AggregateReportService getAggregateReportService()
 	{
 		if (aggregateReportService == null)
@@ -60,6 +60,8 @@ public abstract class TreeReportModel extends AbstractCachableReportModel
         ReportBuilder reportBuilder = new ReportBuilder();
         List<ReportNode> rootNodes = reportBuilder.createReport(reportData, getReportNodeFactory());
         
+        applySubtotals(rootNodes, reportData);
+
         List<TreeReportElement> matrix = createMatrix(rootNodes, reportConfig.getReportColumns().length);
         calcTotals(rootNodes);
         
@@ -80,6 +82,16 @@ public abstract class TreeReportModel extends AbstractCachableReportModel
 	}
 	
     protected abstract ReportData fetchReportData(ReportCriteria reportCriteria);
+
+    /**
+     * Hook to preset node subtotals which were already calculated when fetching the report data.
+     * Nodes without preset subtotals sum their children
+     * @param rootNodes
+     * @param reportData
+     */
+    protected void applySubtotals(List<ReportNode> rootNodes, ReportData reportData)
+    {
+    }
     
     /**
      * Calculate total turnover & hours booked
@@ -17,6 +17,9 @@
 package net.rrm.ehour.ui.report.aggregate;
 
 import net.rrm.ehour.report.criteria.ReportCriteria;
+import net.rrm.ehour.report.reports.ReportData;
+import net.rrm.ehour.report.reports.RollupReportData;
+import net.rrm.ehour.report.reports.element.AggregateRollupRow;
 import net.rrm.ehour.report.reports.element.AssignmentAggregateReportElement;
 import net.rrm.ehour.ui.common.report.ReportConfig;
 import net.rrm.ehour.ui.report.AbstractAggregateReportModel;
@@ -27,6 +30,7 @@ import net.rrm.ehour.ui.report.node.ReportNode;
 import net.rrm.ehour.ui.report.node.ReportNodeFactory;
 
 import java.io.Serializable;
+import java.util.List;
 
 public class CustomerAggregateReportModel extends AbstractAggregateReportModel
 {
@@ -37,6 +41,45 @@ public class CustomerAggregateReportModel extends AbstractAggregateReportModel
 		super(reportCriteria, ReportConfig.AGGREGATE_CUSTOMER);
 	}
 
+	@Override
+	protected boolean isUseDatabaseSubtotals()
+	{
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.rrm.ehour.ui.report.TreeReportModel#applySubtotals(java.util.List, net.rrm.ehour.report.reports.ReportData)
+	 */
+	@Override
+	protected void applySubtotals(List<ReportNode> rootNodes, ReportData reportData)
+	{
+		if (!(reportData instanceof RollupReportData))
+		{
+			return;
+		}
+
+		RollupReportData rollupData = (RollupReportData)reportData;
+
+		for (ReportNode customerNode : rootNodes)
+		{
+			applySubtotal(customerNode, rollupData.getCustomerSubtotal(customerNode.getId()));
+
+			for (ReportNode projectNode : customerNode.getReportNodes())
+			{
+				applySubtotal(projectNode, rollupData.getProjectSubtotal(projectNode.getId()));
+			}
+		}
+	}
+
+	private void applySubtotal(ReportNode node, AggregateRollupRow subtotal)
+	{
+		if (subtotal != null)
+		{
+			node.setSubtotals(subtotal.getHours(), subtotal.getTurnOver());
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see net.rrm.ehour.persistence.persistence.ui.report.TreeReport#getReportNodeFactory()
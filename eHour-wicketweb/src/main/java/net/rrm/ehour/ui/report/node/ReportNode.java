@@ -34,6 +34,9 @@ public abstract class ReportNode implements Serializable
     protected Serializable[]    columnValues;
     private List<ReportNode>    reportNodes = new ArrayList<ReportNode>();
     private Serializable      id;
+    // subtotals calculated by the database, when set they're used instead of summing the children
+    private Number            subtotalHours;
+    private Number            subtotalTurnover;
 
     protected ReportNode(Serializable id) {
         this.id = id;
@@ -188,6 +191,11 @@ public abstract class ReportNode implements Serializable
      */
     public Number getHours()
     {
+        if (subtotalHours != null)
+        {
+            return subtotalHours;
+        }
+
         float totalHours = 0;
 
         for (ReportNode reportNode : reportNodes)
@@ -209,6 +217,11 @@ public abstract class ReportNode implements Serializable
      */
     public Number getTurnover()
     {
+        if (subtotalTurnover != null)
+        {
+            return subtotalTurnover;
+        }
+
         float totalTurnover = 0;
 
         for (ReportNode reportNode : reportNodes)
@@ -224,6 +237,26 @@ public abstract class ReportNode implements Serializable
         return totalTurnover;
     }
 
+    /**
+     * Use precalculated subtotals rather than summing the child nodes
+     * @param hours
+     * @param turnover
+     */
+    public void setSubtotals(Number hours, Number turnover)
+    {
+        this.subtotalHours = hours;
+        this.subtotalTurnover = turnover;
+    }
+
+    /**
+     * Child nodes
+     * @return
+     */
+    public List<ReportNode> getReportNodes()
+    {
+        return reportNodes;
+    }
+
     /**
      * 
      * @return
@@ -0,0 +1,418 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.ui.timesheet.api;
+
+import net.rrm.ehour.config.EhourConfig;
+import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.domain.TimesheetComment;
+import net.rrm.ehour.domain.TimesheetEntry;
+import net.rrm.ehour.domain.User;
+import net.rrm.ehour.domain.UserRole;
+import net.rrm.ehour.project.status.ProjectAssignmentStatus;
+import net.rrm.ehour.timesheet.dto.WeekOverview;
+import net.rrm.ehour.timesheet.service.TimesheetCompletenessService;
+import net.rrm.ehour.timesheet.service.TimesheetService;
+import net.rrm.ehour.ui.common.authorization.AuthUser;
+import net.rrm.ehour.util.DateUtil;
+import org.apache.log4j.Logger;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.JsonProcessingException;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.node.ArrayNode;
+import org.codehaus.jackson.node.ObjectNode;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Stateless JSON access to timesheet weeks, for integrations and mobile clients that
+ * shouldn't go through the Wicket timesheet page.
+ * <p/>
+ * GET  /week?date=yyyy-MM-dd[&userId=]         week containing the date<br/>
+ * GET  /weeks?date=..&date=..[&userId=..]       every requested week for every requested user<br/>
+ * POST /week                                    submit one week<br/>
+ * POST /weeks                                   submit an array of weeks<br/>
+ * GET  /missing?from=yyyy-MM-dd&to=yyyy-MM-dd   users with incomplete days in the period<br/>
+ * POST /missing/reminders?from=..&to=..         mail those users a reminder
+ * <p/>
+ * A submitted week is an object with <code>date</code> (any day in the week), optional
+ * <code>userId</code> and <code>comment</code>, and <code>entries</code> of
+ * <code>{assignmentId, date, hours, comment}</code>. For every assignment mentioned the
+ * submitted entries replace the stored ones of that week. A batch is validated in full
+ * before any week is persisted.
+ * <p/>
+ * The caller is taken from the Spring security context, either an existing web session
+ * or HTTP basic authentication. Only administrators can access other users' weeks,
+ * the missing timesheets are available to administrators and reporters.
+ * <p/>
+ * Every POST must be sent as <code>application/json</code>. A browser can't send that
+ * content type cross-site without a preflight, so a page on another site can't post
+ * with the session cookie of a logged in user.
+ */
+public class TimesheetApiServlet extends HttpServlet
+{
+    private static final long serialVersionUID = -6232941436582766010L;
+
+    static final int MAX_BATCH_SIZE = 60;
+
+    private static final String WEEK_PATH = "/week";
+    private static final String WEEKS_PATH = "/weeks";
+    private static final String MISSING_PATH = "/missing";
+    private static final String REMINDERS_PATH = "/missing/reminders";
+    private static final String CONTENT_TYPE = "application/json";
+
+    private static final Logger LOGGER = Logger.getLogger(TimesheetApiServlet.class);
+
+    private transient TimesheetService timesheetService;
+    private transient TimesheetCompletenessService completenessService;
+    private transient EhourConfig config;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final TimesheetWeekJson weekJson = new TimesheetWeekJson(mapper);
+
+    @Override
+    public void init() throws ServletException
+    {
+        WebApplicationContext context = WebApplicationContextUtils.getRequiredWebApplicationContext(getServletContext());
+
+        timesheetService = context.getBean(TimesheetService.class);
+        completenessService = context.getBean(TimesheetCompletenessService.class);
+        config = context.getBean(EhourConfig.class);
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException
+    {
+        try
+        {
+            Authentication authentication = getAuthentication();
+            String path = request.getPathInfo();
+
+            if (WEEK_PATH.equals(path))
+            {
+                User user = getUser(authentication, request.getParameter("userId"));
+                writeJson(response, weekJson.toJson(getWeekOverview(user, weekJson.parseDate(request.getParameter("date")))));
+            } else if (WEEKS_PATH.equals(path))
+            {
+                writeJson(response, readWeeks(authentication, request.getParameterValues("userId"), request.getParameterValues("date")));
+            } else if (MISSING_PATH.equals(path))
+            {
+                DateRange period = getCompletenessPeriod(authentication, request);
+                writeJson(response, weekJson.toJson(completenessService.getCompleteness(period)));
+            } else
+            {
+                throw new TimesheetApiException(HttpServletResponse.SC_NOT_FOUND, "Unknown resource " + path);
+            }
+        } catch (TimesheetApiException e)
+        {
+            writeError(response, e);
+        }
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException
+    {
+        try
+        {
+            Authentication authentication = getAuthentication();
+            checkJsonContentType(request);
+            String path = request.getPathInfo();
+
+            if (WEEK_PATH.equals(path))
+            {
+                JsonNode week = readBody(request);
+
+                if (!week.isObject())
+                {
+                    throw new TimesheetApiException(HttpServletResponse.SC_BAD_REQUEST, "Expected a week object");
+                }
+
+                writeJson(response, submitWeeks(authentication, week).get(0));
+            } else if (WEEKS_PATH.equals(path))
+            {
+                JsonNode weeks = readBody(request);
+
+                if (!weeks.isArray())
+                {
+                    throw new TimesheetApiException(HttpServletResponse.SC_BAD_REQUEST, "Expected an array of weeks");
+                }
+
+                writeJson(response, submitWeeks(authentication, weeks));
+            } else if (REMINDERS_PATH.equals(path))
+            {
+                DateRange period = getCompletenessPeriod(authentication, request);
+
+                ObjectNode result = mapper.createObjectNode();
+                result.put("reminded", completenessService.remindIncompleteUsers(period));
+                writeJson(response, result);
+            } else
+            {
+                throw new TimesheetApiException(HttpServletResponse.SC_NOT_FOUND, "Unknown resource " + path);
+            }
+        } catch (TimesheetApiException e)
+        {
+            writeError(response, e);
+        }
+    }
+
+    private ArrayNode readWeeks(Authentication authentication, String[] userIds, String[] dates) throws TimesheetApiException
+    {
+        if (dates == null)
+        {
+            throw new TimesheetApiException(HttpServletResponse.SC_BAD_REQUEST, "At least one date required");
+        }
+
+        String[] requestedUserIds = (userIds == null) ? new String[]{null} : userIds;
+        checkBatchSize(requestedUserIds.length * dates.length);
+
+        ArrayNode weeks = mapper.createArrayNode();
+
+        for (String userId : requestedUserIds)
+        {
+            User user = getUser(authentication, userId);
+
+            for (String date : dates)
+            {
+                weeks.add(weekJson.toJson(getWeekOverview(user, weekJson.parseDate(date))));
+            }
+        }
+
+        return weeks;
+    }
+
+    /**
+     * Converts every week before persisting any so a malformed batch doesn't get half stored.
+     * Each week is persisted in its own transaction.
+     */
+    private ArrayNode submitWeeks(Authentication authentication, JsonNode weeks) throws TimesheetApiException
+    {
+        List<JsonNode> weekNodes = new ArrayList<JsonNode>();
+
+        if (weeks.isArray())
+        {
+            for (JsonNode week : weeks)
+            {
+                weekNodes.add(week);
+            }
+        } else
+        {
+            weekNodes.add(weeks);
+        }
+
+        checkBatchSize(weekNodes.size());
+
+        List<WeekOverview> overviews = new ArrayList<WeekOverview>();
+        List<List<TimesheetEntry>> entries = new ArrayList<List<TimesheetEntry>>();
+        List<TimesheetComment> comments = new ArrayList<TimesheetComment>();
+
+        for (JsonNode week : weekNodes)
+        {
+            JsonNode userIdNode = week.path("userId");
+            String userId = userIdNode.isInt() ? String.valueOf(userIdNode.getIntValue()) : userIdNode.getTextValue();
+            WeekOverview overview = getWeekOverview(getUser(authentication, userId), weekJson.parseDate(week.path("date")));
+
+            overviews.add(overview);
+            entries.add(weekJson.toEntries(week, overview));
+            comments.add(weekJson.toComment(week, overview));
+        }
+
+        ArrayNode results = mapper.createArrayNode();
+
+        for (int i = 0; i < overviews.size(); i++)
+        {
+            WeekOverview overview = overviews.get(i);
+
+            List<ProjectAssignmentStatus> errorStatusses = timesheetService.persistTimesheetWeek(entries.get(i), comments.get(i), overview.getWeekRange());
+            results.add(weekJson.toJson(overview, errorStatusses));
+        }
+
+        return results;
+    }
+
+    private DateRange getCompletenessPeriod(Authentication authentication, HttpServletRequest request) throws TimesheetApiException
+    {
+        if (!hasRole(authentication, UserRole.ROLE_ADMIN) && !hasRole(authentication, UserRole.ROLE_REPORT))
+        {
+            throw new TimesheetApiException(HttpServletResponse.SC_FORBIDDEN, "Not allowed to access missing timesheets");
+        }
+
+        Calendar end = DateUtil.getCalendar(config);
+        end.setTime(weekJson.parseDate(request.getParameter("to")));
+        DateUtil.maximizeTime(end);
+
+        DateRange period = new DateRange(weekJson.parseDate(request.getParameter("from")), end.getTime());
+
+        if (period.getDateStart().after(period.getDateEnd()))
+        {
+            throw new TimesheetApiException(HttpServletResponse.SC_BAD_REQUEST, "from should not be after to");
+        }
+
+        return period;
+    }
+
+    private WeekOverview getWeekOverview(User user, Date date)
+    {
+        Calendar requestedWeek = DateUtil.getCalendar(config);
+        requestedWeek.setTime(date);
+
+        return timesheetService.getWeekOverview(user, requestedWeek, config);
+    }
+
+    private Authentication getAuthentication() throws TimesheetApiException
+    {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null || !authentication.isAuthenticated() || !(authentication.getPrincipal() instanceof AuthUser))
+        {
+            throw new TimesheetApiException(HttpServletResponse.SC_UNAUTHORIZED, "Authentication required");
+        }
+
+        return authentication;
+    }
+
+    /**
+     * Users can only access their own timesheet, administrators anyone's
+     */
+    private User getUser(Authentication authentication, String userId) throws TimesheetApiException
+    {
+        User authenticatedUser = ((AuthUser) authentication.getPrincipal()).getUser();
+
+        if (userId == null || userId.equals(String.valueOf(authenticatedUser.getUserId())))
+        {
+            return authenticatedUser;
+        }
+
+        if (!hasRole(authentication, UserRole.ROLE_ADMIN))
+        {
+            throw new TimesheetApiException(HttpServletResponse.SC_FORBIDDEN, "Not allowed to access the timesheet of user " + userId);
+        }
+
+        try
+        {
+            return new User(Integer.valueOf(userId));
+        } catch (NumberFormatException e)
+        {
+            throw new TimesheetApiException(HttpServletResponse.SC_BAD_REQUEST, "Invalid userId " + userId);
+        }
+    }
+
+    private boolean hasRole(Authentication authentication, String role)
+    {
+        for (GrantedAuthority authority : authentication.getAuthorities())
+        {
+            if (role.equals(authority.getAuthority()))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void checkBatchSize(int size) throws TimesheetApiException
+    {
+        if (size > MAX_BATCH_SIZE)
+        {
+            throw new TimesheetApiException(HttpServletResponse.SC_BAD_REQUEST, "At most " + MAX_BATCH_SIZE + " weeks per request");
+        }
+    }
+
+    private void checkJsonContentType(HttpServletRequest request) throws TimesheetApiException
+    {
+        String contentType = request.getContentType();
+
+        if (contentType != null)
+        {
+            int parameters = contentType.indexOf(';');
+            contentType = (parameters >= 0 ? contentType.substring(0, parameters) : contentType).trim();
+        }
+
+        if (!CONTENT_TYPE.equalsIgnoreCase(contentType))
+        {
+            throw new TimesheetApiException(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE, "Content-Type should be " + CONTENT_TYPE);
+        }
+    }
+
+    private JsonNode readBody(HttpServletRequest request) throws IOException, TimesheetApiException
+    {
+        try
+        {
+            JsonNode body = mapper.readTree(request.getInputStream());
+
+            if (body == null)
+            {
+                throw new TimesheetApiException(HttpServletResponse.SC_BAD_REQUEST, "Empty request body");
+            }
+
+            return body;
+        } catch (JsonProcessingException e)
+        {
+            throw new TimesheetApiException(HttpServletResponse.SC_BAD_REQUEST, "Malformed JSON: " + e.getMessage());
+        }
+    }
+
+    private void writeJson(HttpServletResponse response, JsonNode json) throws IOException
+    {
+        response.setContentType(CONTENT_TYPE);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        mapper.writeValue(response.getWriter(), json);
+    }
+
+    private void writeError(HttpServletResponse response, TimesheetApiException e) throws IOException
+    {
+        LOGGER.debug("Timesheet API request rejected: " + e.getMessage());
+
+        if (e.getStatus() == HttpServletResponse.SC_UNAUTHORIZED)
+        {
+            response.setHeader("WWW-Authenticate", "Basic realm=\"eHour\"");
+        }
+
+        response.setStatus(e.getStatus());
+
+        ObjectNode error = mapper.createObjectNode();
+        error.put("error", e.getMessage());
+        writeJson(response, error);
+    }
+
+    void setTimesheetService(TimesheetService timesheetService)
+    {
+        this.timesheetService = timesheetService;
+    }
+
+    void setCompletenessService(TimesheetCompletenessService completenessService)
+    {
+        this.completenessService = completenessService;
+    }
+
+    void setConfig(EhourConfig config)
+    {
+        this.config = config;
+    }
+}
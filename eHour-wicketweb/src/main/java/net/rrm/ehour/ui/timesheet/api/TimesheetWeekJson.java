@@ -0,0 +1,278 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.ui.timesheet.api;
+
+import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.domain.*;
+import net.rrm.ehour.project.status.ProjectAssignmentStatus;
+import net.rrm.ehour.timesheet.dto.CompletenessReport;
+import net.rrm.ehour.timesheet.dto.UserCompleteness;
+import net.rrm.ehour.timesheet.dto.WeekOverview;
+import net.rrm.ehour.util.DateUtil;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.node.ArrayNode;
+import org.codehaus.jackson.node.ObjectNode;
+
+import javax.servlet.http.HttpServletResponse;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+/**
+ * Converts timesheet weeks to and from the JSON exchanged by the timesheet API.
+ * Dates are written as yyyy-MM-dd in the server's timezone.
+ */
+public class TimesheetWeekJson
+{
+    private static final String DATE_PATTERN = "yyyy-MM-dd";
+
+    private final ObjectMapper mapper;
+
+    public TimesheetWeekJson(ObjectMapper mapper)
+    {
+        this.mapper = mapper;
+    }
+
+    /**
+     * Week as read by the client: its bookable assignments, booked entries and comment
+     */
+    public ObjectNode toJson(WeekOverview overview)
+    {
+        ObjectNode week = mapper.createObjectNode();
+
+        week.put("userId", overview.getUser().getUserId());
+        week.put("weekStart", formatDate(overview.getWeekRange().getDateStart()));
+        week.put("weekEnd", formatDate(overview.getWeekRange().getDateEnd()));
+
+        TimesheetComment comment = overview.getComment();
+        week.put("comment", comment != null ? comment.getComment() : null);
+
+        ArrayNode assignments = week.putArray("assignments");
+
+        for (ProjectAssignment assignment : overview.getProjectAssignments())
+        {
+            ObjectNode node = assignments.addObject();
+            Project project = assignment.getProject();
+
+            node.put("assignmentId", assignment.getAssignmentId());
+            node.put("projectId", project.getProjectId());
+            node.put("projectCode", project.getProjectCode());
+            node.put("projectName", project.getName());
+            node.put("customerCode", project.getCustomer().getCode());
+            node.put("customerName", project.getCustomer().getName());
+        }
+
+        ArrayNode entries = week.putArray("entries");
+
+        for (TimesheetEntry entry : overview.getTimesheetEntries())
+        {
+            ObjectNode node = entries.addObject();
+
+            node.put("assignmentId", entry.getEntryId().getProjectAssignment().getAssignmentId());
+            node.put("date", formatDate(entry.getEntryId().getEntryDate()));
+
+            if (entry.getHours() == null)
+            {
+                node.putNull("hours");
+            } else
+            {
+                node.put("hours", entry.getHours().floatValue());
+            }
+
+            node.put("comment", entry.getComment());
+        }
+
+        return week;
+    }
+
+    /**
+     * Outcome of a submitted week, lists the assignments that went over budget and were not (fully) saved
+     */
+    public ObjectNode toJson(WeekOverview overview, List<ProjectAssignmentStatus> errorStatusses)
+    {
+        ObjectNode result = mapper.createObjectNode();
+
+        result.put("userId", overview.getUser().getUserId());
+        result.put("weekStart", formatDate(overview.getWeekRange().getDateStart()));
+
+        ArrayNode overBudget = result.putArray("overBudget");
+
+        for (ProjectAssignmentStatus status : errorStatusses)
+        {
+            if (status.getAggregate() != null && status.getAggregate().getProjectAssignment() != null)
+            {
+                overBudget.add(status.getAggregate().getProjectAssignment().getAssignmentId());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Users who didn't book complete days on all work days of a period, with the days missing
+     */
+    public ObjectNode toJson(CompletenessReport report)
+    {
+        ObjectNode result = mapper.createObjectNode();
+
+        result.put("dateStart", formatDate(report.getPeriod().getDateStart()));
+        result.put("dateEnd", formatDate(report.getPeriod().getDateEnd()));
+        result.put("workDays", report.getWorkDayCount());
+        result.put("evaluatedUsers", report.getEvaluatedUserCount());
+
+        ArrayNode users = result.putArray("incompleteUsers");
+
+        for (UserCompleteness userCompleteness : report.getIncompleteUsers())
+        {
+            ObjectNode node = users.addObject();
+            User user = userCompleteness.getUser();
+
+            node.put("userId", user.getUserId());
+            node.put("firstName", user.getFirstName());
+            node.put("lastName", user.getLastName());
+
+            ArrayNode missingDays = node.putArray("missingDays");
+
+            for (Date missingDay : userCompleteness.getMissingDays())
+            {
+                missingDays.add(formatDate(missingDay));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Convert the submitted entries. Every entry should be on one of the assignments the
+     * user can book on in that week and dated within the week, at most once per day.
+     */
+    public List<TimesheetEntry> toEntries(JsonNode week, WeekOverview overview) throws TimesheetApiException
+    {
+        Map<Integer, ProjectAssignment> assignments = new HashMap<Integer, ProjectAssignment>();
+
+        for (ProjectAssignment assignment : overview.getProjectAssignments())
+        {
+            assignments.put(assignment.getAssignmentId(), assignment);
+        }
+
+        DateRange weekRange = overview.getWeekRange();
+        List<TimesheetEntry> entries = new ArrayList<TimesheetEntry>();
+        Set<TimesheetEntryId> entryIds = new HashSet<TimesheetEntryId>();
+
+        for (JsonNode node : week.path("entries"))
+        {
+            JsonNode assignmentId = node.path("assignmentId");
+            ProjectAssignment assignment = assignmentId.isInt() ? assignments.get(assignmentId.getIntValue()) : null;
+
+            if (assignment == null)
+            {
+                throw badRequest("No bookable assignment " + assignmentId + " in week of " + formatDate(weekRange.getDateStart()));
+            }
+
+            Date entryDate = parseDate(node.path("date"));
+
+            if (!DateUtil.isDateWithinRange(entryDate, weekRange))
+            {
+                throw badRequest("Entry date " + formatDate(entryDate) + " is outside the week of " + formatDate(weekRange.getDateStart()));
+            }
+
+            TimesheetEntryId entryId = new TimesheetEntryId(entryDate, assignment);
+
+            if (!entryIds.add(entryId))
+            {
+                throw badRequest("More than one entry for assignment " + assignmentId + " on " + formatDate(entryDate));
+            }
+
+            TimesheetEntry entry = new TimesheetEntry(entryId, parseHours(node.path("hours")));
+            entry.setComment(node.path("comment").getTextValue());
+            entries.add(entry);
+        }
+
+        return entries;
+    }
+
+    /**
+     * Week comment to persist, a missing comment property leaves the stored comment untouched
+     */
+    public TimesheetComment toComment(JsonNode week, WeekOverview overview)
+    {
+        TimesheetComment comment = overview.getComment();
+
+        if (comment == null)
+        {
+            comment = new TimesheetComment();
+            comment.setNewComment(Boolean.TRUE);
+            comment.setCommentId(new TimesheetCommentId(overview.getUser().getUserId(), overview.getWeekRange().getDateStart()));
+        }
+
+        if (week.has("comment"))
+        {
+            comment.setComment(week.get("comment").getTextValue());
+        }
+
+        return comment;
+    }
+
+    public Date parseDate(JsonNode node) throws TimesheetApiException
+    {
+        return parseDate(node.getTextValue());
+    }
+
+    public Date parseDate(String date) throws TimesheetApiException
+    {
+        if (date == null)
+        {
+            throw badRequest("Date required, formatted as " + DATE_PATTERN);
+        }
+
+        try
+        {
+            SimpleDateFormat format = new SimpleDateFormat(DATE_PATTERN);
+            format.setLenient(false);
+            return format.parse(date);
+        } catch (ParseException e)
+        {
+            throw badRequest("Invalid date " + date + ", expected " + DATE_PATTERN);
+        }
+    }
+
+    private Float parseHours(JsonNode hours) throws TimesheetApiException
+    {
+        if (hours.isMissingNode() || hours.isNull())
+        {
+            return null;
+        }
+
+        if (!hours.isNumber() || hours.getDoubleValue() < 0)
+        {
+            throw badRequest("Invalid hours " + hours);
+        }
+
+        return (float) hours.getDoubleValue();
+    }
+
+    private String formatDate(Date date)
+    {
+        return new SimpleDateFormat(DATE_PATTERN).format(date);
+    }
+
+    private TimesheetApiException badRequest(String message)
+    {
+        return new TimesheetApiException(HttpServletResponse.SC_BAD_REQUEST, message);
+    }
+}
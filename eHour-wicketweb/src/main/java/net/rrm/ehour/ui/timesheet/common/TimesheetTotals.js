@@ -0,0 +1,222 @@
+// initialize namespace
+if (!window.ehour)
+{
+    window.ehour = {};
+}
+
+if (!ehour.timesheet)
+{
+    ehour.timesheet = {};
+}
+
+// when active the per cell ajax updates are skipped
+ehour.timesheet.active = false;
+
+ehour.timesheet.formId = "";
+ehour.timesheet.completeDayHours = 8;
+ehour.timesheet.decimalSeparator = ".";
+
+ehour.timesheet.INVALID_COLOR = "#ff0000";
+ehour.timesheet.VALID_COLOR = "#536e87";
+
+ehour.timesheet.init = function(formId, completeDayHours, decimalSeparator)
+{
+    var form = document.getElementById(formId);
+
+    if (!form)
+    {
+        return;
+    }
+
+    ehour.timesheet.formId = formId;
+    ehour.timesheet.completeDayHours = completeDayHours;
+    ehour.timesheet.decimalSeparator = decimalSeparator;
+
+    var inputs = ehour.timesheet.getDayInputs(form);
+
+    for (var i = 0; i < inputs.length; i++)
+    {
+        // don't touch onblur, the ajax fallback lives there
+        inputs[i].onkeyup = ehour.timesheet.onInput;
+        inputs[i].onchange = ehour.timesheet.onInput;
+    }
+
+    ehour.timesheet.active = true;
+    ehour.timesheet.recalculate();
+};
+
+ehour.timesheet.onInput = function()
+{
+    ehour.timesheet.validate(this);
+    ehour.timesheet.recalculate();
+};
+
+ehour.timesheet.getDayInputs = function(form)
+{
+    var inputs = form.getElementsByTagName("input");
+    var dayInputs = [];
+
+    for (var i = 0; i < inputs.length; i++)
+    {
+        if (ehour.timesheet.getDay(inputs[i]) > 0)
+        {
+            dayInputs.push(inputs[i]);
+        }
+    }
+
+    return dayInputs;
+};
+
+// day number (1-7, in render order) from the dayN class of an input, 0 for other inputs
+ehour.timesheet.getDay = function(input)
+{
+    var match = /(^|\s)day([1-7])(\s|$)/.exec(input.className);
+
+    return match ? parseInt(match[2], 10) : 0;
+};
+
+// parsed hours, 0 for an empty cell, NaN when not a positive number
+ehour.timesheet.parse = function(value)
+{
+    var trimmed = value.replace(/^\s+|\s+$/g, "").replace(",", ".");
+
+    if (trimmed == "")
+    {
+        return 0;
+    }
+
+    if (!/^\d*\.?\d*$/.test(trimmed) || trimmed == ".")
+    {
+        return NaN;
+    }
+
+    return parseFloat(trimmed);
+};
+
+ehour.timesheet.validate = function(input)
+{
+    var valid = !isNaN(ehour.timesheet.parse(input.value));
+
+    input.style.color = valid ? ehour.timesheet.VALID_COLOR : ehour.timesheet.INVALID_COLOR;
+
+    return valid;
+};
+
+ehour.timesheet.format = function(value)
+{
+    return value.toFixed(2).replace(".", ehour.timesheet.decimalSeparator);
+};
+
+ehour.timesheet.recalculate = function()
+{
+    var form = document.getElementById(ehour.timesheet.formId);
+
+    if (!form)
+    {
+        return;
+    }
+
+    var inputs = ehour.timesheet.getDayInputs(form);
+    var dayTotals = [0, 0, 0, 0, 0, 0, 0, 0];
+    var rowTotals = [];
+    var rows = [];
+    var grandTotal = 0;
+
+    for (var i = 0; i < inputs.length; i++)
+    {
+        var hours = ehour.timesheet.parse(inputs[i].value);
+
+        if (isNaN(hours))
+        {
+            continue;
+        }
+
+        var row = ehour.timesheet.getRow(inputs[i]);
+        var rowIndex = ehour.timesheet.indexOf(rows, row);
+
+        if (rowIndex < 0)
+        {
+            rowIndex = rows.length;
+            rows.push(row);
+            rowTotals.push(0);
+        }
+
+        rowTotals[rowIndex] += hours;
+        dayTotals[ehour.timesheet.getDay(inputs[i])] += hours;
+        grandTotal += hours;
+    }
+
+    for (var r = 0; r < rows.length; r++)
+    {
+        ehour.timesheet.setText(ehour.timesheet.findByClass(rows[r], "td", "total"), rowTotals[r]);
+    }
+
+    for (var day = 1; day <= 7; day++)
+    {
+        var dayTotal = ehour.timesheet.findByClass(form, "td", "dayTotal" + day);
+
+        ehour.timesheet.setText(dayTotal, dayTotals[day]);
+
+        if (dayTotal)
+        {
+            var complete = dayTotals[day] >= ehour.timesheet.completeDayHours;
+            dayTotal.className = dayTotal.className.replace(/(^|\s)dayComplete(\s|$)/, " ") + (complete ? " dayComplete" : "");
+        }
+    }
+
+    ehour.timesheet.setText(ehour.timesheet.findByClass(form, "td", "grandTotal"), grandTotal);
+};
+
+ehour.timesheet.getRow = function(element)
+{
+    var parent = element.parentNode;
+
+    while (parent && parent.nodeName.toLowerCase() != "tr")
+    {
+        parent = parent.parentNode;
+    }
+
+    return parent;
+};
+
+ehour.timesheet.findByClass = function(container, tagName, className)
+{
+    if (!container)
+    {
+        return null;
+    }
+
+    var elements = container.getElementsByTagName(tagName);
+    var pattern = new RegExp("(^|\\s)" + className + "(\\s|$)");
+
+    for (var i = 0; i < elements.length; i++)
+    {
+        if (pattern.test(elements[i].className))
+        {
+            return elements[i];
+        }
+    }
+
+    return null;
+};
+
+ehour.timesheet.indexOf = function(array, element)
+{
+    for (var i = 0; i < array.length; i++)
+    {
+        if (array[i] === element)
+        {
+            return i;
+        }
+    }
+
+    return -1;
+};
+
+ehour.timesheet.setText = function(element, value)
+{
+    if (element)
+    {
+        element.innerHTML = ehour.timesheet.format(value);
+    }
+};
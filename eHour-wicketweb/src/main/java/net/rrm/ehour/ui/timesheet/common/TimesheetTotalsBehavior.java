@@ -0,0 +1,73 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.ui.timesheet.common;
+
+import net.rrm.ehour.config.EhourConfig;
+import org.apache.wicket.Component;
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.behavior.AbstractBehavior;
+import org.apache.wicket.markup.html.IHeaderResponse;
+import org.apache.wicket.markup.html.form.Form;
+import org.apache.wicket.markup.html.resources.CompressedResourceReference;
+
+import java.text.DecimalFormatSymbols;
+
+/**
+ * Keeps the row, day and grand totals of the timesheet form up to date in the browser
+ * and marks invalid hours and completed days while typing. The day inputs need a
+ * <code>dayN</code> class (N being the render order), the day totals <code>dayTotalN</code>.
+ * While active, TimesheetRowList's onblur ajax update is skipped.
+ */
+public class TimesheetTotalsBehavior extends AbstractBehavior
+{
+    private static final long serialVersionUID = 3520873628432616716L;
+
+    /**
+     * Precondition for the ajax fallback, only call the server when the client can't
+     */
+    public static final String NOT_ACTIVE_PRECONDITION = "if (window.ehour && ehour.timesheet && ehour.timesheet.active) { return false; } ";
+
+    private final EhourConfig config;
+    private Component component;
+
+    public TimesheetTotalsBehavior(EhourConfig config)
+    {
+        this.config = config;
+    }
+
+    @Override
+    public void bind(final Component component)
+    {
+        if (!(component instanceof Form))
+        {
+            throw new WicketRuntimeException("Behavior must be attached to a form");
+        }
+
+        this.component = component.setOutputMarkupId(true);
+    }
+
+    @Override
+    public void renderHead(final IHeaderResponse response)
+    {
+        response.renderJavascriptReference(new CompressedResourceReference(TimesheetTotalsBehavior.class, "TimesheetTotals.js"));
+
+        char decimalSeparator = DecimalFormatSymbols.getInstance(config.getLocale()).getDecimalSeparator();
+
+        response.renderOnDomReadyJavascript("ehour.timesheet.init('" + component.getMarkupId() + "', "
+                + config.getCompleteDayHours() + ", '" + decimalSeparator + "');");
+    }
+}
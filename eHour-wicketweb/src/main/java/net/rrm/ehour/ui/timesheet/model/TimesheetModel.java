@@ -109,6 +109,9 @@ public class TimesheetModel implements IModel<Timesheet>
 		
 		weekOverview = timesheetService.getWeekOverview(user, forWeek, config);
 		
+		// users page back and forth, have the neighbouring weeks ready
+		timesheetService.prefetchAdjacentWeeks(user, forWeek, config);
+
 		timesheet = getTimesheetAssembler(config).createTimesheetForm(weekOverview);		
 		
 		if (timesheet.getComment() == null)
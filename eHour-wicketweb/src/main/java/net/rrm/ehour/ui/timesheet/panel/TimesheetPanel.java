@@ -35,6 +35,7 @@ import net.rrm.ehour.ui.common.model.MessageResourceModel;
 import net.rrm.ehour.ui.common.session.EhourWebSession;
 import net.rrm.ehour.ui.common.util.WebGeo;
 import net.rrm.ehour.ui.timesheet.common.FormHighlighter;
+import net.rrm.ehour.ui.timesheet.common.TimesheetTotalsBehavior;
 import net.rrm.ehour.ui.timesheet.common.TimesheetAjaxEventType;
 import net.rrm.ehour.ui.timesheet.dto.GrandTotal;
 import net.rrm.ehour.ui.timesheet.dto.Timesheet;
@@ -111,6 +112,7 @@ public class TimesheetPanel extends Panel implements Serializable
         // add form
         timesheetForm = new Form<TimesheetModel>("timesheetForm");
         timesheetForm.add(new GuardDirtyFormBehavior(new ResourceModel("timesheet.dirtyForm")));
+        timesheetForm.add(new TimesheetTotalsBehavior(config));
         timesheetForm.setOutputMarkupId(true);
         greyBorder.add(timesheetForm);
 
@@ -25,6 +25,7 @@ import net.rrm.ehour.ui.common.component.TooltipLabel;
 import net.rrm.ehour.ui.common.model.DateModel;
 import net.rrm.ehour.ui.common.session.EhourWebSession;
 import net.rrm.ehour.ui.timesheet.common.FormHighlighter;
+import net.rrm.ehour.ui.timesheet.common.TimesheetTotalsBehavior;
 import net.rrm.ehour.ui.timesheet.dto.GrandTotal;
 import net.rrm.ehour.ui.timesheet.dto.ProjectTotalModel;
 import net.rrm.ehour.ui.timesheet.dto.TimesheetRow;
@@ -119,7 +120,7 @@ public class TimesheetRowList extends ListView<TimesheetRow>
 			
 			if (DateUtil.isDateWithinRange(dateIterator, range))
 			{
-				createTimesheetEntryItems(id, row, dateIterator.get(Calendar.DAY_OF_WEEK) - 1, item);
+				createTimesheetEntryItems(id, row, dateIterator.get(Calendar.DAY_OF_WEEK) - 1, i, item);
 			}
 			else
 			{
@@ -189,25 +190,27 @@ public class TimesheetRowList extends ListView<TimesheetRow>
 	 * @param index
 	 * @return
 	 */
-	private void createTimesheetEntryItems(String id, TimesheetRow row, final int index, ListItem<TimesheetRow> item)
+	private void createTimesheetEntryItems(String id, TimesheetRow row, final int index, int renderOrder, ListItem<TimesheetRow> item)
 	{
 		Fragment fragment = new Fragment(id, "dayInput", this);
 		
 		item.add(fragment);
 		
-		fragment.add(createValidatedTextField(row, index));
+		fragment.add(createValidatedTextField(row, index, renderOrder));
 		
 		createTimesheetEntryComment(row, index, fragment);
 	}
 	
 	/**
-	 * Create a validating text field for row[index]
+	 * Create a validating text field for row[index]. Totals are kept up to date client side
+	 * by TimesheetTotalsBehavior, the onblur ajax update is only a fallback for when that's not running.
 	 * @param id
 	 * @param row
 	 * @param index
+	 * @param renderOrder
 	 * @return
 	 */
-	private TimesheetTextField createValidatedTextField(TimesheetRow row, final int index)
+	private TimesheetTextField createValidatedTextField(TimesheetRow row, final int index, int renderOrder)
 	{
 		final TimesheetTextField	dayInput;
 		PropertyModel<Float>		cellModel;
@@ -220,6 +223,7 @@ public class TimesheetRowList extends ListView<TimesheetRow>
 		// list it on the page
 		dayInput = new TimesheetTextField("day", cellModel, 1);
 		dayInput.add(new MinimumValidator<Float>(0f));
+		dayInput.add(new SimpleAttributeModifier("class", "day" + renderOrder));
 		dayInput.setOutputMarkupId(true);
 		
 		// make sure values are checked
@@ -253,6 +257,12 @@ public class TimesheetRowList extends ListView<TimesheetRow>
                 LOGGER.debug(target.getLastFocusedElementId() + " onblur error!", e);
 				form.visitFormComponents(new FormHighlighter(target));
 			}
+
+			@Override
+			protected CharSequence getPreconditionScript()
+			{
+				return TimesheetTotalsBehavior.NOT_ACTIVE_PRECONDITION + super.getPreconditionScript();
+			}
 		};
 
 		dayInput.add(behavior);
@@ -6,11 +6,15 @@ import net.rrm.ehour.report.reports.ReportData
 import org.apache.wicket.model.IModel
 import net.rrm.ehour.ui.common.session.EhourWebSession
 import net.rrm.ehour.config.EhourConfig
+import org.apache.wicket.markup.html.resources.CompressedResourceReference
 
 class HighChartContainer(id: String, reportModel: IModel[ReportData], generateChart: (String, ReportData, EhourConfig) => String) extends Panel(id, reportModel) with IHeaderContributor {
   setOutputMarkupId(true)
   
   def renderHead(response: IHeaderResponse) {
+    response.renderJavascriptReference(HighChartContainer.HighChartsJs)
+    response.renderJavascriptReference(HighChartContainer.HighChartsExportingJs)
+
     val config = EhourWebSession.getSession.getEhourConfig
 
     val chart = generateChart(getMarkupId, getDefaultModelObject.asInstanceOf[ReportData], config)
@@ -18,4 +22,10 @@ class HighChartContainer(id: String, reportModel: IModel[ReportData], generateCh
     
     response.renderOnLoadJavascript(javascript)
   }
-}
\ No newline at end of file
+}
+
+object HighChartContainer {
+  // served as package resources so their urls carry a timestamp and can be cached for long
+  val HighChartsJs = new CompressedResourceReference(classOf[HighChartContainer], "js/highcharts.js")
+  val HighChartsExportingJs = new CompressedResourceReference(classOf[HighChartContainer], "js/highcharts-exporting.js")
+}
@@ -15,6 +15,7 @@ import java.util.Arrays
 import java.util.{List => JList}
 import net.rrm.ehour.ui.admin.department.page.DepartmentAdmin
 import net.rrm.ehour.ui.admin.assignment.page.AssignmentAdmin
+import net.rrm.ehour.ui.admin.statistics.page.QueryStatisticsPage
 
 object MenuDefinition {
 
@@ -40,7 +41,8 @@ object MenuDefinition {
     val mainConfig = new LinkItem("nav.admin.config", classOf[MainConfigPage])
     val auditReport = new LinkItem("nav.admin.audit", classOf[AuditReportPage])
     val export = new LinkItem("nav.admin.export", classOf[ExportPage])
-    val configDropdown = new DropdownMenu("nav.admin", Arrays.asList(mainConfig, auditReport, export))
+    val statistics = new LinkItem("nav.admin.statistics", classOf[QueryStatisticsPage])
+    val configDropdown = new DropdownMenu("nav.admin", Arrays.asList(mainConfig, auditReport, export, statistics))
 
     Arrays.asList(hoursDropdown, report, pm, adminDropdown, configDropdown)
   }
@@ -22,9 +22,16 @@ import static org.easymock.EasyMock.isA;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.rrm.ehour.data.DateRange;
 import net.rrm.ehour.report.criteria.ReportCriteria;
 import net.rrm.ehour.report.criteria.UserCriteria;
 import net.rrm.ehour.report.reports.AggregateReportDataObjectMother;
+import net.rrm.ehour.report.reports.RollupReportData;
+import net.rrm.ehour.report.reports.element.AggregateRollupRow;
 import net.rrm.ehour.report.service.AggregateReportService;
 import net.rrm.ehour.ui.common.AbstractSpringInjectorTester;
 
@@ -55,7 +62,7 @@ public class CustomerAggregateReportTest extends AbstractSpringInjectorTester
 	@Test
     public void testCreateReport() throws Exception
     {
-		expect(aggregateReportService.getAggregateReportData(isA(ReportCriteria.class)))
+		expect(aggregateReportService.getAggregateRollupReportData(isA(ReportCriteria.class)))
 			.andReturn(AggregateReportDataObjectMother.getAssignmentReportData());
 		replay(aggregateReportService);
         UserCriteria userCriteria = new UserCriteria();
@@ -68,4 +75,26 @@ public class CustomerAggregateReportTest extends AbstractSpringInjectorTester
         
         verify(aggregateReportService);
     }
+
+	@Test
+	public void shouldUseDatabaseSubtotals() throws Exception
+	{
+		List<AggregateRollupRow> subtotals = new ArrayList<AggregateRollupRow>();
+		subtotals.add(new AggregateRollupRow(1, null, 100, 1000));
+		subtotals.add(new AggregateRollupRow(null, null, 112, 1120));
+
+		RollupReportData reportData = new RollupReportData(AggregateReportDataObjectMother.getAssignmentAggregateReportElements(), new DateRange(), subtotals);
+
+		expect(aggregateReportService.getAggregateRollupReportData(isA(ReportCriteria.class)))
+			.andReturn(reportData);
+		replay(aggregateReportService);
+
+		CustomerAggregateReportModel aggReport = new CustomerAggregateReportModel(new ReportCriteria(new UserCriteria()));
+
+		assertEquals(6, aggReport.getReportData().getReportElements().size());
+		// customer 1 from the database, customer 2 (3 + 4) and 3 (5) summed
+		assertEquals(112f, aggReport.getTotalHours(), 0.01f);
+
+		verify(aggregateReportService);
+	}
 }
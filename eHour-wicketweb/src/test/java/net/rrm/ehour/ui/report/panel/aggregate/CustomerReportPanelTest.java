@@ -16,6 +16,10 @@
 
 package net.rrm.ehour.ui.report.panel.aggregate;
 
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.isA;
+import net.rrm.ehour.report.criteria.ReportCriteria;
+import net.rrm.ehour.report.reports.AggregateReportDataObjectMother;
 import net.rrm.ehour.ui.report.TreeReportModel;
 import net.rrm.ehour.ui.report.aggregate.CustomerAggregateReportModel;
 import net.rrm.ehour.ui.report.panel.DetailedReportDataObjectMother;
@@ -30,6 +34,14 @@ import org.apache.wicket.markup.html.panel.Panel;
  */
 public class CustomerReportPanelTest extends AbstractReportPanelTest
 {
+	@Override
+	protected void setupExpectations()
+	{
+		expect(getAggregateReportService().getAggregateRollupReportData(isA(ReportCriteria.class)))
+			.andReturn(AggregateReportDataObjectMother.getAssignmentReportData())
+			.anyTimes();
+	}
+
 	@Override
 	protected Panel createReportPanel(String panelId, TreeReportModel reportModel)
 	{
@@ -55,7 +55,10 @@ public class ReportExcelTest extends AbstractSpringWebAppTester
 		getMockContext().putBean("aggregateReportService", aggregateReportService);
 		
 		criteria = DetailedReportDataObjectMother.getReportCriteria();
-		
+	}
+
+	private void expectAggregateReportData()
+	{
 		expect(aggregateReportService.getAggregateReportData(isA(ReportCriteria.class)))
 			.andReturn(AggregateReportDataObjectMother.getAssignmentReportData());
 		
@@ -71,6 +74,10 @@ public class ReportExcelTest extends AbstractSpringWebAppTester
 	@Test
 	public void testCustomerReportExcel() throws Exception
 	{
+		expect(aggregateReportService.getAggregateRollupReportData(isA(ReportCriteria.class)))
+			.andReturn(AggregateReportDataObjectMother.getAssignmentReportData());
+		replay(aggregateReportService);
+
 		TreeReportModel reportModel = new CustomerAggregateReportModel(criteria);
 		new CustomerReportExcel().getExcelData(reportModel);
 	}
@@ -78,6 +85,8 @@ public class ReportExcelTest extends AbstractSpringWebAppTester
 	@Test
 	public void testEmployeeReportExcel() throws Exception
 	{
+		expectAggregateReportData();
+
 		TreeReportModel reportModel = new UserAggregateReportModel(criteria);
 		new EmployeeReportExcel().getExcelData(reportModel);
 	}
@@ -85,6 +94,8 @@ public class ReportExcelTest extends AbstractSpringWebAppTester
 	@Test
 	public void testProjectReportExcel() throws Exception
 	{
+		expectAggregateReportData();
+
 		TreeReportModel reportModel = new ProjectAggregateReportModel(criteria);
 		new ProjectReportExcel().getExcelData(reportModel);
 	}	
@@ -0,0 +1,356 @@
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package net.rrm.ehour.ui.timesheet.api;
+
+import net.rrm.ehour.config.EhourConfigStub;
+import net.rrm.ehour.data.DateRange;
+import net.rrm.ehour.domain.*;
+import net.rrm.ehour.project.status.ProjectAssignmentStatus;
+import net.rrm.ehour.timesheet.dto.CompletenessReport;
+import net.rrm.ehour.timesheet.dto.UserCompleteness;
+import net.rrm.ehour.timesheet.dto.WeekOverview;
+import net.rrm.ehour.timesheet.service.TimesheetCompletenessService;
+import net.rrm.ehour.timesheet.service.TimesheetService;
+import net.rrm.ehour.ui.common.authorization.AuthUser;
+import net.rrm.ehour.util.DateUtil;
+import org.easymock.Capture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.*;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+public class TimesheetApiServletTest
+{
+    private TimesheetApiServlet servlet;
+    private TimesheetService timesheetService;
+    private TimesheetCompletenessService completenessService;
+    private EhourConfigStub config;
+    private User user;
+    private ProjectAssignment assignment;
+
+    @Before
+    public void setUp()
+    {
+        timesheetService = createMock(TimesheetService.class);
+        completenessService = createMock(TimesheetCompletenessService.class);
+        config = new EhourConfigStub();
+
+        servlet = new TimesheetApiServlet();
+        servlet.setTimesheetService(timesheetService);
+        servlet.setCompletenessService(completenessService);
+        servlet.setConfig(config);
+
+        user = UserMother.createUser();
+        user.setUserRoles(new HashSet<UserRole>(Arrays.asList(UserRole.CONSULTANT)));
+
+        assignment = ProjectAssignmentMother.createProjectAssignment(1);
+        assignment.setUser(user);
+    }
+
+    @After
+    public void tearDown()
+    {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void shouldReadWeekOfAuthenticatedUser() throws Exception
+    {
+        authenticate(user);
+
+        WeekOverview overview = createOverview(user, "2012-01-11");
+        overview.setTimesheetEntries(Arrays.asList(new TimesheetEntry(new TimesheetEntryId(date("2012-01-10"), assignment), 8f)));
+        expect(timesheetService.getWeekOverview(eq(user), isA(Calendar.class), eq(config))).andReturn(overview);
+        replay(timesheetService);
+
+        MockHttpServletResponse response = get("/week", "date", "2012-01-11");
+
+        verify(timesheetService);
+        assertEquals(200, response.getStatus());
+        assertEquals("application/json", response.getContentType());
+
+        String json = response.getContentAsString();
+        assertTrue(json.contains("\"assignmentId\":100"));
+        assertTrue(json.contains("\"date\":\"2012-01-10\""));
+        assertTrue(json.contains("\"hours\":8.0"));
+    }
+
+    @Test
+    public void shouldRequireAuthentication() throws Exception
+    {
+        replay(timesheetService);
+
+        MockHttpServletResponse response = get("/week", "date", "2012-01-11");
+
+        verify(timesheetService);
+        assertEquals(401, response.getStatus());
+        assertNotNull(response.getHeader("WWW-Authenticate"));
+    }
+
+    @Test
+    public void shouldNotReadOtherUsersWeekWithoutAdminRole() throws Exception
+    {
+        authenticate(user);
+        replay(timesheetService);
+
+        MockHttpServletResponse response = get("/week", "date", "2012-01-11", "userId", "2");
+
+        verify(timesheetService);
+        assertEquals(403, response.getStatus());
+    }
+
+    @Test
+    public void shouldReadWeeksForEveryUserAndDateForAdmin() throws Exception
+    {
+        user.setUserRoles(new HashSet<UserRole>(Arrays.asList(UserRole.ADMIN)));
+        authenticate(user);
+
+        expect(timesheetService.getWeekOverview(isA(User.class), isA(Calendar.class), eq(config)))
+                .andReturn(createOverview(user, "2012-01-11"))
+                .times(4);
+        replay(timesheetService);
+
+        MockHttpServletRequest request = createRequest("GET", "/weeks");
+        request.addParameter("userId", new String[]{"1", "2"});
+        request.addParameter("date", new String[]{"2012-01-11", "2012-01-18"});
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        servlet.doGet(request, response);
+
+        verify(timesheetService);
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    public void shouldSubmitWeek() throws Exception
+    {
+        authenticate(user);
+
+        WeekOverview overview = createOverview(user, "2012-01-11");
+        expect(timesheetService.getWeekOverview(eq(user), isA(Calendar.class), eq(config))).andReturn(overview);
+
+        Capture<Collection<TimesheetEntry>> entries = new Capture<Collection<TimesheetEntry>>();
+        Capture<TimesheetComment> comment = new Capture<TimesheetComment>();
+        expect(timesheetService.persistTimesheetWeek(capture(entries), capture(comment), eq(overview.getWeekRange())))
+                .andReturn(new ArrayList<ProjectAssignmentStatus>());
+        replay(timesheetService);
+
+        MockHttpServletResponse response = post("/week", "{\"date\":\"2012-01-11\",\"comment\":\"done\"," +
+                "\"entries\":[{\"assignmentId\":100,\"date\":\"2012-01-10\",\"hours\":7.5,\"comment\":\"x\"}," +
+                "{\"assignmentId\":100,\"date\":\"2012-01-11\",\"hours\":null}]}");
+
+        verify(timesheetService);
+        assertEquals(200, response.getStatus());
+        assertTrue(response.getContentAsString().contains("\"overBudget\":[]"));
+
+        List<TimesheetEntry> persisted = new ArrayList<TimesheetEntry>(entries.getValue());
+        assertEquals(2, persisted.size());
+        assertEquals(assignment, persisted.get(0).getEntryId().getProjectAssignment());
+        assertEquals(7.5f, persisted.get(0).getHours(), 0.001f);
+        assertEquals("x", persisted.get(0).getComment());
+        assertNull(persisted.get(1).getHours());
+
+        assertEquals("done", comment.getValue().getComment());
+        assertEquals(user.getUserId(), comment.getValue().getCommentId().getUserId());
+    }
+
+    @Test
+    public void shouldRejectWholeBatchWhenOneWeekIsInvalid() throws Exception
+    {
+        authenticate(user);
+
+        expect(timesheetService.getWeekOverview(eq(user), isA(Calendar.class), eq(config)))
+                .andReturn(createOverview(user, "2012-01-11"))
+                .andReturn(createOverview(user, "2012-01-18"));
+        replay(timesheetService);
+
+        MockHttpServletResponse response = post("/weeks", "[" +
+                "{\"date\":\"2012-01-11\",\"entries\":[{\"assignmentId\":100,\"date\":\"2012-01-10\",\"hours\":8}]}," +
+                "{\"date\":\"2012-01-18\",\"entries\":[{\"assignmentId\":999,\"date\":\"2012-01-17\",\"hours\":8}]}]");
+
+        verify(timesheetService);
+        assertEquals(400, response.getStatus());
+    }
+
+    @Test
+    public void shouldRejectEntriesOutsideTheWeek() throws Exception
+    {
+        authenticate(user);
+
+        expect(timesheetService.getWeekOverview(eq(user), isA(Calendar.class), eq(config))).andReturn(createOverview(user, "2012-01-11"));
+        replay(timesheetService);
+
+        MockHttpServletResponse response = post("/week", "{\"date\":\"2012-01-11\",\"entries\":[{\"assignmentId\":100,\"date\":\"2012-02-01\",\"hours\":8}]}");
+
+        verify(timesheetService);
+        assertEquals(400, response.getStatus());
+    }
+
+    @Test
+    public void shouldRejectRepeatedEntryForAssignmentAndDay() throws Exception
+    {
+        authenticate(user);
+
+        expect(timesheetService.getWeekOverview(eq(user), isA(Calendar.class), eq(config))).andReturn(createOverview(user, "2012-01-11"));
+        replay(timesheetService);
+
+        MockHttpServletResponse response = post("/week", "{\"date\":\"2012-01-11\",\"entries\":[" +
+                "{\"assignmentId\":100,\"date\":\"2012-01-10\",\"hours\":8}," +
+                "{\"assignmentId\":100,\"date\":\"2012-01-10\",\"hours\":4}]}");
+
+        verify(timesheetService);
+        assertEquals(400, response.getStatus());
+    }
+
+    @Test
+    public void shouldRejectPostWhichIsNotJson() throws Exception
+    {
+        authenticate(user);
+        replay(timesheetService);
+
+        MockHttpServletResponse response = post("/week", "{\"date\":\"2012-01-11\",\"entries\":[]}", "text/plain");
+
+        verify(timesheetService);
+        assertEquals(415, response.getStatus());
+    }
+
+    @Test
+    public void shouldRejectMalformedJson() throws Exception
+    {
+        authenticate(user);
+        replay(timesheetService);
+
+        MockHttpServletResponse response = post("/week", "{\"date\":");
+
+        verify(timesheetService);
+        assertEquals(400, response.getStatus());
+    }
+
+    private WeekOverview createOverview(User forUser, String date) throws Exception
+    {
+        Calendar calendar = DateUtil.getCalendar(config);
+        calendar.setTime(date(date));
+        DateRange range = DateUtil.getDateRangeForWeek(calendar);
+
+        WeekOverview overview = new WeekOverview();
+        overview.setUser(forUser);
+        overview.setWeekRange(range);
+        overview.setProjectAssignments(Arrays.asList(assignment));
+        overview.setTimesheetEntries(new ArrayList<TimesheetEntry>());
+        return overview;
+    }
+
+    @Test
+    public void shouldListMissingTimesheetsForReporter() throws Exception
+    {
+        user.setUserRoles(new HashSet<UserRole>(Arrays.asList(UserRole.REPORT)));
+        authenticate(user);
+
+        List<Date> days = Arrays.asList(date("2012-01-09"), date("2012-01-10"));
+        BitSet workDays = new BitSet();
+        workDays.set(0, 2);
+        BitSet missing = new BitSet();
+        missing.set(1);
+
+        Capture<DateRange> period = new Capture<DateRange>();
+        CompletenessReport report = new CompletenessReport(new DateRange(days.get(0), days.get(1)), days, workDays);
+        report.addIncompleteUser(new UserCompleteness(user, missing, days));
+        report.setEvaluatedUserCount(3);
+
+        expect(completenessService.getCompleteness(capture(period))).andReturn(report);
+        replay(completenessService);
+
+        MockHttpServletResponse response = get("/missing", "from", "2012-01-09", "to", "2012-01-10");
+
+        verify(completenessService);
+        assertEquals(200, response.getStatus());
+        assertEquals(date("2012-01-09"), period.getValue().getDateStart());
+        assertTrue(period.getValue().getDateEnd().after(date("2012-01-10")));
+
+        String json = response.getContentAsString();
+        assertTrue(json.contains("\"evaluatedUsers\":3"));
+        assertTrue(json.contains("\"missingDays\":[\"2012-01-10\"]"));
+    }
+
+    @Test
+    public void shouldNotListMissingTimesheetsForConsultant() throws Exception
+    {
+        authenticate(user);
+        replay(completenessService);
+
+        MockHttpServletResponse response = post("/missing/reminders", "");
+
+        verify(completenessService);
+        assertEquals(403, response.getStatus());
+    }
+
+    private void authenticate(User authenticatedUser)
+    {
+        AuthUser authUser = new AuthUser(authenticatedUser);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(authUser, "pwd", authUser.getAuthorities()));
+    }
+
+    private MockHttpServletResponse get(String path, String... parameters) throws Exception
+    {
+        MockHttpServletRequest request = createRequest("GET", path);
+
+        for (int i = 0; i < parameters.length; i += 2)
+        {
+            request.addParameter(parameters[i], parameters[i + 1]);
+        }
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        servlet.doGet(request, response);
+        return response;
+    }
+
+    private MockHttpServletResponse post(String path, String body) throws Exception
+    {
+        return post(path, body, "application/json; charset=UTF-8");
+    }
+
+    private MockHttpServletResponse post(String path, String body, String contentType) throws Exception
+    {
+        MockHttpServletRequest request = createRequest("POST", path);
+        request.setContentType(contentType);
+        request.setContent(body.getBytes("UTF-8"));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        servlet.doPost(request, response);
+        return response;
+    }
+
+    private MockHttpServletRequest createRequest(String method, String path)
+    {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/timesheet" + path);
+        request.setServletPath("/api/timesheet");
+        request.setPathInfo(path);
+        return request;
+    }
+
+    private Date date(String date) throws Exception
+    {
+        return new TimesheetWeekJson(null).parseDate(date);
+    }
+}
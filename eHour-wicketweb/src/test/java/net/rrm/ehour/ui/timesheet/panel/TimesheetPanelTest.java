@@ -81,6 +81,8 @@ public class TimesheetPanelTest extends AbstractSpringWebAppTester
 		
 		expect(timesheetService.getWeekOverview(isA(User.class), isA(Calendar.class), isA(EhourConfig.class)))
 				.andReturn(overview);			
+
+		timesheetService.prefetchAdjacentWeeks(isA(User.class), isA(Calendar.class), isA(EhourConfig.class));
 	}
 	
 	@Test
@@ -144,6 +146,19 @@ public class TimesheetPanelTest extends AbstractSpringWebAppTester
 		tester.assertNoErrorMessage();
 	}
 	
+	@Test
+	public void shouldRenderClientSideTotals()
+	{
+		startAndReplay();
+
+		tester.assertContains("TimesheetTotals.js");
+		tester.assertContains("CommonJavascript.js");
+		tester.assertContains("ehour.timesheet.init\\(");
+		tester.assertContains("class=\"day1\"");
+		tester.assertContains("class=\"dayTotal1\"");
+		tester.assertContains("ehour.timesheet.active");
+	}
+
 	@Test
 	public void updateCounts()
 	{